@@ -0,0 +1,110 @@
+package com.polovyi.ivan.admission;
+
+import com.polovyi.ivan.bulk.ImportRequests;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits a request only when the bulkhead of its API style and operation class has room, and sheds it right away
+ * with 503 and Retry-After otherwise. The permit is held until the response completes, including the asynchronous
+ * part of GraphQL executions.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionController admissionController;
+
+    private final RequestClassifier requestClassifier;
+
+    private final Duration retryAfter;
+
+    // Imports are limited by their own job count, and their minutes long uploads would skew the latency limits
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return ImportRequests.isUpload(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ClassifiedRequest classifiedRequest = requestClassifier.classify(request);
+        Bulkhead bulkhead = admissionController.bulkhead(classifiedRequest.apiStyle(),
+                classifiedRequest.operationClass());
+        if (!bulkhead.tryAcquire()) {
+            log.debug("[AdmissionControlFilter] Shedding {} {} request", classifiedRequest.apiStyle(),
+                    classifiedRequest.operationClass());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        Permit permit = new Permit(bulkhead, response);
+        try {
+            filterChain.doFilter(classifiedRequest.request(), response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.release(true);
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(permit);
+        } else {
+            permit.release(false);
+        }
+    }
+
+    private static class Permit implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+
+        private final HttpServletResponse response;
+
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Bulkhead bulkhead, HttpServletResponse response) {
+            this.bulkhead = bulkhead;
+            this.response = response;
+        }
+
+        void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                boolean serverError = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+                bulkhead.release(System.nanoTime() - startNanos, failed || serverError);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
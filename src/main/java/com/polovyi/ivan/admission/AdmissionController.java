@@ -0,0 +1,54 @@
+package com.polovyi.ivan.admission;
+
+import com.polovyi.ivan.configuration.AdmissionControlProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds one adaptive bulkhead per API style and operation class and publishes their limit, in-flight and rejection
+ * counts as {@code admission.*} metrics. Only created while admission control is enabled, so a disabled one publishes
+ * no metrics.
+ */
+public class AdmissionController {
+
+    private final Map<ApiStyle, Map<OperationClass, Bulkhead>> bulkheads = new EnumMap<>(ApiStyle.class);
+
+    public AdmissionController(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        for (ApiStyle apiStyle : ApiStyle.values()) {
+            Map<OperationClass, Bulkhead> byOperationClass = new EnumMap<>(OperationClass.class);
+            for (OperationClass operationClass : OperationClass.values()) {
+                AdmissionControlProperties.Limit limit = properties.getLimits().get(operationClass);
+                Bulkhead bulkhead = new Bulkhead(new VegasLimit(limit.getInitial(), limit.getMin(), limit.getMax()));
+                registerMetrics(meterRegistry, apiStyle, operationClass, bulkhead);
+                byOperationClass.put(operationClass, bulkhead);
+            }
+            bulkheads.put(apiStyle, byOperationClass);
+        }
+    }
+
+    public Bulkhead bulkhead(ApiStyle apiStyle, OperationClass operationClass) {
+        return bulkheads.get(apiStyle).get(operationClass);
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry, ApiStyle apiStyle, OperationClass operationClass,
+            Bulkhead bulkhead) {
+        String api = apiStyle.name().toLowerCase();
+        String operation = operationClass.name().toLowerCase();
+        Gauge.builder("admission.limit", bulkhead, Bulkhead::getLimit)
+                .tag("api", api)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("admission.inflight", bulkhead, Bulkhead::getInflight)
+                .tag("api", api)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder("admission.rejected", bulkhead, Bulkhead::getRejected)
+                .tag("api", api)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,6 @@
+package com.polovyi.ivan.admission;
+
+public enum ApiStyle {
+    REST,
+    GRAPHQL
+}
@@ -0,0 +1,55 @@
+package com.polovyi.ivan.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of requests of one API style and operation class that may run at the same time, so a burst of
+ * one kind of traffic cannot take the whole thread and connection pools from the others.
+ */
+public class Bulkhead {
+
+    private final VegasLimit limit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(VegasLimit limit) {
+        this.limit = limit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.getLimit()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean failed) {
+        int current = inflight.getAndDecrement();
+        if (failed) {
+            limit.onDropped();
+        } else {
+            limit.onSample(rttNanos, current);
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
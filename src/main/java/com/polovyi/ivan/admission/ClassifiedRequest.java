@@ -0,0 +1,10 @@
+package com.polovyi.ivan.admission;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * A request together with its bulkhead coordinates. The request may be a wrapper replaying a body that was read to
+ * classify it.
+ */
+public record ClassifiedRequest(HttpServletRequest request, ApiStyle apiStyle, OperationClass operationClass) {
+}
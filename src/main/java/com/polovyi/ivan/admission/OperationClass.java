@@ -0,0 +1,10 @@
+package com.polovyi.ivan.admission;
+
+public enum OperationClass {
+    // Point lookups and filtered lists
+    READ,
+    // Creates, updates and deletes
+    WRITE,
+    // Unfiltered reads of the whole customer table
+    EXPORT
+}
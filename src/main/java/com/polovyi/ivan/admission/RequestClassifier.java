@@ -0,0 +1,130 @@
+package com.polovyi.ivan.admission;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.polovyi.ivan.graphql.GraphQLOperations;
+import com.polovyi.ivan.graphql.PersistedQueryStore;
+import com.polovyi.ivan.web.CachedBodyHttpServletRequest;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Maps a request to its API style and operation class. REST requests are classified by method and path, GraphQL
+ * requests by the operations of their (possibly batched) body. Persisted queries sent as a hash only are classified
+ * by the document stored for the hash. GraphQL requests that are not classified, unparseable bodies and unknown
+ * hashes among them, are admitted as exports, the most restricted class, so they cannot bypass the tighter limits by
+ * hiding what they run.
+ */
+@RequiredArgsConstructor
+public class RequestClassifier {
+
+    private static final String CUSTOMERS_PATH = "/v1/customers";
+
+    private static final Set<String> EXPORT_FIELDS = Set.of("allCustomers");
+
+    private final String graphQLMapping;
+
+    private final int maxClassifiedBodySize;
+
+    private final ObjectMapper objectMapper;
+
+    private final PersistedQueryStore persistedQueryStore;
+
+    public ClassifiedRequest classify(HttpServletRequest request) throws IOException {
+        if (!request.getServletPath().startsWith(graphQLMapping)) {
+            return new ClassifiedRequest(request, ApiStyle.REST, classifyRest(request));
+        }
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            OperationClass operationClass = classifyGraphQL(request.getParameter("query"),
+                    request.getParameter("operationName"), parseExtensions(request.getParameter("extensions")));
+            return new ClassifiedRequest(request, ApiStyle.GRAPHQL, operationClass);
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0 || contentLength > maxClassifiedBodySize) {
+            // Bodies too large to buffer or of unknown length are the likeliest bulk mutations and exports, so
+            // they go to the bulkhead with the lowest limit rather than in with the reads
+            return new ClassifiedRequest(request, ApiStyle.GRAPHQL, OperationClass.EXPORT);
+        }
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request,
+                StreamUtils.copyToByteArray(request.getInputStream()));
+        return new ClassifiedRequest(cachedRequest, ApiStyle.GRAPHQL, classifyGraphQLBody(cachedRequest.getBody()));
+    }
+
+    private OperationClass classifyRest(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return OperationClass.WRITE;
+        }
+        return CUSTOMERS_PATH.equals(request.getServletPath()) ? OperationClass.EXPORT : OperationClass.READ;
+    }
+
+    private OperationClass classifyGraphQLBody(byte[] body) {
+        JsonNode requests;
+        try {
+            requests = objectMapper.readTree(body);
+        } catch (IOException e) {
+            return OperationClass.EXPORT;
+        }
+        if (!requests.isArray()) {
+            return classifyGraphQL(requests);
+        }
+        if (requests.isEmpty()) {
+            return OperationClass.EXPORT;
+        }
+        OperationClass operationClass = OperationClass.READ;
+        for (JsonNode graphQLRequest : requests) {
+            operationClass = heaviest(operationClass, classifyGraphQL(graphQLRequest));
+        }
+        return operationClass;
+    }
+
+    private OperationClass classifyGraphQL(JsonNode graphQLRequest) {
+        return classifyGraphQL(graphQLRequest.path("query").asText(null),
+                graphQLRequest.path("operationName").asText(null), graphQLRequest.path("extensions"));
+    }
+
+    private OperationClass classifyGraphQL(String query, String operationName, JsonNode extensions) {
+        String sha256Hash = extensions.path("persistedQuery").path("sha256Hash").asText(null);
+        Optional<OperationDefinition> operation = Optional.ofNullable(query)
+                .or(() -> Optional.ofNullable(sha256Hash).flatMap(persistedQueryStore::find))
+                .flatMap(document -> GraphQLOperations.operationOf(document, operationName));
+        if (operation.isEmpty()) {
+            return OperationClass.EXPORT;
+        }
+        if (!GraphQLOperations.isQuery(operation.get())) {
+            return OperationClass.WRITE;
+        }
+        boolean export = operation.get().getSelectionSet().getSelectionsOfType(Field.class).stream()
+                .anyMatch(field -> EXPORT_FIELDS.contains(field.getName()));
+        return export ? OperationClass.EXPORT : OperationClass.READ;
+    }
+
+    private JsonNode parseExtensions(String extensions) {
+        if (extensions == null) {
+            return MissingNode.getInstance();
+        }
+        try {
+            return objectMapper.readTree(extensions);
+        } catch (IOException e) {
+            return MissingNode.getInstance();
+        }
+    }
+
+    private static OperationClass heaviest(OperationClass first, OperationClass second) {
+        if (first == OperationClass.WRITE || second == OperationClass.WRITE) {
+            return OperationClass.WRITE;
+        }
+        if (first == OperationClass.EXPORT || second == OperationClass.EXPORT) {
+            return OperationClass.EXPORT;
+        }
+        return OperationClass.READ;
+    }
+}
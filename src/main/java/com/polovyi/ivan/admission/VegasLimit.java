@@ -0,0 +1,65 @@
+package com.polovyi.ivan.admission;
+
+/**
+ * TCP Vegas style concurrency limit. The queue building up in front of the resource is estimated from the ratio
+ * between the lowest observed latency and the latest one: the limit grows while that queue is small and shrinks as
+ * soon as latency shows requests waiting, so the limit follows the real capacity of the shared thread and JDBC
+ * pools instead of a static guess.
+ */
+public class VegasLimit {
+
+    // The no-load latency is re-probed periodically, otherwise a permanent baseline shift would never be noticed
+    private static final int PROBE_INTERVAL = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private volatile int limit;
+
+    private long noLoadRttNanos;
+
+    private int samplesSinceProbe;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public synchronized void onSample(long rttNanos, int inflight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos || ++samplesSinceProbe >= PROBE_INTERVAL) {
+            noLoadRttNanos = rttNanos;
+            samplesSinceProbe = 0;
+        }
+        int currentLimit = limit;
+        // Latency measured while the limit was far from reached says nothing about the capacity
+        if (inflight * 2 < currentLimit) {
+            return;
+        }
+        int queueSize = (int) Math.ceil(currentLimit * (1 - (double) noLoadRttNanos / rttNanos));
+        int log10 = Math.max(1, (int) Math.log10(currentLimit));
+        int alpha = 3 * log10;
+        int beta = 6 * log10;
+        int newLimit = currentLimit;
+        if (queueSize <= log10) {
+            newLimit = currentLimit + beta;
+        } else if (queueSize < alpha) {
+            newLimit = currentLimit + log10;
+        } else if (queueSize > beta) {
+            newLimit = currentLimit - log10;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public synchronized void onDropped() {
+        limit = Math.max(minLimit, (int) (limit * 0.9));
+    }
+}
@@ -0,0 +1,145 @@
+package com.polovyi.ivan.allocation;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.context.RequestContext;
+import com.polovyi.ivan.context.RequestState;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bytes allocated for a REST request or GraphQL operation, summed over all threads that worked for it. An account is
+ * charged with what a thread allocates while it is bound to that thread, measured with the per-thread allocation
+ * counter of the JVM, and binding another account pauses the charging of the previous one, so no byte is counted
+ * twice. Tasks carried over by {@link RequestContext} keep the account open, and it is reported once the request and
+ * all of its tasks have finished.
+ */
+public final class AllocationAccount implements RequestState {
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    // The request or operation itself, plus every propagated task that has not finished yet
+    private final AtomicInteger openParts = new AtomicInteger(1);
+
+    private final Consumer<AllocationAccount> onClosed;
+
+    private volatile String name;
+
+    public AllocationAccount(String name, Consumer<AllocationAccount> onClosed) {
+        this.name = name;
+        this.onClosed = onClosed;
+    }
+
+    /**
+     * Whether the JVM measures per-thread allocations; without it every account stays at zero.
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    public static AllocationAccount current() {
+        Binding binding = CURRENT.get();
+        return binding == null ? null : binding.account;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Keeps the account open for one more part, which ends with its own {@link #close}.
+     */
+    public void open() {
+        openParts.incrementAndGet();
+    }
+
+    /**
+     * Ends the part of the request or operation that opened the account; it is reported once its tasks finished too.
+     */
+    public void close() {
+        if (openParts.decrementAndGet() == 0) {
+            onClosed.accept(this);
+        }
+    }
+
+    @Override
+    public ContextScope bind() {
+        Binding previous = CURRENT.get();
+        if (previous != null && previous.account == this) {
+            // A task run by the thread that submitted it, which is charged already
+            return () -> {
+            };
+        }
+        long now = allocatedBytes();
+        if (previous != null) {
+            previous.account.bytes.addAndGet(now - previous.start);
+        }
+        Binding binding = new Binding(this, now);
+        CURRENT.set(binding);
+        return () -> {
+            long end = allocatedBytes();
+            bytes.addAndGet(end - binding.start);
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                previous.start = end;
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Keeps the account open for a task carrying it, until the task has run or was dropped.
+     */
+    @Override
+    public void carried() {
+        open();
+    }
+
+    @Override
+    public void released() {
+        close();
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            if (!threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads;
+        }
+        return null;
+    }
+
+    private static final class Binding {
+
+        private final AllocationAccount account;
+
+        // Allocation counter of the thread when the account was bound or last resumed
+        private long start;
+
+        private Binding(AllocationAccount account, long start) {
+            this.account = account;
+            this.start = start;
+        }
+    }
+}
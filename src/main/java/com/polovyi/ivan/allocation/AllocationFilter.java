@@ -0,0 +1,96 @@
+package com.polovyi.ivan.allocation;
+
+import com.polovyi.ivan.bulk.ImportRequests;
+import com.polovyi.ivan.context.ContextScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Accounts the allocations of every REST request, including the filters after this one and the serialization of
+ * the response, to the route it was mapped to.
+ */
+@RequiredArgsConstructor
+public class AllocationFilter extends OncePerRequestFilter {
+
+    static final String KIND = "rest";
+
+    private final AllocationRecorder allocationRecorder;
+
+    // An import reads its upload for as long as it takes, and writes it on threads of its own
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return ImportRequests.isUpload(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AllocationAccount account = allocationRecorder.open(KIND, request.getMethod() + " " + path(request));
+        boolean async = false;
+        try (ContextScope ignored = account.bind()) {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Completion(account, request, response));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                close(account, request, response);
+            }
+        }
+    }
+
+    private static void close(AllocationAccount account, HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            account.setName(request.getMethod() + " " + pattern);
+        } else if (response.getStatus() == HttpStatus.NOT_FOUND.value()) {
+            // Unmapped paths would otherwise add an operation per scanned URL
+            account.setName(request.getMethod() + " NOT_FOUND");
+        }
+        account.close();
+    }
+
+    // Requests answered by a filter keep their path, which is one of the few such filters serve
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    @RequiredArgsConstructor
+    private static class Completion implements AsyncListener {
+
+        private final AllocationAccount account;
+
+        private final HttpServletRequest request;
+
+        private final HttpServletResponse response;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close(account, request, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.polovyi.ivan.allocation;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.graphql.GraphQLOperations;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Accounts the allocations of every GraphQL operation, from parsing to its result, to the operation name. The
+ * account is bound to the thread that dispatches the operation until the dispatch returns, and carried over to the
+ * executor threads that fetch its fields, so each operation of a batched request is accounted on its own.
+ */
+@RequiredArgsConstructor
+public class AllocationInstrumentation extends SimpleInstrumentation {
+
+    static final String KIND = "graphql";
+
+    // Operations that fail to parse or validate are never named
+    static final String INVALID = "invalid";
+
+    private final AllocationRecorder allocationRecorder;
+
+    @Override
+    public InstrumentationState createState() {
+        return new Dispatch(allocationRecorder.open(KIND, INVALID));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters) {
+        Dispatch dispatch = parameters.getInstrumentationState();
+        dispatch.begin();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            // Operations that fail before execution complete on the dispatching thread
+            if (dispatch.thread == Thread.currentThread()) {
+                dispatch.end();
+            }
+            dispatch.account.close();
+        });
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters) {
+        Dispatch dispatch = parameters.getInstrumentationState();
+        dispatch.account.setName(
+                GraphQLOperations.nameOf(parameters.getExecutionContext().getOperationDefinition()));
+        return SimpleInstrumentationContext.whenDispatched(result -> dispatch.end());
+    }
+
+    /*
+     * The dispatch is a part of the account of its own, since fields fetched on other threads may complete the
+     * operation before the dispatching thread returns.
+     */
+    private static final class Dispatch implements InstrumentationState {
+
+        private final AllocationAccount account;
+
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private ContextScope scope;
+
+        private Thread thread;
+
+        private Dispatch(AllocationAccount account) {
+            this.account = account;
+        }
+
+        private void begin() {
+            account.open();
+            thread = Thread.currentThread();
+            scope = account.bind();
+        }
+
+        private void end() {
+            if (ended.compareAndSet(false, true)) {
+                scope.close();
+                account.close();
+            }
+        }
+    }
+}
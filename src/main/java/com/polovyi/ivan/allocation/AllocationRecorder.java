@@ -0,0 +1,106 @@
+package com.polovyi.ivan.allocation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opens {@link AllocationAccount}s and publishes the bytes of every closed one in the
+ * {@code request.allocated.bytes} histogram of its kind and operation. GraphQL operation names are chosen by
+ * clients, so beyond {@code max-operations} distinct names further ones are recorded as {@code other}.
+ */
+@Slf4j
+public class AllocationRecorder {
+
+    static final String OTHER = "other";
+
+    private final Map<Key, Allocations> operations = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxOperations;
+
+    public AllocationRecorder(MeterRegistry meterRegistry, int maxOperations) {
+        this.meterRegistry = meterRegistry;
+        this.maxOperations = maxOperations;
+        if (!AllocationAccount.isSupported()) {
+            log.warn("[AllocationRecorder] The JVM does not measure thread allocations, all requests record 0 bytes");
+        }
+    }
+
+    public AllocationAccount open(String kind, String operation) {
+        return new AllocationAccount(operation, account -> record(kind, account.getName(), account.getBytes()));
+    }
+
+    /**
+     * Returns the operations that allocated the most bytes in total, most first.
+     */
+    public List<OperationAllocation> top(int limit) {
+        return operations.entrySet().stream()
+                .map(entry -> entry.getValue().toOperationAllocation(entry.getKey()))
+                .sorted(Comparator.comparingLong(OperationAllocation::totalBytes).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    void record(String kind, String operation, long bytes) {
+        Key key = new Key(kind, operation);
+        Allocations allocations = operations.get(key);
+        if (allocations == null) {
+            if (operations.size() >= maxOperations) {
+                key = new Key(kind, OTHER);
+            }
+            allocations = operations.computeIfAbsent(key, this::allocations);
+        }
+        allocations.record(bytes);
+    }
+
+    private Allocations allocations(Key key) {
+        return new Allocations(DistributionSummary.builder("request.allocated.bytes")
+                .description("Bytes allocated on the heap per REST request or GraphQL operation")
+                .baseUnit("bytes")
+                .tag("kind", key.kind())
+                .tag("operation", key.operation())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private record Key(String kind, String operation) {
+    }
+
+    private static final class Allocations {
+
+        private final DistributionSummary summary;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalBytes = new LongAdder();
+
+        private final LongAccumulator maxBytes = new LongAccumulator(Math::max, 0);
+
+        private Allocations(DistributionSummary summary) {
+            this.summary = summary;
+        }
+
+        private void record(long bytes) {
+            summary.record(bytes);
+            count.increment();
+            totalBytes.add(bytes);
+            maxBytes.accumulate(bytes);
+        }
+
+        private OperationAllocation toOperationAllocation(Key key) {
+            long requests = count.sum();
+            long total = totalBytes.sum();
+            return new OperationAllocation(key.kind(), key.operation(), requests, total,
+                    requests == 0 ? 0 : total / requests, maxBytes.get());
+        }
+    }
+}
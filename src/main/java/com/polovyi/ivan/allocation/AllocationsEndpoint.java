@@ -0,0 +1,26 @@
+package com.polovyi.ivan.allocation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/allocations}: the REST routes and GraphQL operations that allocated the most, optionally
+ * limited with {@code ?limit=}.
+ */
+@Endpoint(id = "allocations")
+@RequiredArgsConstructor
+public class AllocationsEndpoint {
+
+    private final AllocationRecorder allocationRecorder;
+
+    private final int defaultLimit;
+
+    @ReadOperation
+    public List<OperationAllocation> topOperations(@Nullable Integer limit) {
+        return allocationRecorder.top(limit == null || limit <= 0 ? defaultLimit : limit);
+    }
+}
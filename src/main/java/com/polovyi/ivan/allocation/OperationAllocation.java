@@ -0,0 +1,8 @@
+package com.polovyi.ivan.allocation;
+
+/**
+ * Bytes allocated by one REST route or GraphQL operation since startup.
+ */
+public record OperationAllocation(String kind, String operation, long requests, long totalBytes, long meanBytes,
+        long maxBytes) {
+}
@@ -0,0 +1,177 @@
+package com.polovyi.ivan.bulk;
+
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV with a header row naming the {@code fullName}, {@code phoneNumber} and {@code address} columns
+ * in any order. Quoted fields may contain separators, doubled quotes and line breaks; empty fields are read as
+ * missing values and blank lines are skipped.
+ */
+public class CsvImportRowReader implements ImportRowReader {
+
+    private static final String[] COLUMNS = {"fullName", "phoneNumber", "address"};
+
+    private static final int END = -1;
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[8192];
+
+    private final StringBuilder field = new StringBuilder();
+
+    private int position;
+
+    private int limit;
+
+    private long line = 1;
+
+    private int[] columnIndexes;
+
+    private int columnCount;
+
+    public CsvImportRowReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (columnIndexes == null) {
+            readHeader();
+        }
+        long recordLine;
+        List<String> fields;
+        do {
+            recordLine = line;
+            fields = new ArrayList<>(columnCount);
+            String error = readRecord(fields);
+            if (error != null) {
+                return ImportRow.invalid(recordLine, error);
+            }
+            if (fields.isEmpty()) {
+                return null;
+            }
+        } while (isBlank(fields));
+        if (fields.size() != columnCount) {
+            return ImportRow.invalid(recordLine,
+                    String.format("Expected %d fields but found %d", columnCount, fields.size()));
+        }
+        return ImportRow.valid(recordLine, CreateCustomerRequest.builder()
+                .fullName(value(fields, 0))
+                .phoneNumber(value(fields, 1))
+                .address(value(fields, 2))
+                .build());
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = new ArrayList<>();
+        if (readRecord(header) != null || header.isEmpty()) {
+            throw new ImportFormatException("CSV header row is missing");
+        }
+        // Spreadsheet applications start UTF-8 exports with a byte order mark
+        header.set(0, header.get(0).replace("\uFEFF", ""));
+        columnCount = header.size();
+        columnIndexes = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columnIndexes[i] = indexOf(header, COLUMNS[i]);
+            if (columnIndexes[i] < 0) {
+                throw new ImportFormatException("CSV header has no " + COLUMNS[i] + " column");
+            }
+        }
+    }
+
+    private String value(List<String> fields, int column) {
+        String value = fields.get(columnIndexes[column]);
+        return value.isEmpty() ? null : value;
+    }
+
+    /*
+     * Adds the fields of the next record, none at the end of the input. Returns an error when the input ends inside
+     * a quoted field.
+     */
+    private String readRecord(List<String> fields) throws IOException {
+        int c = read();
+        if (c == END) {
+            return null;
+        }
+        field.setLength(0);
+        while (true) {
+            if (c == '"' && field.length() == 0) {
+                if (!readQuoted()) {
+                    return "Quoted field is not closed";
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == END) {
+                fields.add(field.toString());
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != END) {
+                    line++;
+                }
+                return null;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    // Text after the closing quote is kept as part of the field rather than rejected
+    private boolean readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == END) {
+                return false;
+            }
+            if (c == '"') {
+                if (peek() != '"') {
+                    return true;
+                }
+                read();
+            } else if (c == '\n') {
+                line++;
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != END) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return END;
+            }
+            position = 0;
+            limit = read;
+        }
+        return buffer[position];
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        return fields.size() == 1 && fields.get(0).isBlank();
+    }
+
+    private static int indexOf(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).strip().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,107 @@
+package com.polovyi.ivan.bulk;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import. Counters are updated by the reading request thread and the writers while the status is
+ * read concurrently, so each value is current on its own but not necessarily consistent with the others.
+ */
+@Getter
+public class CustomerImportJob {
+
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String id;
+
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    private final AtomicLong rowsImported = new AtomicLong();
+
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    // Validated rows on their way to the writers
+    final BlockingQueue<List<ImportRow>> batches;
+
+    private final int maxReportedErrors;
+
+    private final List<ImportRowError> errors = new ArrayList<>();
+
+    // Reading plus each writer; the last one to finish completes the job
+    private final AtomicInteger running;
+
+    private volatile Status status = Status.RUNNING;
+
+    private volatile boolean cancelRequested;
+
+    private volatile String failure;
+
+    private volatile Instant finishedAt;
+
+    CustomerImportJob(String id, BlockingQueue<List<ImportRow>> batches, int maxReportedErrors, int writers) {
+        this.id = id;
+        this.batches = batches;
+        this.maxReportedErrors = maxReportedErrors;
+        this.running = new AtomicInteger(writers + 1);
+    }
+
+    public List<ImportRowError> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    public boolean isErrorsTruncated() {
+        return rowsRejected.get() > maxReportedErrors;
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * Whether rows should still be read and written: neither cancelled nor failed.
+     */
+    boolean isActive() {
+        return !cancelRequested && failure == null;
+    }
+
+    void rejected(long line, String message) {
+        if (rowsRejected.incrementAndGet() <= maxReportedErrors) {
+            synchronized (errors) {
+                errors.add(new ImportRowError(line, message));
+            }
+        }
+    }
+
+    void failed(String message) {
+        if (failure == null) {
+            failure = message;
+        }
+    }
+
+    /**
+     * Marks the reader or a writer as done; returns true for the last of them, which has finished the job.
+     */
+    boolean done() {
+        if (running.decrementAndGet() > 0) {
+            return false;
+        }
+        finishedAt = Instant.now();
+        status = failure != null ? Status.FAILED : cancelRequested ? Status.CANCELLED : Status.COMPLETED;
+        return true;
+    }
+
+    public record ImportRowError(long line, String message) {
+    }
+}
@@ -0,0 +1,259 @@
+package com.polovyi.ivan.bulk;
+
+import com.polovyi.ivan.configuration.CustomerImportProperties;
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.exeption.TooManyRequestsException;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.service.CustomerChangeLog;
+import com.polovyi.ivan.validation.InputConstraints;
+import com.polovyi.ivan.validation.InputViolation;
+import com.polovyi.ivan.validation.ValueValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Imports customers from a stream of rows. The calling thread parses and validates rows into batches and hands them
+ * to the writers of the job through a bounded queue; when the writers fall behind, it blocks, so the upload is read
+ * no faster than the database accepts it. Each batch is inserted with one JDBC batch and recorded in the change log
+ * in its own transaction. If that transaction fails, its rows are retried one transaction each, so a failing row
+ * only rejects itself. Batches committed before a cancellation or failure stay imported.
+ * <p>
+ * The retry relies on the failed transaction leaving nothing behind in any store: the database rolls back JPA
+ * writes, the columnar store drops the writes it held back for the transaction, and the shard write reconciler
+ * deletes the rows a rolled back transaction inserted into the shards, which commit each statement on their own.
+ */
+@Slf4j
+@Service
+public class CustomerImportService implements DisposableBean {
+
+    private static final List<ImportRow> END = List.of();
+
+    private final Map<String, CustomerImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final CustomerStore customerStore;
+
+    private final CustomerChangeLog customerChangeLog;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ValueValidator validator;
+
+    private final CustomerImportProperties properties;
+
+    private final Semaphore runningJobs;
+
+    private final ExecutorService writers;
+
+    private final Counter importedRows;
+
+    private final Counter rejectedRows;
+
+    public CustomerImportService(CustomerStore customerStore, CustomerChangeLog customerChangeLog,
+            TransactionTemplate transactionTemplate, InputConstraints inputConstraints,
+            CustomerImportProperties properties, MeterRegistry meterRegistry) {
+        this.customerStore = customerStore;
+        this.customerChangeLog = customerChangeLog;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = inputConstraints.forInputType(CreateCustomerRequest.class.getSimpleName());
+        this.properties = properties;
+        this.runningJobs = new Semaphore(properties.getMaxConcurrentJobs());
+        this.writers = Executors.newFixedThreadPool(properties.getMaxConcurrentJobs() * properties.getWriterThreads(),
+                new CustomizableThreadFactory("customer-import-"));
+        this.importedRows = meterRegistry.counter("customer.import.rows", "outcome", "imported");
+        this.rejectedRows = meterRegistry.counter("customer.import.rows", "outcome", "rejected");
+    }
+
+    /**
+     * Starts a job whose writers wait for the rows passed to {@link #read}.
+     *
+     * @throws TooManyRequestsException when {@code max-concurrent-jobs} imports are running already
+     */
+    public CustomerImportJob start() {
+        evictExpiredJobs();
+        if (!runningJobs.tryAcquire()) {
+            throw new TooManyRequestsException(
+                    String.format("%d imports are running already", properties.getMaxConcurrentJobs()));
+        }
+        CustomerImportJob job = new CustomerImportJob(UUID.randomUUID().toString(),
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), properties.getMaxReportedErrors(),
+                properties.getWriterThreads());
+        jobs.put(job.getId(), job);
+        for (int i = 0; i < properties.getWriterThreads(); i++) {
+            writers.execute(() -> writeBatches(job));
+        }
+        log.info("[CustomerImportService] Started import {}", job.getId());
+        return job;
+    }
+
+    /**
+     * Reads the rows of the job until the input ends or the job is cancelled or failed. It returns without waiting
+     * for the writers, which complete the job once the remaining batches are written.
+     */
+    public void read(CustomerImportJob job, ImportRowReader reader) {
+        try {
+            List<ImportRow> batch = new ArrayList<>(properties.getBatchSize());
+            ImportRow row;
+            while (job.isActive() && (row = reader.next()) != null) {
+                job.getRowsRead().incrementAndGet();
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error != null) {
+                    reject(job, row.line(), error);
+                } else {
+                    batch.add(row);
+                    if (batch.size() == properties.getBatchSize()) {
+                        job.batches.put(batch);
+                        batch = new ArrayList<>(properties.getBatchSize());
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                job.batches.put(batch);
+            }
+        } catch (ImportFormatException e) {
+            job.failed(e.getMessage());
+        } catch (IOException e) {
+            log.info("[CustomerImportService] Upload of import {} could not be read", job.getId(), e);
+            job.failed("Upload could not be read: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.failed("Import was interrupted");
+        } catch (RuntimeException e) {
+            log.warn("[CustomerImportService] Import {} failed", job.getId(), e);
+            job.failed(e.getMessage());
+        } finally {
+            endBatches(job);
+            finish(job);
+        }
+    }
+
+    public Optional<CustomerImportJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Override
+    public void destroy() {
+        writers.shutdownNow();
+    }
+
+    private String validate(CreateCustomerRequest request) {
+        if (validator == null) {
+            return null;
+        }
+        List<InputViolation> violations = validator.validate(request);
+        return violations.isEmpty()
+                ? null
+                : violations.stream().map(InputViolation::message).collect(Collectors.joining("; "));
+    }
+
+    private void writeBatches(CustomerImportJob job) {
+        try {
+            List<ImportRow> batch;
+            // Batches of a cancelled or failed job are still taken, so the reader never waits for room in vain
+            while ((batch = job.batches.take()) != END) {
+                if (job.isActive()) {
+                    write(job, batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.failed("Import was interrupted");
+        } finally {
+            finish(job);
+        }
+    }
+
+    private void write(CustomerImportJob job, List<ImportRow> batch) {
+        try {
+            insert(batch);
+            imported(job, batch.size());
+        } catch (RuntimeException e) {
+            log.debug("[CustomerImportService] Batch of {} rows failed, retrying them one by one", batch.size(), e);
+            for (ImportRow row : batch) {
+                try {
+                    insert(List.of(row));
+                    imported(job, 1);
+                } catch (RuntimeException rowFailure) {
+                    reject(job, row.line(), mostSpecificMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private void insert(List<ImportRow> rows) {
+        List<CustomerEntity> customers = rows.stream()
+                .map(row -> CustomerEntity.valueOf(row.request()))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            customerStore.insertAll(customers);
+            customerChangeLog.recordUpserts(customers.stream().map(CustomerEntity::getId).toList());
+        });
+    }
+
+    private void imported(CustomerImportJob job, int count) {
+        job.getRowsImported().addAndGet(count);
+        importedRows.increment(count);
+    }
+
+    private void reject(CustomerImportJob job, long line, String message) {
+        job.rejected(line, message);
+        rejectedRows.increment();
+    }
+
+    private void endBatches(CustomerImportJob job) {
+        boolean interrupted = false;
+        for (int i = 0; i < properties.getWriterThreads(); i++) {
+            while (true) {
+                try {
+                    job.batches.put(END);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void finish(CustomerImportJob job) {
+        if (job.done()) {
+            runningJobs.release();
+            log.info("[CustomerImportService] Import {} {}: {} rows imported, {} rejected", job.getId(),
+                    job.getStatus(), job.getRowsImported(), job.getRowsRejected());
+        }
+    }
+
+    private void evictExpiredJobs() {
+        Instant expiredBefore = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiredBefore));
+    }
+
+    private static String mostSpecificMessage(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+    }
+}
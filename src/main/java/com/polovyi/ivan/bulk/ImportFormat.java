@@ -0,0 +1,67 @@
+package com.polovyi.ivan.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The formats customers can be imported from, recognized by media type or, for an uploaded file without one, by
+ * file extension. Text is decoded with the charset of the media type, UTF-8 when it has none.
+ */
+public enum ImportFormat {
+
+    CSV(new MediaType("text", "csv"), ".csv") {
+        @Override
+        ImportRowReader reader(InputStreamReader input, ObjectMapper objectMapper) {
+            return new CsvImportRowReader(input);
+        }
+    },
+
+    NDJSON(new MediaType("application", "x-ndjson"), ".ndjson", ".jsonl") {
+        @Override
+        ImportRowReader reader(InputStreamReader input, ObjectMapper objectMapper) {
+            return new NdjsonImportRowReader(input, objectMapper);
+        }
+    };
+
+    private final MediaType mediaType;
+
+    private final String[] extensions;
+
+    ImportFormat(MediaType mediaType, String... extensions) {
+        this.mediaType = mediaType;
+        this.extensions = extensions;
+    }
+
+    public static Optional<ImportFormat> of(MediaType contentType, String filename) {
+        for (ImportFormat format : values()) {
+            if (contentType != null && format.mediaType.equalsTypeAndSubtype(contentType)) {
+                return Optional.of(format);
+            }
+        }
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        for (ImportFormat format : values()) {
+            for (String extension : format.extensions) {
+                if (name.endsWith(extension)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public ImportRowReader reader(InputStream input, MediaType contentType, ObjectMapper objectMapper) {
+        Charset charset = contentType == null || contentType.getCharset() == null
+                ? StandardCharsets.UTF_8
+                : contentType.getCharset();
+        return reader(new InputStreamReader(input, charset), objectMapper);
+    }
+
+    abstract ImportRowReader reader(InputStreamReader input, ObjectMapper objectMapper);
+}
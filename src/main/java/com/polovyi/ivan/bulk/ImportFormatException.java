@@ -0,0 +1,11 @@
+package com.polovyi.ivan.bulk;
+
+/**
+ * The input of an import cannot be read at all, as opposed to single rows of it.
+ */
+public class ImportFormatException extends RuntimeException {
+
+    public ImportFormatException(String message) {
+        super(message);
+    }
+}
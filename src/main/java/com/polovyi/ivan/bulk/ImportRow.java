@@ -0,0 +1,17 @@
+package com.polovyi.ivan.bulk;
+
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+
+/**
+ * A row of an import with the line it starts on. A row that could not be parsed has no request but an error.
+ */
+public record ImportRow(long line, CreateCustomerRequest request, String error) {
+
+    static ImportRow valid(long line, CreateCustomerRequest request) {
+        return new ImportRow(line, request, null);
+    }
+
+    static ImportRow invalid(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.polovyi.ivan.bulk;
+
+import java.io.IOException;
+
+/**
+ * Reads the rows of an import one at a time, so an upload of any size is held in memory a row at a time.
+ */
+public interface ImportRowReader {
+
+    /**
+     * Returns the next row, or {@code null} at the end of the input. A malformed row is returned with its error, a
+     * malformed input as a whole fails with {@link ImportFormatException}.
+     */
+    ImportRow next() throws IOException;
+}
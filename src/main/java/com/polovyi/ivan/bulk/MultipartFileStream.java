@@ -0,0 +1,194 @@
+package com.polovyi.ivan.bulk;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Finds the first uploaded file of a {@code multipart/form-data} body and streams its content, instead of spooling
+ * the upload to disk first as the servlet container does. Parts before the file are skipped, parts after it are
+ * never read.
+ */
+public class MultipartFileStream {
+
+    private static final int MAX_HEADER_LINE = 8192;
+
+    private final InputStream input;
+
+    // The CRLF before the dash-boundary belongs to the delimiter, not to the content of the preceding part
+    private final byte[] delimiter;
+
+    private final byte[] buffer;
+
+    private int head;
+
+    private int tail;
+
+    private boolean endOfInput;
+
+    private boolean endOfPart;
+
+    public MultipartFileStream(InputStream input, String boundary) {
+        this.input = input;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(8192, delimiter.length * 4)];
+        // The first boundary may start the body without a preceding CRLF
+        buffer[tail++] = '\r';
+        buffer[tail++] = '\n';
+    }
+
+    /**
+     * Returns the boundary of a multipart content type, or {@code null} when it has none.
+     */
+    public static String boundaryOf(MediaType contentType) {
+        String boundary = contentType.getParameter("boundary");
+        if (boundary != null && boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+            return boundary.substring(1, boundary.length() - 1);
+        }
+        return boundary;
+    }
+
+    /**
+     * Returns the first part that carries a file name, or {@code null} when the body has none.
+     */
+    public Part firstFile() throws IOException {
+        skipPart();
+        while (ensure(2)) {
+            if (buffer[head] == '-' && buffer[head + 1] == '-') {
+                return null;
+            }
+            readLine();
+            HttpHeaders headers = readHeaders();
+            String disposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+            String filename = disposition == null ? null : ContentDisposition.parse(disposition).getFilename();
+            if (filename != null) {
+                String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+                return new Part(filename, contentType == null ? null : MediaType.parseMediaType(contentType),
+                        new PartInputStream());
+            }
+            skipPart();
+        }
+        return null;
+    }
+
+    private void skipPart() throws IOException {
+        while (readContent(null, 0, buffer.length) >= 0) {
+            // discarded
+        }
+        endOfPart = false;
+    }
+
+    private HttpHeaders readHeaders() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.add(line.substring(0, colon).strip(), line.substring(colon + 1).strip());
+            }
+        }
+        return headers;
+    }
+
+    private String readLine() throws IOException {
+        int scanned = 0;
+        while (true) {
+            for (int i = head + scanned; i < tail; i++) {
+                if (buffer[i] == '\n') {
+                    int end = i > head && buffer[i - 1] == '\r' ? i - 1 : i;
+                    String line = new String(buffer, head, end - head, StandardCharsets.UTF_8);
+                    head = i + 1;
+                    return line;
+                }
+            }
+            scanned = tail - head;
+            if (scanned >= MAX_HEADER_LINE) {
+                throw new ImportFormatException("Multipart header line is longer than " + MAX_HEADER_LINE + " bytes");
+            }
+            if (!ensure(scanned + 1)) {
+                throw new EOFException("Multipart body ended inside part headers");
+            }
+        }
+    }
+
+    /*
+     * Copies content of the current part up to the next delimiter, holding back as many bytes as could be the
+     * start of a delimiter that is not fully read yet. Returns -1 once the delimiter is reached and consumed.
+     */
+    private int readContent(byte[] target, int offset, int length) throws IOException {
+        if (endOfPart) {
+            return -1;
+        }
+        ensure(delimiter.length);
+        int found = indexOfDelimiter();
+        if (found == head) {
+            head += delimiter.length;
+            endOfPart = true;
+            return -1;
+        }
+        int available = found >= 0 ? found - head
+                : endOfInput ? tail - head : tail - head - delimiter.length + 1;
+        if (available <= 0) {
+            throw new EOFException("Multipart body ended before its closing boundary");
+        }
+        int count = Math.min(length, available);
+        if (target != null) {
+            System.arraycopy(buffer, head, target, offset, count);
+        }
+        head += count;
+        return count;
+    }
+
+    private int indexOfDelimiter() {
+        outer:
+        for (int i = head; i <= tail - delimiter.length; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    // Reads until at least count bytes are buffered, returns false when the input ends first
+    private boolean ensure(int count) throws IOException {
+        while (tail - head < count && !endOfInput) {
+            if (tail == buffer.length) {
+                System.arraycopy(buffer, head, buffer, 0, tail - head);
+                tail -= head;
+                head = 0;
+            }
+            int read = input.read(buffer, tail, buffer.length - tail);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                tail += read;
+            }
+        }
+        return tail - head >= count;
+    }
+
+    public record Part(String filename, MediaType contentType, InputStream content) {
+    }
+
+    private class PartInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            return length == 0 ? 0 : readContent(target, offset, length);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.polovyi.ivan.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads one {@code CreateCustomerRequest} JSON object per line, skipping blank lines.
+ */
+public class NdjsonImportRowReader implements ImportRowReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    private long line;
+
+    public NdjsonImportRowReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(reader);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        try {
+            return ImportRow.valid(line, objectMapper.readValue(text, CreateCustomerRequest.class));
+        } catch (JsonProcessingException e) {
+            return ImportRow.invalid(line, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+}
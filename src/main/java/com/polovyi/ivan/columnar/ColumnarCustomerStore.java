@@ -0,0 +1,334 @@
+package com.polovyi.ivan.columnar;
+
+import com.polovyi.ivan.configuration.ColumnarStoreProperties;
+import com.polovyi.ivan.configuration.CustomerKeyProperties;
+import com.polovyi.ivan.keys.CustomerKeyType;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.repository.CustomerStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Keeps all customers in memory in a {@link CustomerTable}, so queries scan primitive arrays instead of mapping
+ * result sets to entities, and only the returned customers are materialized. Reads run concurrently, writes one at
+ * a time; each write is appended to the {@link CustomerLog} before it becomes visible.
+ * <p>
+ * Writes made in a transaction are held back until it commits, then applied before other synchronizations learn of
+ * the commit, and dropped should it roll back. Until then only lookups by id in the same transaction see them; list
+ * queries do not. A write that fails to apply after the commit, for instance on an I/O error of the log, is reported
+ * to the caller while the change log of the committed transaction keeps it. Writes outside a transaction apply at
+ * once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "customer.store", name = "type", havingValue = "columnar")
+public class ColumnarCustomerStore implements CustomerStore, DisposableBean {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final CustomerLog customerLog;
+
+    private final int snapshotEvery;
+
+    private final CustomerKeyType keyType;
+
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("customer-snapshot-"));
+
+    private CustomerTable table;
+
+    public ColumnarCustomerStore(ColumnarStoreProperties properties, CustomerKeyProperties keys) {
+        this.customerLog = new CustomerLog(Path.of(properties.getDirectory()), properties.isFsync());
+        this.snapshotEvery = properties.getSnapshotEvery();
+        this.keyType = keys.getType();
+        try {
+            this.table = customerLog.recover(properties.getInitialCapacity());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover customers from " + properties.getDirectory(), e);
+        }
+    }
+
+    @Override
+    public List<CustomerEntity> findAll() {
+        return findCustomersWithFilters(null, null, null);
+    }
+
+    @Override
+    public List<CustomerEntity> findCustomersWithFilters(String fullName, String phoneNumber, LocalDate createdAt) {
+        return read(() -> {
+            List<CustomerEntity> customers = new ArrayList<>();
+            table.select(fullName, phoneNumber, createdAt, row -> customers.add(table.read(row)));
+            return customers;
+        });
+    }
+
+    /*
+     * The table has no index by id order, so every page scans the matching rows, keeping only the lowest ids.
+     */
+    @Override
+    public List<CustomerEntity> findPageAfter(String afterId, String fullName, String phoneNumber,
+            LocalDate createdAt, int limit) {
+        UUID after = afterId == null ? null : UUID.fromString(afterId);
+        return read(() -> lowestIds(limit, action -> table.select(fullName, phoneNumber, createdAt, row -> {
+            if (after == null || table.idAfter(row, after)) {
+                action.accept(row);
+            }
+        })).stream().map(table::read).toList());
+    }
+
+    /*
+     * The ids are copied out under the read lock, so the stream holds no resources.
+     */
+    @Override
+    public Stream<String> streamIds() {
+        return read(() -> {
+            List<String> ids = new ArrayList<>(table.size());
+            table.forEach(row -> ids.add(table.idOf(row)));
+            return ids;
+        }).stream();
+    }
+
+    @Override
+    public Optional<CustomerEntity> findById(String customerId) {
+        return findAllById(List.of(customerId)).stream().findFirst();
+    }
+
+    @Override
+    public List<CustomerEntity> findAllById(Collection<String> customerIds) {
+        PendingWrites pendingWrites = currentPendingWrites(false);
+        return read(() -> {
+            List<CustomerEntity> customers = new ArrayList<>(customerIds.size());
+            for (String customerId : customerIds) {
+                if (pendingWrites != null && pendingWrites.changes.containsKey(customerId)) {
+                    Optional.ofNullable(pendingWrites.changes.get(customerId)).ifPresent(customers::add);
+                    continue;
+                }
+                int row = table.find(customerId);
+                if (row >= 0) {
+                    customers.add(table.read(row));
+                }
+            }
+            return customers;
+        });
+    }
+
+    @Override
+    public CustomerEntity save(CustomerEntity customer) {
+        saveAll(List.of(customer));
+        return customer;
+    }
+
+    @Override
+    public List<CustomerEntity> saveAll(List<CustomerEntity> customers) {
+        Map<String, CustomerEntity> changes = new LinkedHashMap<>();
+        for (CustomerEntity customer : customers) {
+            if (customer.getId() == null) {
+                customer.setId(keyType.newId());
+            }
+            changes.put(customer.getId(), customer);
+        }
+        submit(changes);
+        return customers;
+    }
+
+    @Override
+    public void delete(CustomerEntity customer) {
+        deleteAllByIdInBatch(List.of(customer.getId()));
+    }
+
+    @Override
+    public long countByCreatedAtBefore(LocalDate createdBefore) {
+        return read(() -> table.countCreatedBefore(createdBefore));
+    }
+
+    @Override
+    public List<String> findIdsCreatedBefore(LocalDate createdBefore, int limit) {
+        return read(() -> lowestIds(limit, action -> table.forEachCreatedBefore(createdBefore, action)).stream()
+                .map(table::idOf)
+                .toList());
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Collection<String> customerIds) {
+        Map<String, CustomerEntity> changes = new LinkedHashMap<>();
+        customerIds.forEach(customerId -> changes.put(customerId, null));
+        submit(changes);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            if (customerLog.records() > 0) {
+                customerLog.snapshot(table);
+            }
+            customerLog.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Keeps the rows with the lowest ids in a heap bounded by the limit, the highest on top, so selecting them takes
+     * memory for the limit only. Must run under the read lock.
+     */
+    private List<Integer> lowestIds(int limit, Consumer<IntConsumer> rows) {
+        PriorityQueue<Integer> lowest = new PriorityQueue<>(Math.max(1, Math.min(limit, table.size())),
+                (left, right) -> table.compareIds(right, left));
+        rows.accept(row -> {
+            if (lowest.size() < limit) {
+                lowest.add(row);
+            } else if (limit > 0 && table.compareIds(row, lowest.peek()) < 0) {
+                lowest.poll();
+                lowest.add(row);
+            }
+        });
+        List<Integer> sorted = new ArrayList<>(lowest);
+        sorted.sort(table::compareIds);
+        return sorted;
+    }
+
+    /*
+     * Applies the changes, a null customer standing for a delete, or holds them back until the current transaction
+     * commits.
+     */
+    private void submit(Map<String, CustomerEntity> changes) {
+        PendingWrites pendingWrites = currentPendingWrites(true);
+        if (pendingWrites != null) {
+            pendingWrites.changes.putAll(changes);
+        } else {
+            apply(changes);
+        }
+    }
+
+    private void apply(Map<String, CustomerEntity> changes) {
+        write(() -> changes.forEach((customerId, customer) -> {
+            if (customer != null) {
+                customerLog.appendPut(customer);
+                table.put(customer);
+            } else if (table.find(customerId) >= 0) {
+                customerLog.appendDelete(customerId);
+                table.remove(customerId);
+            }
+        }));
+    }
+
+    private PendingWrites currentPendingWrites(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingWrites pendingWrites = (PendingWrites) TransactionSynchronizationManager.getResource(this);
+        if (pendingWrites == null && create) {
+            pendingWrites = new PendingWrites();
+            TransactionSynchronizationManager.bindResource(this, pendingWrites);
+            TransactionSynchronizationManager.registerSynchronization(pendingWrites);
+        }
+        return pendingWrites;
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (customerLog.records() >= snapshotEvery && snapshotPending.compareAndSet(false, true)) {
+            snapshotExecutor.execute(this::snapshot);
+        }
+    }
+
+    /*
+     * The snapshot is written under the read lock, which keeps writers out while readers go on. Dictionaries only
+     * grow, so the table is compacted once it may hold more unused values than customers.
+     */
+    private void snapshot() {
+        try {
+            lock.readLock().lock();
+            try {
+                customerLog.snapshot(table);
+            } finally {
+                lock.readLock().unlock();
+            }
+            lock.writeLock().lock();
+            try {
+                if (table.replacedValues() > table.size()) {
+                    table = table.compacted();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            log.error("[ColumnarCustomerStore] Could not take a snapshot", e);
+        } finally {
+            snapshotPending.set(false);
+        }
+    }
+
+    private final class PendingWrites implements TransactionSynchronization {
+
+        private final Map<String, CustomerEntity> changes = new LinkedHashMap<>();
+
+        // Listeners of the commit, like the change events, find the customers already written
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ColumnarCustomerStore.this);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.polovyi.ivan.columnar;
+
+import com.polovyi.ivan.entity.CustomerEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Durability of a {@link CustomerTable}: a snapshot of all customers plus an append-only log of the changes made
+ * since. Every log record is framed by its length and checksum, so a record torn by a crash is detected and cut off
+ * on recovery. Taking a snapshot replaces the previous one atomically and empties the log.
+ */
+@Slf4j
+final class CustomerLog implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x43555354;
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    private final Path snapshotFile;
+
+    private final Path logFile;
+
+    private final boolean fsync;
+
+    private FileChannel channel;
+
+    private volatile int records;
+
+    CustomerLog(Path directory, boolean fsync) {
+        this.snapshotFile = directory.resolve("customers.snapshot");
+        this.logFile = directory.resolve("customers.log");
+        this.fsync = fsync;
+    }
+
+    /**
+     * Rebuilds the table from the snapshot and the log and opens the log for appending.
+     */
+    CustomerTable recover(int initialCapacity) throws IOException {
+        Files.createDirectories(logFile.getParent());
+        CustomerTable table = Files.exists(snapshotFile) ? readSnapshot(initialCapacity)
+                : new CustomerTable(initialCapacity);
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long validLength = replay(table);
+        if (validLength < channel.size()) {
+            log.warn("[CustomerLog] Cutting off {} bytes of an incomplete record at the end of {}",
+                    channel.size() - validLength, logFile);
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        log.info("[CustomerLog] Recovered {} customers, replayed {} log records", table.size(), records);
+        return table;
+    }
+
+    void appendPut(CustomerEntity customer) {
+        append(PUT, customer);
+    }
+
+    void appendDelete(String customerId) {
+        append(DELETE, CustomerEntity.builder().id(customerId).build());
+    }
+
+    int records() {
+        return records;
+    }
+
+    /**
+     * Writes all customers of the table to a new snapshot and empties the log. The table must not change meanwhile.
+     */
+    void snapshot(CustomerTable table) throws IOException {
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel snapshotChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(snapshotChannel), 1 << 16))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(SNAPSHOT_VERSION);
+            output.writeInt(table.size());
+            IOException[] failure = new IOException[1];
+            table.forEach(row -> {
+                if (failure[0] == null) {
+                    try {
+                        writeCustomer(output, table.read(row));
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            output.flush();
+            snapshotChannel.force(true);
+        }
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        records = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void append(byte type, CustomerEntity customer) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+            DataOutputStream output = new DataOutputStream(payload);
+            output.writeByte(type);
+            if (type == PUT) {
+                writeCustomer(output, customer);
+            } else {
+                writeId(output, customer.getId());
+            }
+            byte[] bytes = payload.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            ByteBuffer record = ByteBuffer.allocate(Integer.BYTES * 2 + bytes.length)
+                    .putInt(bytes.length)
+                    .putInt((int) crc.getValue())
+                    .put(bytes)
+                    .flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            records++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to " + logFile, e);
+        }
+    }
+
+    private CustomerTable readSnapshot(int initialCapacity) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (input.readInt() != SNAPSHOT_MAGIC || input.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException(snapshotFile + " is not a customer snapshot of version " + SNAPSHOT_VERSION);
+            }
+            int size = input.readInt();
+            CustomerTable table = new CustomerTable(Math.max(initialCapacity, size));
+            for (int i = 0; i < size; i++) {
+                table.load(readCustomer(input));
+            }
+            table.finishLoad();
+            return table;
+        }
+    }
+
+    /**
+     * Applies the complete records of the log to the table and returns the length they take up.
+     */
+    private long replay(CustomerTable table) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2);
+        long position = 0;
+        long size = channel.size();
+        while (position + header.capacity() <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.flip().getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || position + header.capacity() + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + header.capacity());
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            DataInput input = new DataInputStream(new ByteArrayInputStream(payload.array()));
+            if (input.readByte() == PUT) {
+                table.put(readCustomer(input));
+            } else {
+                table.remove(readId(input));
+            }
+            position += header.capacity() + length;
+            records++;
+        }
+        return position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + logFile);
+            }
+        }
+    }
+
+    private static void writeCustomer(DataOutput output, CustomerEntity customer) throws IOException {
+        writeId(output, customer.getId());
+        writeString(output, customer.getFullName());
+        writeString(output, customer.getPhoneNumber());
+        writeString(output, customer.getAddress());
+        output.writeBoolean(customer.getCreatedAt() != null);
+        if (customer.getCreatedAt() != null) {
+            output.writeInt((int) customer.getCreatedAt().toEpochDay());
+        }
+    }
+
+    private static CustomerEntity readCustomer(DataInput input) throws IOException {
+        return CustomerEntity.builder()
+                .id(readId(input))
+                .fullName(readString(input))
+                .phoneNumber(readString(input))
+                .address(readString(input))
+                .createdAt(input.readBoolean() ? LocalDate.ofEpochDay(input.readInt()) : null)
+                .build();
+    }
+
+    private static void writeId(DataOutput output, String customerId) throws IOException {
+        UUID id = UUID.fromString(customerId);
+        output.writeLong(id.getMostSignificantBits());
+        output.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static String readId(DataInput input) throws IOException {
+        return new UUID(input.readLong(), input.readLong()).toString();
+    }
+
+    private static void writeString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
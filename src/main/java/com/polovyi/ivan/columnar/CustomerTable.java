@@ -0,0 +1,312 @@
+package com.polovyi.ivan.columnar;
+
+import com.polovyi.ivan.entity.CustomerEntity;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+/**
+ * Customers in column arrays indexed by row: the id as two longs, the strings as dictionary codes and the creation
+ * date as an epoch day. Rows of deleted customers are reused by later inserts. Indexed by id, by phone number,
+ * through a chain of rows per phone number code, and by creation date. Not thread safe.
+ */
+final class CustomerTable {
+
+    private static final int NO_ROW = UuidIndex.NO_ROW;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final StringDictionary fullNames = new StringDictionary();
+
+    private final StringDictionary phoneNumbers = new StringDictionary();
+
+    private final StringDictionary addresses = new StringDictionary();
+
+    private final UuidIndex idIndex;
+
+    private final SortedIntIndex createdAtIndex = new SortedIntIndex();
+
+    private final BitSet live = new BitSet();
+
+    private long[] idHighs;
+
+    private long[] idLows;
+
+    private int[] fullNameCodes;
+
+    private int[] phoneNumberCodes;
+
+    private int[] addressCodes;
+
+    private int[] createdAtDays;
+
+    private int[] nextWithPhoneNumber;
+
+    private int[] firstWithPhoneNumber = new int[0];
+
+    private int[] freeRows = new int[16];
+
+    private int freeRowCount;
+
+    private int rowCount;
+
+    private int size;
+
+    private long replacedValues;
+
+    CustomerTable(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        idIndex = new UuidIndex(capacity);
+        idHighs = new long[capacity];
+        idLows = new long[capacity];
+        fullNameCodes = new int[capacity];
+        phoneNumberCodes = new int[capacity];
+        addressCodes = new int[capacity];
+        createdAtDays = new int[capacity];
+        nextWithPhoneNumber = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Number of string values overwritten or deleted since the table was built, an upper bound of the dictionary
+     * entries no row refers to anymore.
+     */
+    long replacedValues() {
+        return replacedValues;
+    }
+
+    /**
+     * Returns the row of the customer, or {@code -1} when there is none or the id is not a UUID.
+     */
+    int find(String customerId) {
+        UUID id = parse(customerId);
+        return id == null ? NO_ROW : idIndex.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    void put(CustomerEntity customer) {
+        put(customer, false);
+    }
+
+    /**
+     * Adds a customer without keeping the creation date index sorted; {@link #finishLoad()} must follow the last
+     * loaded customer.
+     */
+    void load(CustomerEntity customer) {
+        put(customer, true);
+    }
+
+    void finishLoad() {
+        createdAtIndex.sort();
+    }
+
+    boolean remove(String customerId) {
+        int row = find(customerId);
+        if (row == NO_ROW) {
+            return false;
+        }
+        unindex(row);
+        idIndex.remove(idHighs[row], idLows[row]);
+        live.clear(row);
+        replacedValues += 3;
+        if (freeRowCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRowCount * 2);
+        }
+        freeRows[freeRowCount++] = row;
+        size--;
+        return true;
+    }
+
+    /**
+     * Compares the ids of two rows in the order of their string form, which is that of unsigned 128-bit numbers.
+     */
+    int compareIds(int row, int otherRow) {
+        int highs = Long.compareUnsigned(idHighs[row], idHighs[otherRow]);
+        return highs != 0 ? highs : Long.compareUnsigned(idLows[row], idLows[otherRow]);
+    }
+
+    /**
+     * Whether the id of the row comes after the given id in the order of {@link #compareIds}.
+     */
+    boolean idAfter(int row, UUID id) {
+        int highs = Long.compareUnsigned(idHighs[row], id.getMostSignificantBits());
+        return highs != 0 ? highs > 0 : Long.compareUnsigned(idLows[row], id.getLeastSignificantBits()) > 0;
+    }
+
+    String idOf(int row) {
+        return new UUID(idHighs[row], idLows[row]).toString();
+    }
+
+    CustomerEntity read(int row) {
+        return CustomerEntity.builder()
+                .id(idOf(row))
+                .fullName(fullNames.decode(fullNameCodes[row]))
+                .phoneNumber(phoneNumbers.decode(phoneNumberCodes[row]))
+                .address(addresses.decode(addressCodes[row]))
+                .createdAt(createdAtDays[row] == NO_DATE ? null : LocalDate.ofEpochDay(createdAtDays[row]))
+                .build();
+    }
+
+    /**
+     * Passes the rows matching all given filters to the action in row order. A filter on the phone number walks
+     * that number's chain, one on the creation date scans the date index; otherwise all rows are scanned, comparing
+     * codes instead of strings.
+     */
+    void select(String fullName, String phoneNumber, LocalDate createdAt, IntConsumer action) {
+        int fullNameCode = fullName == null ? StringDictionary.NULL : fullNames.codeOf(fullName);
+        int phoneNumberCode = phoneNumber == null ? StringDictionary.NULL : phoneNumbers.codeOf(phoneNumber);
+        if (fullName != null && fullNameCode == StringDictionary.NULL
+                || phoneNumber != null && phoneNumberCode == StringDictionary.NULL) {
+            return;
+        }
+        int createdAtDay = createdAt == null ? NO_DATE : (int) createdAt.toEpochDay();
+        if (phoneNumber != null) {
+            int[] rows = new int[8];
+            int count = 0;
+            for (int row = firstWithPhoneNumber[phoneNumberCode]; row != NO_ROW; row = nextWithPhoneNumber[row]) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+            Arrays.sort(rows, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (matches(rows[i], fullNameCode, createdAtDay)) {
+                    action.accept(rows[i]);
+                }
+            }
+        } else if (createdAt != null) {
+            createdAtIndex.forEachBetween(createdAtDay, createdAtDay + 1, row -> {
+                if (matches(row, fullNameCode, NO_DATE)) {
+                    action.accept(row);
+                }
+            });
+        } else {
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                if (fullNameCode == StringDictionary.NULL || fullNameCodes[row] == fullNameCode) {
+                    action.accept(row);
+                }
+            }
+        }
+    }
+
+    void forEachCreatedBefore(LocalDate createdBefore, IntConsumer action) {
+        createdAtIndex.forEachBetween(NO_DATE + 1, (int) createdBefore.toEpochDay(), action);
+    }
+
+    long countCreatedBefore(LocalDate createdBefore) {
+        return createdAtIndex.countBelow((int) createdBefore.toEpochDay()) - createdAtIndex.countBelow(NO_DATE + 1);
+    }
+
+    void forEach(IntConsumer action) {
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            action.accept(row);
+        }
+    }
+
+    /**
+     * Returns a copy holding only the live rows, densely packed and with dictionaries free of unused values.
+     */
+    CustomerTable compacted() {
+        CustomerTable compacted = new CustomerTable(size);
+        forEach(row -> compacted.load(read(row)));
+        compacted.finishLoad();
+        return compacted;
+    }
+
+    private boolean matches(int row, int fullNameCode, int createdAtDay) {
+        return (fullNameCode == StringDictionary.NULL || fullNameCodes[row] == fullNameCode)
+                && (createdAtDay == NO_DATE || createdAtDays[row] == createdAtDay);
+    }
+
+    private void put(CustomerEntity customer, boolean loading) {
+        UUID id = UUID.fromString(customer.getId());
+        int row = idIndex.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (row == NO_ROW) {
+            row = allocateRow();
+            idHighs[row] = id.getMostSignificantBits();
+            idLows[row] = id.getLeastSignificantBits();
+            idIndex.put(idHighs[row], idLows[row], row);
+            live.set(row);
+            size++;
+        } else {
+            unindex(row);
+            replacedValues += 3;
+        }
+        fullNameCodes[row] = fullNames.encode(customer.getFullName());
+        phoneNumberCodes[row] = phoneNumbers.encode(customer.getPhoneNumber());
+        addressCodes[row] = addresses.encode(customer.getAddress());
+        createdAtDays[row] = customer.getCreatedAt() == null ? NO_DATE : (int) customer.getCreatedAt().toEpochDay();
+        linkPhoneNumber(row);
+        if (loading) {
+            createdAtIndex.append(createdAtDays[row], row);
+        } else {
+            createdAtIndex.add(createdAtDays[row], row);
+        }
+    }
+
+    private int allocateRow() {
+        if (freeRowCount > 0) {
+            return freeRows[--freeRowCount];
+        }
+        if (rowCount == idHighs.length) {
+            int capacity = rowCount + (rowCount >> 1);
+            idHighs = Arrays.copyOf(idHighs, capacity);
+            idLows = Arrays.copyOf(idLows, capacity);
+            fullNameCodes = Arrays.copyOf(fullNameCodes, capacity);
+            phoneNumberCodes = Arrays.copyOf(phoneNumberCodes, capacity);
+            addressCodes = Arrays.copyOf(addressCodes, capacity);
+            createdAtDays = Arrays.copyOf(createdAtDays, capacity);
+            nextWithPhoneNumber = Arrays.copyOf(nextWithPhoneNumber, capacity);
+        }
+        return rowCount++;
+    }
+
+    private void linkPhoneNumber(int row) {
+        int code = phoneNumberCodes[row];
+        if (code == StringDictionary.NULL) {
+            nextWithPhoneNumber[row] = NO_ROW;
+            return;
+        }
+        if (code >= firstWithPhoneNumber.length) {
+            int length = firstWithPhoneNumber.length;
+            firstWithPhoneNumber = Arrays.copyOf(firstWithPhoneNumber, Math.max(16, phoneNumbers.size() * 3 / 2));
+            Arrays.fill(firstWithPhoneNumber, length, firstWithPhoneNumber.length, NO_ROW);
+        }
+        nextWithPhoneNumber[row] = firstWithPhoneNumber[code];
+        firstWithPhoneNumber[code] = row;
+    }
+
+    private void unindex(int row) {
+        createdAtIndex.remove(createdAtDays[row], row);
+        int code = phoneNumberCodes[row];
+        if (code == StringDictionary.NULL) {
+            return;
+        }
+        if (firstWithPhoneNumber[code] == row) {
+            firstWithPhoneNumber[code] = nextWithPhoneNumber[row];
+            return;
+        }
+        int previous = firstWithPhoneNumber[code];
+        while (nextWithPhoneNumber[previous] != row) {
+            previous = nextWithPhoneNumber[previous];
+        }
+        nextWithPhoneNumber[previous] = nextWithPhoneNumber[row];
+    }
+
+    private static UUID parse(String customerId) {
+        if (customerId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(customerId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.polovyi.ivan.columnar;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Rows sorted by an int column, each entry packing the value and the row into one long so the index is a single
+ * primitive array that range scans read sequentially. Inserts and removes shift the tail of the array, which suits
+ * a read-mostly table; bulk loads append and sort once.
+ */
+final class SortedIntIndex {
+
+    private long[] entries = new long[16];
+
+    private int size;
+
+    private boolean sorted = true;
+
+    void add(int value, int row) {
+        long entry = entry(value, row);
+        int position = Arrays.binarySearch(entries, 0, size, entry);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        ensureCapacity();
+        System.arraycopy(entries, position, entries, position + 1, size - position);
+        entries[position] = entry;
+        size++;
+    }
+
+    void append(int value, int row) {
+        ensureCapacity();
+        entries[size++] = entry(value, row);
+        sorted = false;
+    }
+
+    void sort() {
+        if (!sorted) {
+            Arrays.sort(entries, 0, size);
+            sorted = true;
+        }
+    }
+
+    void remove(int value, int row) {
+        int position = Arrays.binarySearch(entries, 0, size, entry(value, row));
+        if (position >= 0) {
+            System.arraycopy(entries, position + 1, entries, position, size - position - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Passes the rows with a value in {@code [fromInclusive, toExclusive)} to the action, ordered by value and row.
+     */
+    void forEachBetween(int fromInclusive, int toExclusive, IntConsumer action) {
+        long end = entry(toExclusive, 0);
+        for (int position = lowerBound(entry(fromInclusive, 0)); position < size && entries[position] < end;
+                position++) {
+            action.accept((int) entries[position]);
+        }
+    }
+
+    int countBelow(int toExclusive) {
+        return lowerBound(entry(toExclusive, 0));
+    }
+
+    private int lowerBound(long entry) {
+        int position = Arrays.binarySearch(entries, 0, size, entry);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private void ensureCapacity() {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size + (size >> 1));
+        }
+    }
+
+    private static long entry(int value, int row) {
+        return (long) value << 32 | row;
+    }
+}
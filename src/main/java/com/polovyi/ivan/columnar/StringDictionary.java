@@ -0,0 +1,53 @@
+package com.polovyi.ivan.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps each distinct string of a column to a dense int code, so rows store four bytes per value and equal values
+ * are held once. Codes are never reused; values that are no longer referenced are dropped when the table is
+ * compacted.
+ */
+final class StringDictionary {
+
+    static final int NULL = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private String[] values = new String[16];
+
+    private int size;
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1));
+        }
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Returns the code of the value or {@link #NULL} when no row ever held it.
+     */
+    int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? NULL : code;
+    }
+
+    String decode(int code) {
+        return code == NULL ? null : values[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,98 @@
+package com.polovyi.ivan.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash index from a UUID, kept as its two longs, to a row. Linear probing with backward shift
+ * deletion, so there are no tombstones and lookups never degrade after deletes.
+ */
+final class UuidIndex {
+
+    static final int NO_ROW = -1;
+
+    private long[] highs;
+
+    private long[] lows;
+
+    private int[] rows;
+
+    private int mask;
+
+    private int size;
+
+    UuidIndex(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1);
+    }
+
+    int get(long high, long low) {
+        for (int slot = slotOf(high, low); ; slot = (slot + 1) & mask) {
+            if (rows[slot] == NO_ROW || highs[slot] == high && lows[slot] == low) {
+                return rows[slot];
+            }
+        }
+    }
+
+    void put(long high, long low, int row) {
+        if ((size + 1) * 2 > rows.length) {
+            resize();
+        }
+        int slot = slotOf(high, low);
+        while (rows[slot] != NO_ROW && (highs[slot] != high || lows[slot] != low)) {
+            slot = (slot + 1) & mask;
+        }
+        if (rows[slot] == NO_ROW) {
+            size++;
+        }
+        highs[slot] = high;
+        lows[slot] = low;
+        rows[slot] = row;
+    }
+
+    void remove(long high, long low) {
+        int gap = slotOf(high, low);
+        while (rows[gap] != NO_ROW && (highs[gap] != high || lows[gap] != low)) {
+            gap = (gap + 1) & mask;
+        }
+        if (rows[gap] == NO_ROW) {
+            return;
+        }
+        // Moves back every following entry of the probe run whose home slot does not lie between the gap and it
+        for (int next = (gap + 1) & mask; rows[next] != NO_ROW; next = (next + 1) & mask) {
+            int home = slotOf(highs[next], lows[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                highs[gap] = highs[next];
+                lows[gap] = lows[next];
+                rows[gap] = rows[next];
+                gap = next;
+            }
+        }
+        rows[gap] = NO_ROW;
+        size--;
+    }
+
+    private int slotOf(long high, long low) {
+        long hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private void resize() {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        int[] oldRows = rows;
+        allocate(oldRows.length * 2);
+        size = 0;
+        for (int slot = 0; slot < oldRows.length; slot++) {
+            if (oldRows[slot] != NO_ROW) {
+                put(oldHighs[slot], oldLows[slot], oldRows[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        rows = new int[capacity];
+        Arrays.fill(rows, NO_ROW);
+        mask = capacity - 1;
+    }
+}
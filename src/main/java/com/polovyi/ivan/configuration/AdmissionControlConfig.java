@@ -0,0 +1,40 @@
+package com.polovyi.ivan.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.admission.AdmissionControlFilter;
+import com.polovyi.ivan.admission.AdmissionController;
+import com.polovyi.ivan.admission.RequestClassifier;
+import com.polovyi.ivan.graphql.PersistedQueryStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(prefix = "admission-control", name = "enabled", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdmissionController admissionController(AdmissionControlProperties properties,
+            MeterRegistry meterRegistry) {
+        return new AdmissionController(properties, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdmissionController admissionController, AdmissionControlProperties properties,
+            ObjectMapper objectMapper, PersistedQueryStore persistedQueryStore,
+            @Value("${graphql.servlet.mapping}") String graphQLMapping) {
+        RequestClassifier requestClassifier = new RequestClassifier(graphQLMapping,
+                properties.getMaxClassifiedBodySize(), objectMapper, persistedQueryStore);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(admissionController, requestClassifier, properties.getRetryAfter()));
+        registration.addUrlPatterns("/v1/*", graphQLMapping, graphQLMapping + "/*");
+        // Shed before any other filter spends work on the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
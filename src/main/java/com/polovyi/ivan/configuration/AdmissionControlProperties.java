@@ -0,0 +1,51 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.admission.OperationClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "admission-control")
+public class AdmissionControlProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Value of the Retry-After header of shed requests.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * GraphQL request bodies larger than this, or of unknown length, are not inspected and classified as exports.
+     */
+    private int maxClassifiedBodySize = 64 * 1024;
+
+    /**
+     * Concurrency limits per operation class, applied separately to REST and GraphQL traffic.
+     */
+    private Map<OperationClass, Limit> limits = new EnumMap<>(Map.of(
+            OperationClass.READ, new Limit(20, 2, 200),
+            OperationClass.WRITE, new Limit(10, 2, 100),
+            OperationClass.EXPORT, new Limit(4, 1, 16)));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private int initial;
+
+        private int min;
+
+        private int max;
+
+    }
+}
@@ -0,0 +1,48 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.allocation.AllocationFilter;
+import com.polovyi.ivan.allocation.AllocationInstrumentation;
+import com.polovyi.ivan.allocation.AllocationRecorder;
+import com.polovyi.ivan.allocation.AllocationsEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Bytes allocated per REST route and GraphQL operation, as histograms and through {@code /actuator/allocations}.
+ * With {@code allocation-accounting.enabled} false nothing is measured.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "allocation-accounting", name = "enabled", matchIfMissing = true)
+public class AllocationAccountingConfig {
+
+    @Bean
+    public AllocationRecorder allocationRecorder(MeterRegistry meterRegistry,
+            AllocationAccountingProperties properties) {
+        return new AllocationRecorder(meterRegistry, properties.getMaxOperations());
+    }
+
+    // Before the customer list snapshot filter, which answers requests without reaching the controller
+    @Bean
+    public FilterRegistrationBean<AllocationFilter> allocationFilter(AllocationRecorder allocationRecorder) {
+        FilterRegistrationBean<AllocationFilter> registration = new FilterRegistrationBean<>(
+                new AllocationFilter(allocationRecorder));
+        registration.addUrlPatterns("/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    public AllocationInstrumentation allocationInstrumentation(AllocationRecorder allocationRecorder) {
+        return new AllocationInstrumentation(allocationRecorder);
+    }
+
+    @Bean
+    public AllocationsEndpoint allocationsEndpoint(AllocationRecorder allocationRecorder,
+            AllocationAccountingProperties properties) {
+        return new AllocationsEndpoint(allocationRecorder, properties.getTopOperations());
+    }
+}
@@ -0,0 +1,26 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "allocation-accounting")
+public class AllocationAccountingProperties {
+
+    /**
+     * Whether the heap allocations of REST requests and GraphQL operations are measured and published.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Distinct routes and operation names recorded before further ones are recorded as other.
+     */
+    private int maxOperations = 500;
+
+    /**
+     * Operations listed by the allocations actuator endpoint unless the request sets a limit.
+     */
+    private int topOperations = 20;
+}
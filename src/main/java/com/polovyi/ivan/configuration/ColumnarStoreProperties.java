@@ -0,0 +1,29 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.columnar")
+public class ColumnarStoreProperties {
+
+    /**
+     * Directory of the snapshot and change log when {@code customer.store.type} is {@code columnar}.
+     */
+    private String directory = "customer-store";
+
+    /**
+     * Number of log records after which a new snapshot is taken in the background.
+     */
+    private int snapshotEvery = 10_000;
+
+    /**
+     * Whether every log record is forced to disk before the write returns, instead of left to the operating
+     * system.
+     */
+    private boolean fsync = false;
+
+    private int initialCapacity = 1024;
+}
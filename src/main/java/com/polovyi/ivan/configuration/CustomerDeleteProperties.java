@@ -0,0 +1,23 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Positive;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "customer.delete")
+public class CustomerDeleteProperties {
+
+    /**
+     * Maximum number of rows removed by a single DELETE statement of a bulk delete. Must be positive, since a chunk
+     * of zero rows would never finish a bulk delete.
+     */
+    @Positive
+    private int chunkSize = 1000;
+
+}
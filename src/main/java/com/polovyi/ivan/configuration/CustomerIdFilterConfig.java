@@ -0,0 +1,44 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.idfilter.CustomerIdFilter;
+import com.polovyi.ivan.idfilter.CustomerIdFilterInterceptor;
+import com.polovyi.ivan.idfilter.KnownCustomerId;
+import com.polovyi.ivan.repository.CustomerStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Calls of {@link KnownCustomerId} methods with ids that no customer has are answered without a query. With
+ * {@code customer.id-filter.enabled} false every call reaches the database.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "customer.id-filter", name = "enabled")
+public class CustomerIdFilterConfig {
+
+    @Bean
+    public CustomerIdFilter customerIdFilter(CustomerStore customerStore, TransactionTemplate transactionTemplate,
+            CustomerIdFilterProperties properties, MeterRegistry meterRegistry) {
+        return new CustomerIdFilter(customerStore, transactionTemplate, properties, meterRegistry);
+    }
+
+    // Ordered before single flight and transactions, so a ruled out id neither waits for a flight nor a connection
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor customerIdFilterAdvisor(ObjectProvider<CustomerIdFilter> customerIdFilter) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(KnownCustomerId.class),
+                new CustomerIdFilterInterceptor(customerIdFilter));
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+        return advisor;
+    }
+}
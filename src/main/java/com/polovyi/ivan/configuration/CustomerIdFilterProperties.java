@@ -0,0 +1,33 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.id-filter")
+public class CustomerIdFilterProperties {
+
+    /**
+     * Whether lookups, updates and deletes of ids no customer ever had are answered without a query.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of ids the filter is sized for at least; it is sized for twice the ids found when rebuilt.
+     */
+    private long minCapacity = 100_000;
+
+    /**
+     * Share of unknown ids that pass the filter once it holds as many ids as it is sized for.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Time between rebuilds, which drop the ids of deleted customers. A full filter is rebuilt right away.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+}
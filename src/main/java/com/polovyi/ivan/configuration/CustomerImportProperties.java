@@ -0,0 +1,44 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.import")
+public class CustomerImportProperties {
+
+    /**
+     * Customers inserted per JDBC batch and transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Validated batches an import may have waiting for a writer. Once they are all taken, reading the upload
+     * pauses, which in turn slows the client down.
+     */
+    private int queueCapacity = 4;
+
+    /**
+     * Threads writing the batches of one import.
+     */
+    private int writerThreads = 2;
+
+    /**
+     * Imports running at the same time; further uploads are rejected with 429.
+     */
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * Rejected rows reported individually per import, all of them are counted.
+     */
+    private int maxReportedErrors = 1000;
+
+    /**
+     * How long the status of a finished import stays available.
+     */
+    private Duration retention = Duration.ofHours(1);
+}
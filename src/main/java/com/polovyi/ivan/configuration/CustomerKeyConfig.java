@@ -0,0 +1,28 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.keys.CustomerIdType;
+import com.polovyi.ivan.keys.CustomerKeyType;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CustomerKeyConfig {
+
+    /*
+     * Hands the key type to the id generator through the Hibernate settings, and registers the id column type
+     * configured for it under the name the entities refer to.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer customerKeyHibernatePropertiesCustomizer(CustomerKeyProperties properties) {
+        CustomerKeyType keyType = properties.getType();
+        MetadataBuilderContributor customerIdType = metadataBuilder -> metadataBuilder.applyBasicType(
+                new CustomerIdType(keyType), CustomerIdType.class.getName());
+        return hibernateProperties -> {
+            hibernateProperties.put(CustomerKeyType.SETTING, keyType);
+            hibernateProperties.put(EntityManagerFactoryBuilderImpl.METADATA_BUILDER_CONTRIBUTOR, customerIdType);
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.keys.CustomerKeyType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.keys")
+public class CustomerKeyProperties {
+
+    /**
+     * Ids of new customers: {@code random} UUIDs kept as strings, or {@code time-ordered} UUIDs kept as 16 bytes by
+     * the JPA store. Existing databases must be migrated with {@code db/customer-binary-keys.sql} before switching
+     * to {@code time-ordered}.
+     */
+    private CustomerKeyType type = CustomerKeyType.RANDOM;
+}
@@ -0,0 +1,43 @@
+package com.polovyi.ivan.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.service.CustomerChangeLog;
+import com.polovyi.ivan.snapshot.CustomerListSnapshotFilter;
+import com.polovyi.ivan.snapshot.CustomerListSnapshots;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves the full customer list from a snapshot rebuilt after writes, over REST and GraphQL. Off by default, since
+ * clients without the read-your-writes cookie may read a list up to one debounce window plus one rebuild old. The
+ * cookie comes from the {@link ReadYourWritesConfig}, with or without read replicas.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "customer.list-snapshot", name = "enabled")
+public class CustomerListSnapshotConfig {
+
+    @Bean
+    public CustomerListSnapshots customerListSnapshots(CustomerStore customerStore,
+            CustomerChangeLog customerChangeLog, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+            CustomerListSnapshotProperties properties, MeterRegistry meterRegistry) {
+        return new CustomerListSnapshots(customerStore, customerChangeLog, transactionTemplate, objectMapper,
+                properties, meterRegistry);
+    }
+
+    // After the read-your-writes filter, whose required sequence decides whether the snapshot may answer
+    @Bean
+    public FilterRegistrationBean<CustomerListSnapshotFilter> customerListSnapshotFilter(
+            CustomerListSnapshots customerListSnapshots) {
+        FilterRegistrationBean<CustomerListSnapshotFilter> registration = new FilterRegistrationBean<>(
+                new CustomerListSnapshotFilter(customerListSnapshots));
+        registration.addUrlPatterns(CustomerListSnapshotFilter.PATH);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 6);
+        return registration;
+    }
+}
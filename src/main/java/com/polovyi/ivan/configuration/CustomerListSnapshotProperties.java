@@ -0,0 +1,24 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.list-snapshot")
+public class CustomerListSnapshotProperties {
+
+    /**
+     * Whether GET /v1/customers and the allCustomers query are served from a prebuilt snapshot of the list.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Time between the first write after a rebuild and the next rebuild. Writes within it are picked up by the same
+     * rebuild, so under constant writes the snapshot is at most this much plus one rebuild behind.
+     */
+    private Duration debounce = Duration.ofSeconds(1);
+}
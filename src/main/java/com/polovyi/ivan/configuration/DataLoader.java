@@ -2,8 +2,9 @@ package com.polovyi.ivan.configuration;
 
 import com.github.javafaker.Faker;
 import com.polovyi.ivan.entity.CustomerEntity;
-import com.polovyi.ivan.repository.CustomerRepository;
+import com.polovyi.ivan.repository.CustomerStore;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
@@ -16,13 +17,14 @@ import java.util.stream.IntStream;
 import static java.util.stream.Collectors.toList;
 
 @Component
-public record DataLoader(CustomerRepository customerRepository) {
+@ConditionalOnProperty(prefix = "customer.data-loader", name = "enabled", matchIfMissing = true)
+public record DataLoader(CustomerStore customerStore) {
 
     @Bean
     private InitializingBean sendDatabase() {
         Faker faker = new Faker();
         return () -> {
-            customerRepository.saveAll(generateCustomerList(faker));
+            customerStore.saveAll(generateCustomerList(faker));
         };
     }
 
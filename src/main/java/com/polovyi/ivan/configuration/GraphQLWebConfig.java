@@ -0,0 +1,106 @@
+package com.polovyi.ivan.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.context.RequestContext;
+import com.polovyi.ivan.dto.response.CustomerChangeResponse;
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.dto.response.DeleteCustomersResponse;
+import com.polovyi.ivan.graphql.GeneratedDataFetchers;
+import com.polovyi.ivan.graphql.GraphQLGetRequestFilter;
+import com.polovyi.ivan.graphql.IncrementalDeliveryDirectives;
+import com.polovyi.ivan.graphql.IncrementalDeliveryFilter;
+import com.polovyi.ivan.graphql.PersistedQueryStore;
+import com.polovyi.ivan.service.CustomerService;
+import graphql.schema.GraphQLSchema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+
+@Configuration
+public class GraphQLWebConfig {
+
+    @Bean
+    public FilterRegistrationBean<GraphQLGetRequestFilter> graphQLGetRequestFilter(
+            PersistedQueryStore persistedQueryStore, ObjectMapper objectMapper,
+            @Value("${graphql.servlet.mapping}") String graphQLMapping) {
+        FilterRegistrationBean<GraphQLGetRequestFilter> registration = new FilterRegistrationBean<>(
+                new GraphQLGetRequestFilter(persistedQueryStore, objectMapper));
+        registration.addUrlPatterns(graphQLMapping, graphQLMapping + "/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<IncrementalDeliveryFilter> incrementalDeliveryFilter(
+            CustomerService customerService, GraphQLSchema schema, ObjectMapper objectMapper,
+            @Value("${graphql.servlet.mapping}") String graphQLMapping,
+            @Value("${graphql.stream.chunk-size:100}") int chunkSize) {
+        FilterRegistrationBean<IncrementalDeliveryFilter> registration = new FilterRegistrationBean<>(
+                new IncrementalDeliveryFilter(customerService, schema, objectMapper, chunkSize));
+        registration.addUrlPatterns(graphQLMapping);
+        return registration;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor graphQLExecutor(
+            @Value("${graphql.executor.pool-size:8}") int poolSize,
+            @Value("${graphql.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+
+            // Tasks still queued at shutdown never run, the request state they carry is released all the same
+            @Override
+            protected void cancelRemainingTask(Runnable task) {
+                super.cancelRemainingTask(task);
+                RequestContext.discard(task);
+            }
+        };
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("graphql-");
+        executor.setTaskDecorator(RequestContext::propagate);
+        // A saturated pool slows the submitting request down instead of failing its operations; once the pool is
+        // shut down, tasks are dropped like with CallerRunsPolicy
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (pool.isShutdown()) {
+                RequestContext.discard(task);
+            } else {
+                task.run();
+            }
+        });
+        return executor;
+    }
+
+    @Bean
+    public static BeanPostProcessor incrementalDeliveryDirectivesPostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof GraphQLSchema schema ? IncrementalDeliveryDirectives.install(schema) : bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "graphql.generated-fetchers", name = "enabled", matchIfMissing = true)
+    public static BeanPostProcessor generatedDataFetchersPostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof GraphQLSchema schema
+                        ? GeneratedDataFetchers.install(schema, List.of(CustomerResponse.class,
+                                CustomerChangeResponse.class, CustomerChangesResponse.class,
+                                DeleteCustomersResponse.class))
+                        : bean;
+            }
+        };
+    }
+}
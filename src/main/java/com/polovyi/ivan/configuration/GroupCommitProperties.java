@@ -0,0 +1,28 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.group-commit")
+public class GroupCommitProperties {
+
+    /**
+     * Whether concurrent creates and updates are queued and committed together in batches.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of writes committed in one transaction.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * How long the first write of a batch waits for others to join it.
+     */
+    private Duration maxDelay = Duration.ofNanos(200_000);
+}
@@ -0,0 +1,86 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.jfr.JfrHandlerInterceptor;
+import com.polovyi.ivan.jfr.JfrInstrumentation;
+import com.polovyi.ivan.jfr.JfrMappingJackson2HttpMessageConverter;
+import com.polovyi.ivan.jfr.JfrRecording;
+import com.polovyi.ivan.jfr.JfrStatementListener;
+import com.polovyi.ivan.jfr.RequestOperationFilter;
+import com.polovyi.ivan.jfr.ServiceCallInterceptor;
+import com.polovyi.ivan.service.CustomerService;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Flight recorder events for every phase of a request: REST dispatch and serialization, GraphQL phases and field
+ * fetches, service calls and JDBC statements. Only installed with {@code jfr.events.enabled}: while no recording
+ * enables them the events are not committed, but every statement, service call and field fetch still goes through
+ * the interception and creates its event. A continuous recording, {@code jfr.recording.enabled}, needs the events.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jfr.events", name = "enabled")
+public class JfrConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new JfrHandlerInterceptor());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                ? new JfrMappingJackson2HttpMessageConverter(
+                        ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                : converter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestOperationFilter> requestOperationFilter() {
+        FilterRegistrationBean<RequestOperationFilter> registration = new FilterRegistrationBean<>(
+                new RequestOperationFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public JfrInstrumentation jfrInstrumentation() {
+        return new JfrInstrumentation();
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceCallEventAdvisor() {
+        return new DefaultPointcutAdvisor(new ComposablePointcut(new RootClassFilter(CustomerService.class)),
+                new ServiceCallInterceptor());
+    }
+
+    @Bean
+    public static JfrStatementListener jfrStatementListener() {
+        return new JfrStatementListener();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "jfr.recording", name = "enabled")
+    public JfrRecording jfrRecording(JfrRecordingProperties properties, ResourceLoader resourceLoader)
+            throws IOException, ParseException {
+        return new JfrRecording(properties, resourceLoader);
+    }
+}
@@ -0,0 +1,36 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "jfr.recording")
+public class JfrRecordingProperties {
+
+    /**
+     * Whether the application keeps a continuous flight recording of its own.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JFR settings of the recording.
+     */
+    private String settings = "classpath:jfr/customer.jfc";
+
+    /**
+     * How long recorded data is kept.
+     */
+    private Duration maxAge = Duration.ofHours(6);
+
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    /**
+     * File the recording is written to when the application stops.
+     */
+    private String destination = "customer.jfr";
+}
@@ -0,0 +1,73 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.replica.ReadWriteRoutingDataSource;
+import com.polovyi.ivan.replica.Replica;
+import com.polovyi.ivan.replica.ReplicaSynchronizer;
+import com.polovyi.ivan.service.CustomerChangeLog;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits reads from writes when {@code customer.read-replicas.enabled} is set: the application data source routes
+ * read-only transactions to the replicas, which a local stand-in replication keeps in sync with the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "customer.read-replicas", name = "enabled")
+public class ReadReplicaConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public List<Replica> replicas(ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        List<Replica> replicas = new ArrayList<>();
+        for (int index = 0; index < properties.getUrls().size(); index++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(properties.getUrls().get(index))
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            dataSource.setPoolName("replica-" + index);
+            Replica replica = new Replica("replica-" + index, dataSource);
+            Gauge.builder("datasource.replica.lag", replica, current -> current.lagNanos() / 1e9)
+                    .tag("replica", replica.getName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            replicas.add(replica);
+        }
+        return replicas;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, List<Replica> replicas,
+            ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                properties.getMaxLag(), meterRegistry));
+    }
+
+    @Bean
+    public ReplicaSynchronizer replicaSynchronizer(HikariDataSource primaryDataSource, List<Replica> replicas,
+            ReadReplicaProperties properties, CustomerChangeLog customerChangeLog) {
+        return new ReplicaSynchronizer(primaryDataSource, replicas, properties, customerChangeLog::committedSequence);
+    }
+}
@@ -0,0 +1,45 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.read-replicas")
+public class ReadReplicaProperties {
+
+    /**
+     * Routes read-only transactions to the replicas when enabled.
+     */
+    private boolean enabled;
+
+    private List<String> urls = new ArrayList<>(List.of("jdbc:h2:mem:customerdb-replica-0;DB_CLOSE_DELAY=-1"));
+
+    private String username = "sa";
+
+    private String password = "";
+
+    /**
+     * Replicas that were last caught up with the primary longer ago than this are not read from.
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    private Duration healthCheckInterval = Duration.ofSeconds(1);
+
+    /**
+     * Interval at which the local stand-in replication copies new changes from the primary to the replicas.
+     */
+    private Duration syncInterval = Duration.ofMillis(100);
+
+    private int syncBatchSize = 1000;
+
+    /**
+     * Lifetime of the cookie that makes a client read its own writes, from replicas and the customer list snapshot.
+     */
+    private Duration readYourWritesTtl = Duration.ofMinutes(1);
+}
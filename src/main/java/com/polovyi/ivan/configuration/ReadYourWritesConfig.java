@@ -0,0 +1,45 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.replica.ReadYourWritesFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Gives clients read-your-writes consistency whenever reads may lag behind writes: reads from replicas, and the
+ * customer list served from a snapshot. Each of them checks the change sequence the filter requires on its own.
+ */
+@Configuration
+@Conditional(ReadYourWritesConfig.OnLaggingReads.class)
+public class ReadYourWritesConfig {
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadReplicaProperties properties,
+            @Value("${graphql.servlet.mapping}") String graphQLMapping) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(properties.getReadYourWritesTtl()));
+        registration.addUrlPatterns("/v1/*", graphQLMapping, graphQLMapping + "/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    static class OnLaggingReads extends AnyNestedCondition {
+
+        OnLaggingReads() {
+            super(ConfigurationPhase.PARSE_CONFIGURATION);
+        }
+
+        @ConditionalOnProperty(prefix = "customer.read-replicas", name = "enabled")
+        static class ReadReplicas {
+        }
+
+        @ConditionalOnProperty(prefix = "customer.list-snapshot", name = "enabled")
+        static class ListSnapshot {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.deadline.DeadlineHandlerInterceptor;
+import com.polovyi.ivan.deadline.DeadlineInstrumentation;
+import com.polovyi.ivan.deadline.DeadlineServiceInterceptor;
+import com.polovyi.ivan.deadline.DeadlineStatementListener;
+import com.polovyi.ivan.deadline.RequestDeadlineFilter;
+import com.polovyi.ivan.deadline.RequestDeadlines;
+import com.polovyi.ivan.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * A deadline for every request, from the {@code X-Request-Timeout} header, the operation or the default, enforced
+ * by the GraphQL execution, the service layer and the JDBC statements. With {@code request-deadline.enabled} false
+ * requests run until they complete.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "request-deadline", name = "enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RequestDeadlineConfig implements WebMvcConfigurer {
+
+    // Defined below, so only looked up once interceptors are added
+    private final ObjectProvider<RequestDeadlines> requestDeadlines;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineHandlerInterceptor(requestDeadlines.getObject()));
+    }
+
+    @Bean
+    public RequestDeadlines requestDeadlines(RequestDeadlineProperties properties, MeterRegistry meterRegistry) {
+        return new RequestDeadlines(properties, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestDeadlineFilter> requestDeadlineFilter(RequestDeadlines requestDeadlines,
+            RequestDeadlineProperties properties) {
+        FilterRegistrationBean<RequestDeadlineFilter> registration = new FilterRegistrationBean<>(
+                new RequestDeadlineFilter(requestDeadlines, properties.getHeader()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 4);
+        return registration;
+    }
+
+    @Bean
+    public DeadlineInstrumentation deadlineInstrumentation(RequestDeadlines requestDeadlines) {
+        return new DeadlineInstrumentation(requestDeadlines);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor deadlineServiceAdvisor() {
+        return new DefaultPointcutAdvisor(new ComposablePointcut(new RootClassFilter(CustomerService.class)),
+                new DeadlineServiceInterceptor());
+    }
+
+    @Bean
+    public static DeadlineStatementListener deadlineStatementListener() {
+        return new DeadlineStatementListener();
+    }
+}
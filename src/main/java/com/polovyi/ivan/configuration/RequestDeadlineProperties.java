@@ -0,0 +1,42 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "request-deadline")
+public class RequestDeadlineProperties {
+
+    /**
+     * Time a request may take when neither the client nor the operation asks for less.
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Longest time a client may ask for.
+     */
+    private Duration maxTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Request header carrying the time in milliseconds the client is willing to wait.
+     */
+    private String header = "X-Request-Timeout";
+
+    /**
+     * How often the statements of expired requests are looked for and cancelled. Statements also time out on their
+     * own, but only with the whole second resolution of the JDBC query timeout.
+     */
+    private Duration checkInterval = Duration.ofMillis(50);
+
+    /**
+     * Time limits of single operations, named like {@code GET /v1/customers-with-filters} or
+     * {@code query allCustomersWithFilters}. They shorten the deadline of a request, never extend it.
+     */
+    private Map<String, Duration> operations = new HashMap<>();
+}
@@ -12,4 +12,9 @@ public class ScalarConfig {
     public GraphQLScalarType data() {
         return ExtendedScalars.Date;
     }
+
+    @Bean
+    public GraphQLScalarType longScalar() {
+        return ExtendedScalars.GraphQLLong;
+    }
 }
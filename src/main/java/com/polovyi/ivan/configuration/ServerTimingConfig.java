@@ -0,0 +1,53 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.service.CustomerService;
+import com.polovyi.ivan.timing.RequestTracingInstrumentation;
+import com.polovyi.ivan.timing.ServerTimingFilter;
+import com.polovyi.ivan.timing.ServiceTimingInterceptor;
+import com.polovyi.ivan.timing.TimingStatementListener;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+/**
+ * {@code Server-Timing} headers with the db, service and serialize time of every REST call, and Apollo tracing of
+ * the GraphQL requests that ask for it. With {@code server-timing.enabled} false none of it is installed.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "server-timing", name = "enabled", matchIfMissing = true)
+public class ServerTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(
+                new ServerTimingFilter());
+        registration.addUrlPatterns("/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registration;
+    }
+
+    @Bean
+    public RequestTracingInstrumentation requestTracingInstrumentation() {
+        return new RequestTracingInstrumentation();
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceTimingAdvisor() {
+        return new DefaultPointcutAdvisor(new ComposablePointcut(new RootClassFilter(CustomerService.class)),
+                new ServiceTimingInterceptor());
+    }
+
+    @Bean
+    public static TimingStatementListener timingStatementListener() {
+        return new TimingStatementListener();
+    }
+}
@@ -0,0 +1,36 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "customer.sharding")
+public class ShardingProperties {
+
+    /**
+     * Number of databases the customers are spread over when {@code customer.store.type} is {@code sharded}.
+     */
+    private int shardCount = 4;
+
+    /**
+     * JDBC URL of a shard, {@code %d} is replaced by the shard index.
+     */
+    private String urlTemplate = "jdbc:h2:mem:customer-shard-%d;DB_CLOSE_DELAY=-1";
+
+    private String username = "sa";
+
+    private String password = "";
+
+    /**
+     * Shard count the stored data was written with. When set and different from {@code shardCount}, customers are
+     * moved to their new shards on startup.
+     */
+    private Integer rebalanceFromShardCount;
+
+    /**
+     * Number of rows read from a shard at a time while rebalancing.
+     */
+    private int rebalanceBatchSize = 500;
+}
@@ -0,0 +1,83 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.dto.response.CustomerChangeResponse;
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.singleflight.SingleFlight;
+import com.polovyi.ivan.singleflight.SingleFlightInterceptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Concurrent identical calls of the {@link SingleFlight} read methods of the service share one execution. With
+ * {@code customer.single-flight.enabled} false every call runs its own queries.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "customer.single-flight", name = "enabled", matchIfMissing = true)
+public class SingleFlightConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static SingleFlightInterceptor singleFlightInterceptor() {
+        return new SingleFlightInterceptor(SingleFlightConfig::copyOfResult);
+    }
+
+    // Ordered before the transaction advisor, so waiting callers hold neither a transaction nor a connection
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor singleFlightAdvisor(SingleFlightInterceptor singleFlightInterceptor) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(SingleFlight.class), singleFlightInterceptor);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+
+    /*
+     * The response types are mutable beans: every caller of a flight gets copies of them, in unmodifiable lists.
+     * Other results, strings and numbers, are immutable and shared as they are.
+     */
+    static Object copyOfResult(Object result) {
+        if (result instanceof List<?> list) {
+            return list.stream().map(SingleFlightConfig::copyOfResult).toList();
+        }
+        if (result instanceof CustomerResponse customer) {
+            return customer.toBuilder().build();
+        }
+        if (result instanceof CustomerChangeResponse change) {
+            return change.toBuilder().customer((CustomerResponse) copyOfResult(change.getCustomer())).build();
+        }
+        if (result instanceof CustomerChangesResponse changes) {
+            @SuppressWarnings("unchecked")
+            List<CustomerChangeResponse> changesCopy = (List<CustomerChangeResponse>) copyOfResult(
+                    changes.getChanges());
+            return changes.toBuilder().changes(changesCopy).build();
+        }
+        return result;
+    }
+
+    @Bean
+    public MeterBinder singleFlightMetrics(SingleFlightInterceptor interceptor) {
+        return registry -> {
+            FunctionCounter.builder("customer.single-flight.calls", interceptor, SingleFlightInterceptor::getLedCalls)
+                    .description("Calls of single-flight methods by whether they ran or joined a flight")
+                    .tag("role", "leader")
+                    .register(registry);
+            FunctionCounter.builder("customer.single-flight.calls", interceptor,
+                            SingleFlightInterceptor::getJoinedCalls)
+                    .description("Calls of single-flight methods by whether they ran or joined a flight")
+                    .tag("role", "follower")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.polovyi.ivan.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs the time from JVM start to application readiness. With {@code startup.exit-on-ready} the application stops
+ * once ready, which is what the AppCDS training run of the {@code appcds} Maven profile relies on.
+ */
+@Slf4j
+@Component
+public class StartupReporter {
+
+    private final boolean exitOnReady;
+
+    public StartupReporter(@Value("${startup.exit-on-ready:false}") boolean exitOnReady) {
+        this.exitOnReady = exitOnReady;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("[StartupReporter] Application ready {} ms after JVM start", uptime);
+        if (exitOnReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
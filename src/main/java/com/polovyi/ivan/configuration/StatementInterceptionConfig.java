@@ -0,0 +1,63 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.jdbc.StatementInterceptingDataSource;
+import com.polovyi.ivan.jdbc.StatementListener;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Wraps the application data source once for all {@link StatementListener} beans. The application data source is
+ * the only {@link DataSource} bean, or the primary one when there are several, like the pools the read replica
+ * routing is built from, whose statements reach the listeners through it.
+ */
+@Configuration
+public class StatementInterceptionConfig {
+
+    @Bean
+    public static BeanPostProcessor statementInterceptingDataSourcePostProcessor(
+            ObjectProvider<StatementListener> statementListeners) {
+        return new StatementInterceptingDataSourcePostProcessor(statementListeners);
+    }
+
+    private static final class StatementInterceptingDataSourcePostProcessor implements BeanPostProcessor,
+            BeanFactoryAware {
+
+        private final ObjectProvider<StatementListener> statementListeners;
+
+        private ConfigurableListableBeanFactory beanFactory;
+
+        StatementInterceptingDataSourcePostProcessor(ObjectProvider<StatementListener> statementListeners) {
+            this.statementListeners = statementListeners;
+        }
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (!(bean instanceof DataSource dataSource) || !isApplicationDataSource(beanName)) {
+                return bean;
+            }
+            List<StatementListener> listeners = statementListeners.orderedStream().toList();
+            return listeners.isEmpty() ? bean : StatementInterceptingDataSource.wrap(dataSource, listeners);
+        }
+
+        private boolean isApplicationDataSource(String beanName) {
+            String[] dataSourceNames = beanFactory.getBeanNamesForType(DataSource.class, true, false);
+            return dataSourceNames.length == 1
+                    || beanFactory.containsBeanDefinition(beanName)
+                    && beanFactory.getMergedBeanDefinition(beanName).isPrimary();
+        }
+    }
+}
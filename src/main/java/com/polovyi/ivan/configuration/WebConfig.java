@@ -0,0 +1,22 @@
+package com.polovyi.ivan.configuration;
+
+import com.polovyi.ivan.converter.CustomerProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /*
+     * Smile and CBOR converters are registered by Spring MVC itself once their Jackson data formats are on the
+     * class path. All binary converters come after the JSON one, which stays the default for clients that do not
+     * ask for a binary encoding in their Accept header.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CustomerProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,11 @@
+package com.polovyi.ivan.context;
+
+/**
+ * Ends the binding of a {@link RequestState} to the current thread, putting back the state bound before it.
+ */
+@FunctionalInterface
+public interface ContextScope extends AutoCloseable {
+
+    @Override
+    void close();
+}
@@ -0,0 +1,95 @@
+package com.polovyi.ivan.context;
+
+import com.polovyi.ivan.allocation.AllocationAccount;
+import com.polovyi.ivan.deadline.RequestDeadline;
+import com.polovyi.ivan.jfr.RequestOperation;
+import com.polovyi.ivan.replica.ReadConsistency;
+import com.polovyi.ivan.timing.RequestTimings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Carries the request state of the submitting thread over to the tasks it submits: its allocation account, its
+ * operation, its read consistency, its deadline and its timings. The task runs with all of them bound and unbinds
+ * them in reverse order. A task that will not run, because its executor rejected or dropped it, must be
+ * {@link #discard discarded} so that the state it carried is released all the same.
+ */
+public final class RequestContext {
+
+    // In binding order: the allocation account first, so that it is charged with the binding of the others
+    private static final List<Supplier<RequestState>> CURRENT_STATES = List.of(AllocationAccount::current,
+            RequestOperation::current, ReadConsistency::current, RequestDeadline::current, RequestTimings::current);
+
+    private RequestContext() {
+    }
+
+    /**
+     * Task decorator that runs the task with the request state of the submitting thread. Tasks submitted outside of
+     * a request are returned as they are.
+     */
+    public static Runnable propagate(Runnable task) {
+        List<RequestState> states = new ArrayList<>(CURRENT_STATES.size());
+        for (Supplier<RequestState> currentState : CURRENT_STATES) {
+            RequestState state = currentState.get();
+            if (state != null) {
+                states.add(state);
+            }
+        }
+        if (states.isEmpty()) {
+            return task;
+        }
+        states.forEach(RequestState::carried);
+        return new ContextTask(task, states);
+    }
+
+    /**
+     * Releases the request state carried by a task that will not run. Other tasks are left alone.
+     */
+    public static void discard(Runnable task) {
+        if (task instanceof ContextTask contextTask) {
+            contextTask.release();
+        }
+    }
+
+    private static final class ContextTask implements Runnable {
+
+        private final Runnable task;
+
+        private final List<RequestState> states;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ContextTask(Runnable task, List<RequestState> states) {
+            this.task = task;
+            this.states = states;
+        }
+
+        @Override
+        public void run() {
+            try {
+                runBound(0);
+            } finally {
+                release();
+            }
+        }
+
+        private void runBound(int index) {
+            if (index == states.size()) {
+                task.run();
+                return;
+            }
+            try (ContextScope ignored = states.get(index).bind()) {
+                runBound(index + 1);
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                states.forEach(RequestState::released);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.polovyi.ivan.context;
+
+/**
+ * State of a request that is bound to the threads working for it, and carried over to the tasks they submit by
+ * {@link RequestContext}.
+ */
+public interface RequestState {
+
+    /**
+     * Binds the state to the current thread until the returned scope is closed.
+     */
+    ContextScope bind();
+
+    /**
+     * Called when a task is handed the state, on the submitting thread.
+     */
+    default void carried() {
+    }
+
+    /**
+     * Called once a task handed the state has run, or will not run because it was rejected or dropped.
+     */
+    default void released() {
+    }
+}
@@ -1,32 +1,58 @@
 package com.polovyi.ivan.controller;
 
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
 import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.graphql.CustomerDataLoaders;
+import com.polovyi.ivan.graphql.CustomerLookup;
+import com.polovyi.ivan.replica.ReadConsistency;
 import com.polovyi.ivan.service.CustomerService;
+import com.polovyi.ivan.snapshot.CustomerListSnapshot;
+import com.polovyi.ivan.snapshot.CustomerListSnapshots;
 import graphql.kickstart.tools.GraphQLQueryResolver;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Component;
-import org.springframework.validation.annotation.Validated;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
-@Validated
 @Component
 @RequiredArgsConstructor
 public class CustomerGraphQLQueryController implements GraphQLQueryResolver {
 
     private final CustomerService customerService;
 
-    public List<CustomerResponse> allCustomers() {
-        return customerService.getAllCustomers();
+    private final ObjectProvider<CustomerListSnapshots> customerListSnapshots;
+
+    // The snapshot saves the query; the response is still written per request, since the selection shapes it
+    public CompletableFuture<List<CustomerResponse>> allCustomers(DataFetchingEnvironment environment) {
+        CustomerListSnapshots snapshots = customerListSnapshots.getIfAvailable();
+        Optional<CustomerListSnapshot> snapshot = snapshots == null
+                ? Optional.empty()
+                : snapshots.current(ReadConsistency.requiredSequence());
+        return snapshot.map(current -> CompletableFuture.completedFuture(current.customers()))
+                .orElseGet(() -> customers(environment).load(CustomerLookup.allCustomers()));
     }
 
-    public List<CustomerResponse> allCustomersWithFilters(
+    public CompletableFuture<List<CustomerResponse>> allCustomersWithFilters(
             String fullName,
             String phoneNumber,
-           @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate createdAt) {
-        return customerService.getCustomersWithFilters(fullName, phoneNumber, createdAt);
+           @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate createdAt,
+            DataFetchingEnvironment environment) {
+        return customers(environment).load(CustomerLookup.withFilters(fullName, phoneNumber, createdAt));
+    }
+
+    public CustomerChangesResponse customerChanges(Long since, Integer limit) {
+        return customerService.getCustomerChanges(since == null ? 0 : since, limit == null ? 100 : limit);
+    }
+
+    private DataLoader<CustomerLookup, List<CustomerResponse>> customers(DataFetchingEnvironment environment) {
+        return environment.getDataLoader(CustomerDataLoaders.CUSTOMERS);
     }
 
 }
@@ -0,0 +1,110 @@
+package com.polovyi.ivan.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.bulk.CustomerImportJob;
+import com.polovyi.ivan.bulk.CustomerImportService;
+import com.polovyi.ivan.bulk.ImportFormat;
+import com.polovyi.ivan.bulk.ImportRequests;
+import com.polovyi.ivan.bulk.ImportRowReader;
+import com.polovyi.ivan.bulk.MultipartFileStream;
+import com.polovyi.ivan.dto.response.CustomerImportResponse;
+import com.polovyi.ivan.exeption.NotFoundException;
+import com.polovyi.ivan.exeption.UnprocessableEntityException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Bulk import of customers from CSV or NDJSON, sent as the request body or as a {@code multipart/form-data} file.
+ * The upload is answered with 202 and the job id as soon as it starts, and is then read while the client sends it;
+ * progress, rejected rows and the outcome are available from the job resource until it expires.
+ */
+@RestController
+public record CustomerImportRESTController(CustomerImportService customerImportService, ObjectMapper objectMapper) {
+
+    private static final List<MediaType> SUPPORTED_MEDIA_TYPES = List.of(new MediaType("text", "csv"),
+            new MediaType("application", "x-ndjson"), MediaType.MULTIPART_FORM_DATA);
+
+    @PostMapping(path = ImportRequests.PATH)
+    public void importCustomers(HttpServletRequest request, HttpServletResponse response,
+            UriComponentsBuilder uriBuilder) throws IOException, HttpMediaTypeNotSupportedException {
+        ImportRowReader rowReader = rowReader(request);
+        CustomerImportJob job = customerImportService.start();
+        try {
+            response.setStatus(HttpStatus.ACCEPTED.value());
+            response.setHeader(HttpHeaders.LOCATION,
+                    uriBuilder.path(ImportRequests.PATH + "/{jobId}").buildAndExpand(job.getId()).toUriString());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(objectMapper.writeValueAsBytes(CustomerImportResponse.valueOf(job)));
+            response.flushBuffer();
+        } finally {
+            customerImportService.read(job, rowReader);
+        }
+    }
+
+    @GetMapping(path = ImportRequests.PATH + "/{jobId}")
+    @ResponseStatus(HttpStatus.OK)
+    public CustomerImportResponse getImport(@PathVariable String jobId) {
+        return customerImportService.findJob(jobId)
+                .map(CustomerImportResponse::valueOf)
+                .orElseThrow(NotFoundException::new);
+    }
+
+    /**
+     * Stops reading and writing the upload. Batches committed before are kept.
+     */
+    @DeleteMapping(path = ImportRequests.PATH + "/{jobId}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public CustomerImportResponse cancelImport(@PathVariable String jobId) {
+        CustomerImportJob job = customerImportService.findJob(jobId).orElseThrow(NotFoundException::new);
+        job.cancel();
+        return CustomerImportResponse.valueOf(job);
+    }
+
+    private ImportRowReader rowReader(HttpServletRequest request)
+            throws IOException, HttpMediaTypeNotSupportedException {
+        MediaType contentType = contentType(request.getContentType());
+        InputStream content = request.getInputStream();
+        String filename = null;
+        if (contentType != null && MediaType.MULTIPART_FORM_DATA.equalsTypeAndSubtype(contentType)) {
+            String boundary = MultipartFileStream.boundaryOf(contentType);
+            if (boundary == null) {
+                throw new HttpMediaTypeNotSupportedException("Multipart content type has no boundary");
+            }
+            MultipartFileStream.Part file = new MultipartFileStream(content, boundary).firstFile();
+            if (file == null) {
+                throw new UnprocessableEntityException("Multipart upload contains no file");
+            }
+            contentType = file.contentType();
+            content = file.content();
+            filename = file.filename();
+        }
+        MediaType formatType = contentType;
+        ImportFormat format = ImportFormat.of(formatType, filename)
+                .orElseThrow(() -> new HttpMediaTypeNotSupportedException(formatType, SUPPORTED_MEDIA_TYPES));
+        return format.reader(content, formatType, objectMapper);
+    }
+
+    private static MediaType contentType(String value) throws HttpMediaTypeNotSupportedException {
+        try {
+            return value == null ? null : MediaType.parseMediaType(value);
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotSupportedException(e.getMessage());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.polovyi.ivan.controller;
 
 import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
 import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.dto.response.DeleteCustomersResponse;
 import com.polovyi.ivan.dto.request.PartiallyUpdateCustomerRequest;
 import com.polovyi.ivan.dto.request.UpdateCustomerRequest;
 import com.polovyi.ivan.service.CustomerService;
@@ -42,6 +44,14 @@ public record CustomerRESTController(CustomerService customerService) {
         return customerService.getCustomersWithFilters(fullName, phoneNumber, createdAt);
     }
 
+    @GetMapping(path = "/v1/customers/changes")
+    @ResponseStatus(HttpStatus.OK)
+    public CustomerChangesResponse getCustomerChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return customerService.getCustomerChanges(since, limit);
+    }
+
     @PostMapping(path = "/v1/customers")
     @ResponseStatus(HttpStatus.CREATED)
     public void createCustomer(@Valid @RequestBody CreateCustomerRequest createCustomerRequest,
@@ -60,7 +70,7 @@ public record CustomerRESTController(CustomerService customerService) {
     @PatchMapping(path = "/v1/customers/{customerId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void partiallyUpdateCustomer(@PathVariable String customerId,
-             @RequestBody PartiallyUpdateCustomerRequest partiallyUpdateCustomerRequest) {
+            @Valid @RequestBody PartiallyUpdateCustomerRequest partiallyUpdateCustomerRequest) {
         customerService.partiallyUpdateCustomer(customerId, partiallyUpdateCustomerRequest);
     }
 
@@ -70,4 +80,12 @@ public record CustomerRESTController(CustomerService customerService) {
         customerService.deleteCustomer(customerId);
     }
 
+    @DeleteMapping(path = "/v1/customers")
+    @ResponseStatus(HttpStatus.OK)
+    public DeleteCustomersResponse deleteCustomers(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate createdBefore,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        return customerService.deleteCustomersCreatedBefore(createdBefore, dryRun);
+    }
+
 }
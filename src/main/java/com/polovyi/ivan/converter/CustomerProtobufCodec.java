@@ -0,0 +1,127 @@
+package com.polovyi.ivan.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes {@link CustomerResponse}s in the protobuf wire format described by {@code src/main/proto/customer.proto}.
+ * Written against the coded streams directly, so neither generated message classes nor an intermediate copy of
+ * each customer are needed.
+ */
+public final class CustomerProtobufCodec {
+
+    private static final int CUSTOMERS = 1;
+
+    private static final int ID = 1;
+
+    private static final int FULL_NAME = 2;
+
+    private static final int PHONE_NUMBER = 3;
+
+    private static final int ADDRESS = 4;
+
+    private static final int CREATED_AT_EPOCH_DAY = 5;
+
+    private CustomerProtobufCodec() {
+    }
+
+    public static void write(CustomerResponse customer, OutputStream outputStream) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+        writeFields(customer, output);
+        output.flush();
+    }
+
+    public static void writeList(List<CustomerResponse> customers, OutputStream outputStream) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+        for (CustomerResponse customer : customers) {
+            output.writeTag(CUSTOMERS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(serializedSize(customer));
+            writeFields(customer, output);
+        }
+        output.flush();
+    }
+
+    public static CustomerResponse read(InputStream inputStream) throws IOException {
+        return readFields(CodedInputStream.newInstance(inputStream));
+    }
+
+    public static List<CustomerResponse> readList(InputStream inputStream) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(inputStream);
+        List<CustomerResponse> customers = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == CUSTOMERS) {
+                int previousLimit = input.pushLimit(input.readRawVarint32());
+                customers.add(readFields(input));
+                input.popLimit(previousLimit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return customers;
+    }
+
+    private static void writeFields(CustomerResponse customer, CodedOutputStream output) throws IOException {
+        if (customer.getId() != null) {
+            output.writeString(ID, customer.getId());
+        }
+        if (customer.getFullName() != null) {
+            output.writeString(FULL_NAME, customer.getFullName());
+        }
+        if (customer.getPhoneNumber() != null) {
+            output.writeString(PHONE_NUMBER, customer.getPhoneNumber());
+        }
+        if (customer.getAddress() != null) {
+            output.writeString(ADDRESS, customer.getAddress());
+        }
+        if (customer.getCreatedAt() != null) {
+            output.writeInt32(CREATED_AT_EPOCH_DAY, Math.toIntExact(customer.getCreatedAt().toEpochDay()));
+        }
+    }
+
+    private static int serializedSize(CustomerResponse customer) {
+        int size = 0;
+        if (customer.getId() != null) {
+            size += CodedOutputStream.computeStringSize(ID, customer.getId());
+        }
+        if (customer.getFullName() != null) {
+            size += CodedOutputStream.computeStringSize(FULL_NAME, customer.getFullName());
+        }
+        if (customer.getPhoneNumber() != null) {
+            size += CodedOutputStream.computeStringSize(PHONE_NUMBER, customer.getPhoneNumber());
+        }
+        if (customer.getAddress() != null) {
+            size += CodedOutputStream.computeStringSize(ADDRESS, customer.getAddress());
+        }
+        if (customer.getCreatedAt() != null) {
+            size += CodedOutputStream.computeInt32Size(CREATED_AT_EPOCH_DAY,
+                    Math.toIntExact(customer.getCreatedAt().toEpochDay()));
+        }
+        return size;
+    }
+
+    private static CustomerResponse readFields(CodedInputStream input) throws IOException {
+        CustomerResponse.CustomerResponseBuilder customer = CustomerResponse.builder();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case ID -> customer.id(input.readString());
+                case FULL_NAME -> customer.fullName(input.readString());
+                case PHONE_NUMBER -> customer.phoneNumber(input.readString());
+                case ADDRESS -> customer.address(input.readString());
+                case CREATED_AT_EPOCH_DAY -> customer.createdAt(LocalDate.ofEpochDay(input.readInt32()));
+                default -> input.skipField(tag);
+            }
+        }
+        return customer.build();
+    }
+}
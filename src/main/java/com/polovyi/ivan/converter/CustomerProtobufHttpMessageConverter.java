@@ -0,0 +1,75 @@
+package com.polovyi.ivan.converter;
+
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads and writes {@code CustomerResponse} and lists of it as {@code application/x-protobuf}.
+ */
+public class CustomerProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public CustomerProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    /**
+     * Also used to list the media types producible for a response class, which for a list is only its raw class;
+     * the element type is checked by the {@code Type} based {@code canRead} and {@code canWrite}.
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CustomerResponse.class == clazz || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isCustomerType(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isCustomerType(type != null ? type : clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (object instanceof CustomerResponse customer) {
+            CustomerProtobufCodec.write(customer, outputMessage.getBody());
+        } else {
+            CustomerProtobufCodec.writeList((List<CustomerResponse>) object, outputMessage.getBody());
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return CustomerProtobufCodec.read(inputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return type == CustomerResponse.class
+                ? CustomerProtobufCodec.read(inputMessage.getBody())
+                : CustomerProtobufCodec.readList(inputMessage.getBody());
+    }
+
+    private static boolean isCustomerType(Type type) {
+        if (type == CustomerResponse.class) {
+            return true;
+        }
+        return type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() instanceof Class<?> rawType
+                && List.class.isAssignableFrom(rawType)
+                && parameterizedType.getActualTypeArguments()[0] == CustomerResponse.class;
+    }
+}
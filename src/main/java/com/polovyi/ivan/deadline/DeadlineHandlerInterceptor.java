@@ -0,0 +1,29 @@
+package com.polovyi.ivan.deadline;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Applies the time limit configured for the REST endpoint, named after its method and path pattern.
+ */
+@RequiredArgsConstructor
+public class DeadlineHandlerInterceptor implements HandlerInterceptor {
+
+    private final RequestDeadlines deadlines;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline deadline = RequestDeadline.current();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (deadline != null && handler instanceof HandlerMethod && pattern != null) {
+            deadlines.restrict(deadline, request.getMethod() + " " + pattern);
+            deadline.check();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.polovyi.ivan.deadline;
+
+import com.polovyi.ivan.graphql.GraphQLOperations;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The execution timeout of GraphQL operations: applies the time limit configured for the operation and checks the
+ * request deadline before every non-trivial field fetch, so an expired or cancelled operation fails its remaining
+ * fields with an error instead of fetching them.
+ */
+@RequiredArgsConstructor
+public class DeadlineInstrumentation extends SimpleInstrumentation {
+
+    private final RequestDeadlines deadlines;
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline != null) {
+            deadlines.restrict(deadline,
+                    GraphQLOperations.nameOf(parameters.getExecutionContext().getOperationDefinition()));
+        }
+        return super.beginExecuteOperation(parameters);
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher,
+            InstrumentationFieldFetchParameters parameters) {
+        if (parameters.isTrivialDataFetcher()) {
+            return dataFetcher;
+        }
+        return environment -> {
+            RequestDeadline.checkCurrent();
+            return dataFetcher.get(environment);
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.polovyi.ivan.deadline;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Refuses to start an advised service call for a request that is cancelled or past its deadline.
+ */
+public class DeadlineServiceInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RequestDeadline.checkCurrent();
+        return invocation.proceed();
+    }
+}
@@ -0,0 +1,25 @@
+package com.polovyi.ivan.deadline;
+
+import com.polovyi.ivan.jdbc.StatementExecution;
+import com.polovyi.ivan.jdbc.StatementListener;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Gives statements executed for a request the remaining time of its deadline as query timeout, and registers them
+ * with the deadline while they run so that cancelling the request cancels them.
+ */
+public class DeadlineStatementListener implements StatementListener {
+
+    @Override
+    public StatementExecution executing(Statement statement, String sql, int statementCount) throws SQLException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return null;
+        }
+        statement.setQueryTimeout(deadline.queryTimeoutSeconds());
+        deadline.register(statement);
+        return result -> deadline.unregister(statement);
+    }
+}
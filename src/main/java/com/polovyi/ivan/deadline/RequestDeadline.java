@@ -0,0 +1,159 @@
+package com.polovyi.ivan.deadline;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.context.RequestState;
+import com.polovyi.ivan.exeption.DeadlineExceededException;
+import graphql.language.SourceLocation;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The point in time by which the current request must be answered, and the JDBC statements running for it. Once
+ * the deadline passes or the client goes away the request is cancelled: running statements are cancelled and any
+ * further check of the deadline fails with a {@link DeadlineExceededException}. Bound per request by the
+ * {@link RequestDeadlineFilter} and carried over to the GraphQL executor threads.
+ */
+@Slf4j
+public final class RequestDeadline implements RequestState {
+
+    public enum Reason {
+        EXPIRED, CLIENT_DISCONNECTED
+    }
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+    private final AtomicReference<Reason> cancellation = new AtomicReference<>();
+
+    private final RequestDeadlines deadlines;
+
+    private volatile long deadlineNanos;
+
+    RequestDeadline(long startNanos, long timeoutNanos, RequestDeadlines deadlines) {
+        this.startNanos = startNanos;
+        this.deadlineNanos = startNanos + timeoutNanos;
+        this.deadlines = deadlines;
+    }
+
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Fails when the current request is cancelled or past its deadline, does nothing outside of requests.
+     */
+    public static void checkCurrent() {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+    /**
+     * The error to report for a statement that timed out or was cancelled on behalf of the current request.
+     */
+    public static DeadlineExceededException exceeded(List<SourceLocation> locations) {
+        RequestDeadline deadline = CURRENT.get();
+        Reason reason = deadline == null ? null : deadline.cancellation.get();
+        return new DeadlineExceededException(message(deadline, reason == null ? Reason.EXPIRED : reason), locations);
+    }
+
+    public long remainingNanos() {
+        return remainingNanos(System.nanoTime());
+    }
+
+    public void check() {
+        Reason reason = cancellation.get();
+        if (reason == null && remainingNanos(System.nanoTime()) <= 0) {
+            cancel(Reason.EXPIRED);
+            reason = cancellation.get();
+        }
+        if (reason != null) {
+            throw new DeadlineExceededException(message(this, reason));
+        }
+    }
+
+    /**
+     * Returns the remaining time as a JDBC query timeout, which counts whole seconds and takes 0 for no timeout.
+     */
+    int queryTimeoutSeconds() {
+        check();
+        return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos(System.nanoTime()) + 999_999_999L));
+    }
+
+    void register(Statement statement) {
+        statements.add(statement);
+        // A cancellation that ran before the statement was added has not seen it
+        if (cancellation.get() != null) {
+            statements.remove(statement);
+            check();
+        }
+    }
+
+    void unregister(Statement statement) {
+        statements.remove(statement);
+    }
+
+    /**
+     * Shortens the deadline to the given time after the start of the request, if that is earlier.
+     */
+    void restrict(long timeoutNanos) {
+        deadlineNanos = Math.min(deadlineNanos, startNanos + timeoutNanos);
+    }
+
+    long remainingNanos(long nowNanos) {
+        return deadlineNanos - nowNanos;
+    }
+
+    /**
+     * Cancels the request and its running statements, unless it is cancelled already.
+     */
+    void cancel(Reason reason) {
+        if (!cancellation.compareAndSet(null, reason)) {
+            return;
+        }
+        int cancelled = 0;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+                cancelled++;
+            } catch (SQLException e) {
+                log.debug("[RequestDeadline] Statement could not be cancelled", e);
+            }
+        }
+        deadlines.cancelled(reason, cancelled);
+    }
+
+    @Override
+    public ContextScope bind() {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    private static String message(RequestDeadline deadline, Reason reason) {
+        if (reason == Reason.CLIENT_DISCONNECTED) {
+            return "Request was cancelled because the client disconnected";
+        }
+        return deadline == null
+                ? "Request deadline exceeded"
+                : String.format("Request deadline of %d ms exceeded",
+                        TimeUnit.NANOSECONDS.toMillis(deadline.deadlineNanos - deadline.startNanos));
+    }
+}
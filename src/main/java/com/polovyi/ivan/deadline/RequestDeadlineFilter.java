@@ -0,0 +1,77 @@
+package com.polovyi.ivan.deadline;
+
+import com.polovyi.ivan.bulk.ImportRequests;
+import com.polovyi.ivan.context.ContextScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Binds the {@link RequestDeadline} of a request for as long as it runs, including the asynchronous part of GraphQL
+ * executions. The container reports a client that disconnects during asynchronous processing as an error, which
+ * cancels the request; a synchronous request is only bounded by its deadline.
+ */
+@RequiredArgsConstructor
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final RequestDeadlines deadlines;
+
+    private final String header;
+
+    // Imports outlive any deadline by design and are bounded by their job limit instead
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return ImportRequests.isUpload(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestDeadline deadline = deadlines.start(request.getHeader(header));
+        boolean async = false;
+        try (ContextScope ignored = deadline.bind()) {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Cancellation(deadline));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                deadlines.end(deadline);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private class Cancellation implements AsyncListener {
+
+        private final RequestDeadline deadline;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            deadlines.end(deadline);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            deadline.cancel(RequestDeadline.Reason.EXPIRED);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            deadline.cancel(RequestDeadline.Reason.CLIENT_DISCONNECTED);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
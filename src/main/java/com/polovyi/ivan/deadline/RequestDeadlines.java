@@ -0,0 +1,117 @@
+package com.polovyi.ivan.deadline;
+
+import com.polovyi.ivan.configuration.RequestDeadlineProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the deadlines of requests and cancels them once they expire. A single thread looks for expired requests
+ * every {@code check-interval}, which is cheaper than a timer per request and picks up deadlines shortened after
+ * the start of a request without rescheduling.
+ */
+@Slf4j
+public class RequestDeadlines implements DisposableBean {
+
+    private final Set<RequestDeadline> active = ConcurrentHashMap.newKeySet();
+
+    private final RequestDeadlineProperties properties;
+
+    private final ScheduledExecutorService sweeper;
+
+    private final Map<RequestDeadline.Reason, Counter> cancelledRequests = new EnumMap<>(RequestDeadline.Reason.class);
+
+    private final Map<RequestDeadline.Reason, Counter> cancelledStatements =
+            new EnumMap<>(RequestDeadline.Reason.class);
+
+    public RequestDeadlines(RequestDeadlineProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (RequestDeadline.Reason reason : RequestDeadline.Reason.values()) {
+            String tag = reason.name().toLowerCase(Locale.ROOT);
+            cancelledRequests.put(reason, Counter.builder("request.deadline.cancelled.requests")
+                    .description("Requests cancelled before they completed")
+                    .tag("reason", tag)
+                    .register(meterRegistry));
+            cancelledStatements.put(reason, Counter.builder("request.deadline.cancelled.statements")
+                    .description("Running JDBC statements cancelled with their request")
+                    .tag("reason", tag)
+                    .register(meterRegistry));
+        }
+        long interval = properties.getCheckInterval().toNanos();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("request-deadline-"));
+        this.sweeper.scheduleWithFixedDelay(this::cancelExpired, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts the deadline of a request, taking the timeout the client asked for when it is a valid number of
+     * milliseconds and not above {@code max-timeout}.
+     */
+    public RequestDeadline start(String requestedTimeout) {
+        RequestDeadline deadline = new RequestDeadline(System.nanoTime(), timeoutOf(requestedTimeout).toNanos(),
+                this);
+        active.add(deadline);
+        return deadline;
+    }
+
+    public void end(RequestDeadline deadline) {
+        active.remove(deadline);
+    }
+
+    /**
+     * Applies the time limit configured for the operation, if any, once the request is known to execute it.
+     */
+    public void restrict(RequestDeadline deadline, String operationName) {
+        Duration timeout = properties.getOperations().get(operationName);
+        if (timeout != null) {
+            deadline.restrict(timeout.toNanos());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+    }
+
+    void cancelled(RequestDeadline.Reason reason, int statements) {
+        cancelledRequests.get(reason).increment();
+        cancelledStatements.get(reason).increment(statements);
+    }
+
+    private void cancelExpired() {
+        long now = System.nanoTime();
+        for (RequestDeadline deadline : active) {
+            if (deadline.remainingNanos(now) <= 0) {
+                active.remove(deadline);
+                deadline.cancel(RequestDeadline.Reason.EXPIRED);
+            }
+        }
+    }
+
+    private Duration timeoutOf(String requestedTimeout) {
+        if (requestedTimeout == null) {
+            return properties.getDefaultTimeout();
+        }
+        try {
+            Duration requested = Duration.ofMillis(Long.parseLong(requestedTimeout.strip()));
+            if (!requested.isNegative() && !requested.isZero()) {
+                return requested.compareTo(properties.getMaxTimeout()) < 0 ? requested : properties.getMaxTimeout();
+            }
+        } catch (NumberFormatException e) {
+            // falls back to the default like any other unusable value
+        }
+        log.debug("[RequestDeadlines] Ignoring requested timeout {}", requestedTimeout);
+        return properties.getDefaultTimeout();
+    }
+}
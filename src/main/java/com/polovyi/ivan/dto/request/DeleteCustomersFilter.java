@@ -0,0 +1,20 @@
+package com.polovyi.ivan.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteCustomersFilter {
+
+    private LocalDate createdBefore;
+
+    private boolean dryRun;
+
+}
@@ -0,0 +1,24 @@
+package com.polovyi.ivan.dto.response;
+
+import com.polovyi.ivan.entity.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerChangeResponse {
+
+    private long sequence;
+
+    private String customerId;
+
+    private ChangeType changeType;
+
+    // Null for DELETE tombstones
+    private CustomerResponse customer;
+
+}
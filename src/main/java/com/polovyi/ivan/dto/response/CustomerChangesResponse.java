@@ -0,0 +1,23 @@
+package com.polovyi.ivan.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerChangesResponse {
+
+    private List<CustomerChangeResponse> changes;
+
+    // Cursor to pass as since to the next call
+    private long nextSince;
+
+    private boolean hasMore;
+
+}
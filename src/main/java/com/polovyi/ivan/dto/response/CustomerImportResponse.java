@@ -0,0 +1,55 @@
+package com.polovyi.ivan.dto.response;
+
+import com.polovyi.ivan.bulk.CustomerImportJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportResponse {
+
+    private String jobId;
+
+    private CustomerImportJob.Status status;
+
+    // Rows parsed so far, imported or not
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    private List<CustomerImportJob.ImportRowError> errors;
+
+    // True when more rows were rejected than are listed in errors
+    private boolean errorsTruncated;
+
+    // Why the import stopped, set when status is FAILED
+    private String failure;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    public static CustomerImportResponse valueOf(CustomerImportJob job) {
+        return builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .rowsRead(job.getRowsRead().get())
+                .rowsImported(job.getRowsImported().get())
+                .rowsRejected(job.getRowsRejected().get())
+                .errors(job.getErrors())
+                .errorsTruncated(job.isErrorsTruncated())
+                .failure(job.getFailure())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.polovyi.ivan.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteCustomersResponse {
+
+    // Number of matching rows when dryRun is true
+    private long deletedCount;
+
+    private boolean dryRun;
+
+}
@@ -0,0 +1,6 @@
+package com.polovyi.ivan.entity;
+
+public enum ChangeType {
+    UPSERT,
+    DELETE
+}
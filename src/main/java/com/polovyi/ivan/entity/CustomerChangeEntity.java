@@ -0,0 +1,42 @@
+package com.polovyi.ivan.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_change")
+public class CustomerChangeEntity implements Persistable<Long> {
+    @Id
+    private Long sequence;
+
+    @Type(type = "com.polovyi.ivan.keys.CustomerIdType")
+    private String customerId;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    @Override
+    public Long getId() {
+        return sequence;
+    }
+
+    // Changes are only ever inserted, this spares the select that merging an entity with an assigned id costs
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -21,8 +22,9 @@ import java.time.LocalDate;
 @Table(name = "customer")
 public class CustomerEntity {
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GeneratedValue(generator = "customer-id")
+    @GenericGenerator(name = "customer-id", strategy = "com.polovyi.ivan.keys.CustomerIdGenerator")
+    @Type(type = "com.polovyi.ivan.keys.CustomerIdType")
     private String id;
 
     private String fullName;
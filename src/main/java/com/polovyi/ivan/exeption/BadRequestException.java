@@ -1,52 +1,26 @@
 package com.polovyi.ivan.exeption;
 
 import graphql.ErrorType;
-import graphql.GraphQLError;
 import graphql.language.SourceLocation;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
 
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-@Getter
-@NoArgsConstructor
-public class BadRequestException extends RuntimeException implements GraphQLError {
+public class BadRequestException extends DomainException {
 
-    private HttpStatus status = HttpStatus.BAD_REQUEST;
+    private static final Map<String, Object> EXTENSIONS = extensionsOf(HttpStatus.BAD_REQUEST);
 
-    private String message = "Bad request";
-
-    // Below code used for GraphQL only
-    private List<SourceLocation> locations;
-
-    public BadRequestException(String message, List<SourceLocation> locations) {
-        this.message = message;
-        this.locations = locations;
-    }
-
-    @Override
-    public Map<String, Object> getExtensions() {
-        Map<String, Object> customAttributes = new LinkedHashMap<>();
-        customAttributes.put("errorCode", this.status.value());
-        return customAttributes;
+    public BadRequestException() {
+        this("Bad request", null);
     }
 
-    @Override
-    public List<SourceLocation> getLocations() {
-        return locations;
+    public BadRequestException(String message, List<SourceLocation> locations) {
+        super(message, HttpStatus.BAD_REQUEST, EXTENSIONS, locations);
     }
 
     @Override
     public ErrorType getErrorType() {
         return ErrorType.ValidationError;
     }
-
-    @Override
-    public Map<String, Object> toSpecification() {
-        return GraphQLError.super.toSpecification();
-    }
-
 }
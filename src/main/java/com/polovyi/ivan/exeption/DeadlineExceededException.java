@@ -0,0 +1,26 @@
+package com.polovyi.ivan.exeption;
+
+import graphql.ErrorType;
+import graphql.language.SourceLocation;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+public class DeadlineExceededException extends DomainException {
+
+    private static final Map<String, Object> EXTENSIONS = extensionsOf(HttpStatus.GATEWAY_TIMEOUT);
+
+    public DeadlineExceededException(String message) {
+        this(message, null);
+    }
+
+    public DeadlineExceededException(String message, List<SourceLocation> locations) {
+        super(message, HttpStatus.GATEWAY_TIMEOUT, EXTENSIONS, locations);
+    }
+
+    @Override
+    public ErrorType getErrorType() {
+        return ErrorType.ExecutionAborted;
+    }
+}
@@ -0,0 +1,56 @@
+package com.polovyi.ivan.exeption;
+
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base of the exceptions that end a request with a client error. They describe expected outcomes rather than
+ * bugs, so they do not capture a stack trace, and each type shares one immutable extension map between all of
+ * its instances.
+ */
+@Getter
+public abstract class DomainException extends RuntimeException implements GraphQLError, Cloneable {
+
+    private final HttpStatus status;
+
+    private final Map<String, Object> extensions;
+
+    // Below code used for GraphQL only
+    @Setter
+    private List<SourceLocation> locations;
+
+    protected DomainException(String message, HttpStatus status, Map<String, Object> extensions,
+            List<SourceLocation> locations) {
+        super(message, null, false, false);
+        this.status = status;
+        this.extensions = extensions;
+        this.locations = locations;
+    }
+
+    protected static Map<String, Object> extensionsOf(HttpStatus status) {
+        return Map.of("errorCode", status.value());
+    }
+
+    /**
+     * Returns a copy for another request failing with the same outcome, so that the locations set for one request do
+     * not show up in the errors of the other.
+     */
+    public DomainException copy() {
+        try {
+            return (DomainException) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> toSpecification() {
+        return GraphQLError.super.toSpecification();
+    }
+}
@@ -1,49 +1,20 @@
 package com.polovyi.ivan.exeption;
 
 import graphql.ErrorType;
-import graphql.GraphQLError;
-import graphql.language.SourceLocation;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 import org.springframework.http.HttpStatus;
 
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
-@Getter
-@Setter
-@NoArgsConstructor
-public class NotFoundException extends RuntimeException implements GraphQLError {
+public class NotFoundException extends DomainException {
 
-    private HttpStatus status = HttpStatus.NOT_FOUND;
+    private static final Map<String, Object> EXTENSIONS = extensionsOf(HttpStatus.NOT_FOUND);
 
-    private String message = "Resource not found";
-
-    // Below code used for GraphQL only
-    private List<SourceLocation> locations;
-
-    @Override
-    public Map<String, Object> getExtensions() {
-        Map<String, Object> customAttributes = new LinkedHashMap<>();
-        customAttributes.put("errorCode", this.status.value());
-        return customAttributes;
-    }
-
-    @Override
-    public List<SourceLocation> getLocations() {
-        return locations;
+    public NotFoundException() {
+        super("Resource not found", HttpStatus.NOT_FOUND, EXTENSIONS, null);
     }
 
     @Override
     public ErrorType getErrorType() {
         return ErrorType.DataFetchingException;
     }
-
-    @Override
-    public Map<String, Object> toSpecification() {
-        return GraphQLError.super.toSpecification();
-    }
-
 }
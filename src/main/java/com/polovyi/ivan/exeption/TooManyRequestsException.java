@@ -0,0 +1,20 @@
+package com.polovyi.ivan.exeption;
+
+import graphql.ErrorType;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+public class TooManyRequestsException extends DomainException {
+
+    private static final Map<String, Object> EXTENSIONS = extensionsOf(HttpStatus.TOO_MANY_REQUESTS);
+
+    public TooManyRequestsException(String message) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS, EXTENSIONS, null);
+    }
+
+    @Override
+    public ErrorType getErrorType() {
+        return ErrorType.ExecutionAborted;
+    }
+}
@@ -1,48 +1,20 @@
 package com.polovyi.ivan.exeption;
 
 import graphql.ErrorType;
-import graphql.GraphQLError;
-import graphql.language.SourceLocation;
-import lombok.Getter;
-import lombok.Setter;
 import org.springframework.http.HttpStatus;
 
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
-@Getter
-@Setter
-public class UnprocessableEntityException extends RuntimeException implements GraphQLError {
+public class UnprocessableEntityException extends DomainException {
 
-    public HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+    private static final Map<String, Object> EXTENSIONS = extensionsOf(HttpStatus.UNPROCESSABLE_ENTITY);
 
     public UnprocessableEntityException(String message) {
-        super(message);
-    }
-
-    // Below code used for GraphQL only
-    private List<SourceLocation> locations;
-
-    @Override
-    public Map<String, Object> getExtensions() {
-        Map<String, Object> customAttributes = new LinkedHashMap<>();
-        customAttributes.put("errorCode", this.status.value());
-        return customAttributes;
-    }
-
-    @Override
-    public List<SourceLocation> getLocations() {
-        return locations;
+        super(message, HttpStatus.UNPROCESSABLE_ENTITY, EXTENSIONS, null);
     }
 
     @Override
     public ErrorType getErrorType() {
         return ErrorType.DataFetchingException;
     }
-
-    @Override
-    public Map<String, Object> toSpecification() {
-        return GraphQLError.super.toSpecification();
-    }
-}
\ No newline at end of file
+}
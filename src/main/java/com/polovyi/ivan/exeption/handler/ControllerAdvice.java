@@ -1,10 +1,14 @@
 package com.polovyi.ivan.exeption.handler;
 
 
+import com.polovyi.ivan.deadline.RequestDeadline;
 import com.polovyi.ivan.dto.response.RestErrorResponse;
+import com.polovyi.ivan.exeption.DeadlineExceededException;
 import com.polovyi.ivan.exeption.NotFoundException;
+import com.polovyi.ivan.exeption.TooManyRequestsException;
 import com.polovyi.ivan.exeption.UnprocessableEntityException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -23,10 +27,13 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class ControllerAdvice {
 
+    // Read-only headers and no body, so one instance can answer every not found request
+    private static final ResponseEntity<HttpStatus> NOT_FOUND = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<List<RestErrorResponse>> methodArgumentNotValidExceptionHandler(
             MethodArgumentNotValidException e) {
-        log.info("[ControllerAdvice] Processing MethodArgumentNotValidException...");
+        log.debug("[ControllerAdvice] Processing MethodArgumentNotValidException...");
         List<RestErrorResponse> objectErrors = Optional.ofNullable(e)
                 .map(MethodArgumentNotValidException::getBindingResult)
                 .map(BindingResult::getAllErrors)
@@ -40,19 +47,37 @@ public class ControllerAdvice {
 
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<HttpStatus> notFoundExceptionHandler(NotFoundException e) {
-        log.info("[ControllerAdvice] Processing NotFoundException...");
-        return new ResponseEntity<>(e.getStatus());
+        log.debug("[ControllerAdvice] Processing NotFoundException...");
+        return NOT_FOUND;
     }
 
     @ExceptionHandler(UnprocessableEntityException.class)
     public ResponseEntity<RestErrorResponse> unprocessableEntityExceptionHandler(UnprocessableEntityException e) {
-        log.info("[ControllerAdvice] Processing UnprocessableEntityException...");
+        log.debug("[ControllerAdvice] Processing UnprocessableEntityException...");
         return new ResponseEntity<>(new RestErrorResponse(e.getMessage()), e.getStatus());
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<RestErrorResponse> tooManyRequestsExceptionHandler(TooManyRequestsException e) {
+        log.debug("[ControllerAdvice] Processing TooManyRequestsException...");
+        return new ResponseEntity<>(new RestErrorResponse(e.getMessage()), e.getStatus());
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<RestErrorResponse> deadlineExceededExceptionHandler(DeadlineExceededException e) {
+        log.debug("[ControllerAdvice] Processing DeadlineExceededException...");
+        return new ResponseEntity<>(new RestErrorResponse(e.getMessage()), e.getStatus());
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<RestErrorResponse> queryTimeoutExceptionHandler(QueryTimeoutException e) {
+        log.debug("[ControllerAdvice] Processing QueryTimeoutException...");
+        return deadlineExceededExceptionHandler(RequestDeadline.exceeded(null));
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<RestErrorResponse> methodArgumentTypeMismatchExceptionHandler(MethodArgumentTypeMismatchException e) {
-        log.info("[ControllerAdvice] Processing MethodArgumentTypeMismatchException...");
+        log.debug("[ControllerAdvice] Processing MethodArgumentTypeMismatchException...");
         String message = String.format("Field %s has an invalid format.", e.getName());
         return new ResponseEntity<>(new RestErrorResponse(message), HttpStatus.BAD_REQUEST);
     }
@@ -0,0 +1,38 @@
+package com.polovyi.ivan.exeption.handler;
+
+import com.polovyi.ivan.exeption.DomainException;
+import graphql.schema.CoercingParseValueException;
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * How an error is turned into a client response. Resolved once per exception class and cached, so classifying an
+ * error costs a single lookup instead of a chain of type checks or message parsing.
+ */
+enum ErrorKind {
+
+    DOMAIN,
+    INVALID_VARIABLE,
+    QUERY_TIMEOUT,
+    OTHER;
+
+    private static final ClassValue<ErrorKind> KINDS = new ClassValue<>() {
+
+        @Override
+        protected ErrorKind computeValue(Class<?> type) {
+            if (DomainException.class.isAssignableFrom(type)) {
+                return DOMAIN;
+            }
+            if (CoercingParseValueException.class.isAssignableFrom(type)) {
+                return INVALID_VARIABLE;
+            }
+            if (QueryTimeoutException.class.isAssignableFrom(type)) {
+                return QUERY_TIMEOUT;
+            }
+            return OTHER;
+        }
+    };
+
+    static ErrorKind of(Object error) {
+        return error == null ? OTHER : KINDS.get(error.getClass());
+    }
+}
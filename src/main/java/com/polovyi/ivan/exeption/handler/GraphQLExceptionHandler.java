@@ -1,21 +1,16 @@
 package com.polovyi.ivan.exeption.handler;
 
+import com.polovyi.ivan.deadline.RequestDeadline;
 import com.polovyi.ivan.exeption.BadRequestException;
-import com.polovyi.ivan.exeption.NotFoundException;
-import com.polovyi.ivan.exeption.UnprocessableEntityException;
+import com.polovyi.ivan.exeption.DomainException;
 import graphql.ExceptionWhileDataFetching;
 import graphql.GraphQLError;
 import graphql.kickstart.execution.error.GraphQLErrorHandler;
-import graphql.language.SourceLocation;
-import graphql.schema.CoercingParseValueException;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 
-import javax.validation.ConstraintViolationException;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -23,57 +18,41 @@ public class GraphQLExceptionHandler implements GraphQLErrorHandler {
 
     @Override
     public List<GraphQLError> processErrors(List<GraphQLError> list) {
-        log.info("[GraphQLExceptionHandler] Processing error list...");
-        return list.stream()
-                .map(this::getNested)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        log.debug("[GraphQLExceptionHandler] Processing {} errors", list.size());
+        List<GraphQLError> errors = new ArrayList<>(list.size());
+        for (GraphQLError error : list) {
+            addNested(error, errors);
+        }
+        return errors;
     }
 
-    private List<GraphQLError> getNested(GraphQLError error) {
-        log.info("[GraphQLExceptionHandler] Getting nested errors... ");
-        if (error instanceof ExceptionWhileDataFetching) {
-            ExceptionWhileDataFetching exceptionError = (ExceptionWhileDataFetching) error;
-            Throwable exception = exceptionError.getException();
-            List<SourceLocation> locations = error.getLocations();
-            if (exception instanceof ConstraintViolationException) {
-                log.info("[GraphQLExceptionHandler] ConstraintViolationException type");
-                return handleConstraintViolationException((ConstraintViolationException) exception, locations);
-            }
-
-            if (exception instanceof NotFoundException) {
-                log.info("[GraphQLExceptionHandler] NotFoundException type");
-                NotFoundException notFoundException = (NotFoundException) exception;
-                notFoundException.setLocations(locations);
-                return List.of(notFoundException);
+    private void addNested(GraphQLError error, List<GraphQLError> errors) {
+        Object cause = error instanceof ExceptionWhileDataFetching exceptionError
+                ? exceptionError.getException()
+                : error;
+        switch (ErrorKind.of(cause)) {
+            case DOMAIN -> {
+                DomainException domainException = (DomainException) cause;
+                domainException.setLocations(error.getLocations());
+                errors.add(domainException);
             }
-
-            if (exception instanceof UnprocessableEntityException) {
-                log.info("[GraphQLExceptionHandler] UnprocessableEntityException type");
-                UnprocessableEntityException unprocessableEntityException = (UnprocessableEntityException) exception;
-                unprocessableEntityException.setLocations(locations);
-                return List.of(unprocessableEntityException);
-            }
-        }
-        if (error instanceof CoercingParseValueException) {
-            List<SourceLocation> locations = error.getLocations();
-            log.info("[GraphQLExceptionHandler] Processing CoercingParseValueException...");
-            String fieldName = StringUtils.replace(StringUtils.substringBetween(error.getMessage(), "Variable ", " has"),
-                    "'", "");
-            String message = String.format("Field %s has an invalid format.", fieldName);
-            BadRequestException badRequestException = new BadRequestException(message, locations);
-            return List.of(badRequestException);
+            case INVALID_VARIABLE -> errors.add(new BadRequestException(
+                    "Field " + variableName((GraphQLError) cause) + " has an invalid format.", error.getLocations()));
+            // Statements time out or are cancelled when the request deadline passes or the client goes away
+            case QUERY_TIMEOUT -> errors.add(RequestDeadline.exceeded(error.getLocations()));
+            default -> errors.add(error);
         }
-        log.info("[GraphQLExceptionHandler] Returning error as is");
-        return List.of(error);
     }
 
-    private List<GraphQLError> handleConstraintViolationException(ConstraintViolationException exception,
-            List<SourceLocation> locations) {
-        log.info("[GraphQLExceptionHandler] Creating lis of BadRequestException...");
-        return exception.getConstraintViolations().stream()
-                .map(constraint -> new BadRequestException(constraint.getMessageTemplate(), locations))
-                .map(badRequestException -> (GraphQLError) badRequestException)
-                .collect(Collectors.toList());
+    private static String variableName(GraphQLError error) {
+        // graphql-java reports the variable as the error path, the message is only read when the path is missing
+        List<Object> path = error.getPath();
+        if (path != null && !path.isEmpty()) {
+            return String.valueOf(path.get(0));
+        }
+        String message = error.getMessage();
+        int start = message.indexOf('\'');
+        int end = start < 0 ? -1 : message.indexOf('\'', start + 1);
+        return end < 0 ? "null" : message.substring(start + 1, end);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.polovyi.ivan.graphql;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.kickstart.servlet.context.GraphQLServletContext;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLDirectiveContainer;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.GraphQLUnmodifiedType;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the {@code Cache-Control} header of GraphQL GET responses from the {@code @cacheControl} schema hints:
+ * the response may be cached for the smallest maxAge of all resolved fields, and is private as soon as one of the
+ * fields is. Root fields without a hint make the response uncacheable, scalar fields inherit the hint of their parent.
+ */
+@Component
+public class CacheControlInstrumentation extends SimpleInstrumentation {
+
+    private static final String CACHE_CONTROL_DIRECTIVE = "cacheControl";
+
+    @Override
+    public InstrumentationState createState() {
+        return new CacheControlState();
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters) {
+        // Trivial fetchers only serve scalar fields below the root, which inherit the hint of their parent
+        if (parameters.isTrivialDataFetcher()) {
+            return super.beginFieldFetch(parameters);
+        }
+        CacheControlState state = parameters.getInstrumentationState();
+        GraphQLFieldDefinition field = parameters.getField();
+        GraphQLDirective hint = field.getDirective(CACHE_CONTROL_DIRECTIVE);
+        GraphQLUnmodifiedType type = GraphQLTypeUtil.unwrapAll(field.getType());
+        if (hint == null && type instanceof GraphQLDirectiveContainer directiveContainer) {
+            hint = directiveContainer.getDirective(CACHE_CONTROL_DIRECTIVE);
+        }
+        if (hint != null) {
+            state.restrict(maxAgeOf(hint), isPrivate(hint));
+        } else if (parameters.getExecutionStepInfo().getPath().getLevel() == 1) {
+            state.restrict(0, false);
+        }
+        return super.beginFieldFetch(parameters);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+            InstrumentationExecutionParameters parameters) {
+        Object context = parameters.getExecutionInput().getContext();
+        if (context instanceof GraphQLServletContext servletContext
+                && HttpMethod.GET.matches(servletContext.getHttpServletRequest().getMethod())) {
+            CacheControlState state = parameters.getInstrumentationState();
+            CacheControl cacheControl = executionResult.getErrors().isEmpty()
+                    ? state.toCacheControl()
+                    : CacheControl.noStore();
+            servletContext.getHttpServletResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return super.instrumentExecutionResult(executionResult, parameters);
+    }
+
+    private static int maxAgeOf(GraphQLDirective hint) {
+        GraphQLArgument maxAge = hint.getArgument("maxAge");
+        return maxAge != null && maxAge.getValue() instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static boolean isPrivate(GraphQLDirective hint) {
+        GraphQLArgument scope = hint.getArgument("scope");
+        return scope != null && "PRIVATE".equals(String.valueOf(scope.getValue()));
+    }
+
+    private static class CacheControlState implements InstrumentationState {
+
+        private final AtomicInteger maxAge = new AtomicInteger(Integer.MAX_VALUE);
+
+        private final AtomicBoolean privateScope = new AtomicBoolean();
+
+        void restrict(int fieldMaxAge, boolean fieldPrivate) {
+            maxAge.accumulateAndGet(fieldMaxAge, Math::min);
+            if (fieldPrivate) {
+                privateScope.set(true);
+            }
+        }
+
+        CacheControl toCacheControl() {
+            int seconds = maxAge.get();
+            if (seconds <= 0 || seconds == Integer.MAX_VALUE) {
+                return CacheControl.noStore();
+            }
+            CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(seconds));
+            return privateScope.get() ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+        }
+    }
+}
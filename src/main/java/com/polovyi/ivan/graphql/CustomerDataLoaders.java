@@ -0,0 +1,52 @@
+package com.polovyi.ivan.graphql;
+
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.service.CustomerService;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.Try;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the request scoped DataLoader registry shared by all operations of a (batched) GraphQL request. Distinct
+ * lookups run concurrently on the bounded GraphQL executor, and a failing lookup only fails the fields that asked
+ * for it.
+ */
+@Component
+public class CustomerDataLoaders {
+
+    public static final String CUSTOMERS = "customers";
+
+    private final CustomerService customerService;
+
+    private final Executor executor;
+
+    public CustomerDataLoaders(CustomerService customerService, @Qualifier("graphQLExecutor") Executor executor) {
+        this.customerService = customerService;
+        this.executor = executor;
+    }
+
+    public DataLoaderRegistry newRegistry() {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        registry.register(CUSTOMERS, DataLoader.newDataLoaderWithTry(this::loadCustomers));
+        return registry;
+    }
+
+    private CompletionStage<List<Try<List<CustomerResponse>>>> loadCustomers(List<CustomerLookup> lookups) {
+        List<CompletableFuture<Try<List<CustomerResponse>>>> results = lookups.stream()
+                .map(lookup -> CompletableFuture.supplyAsync(
+                        () -> Try.tryCall(() -> lookup.fetch(customerService)), executor))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> results.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+    }
+}
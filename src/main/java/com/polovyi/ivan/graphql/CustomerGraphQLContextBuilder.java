@@ -0,0 +1,30 @@
+package com.polovyi.ivan.graphql;
+
+import graphql.kickstart.execution.context.GraphQLContext;
+import graphql.kickstart.servlet.context.DefaultGraphQLServletContext;
+import graphql.kickstart.servlet.context.DefaultGraphQLServletContextBuilder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Builds one context per HTTP request. With the PER_REQUEST_WITH_INSTRUMENTATION context setting every operation of
+ * a batched request shares it, together with its DataLoader registry, whose loads are dispatched for all of them.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerGraphQLContextBuilder extends DefaultGraphQLServletContextBuilder {
+
+    private final CustomerDataLoaders customerDataLoaders;
+
+    @Override
+    public GraphQLContext build(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+        return DefaultGraphQLServletContext.createServletContext()
+                .with(customerDataLoaders.newRegistry())
+                .with(httpServletRequest)
+                .with(httpServletResponse)
+                .build();
+    }
+}
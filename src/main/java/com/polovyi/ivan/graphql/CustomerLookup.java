@@ -0,0 +1,28 @@
+package com.polovyi.ivan.graphql;
+
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.service.CustomerService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DataLoader key of a {@link CustomerService} list lookup. Equal lookups issued by different operations of the same
+ * HTTP request are served by a single service call.
+ */
+public record CustomerLookup(boolean unfiltered, String fullName, String phoneNumber, LocalDate createdAt) {
+
+    public static CustomerLookup allCustomers() {
+        return new CustomerLookup(true, null, null, null);
+    }
+
+    public static CustomerLookup withFilters(String fullName, String phoneNumber, LocalDate createdAt) {
+        return new CustomerLookup(false, fullName, phoneNumber, createdAt);
+    }
+
+    List<CustomerResponse> fetch(CustomerService customerService) {
+        return unfiltered
+                ? customerService.getAllCustomers()
+                : customerService.getCustomersWithFilters(fullName, phoneNumber, createdAt);
+    }
+}
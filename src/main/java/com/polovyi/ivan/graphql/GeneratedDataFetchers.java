@@ -0,0 +1,129 @@
+package com.polovyi.ivan.graphql;
+
+import graphql.TrivialDataFetcher;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+
+/**
+ * Replaces the reflective data fetchers graphql-java-tools installs for the scalar and enum fields of response
+ * types with generated ones. Each field gets a getter accessor spun by the {@link LambdaMetafactory}, a class of its
+ * own that casts the source and calls the getter directly, so the JIT inlines the getter instead of going through
+ * {@link Method#invoke}. The fetchers are {@link GetterDataFetcher}s and, like the reflective fetchers they replace,
+ * {@link TrivialDataFetcher}s, so instrumentations that treat trivial fields differently, such as tracing, see no
+ * change.
+ */
+@Slf4j
+public final class GeneratedDataFetchers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private GeneratedDataFetchers() {
+    }
+
+    /**
+     * Returns the schema with generated fetchers for the leaf fields without arguments of the object types named
+     * like the given classes, where the class has a matching public getter.
+     */
+    public static GraphQLSchema install(GraphQLSchema schema, Collection<Class<?>> sourceTypes) {
+        GraphQLCodeRegistry codeRegistry = schema.getCodeRegistry().transform(builder -> {
+            for (Class<?> sourceType : sourceTypes) {
+                GraphQLObjectType objectType = schema.getObjectType(sourceType.getSimpleName());
+                if (objectType == null) {
+                    continue;
+                }
+                for (GraphQLFieldDefinition field : objectType.getFieldDefinitions()) {
+                    Method getter = leafGetter(sourceType, field);
+                    if (getter != null) {
+                        builder.dataFetcher(FieldCoordinates.coordinates(objectType, field), generate(getter));
+                    }
+                }
+            }
+        });
+        return schema.transform(builder -> builder.codeRegistry(codeRegistry));
+    }
+
+    private static Method leafGetter(Class<?> sourceType, GraphQLFieldDefinition field) {
+        if (!Modifier.isPublic(sourceType.getModifiers()) || !field.getArguments().isEmpty()
+                || !GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(field.getType()))) {
+            return null;
+        }
+        String property = StringUtils.capitalize(field.getName());
+        for (String name : new String[]{"get" + property, "is" + property}) {
+            try {
+                Method method = sourceType.getMethod(name);
+                if (!Modifier.isStatic(method.getModifiers())
+                        && (name.startsWith("get") || method.getReturnType() == boolean.class)) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next naming convention
+            }
+        }
+        return null;
+    }
+
+    private static DataFetcher<Object> generate(Method getter) {
+        try {
+            MethodHandle getterHandle = LOOKUP.unreflect(getter);
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get",
+                    MethodType.methodType(GetterAccessor.class), ACCESSOR_TYPE, getterHandle,
+                    getterHandle.type().wrap());
+            GetterAccessor accessor = (GetterAccessor) callSite.getTarget().invoke();
+            log.debug("[GeneratedDataFetchers] Generated {} for {}", accessor.getClass().getName(), getter);
+            return new GetterDataFetcher(getter, accessor);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not generate a data fetcher for " + getter, e);
+        }
+    }
+
+    /**
+     * The fetcher of a field resolved by a generated getter call.
+     */
+    public static final class GetterDataFetcher implements TrivialDataFetcher<Object> {
+
+        private final Method getter;
+
+        private final GetterAccessor accessor;
+
+        private GetterDataFetcher(Method getter, GetterAccessor accessor) {
+            this.getter = getter;
+            this.accessor = accessor;
+        }
+
+        public Method getGetter() {
+            return getter;
+        }
+
+        @Override
+        public Object get(DataFetchingEnvironment environment) {
+            Object source = environment.getSource();
+            return source == null ? null : accessor.get(source);
+        }
+    }
+
+    // Implemented by the metafactory with a cast of the source, the getter call and the boxing of its result
+    @FunctionalInterface
+    private interface GetterAccessor {
+
+        Object get(Object source);
+    }
+}
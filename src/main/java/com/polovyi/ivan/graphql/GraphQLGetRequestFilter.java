@@ -0,0 +1,134 @@
+package com.polovyi.ivan.graphql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Prepares GET requests to the GraphQL servlet: resolves APQ hashes into query documents and rejects anything but
+ * query operations, so that only side effect free requests can be stored by shared caches.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class GraphQLGetRequestFilter extends OncePerRequestFilter {
+
+    private static final String QUERY_PARAMETER = "query";
+
+    private final PersistedQueryStore persistedQueryStore;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String query = request.getParameter(QUERY_PARAMETER);
+        Optional<String> sha256Hash = persistedQueryHash(request.getParameter("extensions"));
+        if (sha256Hash.isPresent()) {
+            if (query == null) {
+                Optional<String> persistedQuery = persistedQueryStore.find(sha256Hash.get());
+                if (persistedQuery.isEmpty()) {
+                    log.info("[GraphQLGetRequestFilter] Persisted query {} not found", sha256Hash.get());
+                    writeError(response, HttpStatus.OK, "PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND");
+                    return;
+                }
+                query = persistedQuery.get();
+            } else if (!persistedQueryStore.register(sha256Hash.get(), query)) {
+                writeError(response, HttpStatus.BAD_REQUEST, "Provided sha256Hash does not match query",
+                        "PERSISTED_QUERY_HASH_MISMATCH");
+                return;
+            }
+        }
+        if (query != null) {
+            boolean isQuery = GraphQLOperations.operationOf(query, request.getParameter("operationName"))
+                    .map(GraphQLOperations::isQuery)
+                    .orElse(true);
+            if (!isQuery) {
+                response.setHeader(HttpHeaders.ALLOW, HttpMethod.POST.name());
+                writeError(response, HttpStatus.METHOD_NOT_ALLOWED, "Only query operations can be executed over GET",
+                        "METHOD_NOT_ALLOWED");
+                return;
+            }
+        }
+        filterChain.doFilter(query == null ? request : new QueryParameterRequest(request, query), response);
+    }
+
+    private Optional<String> persistedQueryHash(String extensions) {
+        if (extensions == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(objectMapper.readTree(extensions)
+                    .path("persistedQuery")
+                    .path("sha256Hash")
+                    .asText(null));
+        } catch (JsonProcessingException e) {
+            log.info("[GraphQLGetRequestFilter] Ignoring malformed extensions parameter");
+            return Optional.empty();
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message, String code)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        Map<String, Object> error = Map.of("message", message, "extensions", Map.of("code", code));
+        objectMapper.writeValue(response.getOutputStream(), Map.of("errors", List.of(error)));
+    }
+
+    private static class QueryParameterRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, String[]> parameters;
+
+        QueryParameterRequest(HttpServletRequest request, String query) {
+            super(request);
+            Map<String, String[]> parameters = new LinkedHashMap<>(request.getParameterMap());
+            parameters.put(QUERY_PARAMETER, new String[]{query});
+            this.parameters = Collections.unmodifiableMap(parameters);
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = parameters.get(name);
+            return values == null || values.length == 0 ? null : values[0];
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return parameters.get(name);
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return parameters;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+    }
+}
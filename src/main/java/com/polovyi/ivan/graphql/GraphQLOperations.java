@@ -0,0 +1,61 @@
+package com.polovyi.ivan.graphql;
+
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+public final class GraphQLOperations {
+
+    private GraphQLOperations() {
+    }
+
+    /**
+     * Resolves the operation that will be executed for the given query. Returns empty when the query cannot be
+     * parsed or the operation is ambiguous, leaving the error reporting to graphql-java.
+     */
+    public static Optional<OperationDefinition> operationOf(String query, String operationName) {
+        return parse(query).flatMap(document -> operationOf(document, operationName));
+    }
+
+    public static Optional<OperationDefinition> operationOf(Document document, String operationName) {
+        List<OperationDefinition> operations = document.getDefinitionsOfType(OperationDefinition.class);
+        if (operationName == null || operationName.isBlank()) {
+            return operations.size() == 1 ? Optional.of(operations.get(0)) : Optional.empty();
+        }
+        return operations.stream()
+                .filter(operation -> operationName.equals(operation.getName()))
+                .findFirst();
+    }
+
+    public static Optional<Document> parse(String query) {
+        try {
+            return Optional.of(Parser.parse(query));
+        } catch (InvalidSyntaxException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static boolean isQuery(OperationDefinition operation) {
+        return operation.getOperation() == OperationDefinition.Operation.QUERY;
+    }
+
+    /**
+     * Names the operation like {@code query allCustomers}; unnamed operations are named after their first root field.
+     */
+    public static String nameOf(OperationDefinition operation) {
+        String name = operation.getName();
+        if (name == null) {
+            name = operation.getSelectionSet().getSelectionsOfType(Field.class).stream()
+                    .findFirst()
+                    .map(Field::getName)
+                    .orElse("anonymous");
+        }
+        return operation.getOperation().name().toLowerCase(Locale.ROOT) + " " + name;
+    }
+}
@@ -0,0 +1,49 @@
+package com.polovyi.ivan.graphql;
+
+import graphql.Scalars;
+import graphql.introspection.Introspection.DirectiveLocation;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLSchema;
+
+/**
+ * The {@code @stream} and {@code @defer} directives served by the {@link IncrementalDeliveryFilter}. The schema files
+ * declare them, but graphql-java-tools 11 builds the schema without directive definitions, so they are added to the
+ * built schema here; without them queries using the directives would not validate.
+ */
+public final class IncrementalDeliveryDirectives {
+
+    public static final GraphQLDirective STREAM = GraphQLDirective.newDirective()
+            .name("stream")
+            .description("Delivers the first initialCount items of a list with the response, the rest after it")
+            .argument(GraphQLArgument.newArgument()
+                    .name("initialCount")
+                    .type(Scalars.GraphQLInt)
+                    .defaultValue(0))
+            .argument(GraphQLArgument.newArgument()
+                    .name("label")
+                    .type(Scalars.GraphQLString))
+            .validLocations(DirectiveLocation.FIELD)
+            .build();
+
+    public static final GraphQLDirective DEFER = GraphQLDirective.newDirective()
+            .name("defer")
+            .description("Delivers the fields of a fragment after the rest of the response")
+            .argument(GraphQLArgument.newArgument()
+                    .name("if")
+                    .type(GraphQLNonNull.nonNull(Scalars.GraphQLBoolean))
+                    .defaultValue(true))
+            .argument(GraphQLArgument.newArgument()
+                    .name("label")
+                    .type(Scalars.GraphQLString))
+            .validLocations(DirectiveLocation.FRAGMENT_SPREAD, DirectiveLocation.INLINE_FRAGMENT)
+            .build();
+
+    private IncrementalDeliveryDirectives() {
+    }
+
+    public static GraphQLSchema install(GraphQLSchema schema) {
+        return schema.transform(builder -> builder.additionalDirective(STREAM).additionalDirective(DEFER));
+    }
+}
@@ -0,0 +1,263 @@
+package com.polovyi.ivan.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.service.CustomerService;
+import com.polovyi.ivan.web.CachedBodyHttpServletRequest;
+import graphql.schema.GraphQLSchema;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Serves {@code @stream} customer list queries as {@code multipart/mixed} incremental delivery: the first
+ * {@code initialCount} items go out in the initial payload and the rest follow in chunks while later ones are still
+ * being read. Each chunk is read in a transaction of its own, so a slow client holds no database connection between
+ * chunks, and a stream outliving the request deadline ends with an error payload. Requests that do not accept {@code multipart/mixed} or are not a streamable list query are
+ * passed on to the GraphQL servlet unchanged, and so are queries that fail validation against the schema.
+ * <p>
+ * A streamed query is resolved here rather than by graphql-java, which has no {@code @stream} execution in the
+ * version in use, so its data fetchers and instrumentations do not run for it.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IncrementalDeliveryFilter extends OncePerRequestFilter {
+
+    private static final MediaType MULTIPART_MIXED = MediaType.parseMediaType("multipart/mixed");
+
+    private static final String BOUNDARY = "-";
+
+    private static final byte[] PART_HEADER = ("\r\n--" + BOUNDARY + "\r\nContent-Type: application/json; "
+            + "charset=utf-8\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] CLOSE_DELIMITER = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+    private final CustomerService customerService;
+
+    private final GraphQLSchema schema;
+
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        try {
+            return accept == null || MediaType.parseMediaTypes(accept).stream()
+                    .noneMatch(mediaType -> mediaType.isCompatibleWith(MULTIPART_MIXED) && !mediaType.isWildcardType());
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request,
+                StreamUtils.copyToByteArray(request.getInputStream()));
+        Optional<StreamedListQuery> streamedQuery = streamedQueryOf(cachedRequest.getBody());
+        if (streamedQuery.isEmpty()) {
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+        log.info("[IncrementalDeliveryFilter] Streaming {}", streamedQuery.get().responseKey());
+        response.setContentType("multipart/mixed; boundary=\"" + BOUNDARY + "\"; deferSpec=20220824");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        stream(streamedQuery.get(), response.getOutputStream());
+    }
+
+    private Optional<StreamedListQuery> streamedQueryOf(byte[] body) {
+        JsonNode graphQLRequest;
+        try {
+            graphQLRequest = objectMapper.readTree(body);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if (graphQLRequest == null || !graphQLRequest.path("query").isTextual()) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> variables = graphQLRequest.path("variables").isObject()
+                ? objectMapper.convertValue(graphQLRequest.get("variables"), Map.class)
+                : Map.of();
+        return StreamedListQuery.parse(schema, graphQLRequest.get("query").asText(),
+                graphQLRequest.path("operationName").asText(null), variables);
+    }
+
+    private void stream(StreamedListQuery query, ServletOutputStream outputStream) throws IOException {
+        IncrementalWriter writer = new IncrementalWriter(query, outputStream);
+        try {
+            Consumer<List<CustomerResponse>> consumer = writer::write;
+            if (query.unfiltered()) {
+                customerService.streamAllCustomers(chunkSize, consumer);
+            } else {
+                customerService.streamCustomersWithFilters(query.fullName(), query.phoneNumber(), query.createdAt(),
+                        chunkSize, consumer);
+            }
+            writer.complete();
+        } catch (UncheckedIOException e) {
+            // The client went away, there is nobody left to report to
+            log.info("[IncrementalDeliveryFilter] Client disconnected while streaming {}", query.responseKey());
+        } catch (RuntimeException e) {
+            log.error("[IncrementalDeliveryFilter] Streaming {} failed", query.responseKey(), e);
+            writer.fail();
+        }
+    }
+
+    /*
+     * Writes payloads in the incremental delivery format of the deferSpec=20220824 proposal: the initial payload
+     * carries the data with the first initialCount items, and every later payload a list of incremental results,
+     * each with the path of the item it belongs to. Streamed items are addressed by the index of their first item,
+     * deferred fragments by the index of their item.
+     */
+    private class IncrementalWriter {
+
+        private final StreamedListQuery query;
+
+        private final ServletOutputStream outputStream;
+
+        private final List<CustomerResponse> initialItems = new ArrayList<>();
+
+        private boolean initialSent;
+
+        // Items sent so far, the index of the next one
+        private int sentItems;
+
+        IncrementalWriter(StreamedListQuery query, ServletOutputStream outputStream) {
+            this.query = query;
+            this.outputStream = outputStream;
+        }
+
+        void write(List<CustomerResponse> customers) {
+            List<CustomerResponse> items = new ArrayList<>(customers.size());
+            for (CustomerResponse customer : customers) {
+                if (!initialSent && initialItems.size() < query.initialCount()) {
+                    initialItems.add(customer);
+                } else {
+                    items.add(customer);
+                }
+            }
+            if (!initialSent && initialItems.size() == query.initialCount()) {
+                sendInitial(true);
+            }
+            if (!items.isEmpty()) {
+                List<Map<String, Object>> incremental = new ArrayList<>();
+                incremental.add(labelled(entry("items", items.stream().map(query::project).toList(),
+                        "path", path(sentItems)), query.label()));
+                incremental.addAll(deferred(items, sentItems));
+                sentItems += items.size();
+                send(payload("incremental", incremental, true));
+            }
+        }
+
+        void complete() throws IOException {
+            if (!initialSent) {
+                // Fewer rows than initialCount, the whole result fits into the initial payload
+                sendInitial(false);
+            } else {
+                send(Map.of("hasNext", false));
+            }
+            outputStream.write(CLOSE_DELIMITER);
+            outputStream.flush();
+        }
+
+        void fail() throws IOException {
+            if (!initialSent) {
+                sendInitial(true);
+            }
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("message", "Streaming was interrupted");
+            error.put("path", path(sentItems));
+            error.put("extensions", Map.of("code", "STREAM_INTERRUPTED"));
+            Map<String, Object> result = entry("items", null, "path", path(sentItems));
+            result.put("errors", List.of(error));
+            send(payload("incremental", List.of(labelled(result, query.label())), false));
+            outputStream.write(CLOSE_DELIMITER);
+            outputStream.flush();
+        }
+
+        /*
+         * The deferred fragments of the initial items follow in a payload of their own, so when there are any the
+         * initial payload has a next one even if no more items are coming.
+         */
+        private void sendInitial(boolean moreItems) {
+            List<Map<String, Object>> deferred = deferred(initialItems, 0);
+            send(payload("data", Map.of(query.responseKey(), initialItems.stream().map(query::project).toList()),
+                    moreItems || !deferred.isEmpty()));
+            sentItems = initialItems.size();
+            initialSent = true;
+            if (!deferred.isEmpty()) {
+                send(payload("incremental", deferred, moreItems));
+            }
+        }
+
+        private List<Map<String, Object>> deferred(List<CustomerResponse> items, int firstIndex) {
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int index = 0; index < items.size(); index++) {
+                for (StreamedListQuery.DeferredFragment fragment : query.deferredFragments()) {
+                    results.add(labelled(entry("data", fragment.project(items.get(index)),
+                            "path", path(firstIndex + index)), fragment.label()));
+                }
+            }
+            return results;
+        }
+
+        private List<Object> path(int index) {
+            return List.of(query.responseKey(), index);
+        }
+
+        private Map<String, Object> labelled(Map<String, Object> result, String label) {
+            if (label != null) {
+                result.put("label", label);
+            }
+            return result;
+        }
+
+        private Map<String, Object> payload(String name, Object value, boolean hasNext) {
+            return entry(name, value, "hasNext", hasNext);
+        }
+
+        private Map<String, Object> entry(String firstName, Object firstValue, String secondName,
+                Object secondValue) {
+            // Keeps the members in the order clients expect to read them
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put(firstName, firstValue);
+            entry.put(secondName, secondValue);
+            return entry;
+        }
+
+        private void send(Map<String, Object> payload) {
+            try {
+                outputStream.write(PART_HEADER);
+                outputStream.write(objectMapper.writeValueAsBytes(payload));
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
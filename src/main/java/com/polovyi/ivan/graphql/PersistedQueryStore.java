@@ -0,0 +1,60 @@
+package com.polovyi.ivan.graphql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Automatic persisted queries (APQ) registry: maps the SHA-256 hash of a query document to the document itself, so
+ * GET clients can send a short hash instead of the full query text. Once it holds the maximum number of entries, the
+ * least recently used query makes room for each new one; clients of an evicted query get PersistedQueryNotFound and
+ * register it again.
+ */
+@Component
+public class PersistedQueryStore {
+
+    // In access order, so lookups keep a query in use from being evicted; guarded by itself
+    private final Map<String, String> queries;
+
+    public PersistedQueryStore(@Value("${graphql.persisted-queries.max-entries:1000}") int maxEntries) {
+        this.queries = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<String> find(String sha256Hash) {
+        synchronized (queries) {
+            return Optional.ofNullable(queries.get(sha256Hash.toLowerCase()));
+        }
+    }
+
+    public boolean register(String sha256Hash, String query) {
+        if (!sha256Hash.equalsIgnoreCase(sha256Hex(query))) {
+            return false;
+        }
+        synchronized (queries) {
+            queries.put(sha256Hash.toLowerCase(), query);
+        }
+        return true;
+    }
+
+    public static String sha256Hex(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.polovyi.ivan.graphql;
+
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import graphql.language.Argument;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.IntValue;
+import graphql.language.NullValue;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.language.VariableDefinition;
+import graphql.language.VariableReference;
+import graphql.schema.GraphQLSchema;
+import graphql.validation.Validator;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A query whose only root field is one of the customer lists marked with {@code @stream}, the shape the incremental
+ * delivery path can serve from a repository cursor. Only documents that pass graphql-java's validation against the
+ * schema qualify, and only if every directive, argument and variable in them is one this class resolves itself.
+ * Every other query, including invalid ones and those this class cannot fully understand, is left to the regular
+ * GraphQL servlet, which reports errors and executes the query in full.
+ * <p>
+ * Fields of fragments marked with {@code @defer} are left out of the items and delivered per item afterwards.
+ */
+public record StreamedListQuery(String responseKey, String label, boolean unfiltered, String fullName,
+        String phoneNumber, LocalDate createdAt, int initialCount,
+        Map<String, Function<CustomerResponse, Object>> selection, List<DeferredFragment> deferredFragments) {
+
+    private static final String TYPE_NAME = "CustomerResponse";
+
+    private static final Map<String, Function<CustomerResponse, Object>> FIELDS = Map.of(
+            "id", CustomerResponse::getId,
+            "fullName", CustomerResponse::getFullName,
+            "phoneNumber", CustomerResponse::getPhoneNumber,
+            "address", CustomerResponse::getAddress,
+            "createdAt", customer -> customer.getCreatedAt() == null ? null : customer.getCreatedAt().toString(),
+            "__typename", customer -> TYPE_NAME);
+
+    private static final Validator VALIDATOR = new Validator();
+
+    /**
+     * The fields of a deferred fragment, with the label the client gave it.
+     */
+    public record DeferredFragment(String label, Map<String, Function<CustomerResponse, Object>> selection) {
+
+        public Map<String, Object> project(CustomerResponse customer) {
+            return StreamedListQuery.project(selection, customer);
+        }
+    }
+
+    public static Optional<StreamedListQuery> parse(GraphQLSchema schema, String query, String operationName,
+            Map<String, Object> variables) {
+        Optional<Document> document = GraphQLOperations.parse(query);
+        Optional<OperationDefinition> operation = document
+                .flatMap(parsed -> GraphQLOperations.operationOf(parsed, operationName))
+                .filter(GraphQLOperations::isQuery);
+        if (operation.isEmpty() || !operation.get().getDirectives().isEmpty()
+                || operation.get().getSelectionSet().getSelections().size() != 1
+                || !(operation.get().getSelectionSet().getSelections().get(0) instanceof Field root)) {
+            return Optional.empty();
+        }
+        boolean unfiltered = "allCustomers".equals(root.getName());
+        if (!unfiltered && !"allCustomersWithFilters".equals(root.getName())) {
+            return Optional.empty();
+        }
+        // @stream must be the only directive, @include and @skip on the root field are not resolved here
+        if (root.getDirectives().size() != 1 || !"stream".equals(root.getDirectives().get(0).getName())
+                || !VALIDATOR.validateDocument(schema, document.get()).isEmpty()) {
+            return Optional.empty();
+        }
+        Directive stream = root.getDirectives().get(0);
+        try {
+            Values values = new Values(operation.get(), variables);
+            Map<String, Function<CustomerResponse, Object>> selection = new LinkedHashMap<>();
+            List<DeferredFragment> deferredFragments = new ArrayList<>();
+            if (!collectSelection(root.getSelectionSet(), document.get(), values, selection, deferredFragments)) {
+                return Optional.empty();
+            }
+            Object initialCount = values.of(stream.getArgument("initialCount"));
+            Object createdAt = values.of(argument(root, "createdAt"));
+            if (initialCount != null && (!(initialCount instanceof Integer count) || count < 0)) {
+                return Optional.empty();
+            }
+            return Optional.of(new StreamedListQuery(
+                    root.getAlias() != null ? root.getAlias() : root.getName(),
+                    (String) values.of(stream.getArgument("label")),
+                    unfiltered,
+                    (String) values.of(argument(root, "fullName")),
+                    (String) values.of(argument(root, "phoneNumber")),
+                    createdAt == null ? null : LocalDate.parse((String) createdAt),
+                    initialCount == null ? 0 : (Integer) initialCount,
+                    selection,
+                    List.copyOf(deferredFragments)));
+        } catch (ClassCastException | ArithmeticException | DateTimeParseException | UnresolvedValueException e) {
+            // Invalid or unresolved arguments get their regular coercion and errors from the servlet
+            return Optional.empty();
+        }
+    }
+
+    public Map<String, Object> project(CustomerResponse customer) {
+        return project(selection, customer);
+    }
+
+    private static Map<String, Object> project(Map<String, Function<CustomerResponse, Object>> selection,
+            CustomerResponse customer) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        selection.forEach((responseKey, field) -> item.put(responseKey, field.apply(customer)));
+        return item;
+    }
+
+    /*
+     * Collects the fields into the selection and every fragment deferred with @defer into a deferred fragment of its
+     * own, including deferred fragments nested in deferred ones. Returns false for anything else.
+     */
+    private static boolean collectSelection(SelectionSet selectionSet, Document document, Values values,
+            Map<String, Function<CustomerResponse, Object>> selection, List<DeferredFragment> deferredFragments) {
+        if (selectionSet == null) {
+            return false;
+        }
+        for (Selection<?> item : selectionSet.getSelections()) {
+            if (item instanceof Field field) {
+                Function<CustomerResponse, Object> value = FIELDS.get(field.getName());
+                if (value == null || !field.getDirectives().isEmpty()) {
+                    return false;
+                }
+                selection.put(field.getAlias() != null ? field.getAlias() : field.getName(), value);
+            } else if (item instanceof InlineFragment fragment) {
+                boolean onCustomer = fragment.getTypeCondition() == null
+                        || TYPE_NAME.equals(fragment.getTypeCondition().getName());
+                if (!onCustomer || !collectFragment(fragment.getDirectives(), fragment.getSelectionSet(), document,
+                        values, selection, deferredFragments)) {
+                    return false;
+                }
+            } else if (item instanceof FragmentSpread spread) {
+                Optional<FragmentDefinition> fragment = document.getDefinitionsOfType(FragmentDefinition.class)
+                        .stream()
+                        .filter(definition -> definition.getName().equals(spread.getName()))
+                        .findFirst();
+                if (fragment.isEmpty() || !TYPE_NAME.equals(fragment.get().getTypeCondition().getName())
+                        || !collectFragment(spread.getDirectives(), fragment.get().getSelectionSet(), document,
+                        values, selection, deferredFragments)) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return !selection.isEmpty() || !deferredFragments.isEmpty();
+    }
+
+    private static boolean collectFragment(List<Directive> directives, SelectionSet selectionSet, Document document,
+            Values values, Map<String, Function<CustomerResponse, Object>> selection,
+            List<DeferredFragment> deferredFragments) {
+        if (directives.isEmpty()) {
+            return collectSelection(selectionSet, document, values, selection, deferredFragments);
+        }
+        if (directives.size() != 1 || !"defer".equals(directives.get(0).getName())) {
+            return false;
+        }
+        Directive defer = directives.get(0);
+        Object deferred = values.of(defer.getArgument("if"));
+        if (Boolean.FALSE.equals(deferred)) {
+            return collectSelection(selectionSet, document, values, selection, deferredFragments);
+        }
+        Map<String, Function<CustomerResponse, Object>> deferredSelection = new LinkedHashMap<>();
+        int position = deferredFragments.size();
+        if (!collectSelection(selectionSet, document, values, deferredSelection, deferredFragments)) {
+            return false;
+        }
+        // The fragment goes before those nested in it, which collecting its selection has added already
+        if (!deferredSelection.isEmpty()) {
+            deferredFragments.add(position, new DeferredFragment((String) values.of(defer.getArgument("label")),
+                    deferredSelection));
+        }
+        return true;
+    }
+
+    private static Argument argument(Field field, String name) {
+        return field.getArguments().stream()
+                .filter(argument -> name.equals(argument.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /*
+     * Resolves argument values. Variables that are not provided but have a default, and literals other than strings,
+     * integers, booleans and null, are left to graphql-java's coercion.
+     */
+    private record Values(Map<String, VariableDefinition> definitions, Map<String, Object> variables) {
+
+        Values(OperationDefinition operation, Map<String, Object> variables) {
+            this(new LinkedHashMap<>(), variables);
+            operation.getVariableDefinitions().forEach(definition -> definitions.put(definition.getName(),
+                    definition));
+        }
+
+        Object of(Argument argument) {
+            if (argument == null) {
+                return null;
+            }
+            Value<?> value = argument.getValue();
+            if (value instanceof VariableReference variable) {
+                VariableDefinition definition = definitions.get(variable.getName());
+                if (!variables.containsKey(variable.getName()) && definition != null
+                        && definition.getDefaultValue() != null) {
+                    throw new UnresolvedValueException();
+                }
+                return variables.get(variable.getName());
+            }
+            if (value instanceof IntValue intValue) {
+                return intValue.getValue().intValueExact();
+            }
+            if (value instanceof StringValue stringValue) {
+                return stringValue.getValue();
+            }
+            if (value instanceof BooleanValue booleanValue) {
+                return booleanValue.isValue();
+            }
+            if (value instanceof NullValue) {
+                return null;
+            }
+            throw new UnresolvedValueException();
+        }
+    }
+
+    private static final class UnresolvedValueException extends RuntimeException {
+
+        UnresolvedValueException() {
+            super(null, null, false, false);
+        }
+    }
+}
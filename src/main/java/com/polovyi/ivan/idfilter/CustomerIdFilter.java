@@ -0,0 +1,195 @@
+package com.polovyi.ivan.idfilter;
+
+import com.polovyi.ivan.configuration.CustomerIdFilterProperties;
+import com.polovyi.ivan.entity.ChangeType;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.service.CustomersChanged;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Tells ids that no customer has for certain from ids that a customer may have, with a {@link BloomFilter} over the
+ * ids of all customers. Ids are added once their insert commits, and every rebuild scans all ids into a new filter
+ * that receives the committed ids from the start of the scan on, so no id of a committed customer is ever ruled
+ * out. Until the first rebuild completes, every id may exist.
+ * <p>
+ * A Bloom filter cannot drop ids, so deleted customers stay in it until the next rebuild and count as false
+ * positives until then.
+ */
+@Slf4j
+public class CustomerIdFilter implements DisposableBean {
+
+    private final AtomicReference<BloomFilter> current = new AtomicReference<>();
+
+    // Filter being rebuilt, receiving the ids committed during the scan
+    private volatile BloomFilter building;
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private final CustomerStore customerStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CustomerIdFilterProperties properties;
+
+    private final ScheduledExecutorService rebuilder;
+
+    private final Counter ruledOut;
+
+    private final Counter found;
+
+    private final Counter falsePositives;
+
+    private final Timer rebuilds;
+
+    /*
+     * The scan runs in a read-write transaction, which is never routed to a replica that might not have the latest
+     * customers yet.
+     */
+    public CustomerIdFilter(CustomerStore customerStore, TransactionTemplate transactionTemplate,
+            CustomerIdFilterProperties properties, MeterRegistry meterRegistry) {
+        this.customerStore = customerStore;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("customer-id-filter-"));
+        this.ruledOut = lookups(meterRegistry, "ruled-out");
+        this.found = lookups(meterRegistry, "found");
+        this.falsePositives = lookups(meterRegistry, "false-positive");
+        this.rebuilds = Timer.builder("customer.id-filter.rebuild")
+                .description("Time to scan all customer ids into a new filter")
+                .register(meterRegistry);
+        gauge(meterRegistry, "customer.id-filter.false-positive-rate", null, BloomFilter::expectedFalsePositiveRate,
+                "Expected share of unknown ids passing the filter, given its bits set");
+        gauge(meterRegistry, "customer.id-filter.size", "bytes", BloomFilter::sizeInBytes,
+                "Memory used by the bits of the filter");
+        gauge(meterRegistry, "customer.id-filter.ids", null, BloomFilter::insertions,
+                "Ids added to the filter, including those of customers deleted since it was built");
+    }
+
+    /**
+     * Returns {@code false} only if no customer has the given id.
+     */
+    public boolean mightExist(String customerId) {
+        BloomFilter filter = current.get();
+        if (filter == null || customerId == null || filter.mightContain(customerId)) {
+            return true;
+        }
+        ruledOut.increment();
+        return false;
+    }
+
+    /**
+     * Records whether a lookup of an id that passed the filter found a customer, which makes the false positive
+     * rate observable as the share of false positives among the lookups that found none.
+     */
+    public void lookedUp(boolean customerFound) {
+        if (current.get() != null) {
+            (customerFound ? found : falsePositives).increment();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInitialFilter() {
+        long interval = properties.getRebuildInterval().toNanos();
+        rebuilder.scheduleWithFixedDelay(this::rebuild, 0, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * Adding to the filter being built first means that an id missed by both filters was committed before the scan.
+     * Ids a filter may contain already are not added to it, so updates do not count as insertions and bring the next
+     * rebuild forward; the few new ids that are false positives of the filter go uncounted as well.
+     */
+    @TransactionalEventListener
+    public void customersChanged(CustomersChanged event) {
+        if (event.changeType() != ChangeType.UPSERT) {
+            return;
+        }
+        BloomFilter next = building;
+        BloomFilter filter = current.get();
+        for (String customerId : event.customerIds()) {
+            addIfAbsent(next, customerId);
+            addIfAbsent(filter, customerId);
+        }
+        if (next == null && filter != null && filter.insertions() > filter.capacity()) {
+            requestRebuild();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuild() {
+        rebuildRequested.set(false);
+        BloomFilter previous = current.get();
+        long capacity = Math.max(properties.getMinCapacity(), previous == null ? 0 : previous.insertions() * 2);
+        BloomFilter next = BloomFilter.create(capacity, properties.getFalsePositiveRate());
+        long started = System.nanoTime();
+        building = next;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> customerIds = customerStore.streamIds()) {
+                    customerIds.forEach(next::put);
+                }
+            });
+            current.set(next);
+            rebuilds.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            log.info("[CustomerIdFilter] Rebuilt filter with {} ids in {} KiB", next.insertions(),
+                    next.sizeInBytes() / 1024);
+        } catch (RuntimeException e) {
+            log.warn("[CustomerIdFilter] Rebuilding the customer id filter failed", e);
+            return;
+        } finally {
+            building = null;
+        }
+        if (next.insertions() > capacity) {
+            requestRebuild();
+        }
+    }
+
+    private static void addIfAbsent(BloomFilter filter, String customerId) {
+        if (filter != null && !filter.mightContain(customerId)) {
+            filter.put(customerId);
+        }
+    }
+
+    private void requestRebuild() {
+        if (rebuildRequested.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("customer.id-filter.lookups")
+                .description("Lookups of customer ids by whether the filter ruled them out and whether they existed")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String baseUnit,
+            ToDoubleFunction<BloomFilter> value, String description) {
+        Gauge.builder(name, current, filter -> filter.get() == null ? Double.NaN : value.applyAsDouble(filter.get()))
+                .description(description)
+                .baseUnit(baseUnit)
+                .register(meterRegistry);
+    }
+}
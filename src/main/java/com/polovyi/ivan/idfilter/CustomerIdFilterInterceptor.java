@@ -0,0 +1,30 @@
+package com.polovyi.ivan.idfilter;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Returns {@code null} from {@link KnownCustomerId} methods called with an id the {@link CustomerIdFilter} rules
+ * out, and reports whether the other calls found their customer. The filter is looked up on first use, since
+ * advisors are created before the beans it needs.
+ */
+@RequiredArgsConstructor
+public class CustomerIdFilterInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<CustomerIdFilter> customerIdFilter;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CustomerIdFilter filter = customerIdFilter.getObject();
+        if (!filter.mightExist((String) invocation.getArguments()[0])) {
+            return null;
+        }
+        Object result = invocation.proceed();
+        if (invocation.getMethod().getReturnType() != void.class) {
+            filter.lookedUp(result != null);
+        }
+        return result;
+    }
+}
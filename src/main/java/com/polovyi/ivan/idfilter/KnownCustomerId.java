@@ -0,0 +1,17 @@
+package com.polovyi.ivan.idfilter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose first argument is a customer id and which returns {@code null}, or nothing, when there is no
+ * customer with that id. Calls with an id the {@link CustomerIdFilter} rules out return {@code null} right away.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface KnownCustomerId {
+}
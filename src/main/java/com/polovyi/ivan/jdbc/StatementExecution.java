@@ -0,0 +1,26 @@
+package com.polovyi.ivan.jdbc;
+
+/**
+ * One statement execution a {@link StatementListener} follows.
+ */
+public interface StatementExecution {
+
+    /**
+     * Called when the statement returned, with its result set, update count or update counts, or with {@code null}
+     * when it failed.
+     */
+    void executed(Object result);
+
+    /**
+     * Whether the rows read from a result set are to be reported, which costs a proxy per result set.
+     */
+    default boolean readsRows() {
+        return false;
+    }
+
+    default void rowRead() {
+    }
+
+    default void resultSetClosed() {
+    }
+}
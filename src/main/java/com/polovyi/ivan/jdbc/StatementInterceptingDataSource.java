@@ -0,0 +1,173 @@
+package com.polovyi.ivan.jdbc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps a data source in JDK proxies down to the result sets and reports statement executions, the rows read from
+ * their results and the end of transactions to {@link StatementListener}s.
+ */
+public final class StatementInterceptingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORY_METHODS = Set.of("createStatement", "prepareStatement",
+            "prepareCall");
+
+    private static final Set<String> TRANSACTION_END_METHODS = Set.of("commit", "rollback");
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate");
+
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+
+    private StatementInterceptingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource dataSource, List<StatementListener> listeners) {
+        List<StatementListener> statementListeners = List.copyOf(listeners);
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? connection(connection, statementListeners) : result;
+        });
+    }
+
+    private static Connection connection(Connection connection, List<StatementListener> listeners) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            if (TRANSACTION_END_METHODS.contains(method.getName())) {
+                long start = System.nanoTime();
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    listeners.forEach(listener -> listener.transactionEnded(elapsed));
+                }
+            }
+            Object result = invoke(target, method, args);
+            if (!STATEMENT_FACTORY_METHODS.contains(method.getName())) {
+                return result;
+            }
+            String preparedSql = args != null && args.length > 0 && args[0] instanceof String sql ? sql : null;
+            if (result instanceof CallableStatement statement) {
+                return new StatementHandler(listeners, preparedSql).proxy(CallableStatement.class, statement);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return new StatementHandler(listeners, preparedSql).proxy(PreparedStatement.class, statement);
+            }
+            if (result instanceof Statement statement) {
+                return new StatementHandler(listeners, null).proxy(Statement.class, statement);
+            }
+            return result;
+        });
+    }
+
+    private static final class StatementHandler {
+
+        private final List<StatementListener> listeners;
+
+        private final String preparedSql;
+
+        private final List<String> batch = new ArrayList<>();
+
+        StatementHandler(List<StatementListener> listeners, String preparedSql) {
+            this.listeners = listeners;
+            this.preparedSql = preparedSql;
+        }
+
+        <T extends Statement> T proxy(Class<T> type, T statement) {
+            return StatementInterceptingDataSource.proxy(type, statement, this::invokeOnStatement);
+        }
+
+        private Object invokeOnStatement(Statement statement, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch")) {
+                batch.add(args != null && args.length == 1 ? (String) args[0] : preparedSql);
+            } else if (name.equals("clearBatch")) {
+                batch.clear();
+            }
+            boolean batchExecution = BATCH_METHODS.contains(name);
+            if (!batchExecution && !EXECUTE_METHODS.contains(name)) {
+                return invoke(statement, method, args);
+            }
+            String sql;
+            int statementCount = 1;
+            if (batchExecution) {
+                sql = batch.isEmpty() ? preparedSql : batch.get(0);
+                statementCount = batch.size();
+                batch.clear();
+            } else {
+                sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            }
+            List<StatementExecution> executions = new ArrayList<>(listeners.size());
+            for (StatementListener listener : listeners) {
+                StatementExecution execution = listener.executing(statement, sql, statementCount);
+                if (execution != null) {
+                    executions.add(execution);
+                }
+            }
+            Object result = null;
+            try {
+                result = invoke(statement, method, args);
+            } finally {
+                for (StatementExecution execution : executions) {
+                    execution.executed(result);
+                }
+            }
+            return result instanceof ResultSet resultSet ? resultSet(resultSet, executions) : result;
+        }
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet, List<StatementExecution> executions) {
+        List<StatementExecution> readingRows = executions.stream().filter(StatementExecution::readsRows).toList();
+        if (readingRows.isEmpty()) {
+            return resultSet;
+        }
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                readingRows.forEach(StatementExecution::rowRead);
+            } else if (method.getName().equals("close")) {
+                readingRows.forEach(StatementExecution::resultSetClosed);
+            }
+            return result;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Invoker<T> {
+
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Invoker<T> invoker) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            // Spring binds transactional resources by data source, which must therefore compare by identity
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            return invoker.invoke(target, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(StatementInterceptingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, invocationHandler));
+    }
+}
@@ -0,0 +1,23 @@
+package com.polovyi.ivan.jdbc;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Told about the statements executed on the application data source. Listeners are beans, each installed with the
+ * feature it belongs to, and all of them share the one {@link StatementInterceptingDataSource}.
+ */
+public interface StatementListener {
+
+    /**
+     * Called before a statement is executed, with its SQL, the first one of a batch of plain statements, and the
+     * number of statements it executes. Returns the execution to be told how it went, or {@code null}.
+     */
+    StatementExecution executing(Statement statement, String sql, int statementCount) throws SQLException;
+
+    /**
+     * Called once a connection committed or rolled back, with the time that took.
+     */
+    default void transactionEnded(long elapsedNanos) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.polovyi.ivan.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The fetch of one field, from the call of its data fetcher until its value is available. Thresholded by default,
+ * as most fields are plain property reads.
+ */
+@Name(GraphQLFieldFetchEvent.NAME)
+@Label("GraphQL Field Fetch")
+@Category({"Customer API", "GraphQL"})
+@StackTrace(false)
+@Threshold("1 ms")
+final class GraphQLFieldFetchEvent extends OperationEvent {
+
+    static final String NAME = "com.polovyi.ivan.GraphQLFieldFetch";
+
+    @Label("Path")
+    String path;
+}
@@ -0,0 +1,24 @@
+package com.polovyi.ivan.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(GraphQLPhaseEvent.NAME)
+@Label("GraphQL Phase")
+@Category({"Customer API", "GraphQL"})
+@StackTrace(false)
+final class GraphQLPhaseEvent extends OperationEvent {
+
+    static final String NAME = "com.polovyi.ivan.GraphQLPhase";
+
+    static final String EXECUTE = "execute";
+
+    @Label("Phase")
+    String phase;
+
+    GraphQLPhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
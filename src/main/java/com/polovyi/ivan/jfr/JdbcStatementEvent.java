@@ -0,0 +1,20 @@
+package com.polovyi.ivan.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A statement from its execution until its result set is closed, so reading the rows is included. Rows are the
+ * rows read for a query and the update count otherwise.
+ */
+@Name(JdbcStatementEvent.NAME)
+@Label("JDBC Statement")
+@Category({"Customer API", "JDBC"})
+final class JdbcStatementEvent extends OperationEvent {
+
+    static final String NAME = "com.polovyi.ivan.JdbcStatement";
+
+    @Label("SQL")
+    String sql;
+}
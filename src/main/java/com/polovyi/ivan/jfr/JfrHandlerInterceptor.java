@@ -0,0 +1,41 @@
+package com.polovyi.ivan.jfr;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records a {@link RestHandlerEvent} around the dispatch to a controller method, including the serialization of
+ * its response, and names the request operation after the matched path pattern.
+ */
+public class JfrHandlerInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = JfrHandlerInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                RequestOperation.rename(request.getMethod() + " " + pattern);
+            }
+            RestHandlerEvent event = new RestHandlerEvent();
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(EVENT_ATTRIBUTE) instanceof RestHandlerEvent event && event.endAndCheck()) {
+            event.handler = ((HandlerMethod) handler).getShortLogMessage();
+            event.status = response.getStatus();
+            event.complete(RequestOperation.currentResultRows());
+        }
+    }
+}
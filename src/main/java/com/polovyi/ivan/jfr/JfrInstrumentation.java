@@ -0,0 +1,73 @@
+package com.polovyi.ivan.jfr;
+
+import com.polovyi.ivan.graphql.GraphQLOperations;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+
+import java.util.List;
+
+/**
+ * Records the parse, validation and execution of GraphQL operations as {@link GraphQLPhaseEvent}s and every
+ * non-trivial field fetch as a {@link GraphQLFieldFetchEvent}, and names the request operation after the executed
+ * operation.
+ */
+public class JfrInstrumentation extends SimpleInstrumentation {
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters) {
+        return phase("parse");
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(
+            InstrumentationValidationParameters parameters) {
+        return phase("validate");
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters) {
+        RequestOperation.rename(GraphQLOperations.nameOf(parameters.getExecutionContext().getOperationDefinition()));
+        return phase(GraphQLPhaseEvent.EXECUTE);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters) {
+        if (parameters.isTrivialDataFetcher()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        GraphQLFieldFetchEvent event = new GraphQLFieldFetchEvent();
+        event.begin();
+        boolean rootField = parameters.getExecutionStepInfo().getPath().getLevel() == 1;
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) -> {
+            long rows = OperationEvent.rowsOf(value);
+            if (rootField) {
+                RequestOperation.addResultRows(rows);
+            }
+            if (event.endAndCheck()) {
+                event.path = parameters.getExecutionStepInfo().getPath().toString();
+                event.complete(rows);
+            }
+        });
+    }
+
+    private static <T> InstrumentationContext<T> phase(String phase) {
+        GraphQLPhaseEvent event = new GraphQLPhaseEvent(phase);
+        event.begin();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            if (event.endAndCheck()) {
+                event.complete(GraphQLPhaseEvent.EXECUTE.equals(phase)
+                        ? RequestOperation.currentResultRows()
+                        : OperationEvent.rowsOf(result instanceof List<?> errors ? errors : null));
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.polovyi.ivan.jfr;
+
+import com.polovyi.ivan.configuration.JfrRecordingProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * A continuous recording with the bundled settings, kept on disk up to the configured age and size and written to
+ * the destination when the application stops, so a latency spike can be analyzed after the fact. A dump can also
+ * be taken at any time with {@code jcmd <pid> JFR.dump name=customer-api}.
+ */
+@Slf4j
+public class JfrRecording implements DisposableBean {
+
+    static final String NAME = "customer-api";
+
+    private final Recording recording;
+
+    public JfrRecording(JfrRecordingProperties properties, ResourceLoader resourceLoader)
+            throws IOException, ParseException {
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(
+                resourceLoader.getResource(properties.getSettings()).getInputStream(), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+        recording = new Recording(configuration);
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.getMaxAge());
+        recording.setMaxSize(properties.getMaxSize().toBytes());
+        recording.setDestination(Path.of(properties.getDestination()));
+        recording.setDumpOnExit(true);
+        recording.start();
+        log.info("[JfrRecording] Recording with {} to {}", properties.getSettings(), properties.getDestination());
+    }
+
+    @Override
+    public void destroy() {
+        recording.stop();
+        recording.close();
+    }
+}
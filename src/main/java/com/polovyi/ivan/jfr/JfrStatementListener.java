@@ -0,0 +1,70 @@
+package com.polovyi.ivan.jfr;
+
+import com.polovyi.ivan.jdbc.StatementExecution;
+import com.polovyi.ivan.jdbc.StatementListener;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Records every executed statement as a {@link JdbcStatementEvent}. Rows of result sets are only counted while the
+ * event is enabled.
+ */
+public class JfrStatementListener implements StatementListener {
+
+    @Override
+    public StatementExecution executing(Statement statement, String sql, int statementCount) {
+        JdbcStatementEvent event = new JdbcStatementEvent();
+        event.begin();
+        return new StatementExecution() {
+
+            private long rows;
+
+            @Override
+            public void executed(Object result) {
+                if (!(result instanceof ResultSet)) {
+                    complete(updateCount(result));
+                }
+            }
+
+            @Override
+            public boolean readsRows() {
+                return event.isEnabled();
+            }
+
+            @Override
+            public void rowRead() {
+                rows++;
+            }
+
+            @Override
+            public void resultSetClosed() {
+                complete(rows);
+            }
+
+            private void complete(long rowCount) {
+                if (event.endAndCheck()) {
+                    event.sql = sql;
+                    event.complete(rowCount);
+                }
+            }
+        };
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+}
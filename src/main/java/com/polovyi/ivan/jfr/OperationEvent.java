@@ -0,0 +1,54 @@
+package com.polovyi.ivan.jfr;
+
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
+import com.polovyi.ivan.dto.response.DeleteCustomersResponse;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+import java.util.Collection;
+
+/**
+ * Base of the events of the customer API. Subclasses are created and begun unconditionally and only filled in
+ * when {@link #endAndCheck()} holds, which keeps their cost negligible while they are disabled or below their
+ * threshold.
+ */
+@Category("Customer API")
+abstract class OperationEvent extends Event {
+
+    @Label("Operation")
+    @Description("Endpoint or GraphQL operation the event was recorded for")
+    String operation;
+
+    @Label("Rows")
+    @Description("Customers, changes or database rows the step produced")
+    long rows;
+
+    /**
+     * Ends the event and tells whether it passes its settings; only then should its fields be computed.
+     */
+    boolean endAndCheck() {
+        end();
+        return shouldCommit();
+    }
+
+    void complete(long rows) {
+        this.operation = RequestOperation.currentName();
+        this.rows = rows;
+        commit();
+    }
+
+    static long rowsOf(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof CustomerChangesResponse changes) {
+            return changes.getChanges() == null ? 0 : changes.getChanges().size();
+        }
+        if (result instanceof DeleteCustomersResponse deleted) {
+            return deleted.getDeletedCount();
+        }
+        return result == null ? 0 : 1;
+    }
+}
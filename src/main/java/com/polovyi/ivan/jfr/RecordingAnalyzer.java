@@ -0,0 +1,197 @@
+package com.polovyi.ivan.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes a flight recording of the application per endpoint and GraphQL operation: request latency
+ * percentiles, time spent in the service, in JDBC statements and in serialization, statements and rows per
+ * request, and the sampled allocation of the threads while they worked for the operation.
+ * <p>
+ * Run with {@code mvn -Pjfr compile exec:exec@jfr-analyze -Djfr.file=customer.jfr}, or from the packaged application with
+ * {@code java -cp app.jar -Dloader.main=com.polovyi.ivan.jfr.RecordingAnalyzer
+ * org.springframework.boot.loader.PropertiesLauncher customer.jfr}.
+ */
+public final class RecordingAnalyzer {
+
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+
+    // Spans are nested, the one covering an allocation is usually among the few that started last
+    private static final int MAX_SPANS_SEARCHED = 32;
+
+    private final Map<String, OperationSummary> operations = new HashMap<>();
+
+    private final Map<Long, List<Span>> spansByThread = new HashMap<>();
+
+    private final List<Allocation> allocations = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: RecordingAnalyzer <recording.jfr>...");
+            System.exit(2);
+        }
+        RecordingAnalyzer analyzer = new RecordingAnalyzer();
+        for (String file : args) {
+            analyzer.read(Path.of(file));
+        }
+        analyzer.print(System.out);
+    }
+
+    void read(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                accept(recording.readEvent());
+            }
+        }
+    }
+
+    void print(PrintStream out) {
+        attributeAllocations();
+        out.printf("%-40s %8s %9s %9s %9s %10s %9s %9s %10s %10s %10s %10s%n", "operation", "requests", "p50 ms",
+                "p99 ms", "max ms", "service ms", "sql/req", "sql ms", "rows/req", "ser. ms", "KB/req", "alloc MB");
+        operations.values().stream()
+                .sorted(Comparator.comparingLong(OperationSummary::totalRequestNanos).reversed())
+                .forEach(summary -> summary.print(out));
+    }
+
+    private void accept(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        if (type.equals(ALLOCATION_SAMPLE)) {
+            if (event.getThread() != null) {
+                allocations.add(new Allocation(event.getThread().getJavaThreadId(), event.getStartTime(),
+                        event.getLong("weight")));
+            }
+            return;
+        }
+        if (!type.startsWith("com.polovyi.ivan.") || !event.hasField("operation")) {
+            return;
+        }
+        String operation = event.getString("operation");
+        OperationSummary summary = operations.computeIfAbsent(operation == null ? "(outside requests)" : operation,
+                OperationSummary::new);
+        long nanos = event.getDuration().toNanos();
+        switch (type) {
+            case RestHandlerEvent.NAME -> summary.requestNanos.add(nanos);
+            case GraphQLPhaseEvent.NAME -> {
+                if (GraphQLPhaseEvent.EXECUTE.equals(event.getString("phase"))) {
+                    summary.requestNanos.add(nanos);
+                }
+            }
+            case ServiceCallEvent.NAME -> summary.serviceNanos += nanos;
+            case JdbcStatementEvent.NAME -> {
+                summary.statements++;
+                summary.statementNanos += nanos;
+                summary.statementRows += event.getLong("rows");
+            }
+            case SerializationEvent.NAME -> {
+                summary.serializationNanos += nanos;
+                summary.serializedBytes += event.getLong("bytes");
+            }
+            default -> {
+            }
+        }
+        if (event.getThread() != null) {
+            spansByThread.computeIfAbsent(event.getThread().getJavaThreadId(), thread -> new ArrayList<>())
+                    .add(new Span(event.getStartTime(), event.getEndTime(), summary));
+        }
+    }
+
+    private void attributeAllocations() {
+        spansByThread.values().forEach(spans -> spans.sort(Comparator.comparing(Span::start)));
+        for (Allocation allocation : allocations) {
+            List<Span> spans = spansByThread.get(allocation.threadId());
+            if (spans == null) {
+                continue;
+            }
+            int last = lastStartedBy(spans, allocation.time());
+            for (int i = last; i >= 0 && i > last - MAX_SPANS_SEARCHED; i--) {
+                Span span = spans.get(i);
+                if (!span.end().isBefore(allocation.time())) {
+                    span.summary().allocatedBytes += allocation.bytes();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int lastStartedBy(List<Span> spans, Instant time) {
+        int low = 0;
+        int high = spans.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (spans.get(middle).start().isAfter(time)) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return high;
+    }
+
+    private record Span(Instant start, Instant end, OperationSummary summary) {
+    }
+
+    private record Allocation(long threadId, Instant time, long bytes) {
+    }
+
+    private static final class OperationSummary {
+
+        private final String operation;
+
+        private final List<Long> requestNanos = new ArrayList<>();
+
+        private long serviceNanos;
+
+        private long statements;
+
+        private long statementNanos;
+
+        private long statementRows;
+
+        private long serializationNanos;
+
+        private long serializedBytes;
+
+        private long allocatedBytes;
+
+        OperationSummary(String operation) {
+            this.operation = operation;
+        }
+
+        long totalRequestNanos() {
+            return requestNanos.stream().mapToLong(Long::longValue).sum();
+        }
+
+        void print(PrintStream out) {
+            List<Long> sorted = requestNanos.stream().sorted().toList();
+            int requests = Math.max(1, sorted.size());
+            out.printf("%-40s %8d %9.2f %9.2f %9.2f %10.1f %9.1f %9.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operation, sorted.size(), millis(percentile(sorted, 0.5)), millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 1.0)), millis(serviceNanos), (double) statements / requests,
+                    millis(statementNanos), (double) statementRows / requests, millis(serializationNanos),
+                    serializedBytes / 1024.0 / requests, allocatedBytes / 1024.0 / 1024.0);
+        }
+
+        private static long percentile(List<Long> sorted, double percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            return sorted.get(Math.max(0, (int) Math.ceil(percentile * sorted.size()) - 1));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) Duration.ofMillis(1).toNanos();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.polovyi.ivan.jfr;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.context.RequestState;
+
+/**
+ * Name of the endpoint or GraphQL operation the current thread works for, attached to every recorded event. Bound
+ * per request by the {@link RequestOperationFilter}, refined once the handler or operation is known and carried over
+ * to the GraphQL executor threads.
+ */
+public final class RequestOperation implements RequestState {
+
+    private static final ThreadLocal<RequestOperation> CURRENT = new ThreadLocal<>();
+
+    private volatile String name;
+
+    private volatile long resultRows;
+
+    public RequestOperation(String name) {
+        this.name = name;
+    }
+
+    public static RequestOperation current() {
+        return CURRENT.get();
+    }
+
+    public static String currentName() {
+        RequestOperation operation = CURRENT.get();
+        return operation == null ? null : operation.name;
+    }
+
+    /**
+     * Number of customers or changes the response carries, as far as known yet.
+     */
+    static long currentResultRows() {
+        RequestOperation operation = CURRENT.get();
+        return operation == null ? 0 : operation.resultRows;
+    }
+
+    static void addResultRows(long rows) {
+        RequestOperation operation = CURRENT.get();
+        if (operation != null) {
+            operation.resultRows += rows;
+        }
+    }
+
+    public static void rename(String name) {
+        RequestOperation operation = CURRENT.get();
+        if (operation != null) {
+            operation.name = name;
+        }
+    }
+
+    @Override
+    public ContextScope bind() {
+        RequestOperation previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.polovyi.ivan.jfr;
+
+import com.polovyi.ivan.context.ContextScope;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Binds a {@link RequestOperation} named after the request method and path, until the handler or GraphQL
+ * operation names it more precisely.
+ */
+public class RequestOperationFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestOperation operation = new RequestOperation(request.getMethod() + " "
+                + request.getRequestURI().substring(request.getContextPath().length()));
+        try (ContextScope ignored = operation.bind()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.polovyi.ivan.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(RestHandlerEvent.NAME)
+@Label("REST Handler")
+@Category({"Customer API", "REST"})
+@StackTrace(false)
+final class RestHandlerEvent extends OperationEvent {
+
+    static final String NAME = "com.polovyi.ivan.RestHandler";
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,23 @@
+package com.polovyi.ivan.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(SerializationEvent.NAME)
+@Label("Response Serialization")
+@Category({"Customer API", "REST"})
+@StackTrace(false)
+final class SerializationEvent extends OperationEvent {
+
+    static final String NAME = "com.polovyi.ivan.Serialization";
+
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,18 @@
+package com.polovyi.ivan.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(ServiceCallEvent.NAME)
+@Label("Service Call")
+@Category({"Customer API", "Service"})
+@StackTrace(false)
+final class ServiceCallEvent extends OperationEvent {
+
+    static final String NAME = "com.polovyi.ivan.ServiceCall";
+
+    @Label("Method")
+    String method;
+}
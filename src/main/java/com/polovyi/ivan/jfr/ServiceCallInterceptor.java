@@ -0,0 +1,27 @@
+package com.polovyi.ivan.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Records a {@link ServiceCallEvent} for every call of an advised service method.
+ */
+public class ServiceCallInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            if (event.endAndCheck()) {
+                event.method = invocation.getMethod().getDeclaringClass().getSimpleName() + "."
+                        + invocation.getMethod().getName();
+                event.complete(OperationEvent.rowsOf(result));
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.polovyi.ivan.keys;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * Assigns ids of new customers of the key type in the {@value CustomerKeyType#SETTING} Hibernate setting, random
+ * UUIDs when it is not set.
+ */
+public class CustomerIdGenerator implements IdentifierGenerator {
+
+    private CustomerKeyType keyType = CustomerKeyType.RANDOM;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        Object setting = serviceRegistry.getService(ConfigurationService.class).getSettings()
+                .get(CustomerKeyType.SETTING);
+        if (setting instanceof CustomerKeyType configured) {
+            keyType = configured;
+        }
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return keyType.newId();
+    }
+}
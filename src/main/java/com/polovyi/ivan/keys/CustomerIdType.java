@@ -0,0 +1,96 @@
+package com.polovyi.ivan.keys;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Hibernate type of customer id columns: the canonical UUID string in Java, a {@code VARCHAR} or, for
+ * {@link CustomerKeyType#TIME_ORDERED} keys, 16 bytes in the database. The configured instance is registered under
+ * the class name; Hibernate falls back to instantiating the class, with {@code VARCHAR} storage, without it.
+ */
+public class CustomerIdType implements UserType {
+
+    private final boolean binary;
+
+    public CustomerIdType() {
+        this(CustomerKeyType.RANDOM);
+    }
+
+    public CustomerIdType(CustomerKeyType keyType) {
+        this.binary = keyType.isBinary();
+    }
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{binary ? Types.BINARY : Types.VARCHAR};
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet resultSet, String[] names, SharedSessionContractImplementor session,
+            Object owner) throws SQLException {
+        if (!binary) {
+            return resultSet.getString(names[0]);
+        }
+        byte[] bytes = resultSet.getBytes(names[0]);
+        return bytes == null ? null : CustomerIds.fromBytes(bytes);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement statement, Object value, int index,
+            SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, sqlTypes()[0]);
+        } else if (binary) {
+            statement.setBytes(index, CustomerIds.toBytes((String) value));
+        } else {
+            statement.setString(index, (String) value);
+        }
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+}
@@ -0,0 +1,51 @@
+package com.polovyi.ivan.keys;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Conversion of customer ids between the canonical string of the API and their 16 byte storage form.
+ */
+public final class CustomerIds {
+
+    private static final byte[] NO_KEY = new byte[0];
+
+    private static final int CANONICAL_LENGTH = 36;
+
+    private static final int BYTES = 16;
+
+    private CustomerIds() {
+    }
+
+    /**
+     * Returns the 16 bytes of the id. A string that is not a canonical UUID cannot be the id of any stored
+     * customer, so it becomes an empty key which matches no row.
+     */
+    public static byte[] toBytes(String customerId) {
+        UUID uuid = parse(customerId);
+        if (uuid == null) {
+            return NO_KEY;
+        }
+        return ByteBuffer.allocate(BYTES)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    // UUID.fromString also accepts shortened groups such as "1-1-1-1-1"
+    private static UUID parse(String customerId) {
+        if (customerId == null || customerId.length() != CANONICAL_LENGTH) {
+            return null;
+        }
+        try {
+            return UUID.fromString(customerId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.polovyi.ivan.keys;
+
+import java.util.UUID;
+
+/**
+ * How customer ids are generated and stored. Either way the API sees the canonical 36 character UUID string.
+ */
+public enum CustomerKeyType {
+
+    /**
+     * Random version 4 UUIDs, stored as {@code VARCHAR}.
+     */
+    RANDOM {
+        @Override
+        public String newId() {
+            return UUID.randomUUID().toString();
+        }
+    },
+
+    /**
+     * Version 7 UUIDs, which start with their creation time so new rows are appended to the end of the primary key
+     * index, stored as 16 bytes.
+     */
+    TIME_ORDERED {
+        @Override
+        public String newId() {
+            return TimeOrderedUuid.next().toString();
+        }
+    };
+
+    /**
+     * Name of the Hibernate setting carrying the key type to {@link CustomerIdGenerator} and {@link CustomerIdType}.
+     */
+    public static final String SETTING = "customer.keys.type";
+
+    public abstract String newId();
+
+    public boolean isBinary() {
+        return this == TIME_ORDERED;
+    }
+}
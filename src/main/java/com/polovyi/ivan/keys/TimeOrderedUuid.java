@@ -0,0 +1,30 @@
+package com.polovyi.ivan.keys;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates version 7 UUIDs (RFC 9562): a 48 bit Unix millisecond timestamp, followed by a 12 bit counter and 62
+ * random bits. Ids generated by this JVM are strictly increasing: the counter orders ids of the same millisecond,
+ * and when it overflows, or the clock steps back, the timestamp is advanced past the clock instead.
+ */
+public final class TimeOrderedUuid {
+
+    private static final int COUNTER_BITS = 12;
+
+    // Timestamp and counter of the last id, as one value so both advance with a single compare-and-set
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long stamp = LAST.updateAndGet(last -> Math.max(now, last + 1));
+        long mostSignificantBits = (stamp >>> COUNTER_BITS) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long leastSignificantBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL
+                | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
@@ -0,0 +1,82 @@
+package com.polovyi.ivan.replica;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.context.RequestState;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.LongConsumer;
+
+/**
+ * The change sequence the reads of the current request must observe: the client's last write as reported by its
+ * read-your-writes cookie, or a write made by the request itself. Bound to the request thread and carried over to
+ * the GraphQL executor threads.
+ */
+public final class ReadConsistency implements RequestState {
+
+    private static final ThreadLocal<ReadConsistency> CURRENT = new ThreadLocal<>();
+
+    private final long clientSequence;
+
+    private final LongConsumer writeListener;
+
+    private volatile long writtenSequence;
+
+    public ReadConsistency(long clientSequence, LongConsumer writeListener) {
+        this.clientSequence = clientSequence;
+        this.writeListener = writeListener;
+    }
+
+    public static long requiredSequence() {
+        ReadConsistency consistency = CURRENT.get();
+        return consistency == null ? 0 : Math.max(consistency.clientSequence, consistency.writtenSequence);
+    }
+
+    /**
+     * Remembers the sequence of a write of the current transaction once it commits, so later reads of the request
+     * and of the client avoid replicas that have not applied it yet.
+     */
+    public static void recordWrite(long sequence) {
+        ReadConsistency consistency = CURRENT.get();
+        if (consistency == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                consistency.written(sequence);
+            }
+        });
+    }
+
+    /**
+     * The consistency bound to the current thread, or {@code null} outside of a request.
+     */
+    public static ReadConsistency current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Reports a committed write made on behalf of this consistency's request from another thread.
+     */
+    public void written(long sequence) {
+        writtenSequence = sequence;
+        writeListener.accept(sequence);
+    }
+
+    @Override
+    public ContextScope bind() {
+        ReadConsistency previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> restore(previous);
+    }
+
+    private static void restore(ReadConsistency previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
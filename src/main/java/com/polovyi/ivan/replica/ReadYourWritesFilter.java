@@ -0,0 +1,57 @@
+package com.polovyi.ivan.replica;
+
+import com.polovyi.ivan.context.ContextScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Gives every client session read-your-writes consistency. A write hands the client a cookie with the change
+ * sequence it committed, and reads of requests carrying the cookie are only routed to replicas that applied that
+ * sequence; until one has, they go to the primary.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "customer-read-after";
+
+    private final Duration cookieTtl;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadConsistency consistency = new ReadConsistency(clientSequence(request),
+                sequence -> response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME,
+                                String.valueOf(sequence))
+                        .path(request.getContextPath().isEmpty() ? "/" : request.getContextPath())
+                        .maxAge(cookieTtl)
+                        .httpOnly(true)
+                        .build()
+                        .toString()));
+        try (ContextScope ignored = consistency.bind()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static long clientSequence(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.polovyi.ivan.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A read replica and what is known about its freshness: the last change sequence it applied and when it last had
+ * applied everything the primary had.
+ */
+@Getter
+public class Replica {
+
+    private final String name;
+
+    private final HikariDataSource dataSource;
+
+    private volatile boolean healthy;
+
+    private volatile long appliedSequence;
+
+    private volatile long caughtUpNanos;
+
+    public Replica(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public boolean canServe(long requiredSequence, Duration maxLag) {
+        return healthy && appliedSequence >= requiredSequence && lagNanos() <= maxLag.toNanos();
+    }
+
+    public long lagNanos() {
+        return caughtUpNanos == 0 ? Long.MAX_VALUE : System.nanoTime() - caughtUpNanos;
+    }
+
+    void applied(long sequence) {
+        appliedSequence = sequence;
+    }
+
+    void caughtUp(long sinceNanos) {
+        caughtUpNanos = sinceNanos;
+    }
+
+    void healthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+}
@@ -0,0 +1,183 @@
+package com.polovyi.ivan.replica;
+
+import com.polovyi.ivan.configuration.ReadReplicaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Local stand-in for database replication between H2 instances. A replica starts from a copy of the primary's
+ * schema and data and then applies the customer change feed in sequence order, up to the committed sequence of
+ * the change log, so its applied sequence tells exactly which writes it contains. It also checks replica health.
+ */
+@Slf4j
+public class ReplicaSynchronizer implements DisposableBean {
+
+    private static final String SELECT_CUSTOMER =
+            "SELECT id, full_name, phone_number, address, created_at FROM customer";
+
+    private static final String MERGE_CUSTOMER = "MERGE INTO customer (id, full_name, phone_number, address, "
+            + "created_at) KEY (id) VALUES (:id, :full_name, :phone_number, :address, :created_at)";
+
+    private static final String MERGE_CHANGE = "MERGE INTO customer_change (sequence, customer_id, change_type) "
+            + "KEY (sequence) VALUES (:sequence, :customer_id, :change_type)";
+
+    private final NamedParameterJdbcTemplate primary;
+
+    private final List<Replica> replicas;
+
+    private final ReadReplicaProperties properties;
+
+    private final LongSupplier committedSequence;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("replica-sync-"));
+
+    public ReplicaSynchronizer(DataSource primary, List<Replica> replicas, ReadReplicaProperties properties,
+            LongSupplier committedSequence) {
+        this.primary = new NamedParameterJdbcTemplate(primary);
+        this.replicas = replicas;
+        this.properties = properties;
+        this.committedSequence = committedSequence;
+    }
+
+    // The primary schema is only complete once JPA and the data loader are done
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (Replica replica : replicas) {
+            try {
+                initialize(replica);
+            } catch (RuntimeException e) {
+                log.warn("Replica {} could not be initialized, reads stay on the primary", replica.getName(), e);
+            }
+        }
+        scheduler.scheduleWithFixedDelay(this::syncAll, 0, properties.getSyncInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::checkHealth, properties.getHealthCheckInterval().toMillis(),
+                properties.getHealthCheckInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void initialize(Replica replica) {
+        NamedParameterJdbcTemplate target = new NamedParameterJdbcTemplate(replica.getDataSource());
+        for (String statement : primary.getJdbcOperations().queryForList("SCRIPT NODATA", String.class)) {
+            if (!statement.startsWith("--") && !statement.startsWith("CREATE USER")) {
+                target.getJdbcOperations().execute(statement);
+            }
+        }
+        // Changes after this position are applied again by the first sync, which is harmless as they are merges
+        long position = committedSequence.getAsLong();
+        primary.getJdbcOperations().query(SELECT_CUSTOMER,
+                resultSet -> {
+                    target.update(MERGE_CUSTOMER, parameters(resultSet));
+                });
+        primary.query("SELECT sequence, customer_id, change_type FROM customer_change WHERE sequence <= :position",
+                Map.of("position", position), resultSet -> {
+                    target.update(MERGE_CHANGE, parameters(resultSet));
+                });
+        // Only replicas record an applied sequence, the primary allocates its sequences in memory
+        target.getJdbcOperations().execute("CREATE TABLE IF NOT EXISTS change_sequence "
+                + "(name VARCHAR(255) PRIMARY KEY, last_value BIGINT NOT NULL)");
+        target.update("MERGE INTO change_sequence (name, last_value) KEY (name) VALUES ('customer', :position)",
+                Map.of("position", position));
+        replica.applied(position);
+        replica.healthy(true);
+        log.info("Initialized replica {} at change sequence {}", replica.getName(), position);
+    }
+
+    private void syncAll() {
+        for (Replica replica : replicas) {
+            try {
+                sync(replica);
+            } catch (RuntimeException e) {
+                log.warn("Replica {} failed to apply changes", replica.getName(), e);
+                replica.healthy(false);
+            }
+        }
+    }
+
+    void sync(Replica replica) {
+        long startNanos = System.nanoTime();
+        NamedParameterJdbcTemplate target = new NamedParameterJdbcTemplate(replica.getDataSource());
+        // Stopping at the committed sequence, as a running write may still record changes below later ones
+        List<Map<String, Object>> changes = primary.queryForList("SELECT sequence, customer_id, change_type "
+                        + "FROM customer_change WHERE sequence > :position AND sequence <= :committed "
+                        + "ORDER BY sequence LIMIT :limit",
+                new MapSqlParameterSource("position", replica.getAppliedSequence())
+                        .addValue("committed", committedSequence.getAsLong())
+                        .addValue("limit", properties.getSyncBatchSize()));
+        for (Map<String, Object> change : changes) {
+            // A string or, with time-ordered keys, the 16 bytes; copied to the replica as it is
+            Object customerId = change.get("customer_id");
+            MapSqlParameterSource customer = customerParameters(customerId, primary);
+            if (customer == null) {
+                target.update("DELETE FROM customer WHERE id = :id", Map.of("id", customerId));
+            } else {
+                target.update(MERGE_CUSTOMER, customer);
+            }
+            target.update(MERGE_CHANGE, new MapSqlParameterSource("sequence", change.get("sequence"))
+                    .addValue("customer_id", customerId)
+                    .addValue("change_type", change.get("change_type")));
+        }
+        if (!changes.isEmpty()) {
+            long sequence = ((Number) changes.get(changes.size() - 1).get("sequence")).longValue();
+            target.update("UPDATE change_sequence SET last_value = :sequence", Map.of("sequence", sequence));
+            replica.applied(sequence);
+        }
+        if (changes.size() < properties.getSyncBatchSize()) {
+            replica.caughtUp(startNanos);
+        }
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try {
+                new JdbcTemplate(replica.getDataSource()).queryForObject("SELECT 1", Integer.class);
+                replica.healthy(true);
+            } catch (RuntimeException e) {
+                log.warn("Replica {} is unhealthy: {}", replica.getName(), e.getMessage());
+                replica.healthy(false);
+            }
+        }
+    }
+
+    /*
+     * The current row of the primary stands for both upserts and deletes: a customer that is gone by now is removed,
+     * whatever the change being applied says.
+     */
+    private static MapSqlParameterSource customerParameters(Object customerId, NamedParameterJdbcTemplate primary) {
+        List<MapSqlParameterSource> rows = primary.query(SELECT_CUSTOMER + " WHERE id = :id",
+                Map.of("id", customerId), (resultSet, row) -> parameters(resultSet));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static MapSqlParameterSource parameters(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            parameters.addValue(metaData.getColumnLabel(column).toLowerCase(Locale.ROOT), resultSet.getObject(column));
+        }
+        return parameters;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.polovyi.ivan.repository;
+
+import com.polovyi.ivan.entity.CustomerChangeEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface CustomerChangeRepository extends JpaRepository<CustomerChangeEntity, Long> {
+
+    List<CustomerChangeEntity> findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequence(long since,
+            long until, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(change.sequence), 0) FROM CustomerChangeEntity change")
+    long findLastSequence();
+
+}
@@ -1,11 +1,15 @@
 package com.polovyi.ivan.repository;
 
 import com.polovyi.ivan.entity.CustomerEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<CustomerEntity, String> {
     @Query("SELECT customer from CustomerEntity customer WHERE "
@@ -14,4 +18,21 @@ public interface CustomerRepository extends JpaRepository<CustomerEntity, String
             + "(:createdAt IS NULL OR customer.createdAt = :createdAt)")
     List<CustomerEntity> findCustomersWithFilters(String fullName, String phoneNumber, LocalDate createdAt);
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT customer.id FROM CustomerEntity customer")
+    Stream<String> streamIds();
+
+    @Query("SELECT customer from CustomerEntity customer WHERE "
+            + "(:afterId IS NULL OR customer.id > :afterId) AND "
+            + "(:fullName IS NULL OR customer.fullName = :fullName) AND "
+            + "(:phoneNumber IS NULL OR customer.phoneNumber = :phoneNumber) AND "
+            + "(:createdAt IS NULL OR customer.createdAt = :createdAt)")
+    List<CustomerEntity> findPageAfter(String afterId, String fullName, String phoneNumber, LocalDate createdAt,
+            Pageable pageable);
+
+    long countByCreatedAtBefore(LocalDate createdBefore);
+
+    @Query("SELECT customer.id FROM CustomerEntity customer WHERE customer.createdAt < :createdBefore")
+    List<String> findIdsCreatedBefore(LocalDate createdBefore, Pageable pageable);
+
 }
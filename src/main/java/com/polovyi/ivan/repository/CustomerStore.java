@@ -0,0 +1,62 @@
+package com.polovyi.ivan.repository;
+
+import com.polovyi.ivan.entity.CustomerEntity;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage of customers as used by the service layer. The engine behind it is selected with
+ * {@code customer.store.type}; JPA through {@link CustomerRepository} is the default.
+ */
+public interface CustomerStore {
+
+    List<CustomerEntity> findAll();
+
+    List<CustomerEntity> findCustomersWithFilters(String fullName, String phoneNumber, LocalDate createdAt);
+
+    /**
+     * Returns at most {@code limit} customers matching the filters whose ids come after {@code afterId}, or from the
+     * lowest id when it is null, lowest ids first. Null filters match every customer.
+     */
+    List<CustomerEntity> findPageAfter(String afterId, String fullName, String phoneNumber, LocalDate createdAt,
+            int limit);
+
+    /**
+     * Streams the ids of all customers. The stream may hold database resources and must be closed.
+     */
+    Stream<String> streamIds();
+
+    Optional<CustomerEntity> findById(String customerId);
+
+    List<CustomerEntity> findAllById(Collection<String> customerIds);
+
+    CustomerEntity save(CustomerEntity customer);
+
+    /**
+     * Saves the customers with as few statements as the engine allows, assigning ids to new ones.
+     */
+    List<CustomerEntity> saveAll(List<CustomerEntity> customers);
+
+    /**
+     * Inserts new customers in bulk, assigning their ids. Unlike {@link #saveAll} the customers are not attached to
+     * the persistence context, so engines may write them without the ORM.
+     */
+    default void insertAll(List<CustomerEntity> customers) {
+        saveAll(customers);
+    }
+
+    void delete(CustomerEntity customer);
+
+    long countByCreatedAtBefore(LocalDate createdBefore);
+
+    /**
+     * Returns at most {@code limit} ids of customers created before the given date, lowest ids first.
+     */
+    List<String> findIdsCreatedBefore(LocalDate createdBefore, int limit);
+
+    void deleteAllByIdInBatch(Collection<String> customerIds);
+}
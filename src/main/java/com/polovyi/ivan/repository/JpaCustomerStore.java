@@ -0,0 +1,119 @@
+package com.polovyi.ivan.repository;
+
+import com.polovyi.ivan.configuration.CustomerKeyProperties;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.keys.CustomerIds;
+import com.polovyi.ivan.keys.CustomerKeyType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "customer.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaCustomerStore implements CustomerStore {
+
+    private static final String INSERT = "INSERT INTO customer (id, full_name, phone_number, address, created_at) "
+            + "VALUES (:id, :fullName, :phoneNumber, :address, :createdAt)";
+
+    private final CustomerRepository customerRepository;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final CustomerKeyProperties keys;
+
+    @Override
+    public List<CustomerEntity> findAll() {
+        return customerRepository.findAll();
+    }
+
+    @Override
+    public List<CustomerEntity> findCustomersWithFilters(String fullName, String phoneNumber, LocalDate createdAt) {
+        return customerRepository.findCustomersWithFilters(fullName, phoneNumber, createdAt);
+    }
+
+    @Override
+    public List<CustomerEntity> findPageAfter(String afterId, String fullName, String phoneNumber,
+            LocalDate createdAt, int limit) {
+        return customerRepository.findPageAfter(afterId, fullName, phoneNumber, createdAt,
+                PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    @Override
+    public Stream<String> streamIds() {
+        return customerRepository.streamIds();
+    }
+
+    @Override
+    public Optional<CustomerEntity> findById(String customerId) {
+        return customerRepository.findById(customerId);
+    }
+
+    @Override
+    public List<CustomerEntity> findAllById(Collection<String> customerIds) {
+        return customerRepository.findAllById(customerIds);
+    }
+
+    @Override
+    public CustomerEntity save(CustomerEntity customer) {
+        return customerRepository.save(customer);
+    }
+
+    @Override
+    public List<CustomerEntity> saveAll(List<CustomerEntity> customers) {
+        return customerRepository.saveAll(customers);
+    }
+
+    /**
+     * Inserts with one JDBC batch on the connection of the current transaction, bypassing entity state tracking
+     * which dominates the cost of large inserts through {@link #saveAll}.
+     */
+    @Override
+    public void insertAll(List<CustomerEntity> customers) {
+        CustomerKeyType keyType = keys.getType();
+        MapSqlParameterSource[] rows = new MapSqlParameterSource[customers.size()];
+        for (int i = 0; i < rows.length; i++) {
+            CustomerEntity customer = customers.get(i);
+            if (customer.getId() == null) {
+                customer.setId(keyType.newId());
+            }
+            rows[i] = new MapSqlParameterSource()
+                    .addValue("id", keyType.isBinary() ? CustomerIds.toBytes(customer.getId()) : customer.getId())
+                    .addValue("fullName", customer.getFullName())
+                    .addValue("phoneNumber", customer.getPhoneNumber())
+                    .addValue("address", customer.getAddress())
+                    .addValue("createdAt", customer.getCreatedAt());
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    @Override
+    public void delete(CustomerEntity customer) {
+        customerRepository.delete(customer);
+    }
+
+    @Override
+    public long countByCreatedAtBefore(LocalDate createdBefore) {
+        return customerRepository.countByCreatedAtBefore(createdBefore);
+    }
+
+    @Override
+    public List<String> findIdsCreatedBefore(LocalDate createdBefore, int limit) {
+        return customerRepository.findIdsCreatedBefore(createdBefore, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Collection<String> customerIds) {
+        customerRepository.deleteAllByIdInBatch(customerIds);
+    }
+}
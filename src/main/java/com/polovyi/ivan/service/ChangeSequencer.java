@@ -0,0 +1,40 @@
+package com.polovyi.ivan.service;
+
+import java.util.TreeMap;
+
+/**
+ * Hands out change sequence numbers and keeps track of those whose transactions have not ended yet. Transactions
+ * commit in any order, so change n + 1 may be visible before change n; the committed sequence is the highest one
+ * below which every change has either committed or rolled back, and is where readers of the feed must stop. The
+ * lock is only held to count and register, never across a transaction.
+ */
+final class ChangeSequencer {
+
+    // First sequence of every allocation whose transaction is still running, to the number of sequences it took
+    private final TreeMap<Long, Integer> running = new TreeMap<>();
+
+    private long lastAllocated;
+
+    ChangeSequencer(long lastAllocated) {
+        this.lastAllocated = lastAllocated;
+    }
+
+    /**
+     * Takes the next {@code count} sequences and returns the first of them; {@link #ended} must follow once the
+     * transaction that records them has committed or rolled back.
+     */
+    synchronized long allocate(int count) {
+        long first = lastAllocated + 1;
+        lastAllocated += count;
+        running.put(first, count);
+        return first;
+    }
+
+    synchronized void ended(long first) {
+        running.remove(first);
+    }
+
+    synchronized long committedSequence() {
+        return running.isEmpty() ? lastAllocated : running.firstKey() - 1;
+    }
+}
@@ -0,0 +1,83 @@
+package com.polovyi.ivan.service;
+
+import com.polovyi.ivan.entity.ChangeType;
+import com.polovyi.ivan.entity.CustomerChangeEntity;
+import com.polovyi.ivan.repository.CustomerChangeRepository;
+import com.polovyi.ivan.replica.ReadConsistency;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records customer writes under a monotonic change sequence, deletes as tombstones. Sequences are allocated in
+ * memory without locking anything in the database, so concurrent writes do not wait for each other's commit,
+ * and changes may become visible out of sequence order. What remains guaranteed is that every change up to the
+ * {@link #committedSequence} is visible or rolled back for good; readers that resume from a sequence must read only
+ * up to it, and then never miss a change. Rolled back changes leave gaps.
+ * <p>
+ * The allocation assumes a single instance of the application writes the change log. A second one resumes from the
+ * same sequence, so its change inserts fail on the sequence key, and its running writes are not held back by the
+ * committed sequence of this one.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerChangeLog {
+
+    private final CustomerChangeRepository customerChangeRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private ChangeSequencer sequencer;
+
+    @PostConstruct
+    void resumeSequence() {
+        sequencer = new ChangeSequencer(customerChangeRepository.findLastSequence());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpserts(List<String> customerIds) {
+        record(customerIds, ChangeType.UPSERT);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletes(List<String> customerIds) {
+        record(customerIds, ChangeType.DELETE);
+    }
+
+    /**
+     * Returns the highest sequence up to which every change is either committed or rolled back.
+     */
+    public long committedSequence() {
+        return sequencer.committedSequence();
+    }
+
+    private void record(List<String> customerIds, ChangeType changeType) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        long first = sequencer.allocate(customerIds.size());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCompletion(int status) {
+                sequencer.ended(first);
+            }
+        });
+        long lastValue = first - 1;
+        List<CustomerChangeEntity> changes = new ArrayList<>(customerIds.size());
+        for (String customerId : customerIds) {
+            changes.add(new CustomerChangeEntity(++lastValue, customerId, changeType));
+        }
+        customerChangeRepository.saveAll(changes);
+        ReadConsistency.recordWrite(lastValue);
+        applicationEventPublisher.publishEvent(new CustomersChanged(lastValue, changeType, List.copyOf(customerIds)));
+    }
+}
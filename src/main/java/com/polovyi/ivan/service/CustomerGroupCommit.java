@@ -0,0 +1,161 @@
+package com.polovyi.ivan.service;
+
+import com.polovyi.ivan.configuration.GroupCommitProperties;
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.replica.ReadConsistency;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Commits concurrent customer writes in groups. Writers put their write on a lock-free queue and wait for its
+ * future; a single flusher thread takes what is pending, waiting up to {@code max-delay} for more writes to join
+ * until {@code max-batch-size} are collected, and applies them in one transaction. If that transaction fails, the
+ * writes of the batch are retried one transaction each, so a failing write only fails its own caller. The retry
+ * relies on every customer store undoing the writes of a rolled back transaction, which the sharded and columnar
+ * stores do as well, so no write of the failed batch is applied twice.
+ * <p>
+ * Writes submitted once the application is shutting down fail; those queued before are still committed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "customer.group-commit", name = "enabled")
+public class CustomerGroupCommit implements DisposableBean {
+
+    private final ConcurrentLinkedQueue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+
+    private final CustomerWrites customerWrites;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxBatchSize;
+
+    private final long maxDelayNanos;
+
+    private final DistributionSummary batchSizes;
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    public CustomerGroupCommit(CustomerWrites customerWrites, TransactionTemplate transactionTemplate,
+            GroupCommitProperties properties, MeterRegistry meterRegistry) {
+        this.customerWrites = customerWrites;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.maxDelayNanos = properties.getMaxDelay().toNanos();
+        this.batchSizes = DistributionSummary.builder("customer.group-commit.batch.size")
+                .description("Writes committed per transaction")
+                .register(meterRegistry);
+        this.flusher = new CustomizableThreadFactory("customer-group-commit-").newThread(this::flushContinuously);
+        this.flusher.start();
+    }
+
+    public CompletableFuture<CustomerResponse> submit(CustomerWrite write) {
+        PendingWrite pending = new PendingWrite(write, ReadConsistency.current(), new CompletableFuture<>());
+        if (!running) {
+            pending.future().completeExceptionally(shutDown());
+            return pending.future();
+        }
+        queue.offer(pending);
+        LockSupport.unpark(flusher);
+        // The flusher may have drained the queue for the last time before the write was queued
+        if (!running && queue.remove(pending)) {
+            pending.future().completeExceptionally(shutDown());
+        }
+        return pending.future();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join();
+    }
+
+    private void flushContinuously() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingWrite first = queue.poll();
+            if (first == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (batch.size() < maxBatchSize) {
+                PendingWrite next = queue.poll();
+                if (next != null) {
+                    batch.add(next);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        batchSizes.record(batch.size());
+        List<CustomerResponse> responses;
+        try {
+            responses = commit(batch);
+        } catch (RuntimeException e) {
+            log.debug("[CustomerGroupCommit] Batch of {} writes failed, retrying them one by one", batch.size(), e);
+            batch.forEach(this::flushAlone);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(responses.get(i));
+        }
+    }
+
+    private void flushAlone(PendingWrite pending) {
+        try {
+            pending.future().complete(commit(List.of(pending)).get(0));
+        } catch (RuntimeException e) {
+            pending.future().completeExceptionally(e);
+        }
+    }
+
+    /*
+     * The committed change sequence is passed on to the read consistency of every writer, so their read-your-writes
+     * guarantee holds although the transaction ran on the flusher thread.
+     */
+    private List<CustomerResponse> commit(List<PendingWrite> writes) {
+        ReadConsistency consistency = new ReadConsistency(0, sequence -> writes.stream()
+                .map(PendingWrite::caller)
+                .filter(Objects::nonNull)
+                .forEach(caller -> caller.written(sequence)));
+        try (ContextScope ignored = consistency.bind()) {
+            return transactionTemplate.execute(status -> customerWrites.applyAll(
+                    writes.stream().map(PendingWrite::write).toList()));
+        }
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Group commit is shut down");
+    }
+
+    private record PendingWrite(CustomerWrite write, ReadConsistency caller,
+            CompletableFuture<CustomerResponse> future) {
+    }
+}
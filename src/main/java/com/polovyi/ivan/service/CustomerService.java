@@ -1,18 +1,36 @@
 package com.polovyi.ivan.service;
 
+import com.polovyi.ivan.configuration.CustomerDeleteProperties;
+import com.polovyi.ivan.deadline.RequestDeadline;
 import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerChangeResponse;
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
 import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.dto.response.DeleteCustomersResponse;
 import com.polovyi.ivan.dto.request.PartiallyUpdateCustomerRequest;
 import com.polovyi.ivan.dto.request.UpdateCustomerRequest;
+import com.polovyi.ivan.entity.ChangeType;
+import com.polovyi.ivan.entity.CustomerChangeEntity;
 import com.polovyi.ivan.entity.CustomerEntity;
-import com.polovyi.ivan.repository.CustomerRepository;
+import com.polovyi.ivan.idfilter.KnownCustomerId;
+import com.polovyi.ivan.repository.CustomerChangeRepository;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.singleflight.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,66 +38,203 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CustomerService {
 
-    private final CustomerRepository customerRepository;
+    private static final int MAX_CHANGES_LIMIT = 1000;
 
+    private final CustomerStore customerStore;
+
+    private final CustomerChangeRepository customerChangeRepository;
+
+    private final CustomerChangeLog customerChangeLog;
+
+    private final CustomerWrites customerWrites;
+
+    private final ObjectProvider<CustomerGroupCommit> customerGroupCommit;
+
+    private final CustomerDeleteProperties customerDeleteProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @SingleFlight
+    @Transactional(readOnly = true)
     public List<CustomerResponse> getAllCustomers() {
         log.info("Getting all customers...");
-        return customerRepository.findAll().stream().map(CustomerResponse::valueOf).collect(Collectors.toList());
+        return customerStore.findAll().stream().map(CustomerResponse::valueOf).collect(Collectors.toList());
     }
 
+    @SingleFlight
+    @Transactional(readOnly = true)
     public List<CustomerResponse> getCustomersWithFilters(String fullName, String phoneNumber,
             LocalDate createdAt) {
         log.info("Getting all customers with filters fullName {}, phoneNumber {}, createdAt {} ...", fullName,
                 phoneNumber, createdAt);
-        return customerRepository.findCustomersWithFilters(fullName, phoneNumber, createdAt)
+        return customerStore.findCustomersWithFilters(fullName, phoneNumber, createdAt)
                 .stream()
                 .map(CustomerResponse::valueOf)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Hands all customers to the consumer in pages of at most {@code pageSize}, lowest ids first, so the first page
+     * can be sent before the last one is read and memory stays bounded by one page. Every page is read in a short
+     * read-only transaction of its own, resuming after the last id of the page before, so no connection or cursor is
+     * held while the consumer writes a page to a client however slow it reads. In exchange the pages are not one
+     * snapshot: customers written in between show up if their ids come after the pages already read. The request
+     * deadline is checked before every page.
+     */
+    public void streamAllCustomers(int pageSize, Consumer<List<CustomerResponse>> consumer) {
+        log.info("Streaming all customers...");
+        forEachPage(null, null, null, pageSize, consumer);
+    }
+
+    public void streamCustomersWithFilters(String fullName, String phoneNumber, LocalDate createdAt, int pageSize,
+            Consumer<List<CustomerResponse>> consumer) {
+        log.info("Streaming customers with filters fullName {}, phoneNumber {}, createdAt {} ...", fullName,
+                phoneNumber, createdAt);
+        forEachPage(fullName, phoneNumber, createdAt, pageSize, consumer);
+    }
+
+    @SingleFlight
+    @KnownCustomerId
+    @Transactional(readOnly = true)
     public CustomerResponse getCustomersById(String customerId) {
         log.info("Getting customer by id...");
-        return customerRepository.findById(customerId).map(CustomerResponse::valueOf).orElse(null);
+        return customerStore.findById(customerId).map(CustomerResponse::valueOf).orElse(null);
 
     }
 
+    /**
+     * Returns the changes recorded after the {@code since} sequence, at most one per customer and in sequence
+     * order, so the cost of a sync depends on the churn since the previous one and not on the table size.
+     */
+    @SingleFlight
+    @Transactional(readOnly = true)
+    public CustomerChangesResponse getCustomerChanges(long since, int limit) {
+        log.info("Getting customer changes since {}...", since);
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_LIMIT));
+        // Changes past the committed sequence may still be preceded by ones that commit later
+        List<CustomerChangeEntity> changes = customerChangeRepository
+                .findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequence(since,
+                        customerChangeLog.committedSequence(), PageRequest.of(0, pageSize));
+        Map<String, CustomerChangeEntity> latestChanges = new LinkedHashMap<>();
+        changes.forEach(change -> {
+            latestChanges.remove(change.getCustomerId());
+            latestChanges.put(change.getCustomerId(), change);
+        });
+        List<String> upsertedIds = latestChanges.values().stream()
+                .filter(change -> change.getChangeType() == ChangeType.UPSERT)
+                .map(CustomerChangeEntity::getCustomerId)
+                .collect(Collectors.toList());
+        Map<String, CustomerEntity> customers = customerStore.findAllById(upsertedIds).stream()
+                .collect(Collectors.toMap(CustomerEntity::getId, Function.identity()));
+        List<CustomerChangeResponse> changeResponses = latestChanges.values().stream()
+                .map(change -> toChangeResponse(change, customers.get(change.getCustomerId())))
+                .collect(Collectors.toList());
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        return new CustomerChangesResponse(changeResponses, nextSince, changes.size() == pageSize);
+    }
+
     public CustomerResponse createCustomer(CreateCustomerRequest createCustomerRequest) {
         log.info("Creating a customer... ");
-        CustomerEntity customer = CustomerEntity.valueOf(createCustomerRequest);
-        return CustomerResponse.valueOf(customerRepository.save(customer));
+        return write(new CustomerWrite.Create(createCustomerRequest));
     }
 
+    @KnownCustomerId
     public CustomerResponse updateCustomer(String customerId, UpdateCustomerRequest updateCustomerRequest) {
         log.info("Updating a customer... ");
-        Optional<CustomerEntity> customer = customerRepository.findById(customerId);
-        customer.ifPresent(entity -> {
-            entity.setFullName(updateCustomerRequest.getFullName());
-            entity.setPhoneNumber(updateCustomerRequest.getPhoneNumber());
-            entity.setAddress(updateCustomerRequest.getAddress());
-            customerRepository.save(entity);
-        });
-        return customer
-                .map(CustomerResponse::valueOf)
-                .orElse(null);
+        return write(new CustomerWrite.Update(customerId, updateCustomerRequest));
     }
 
+    @KnownCustomerId
     public CustomerResponse partiallyUpdateCustomer(String customerId,
             PartiallyUpdateCustomerRequest partiallyUpdateCustomerRequest) {
         log.info("Partially updating a customer... ");
-        Optional<CustomerEntity> customer = customerRepository.findById(customerId);
-        if (partiallyUpdateCustomerRequest.getPhoneNumber() != null) {
-            customer.ifPresent(entity -> {
-                Optional.ofNullable(partiallyUpdateCustomerRequest.getPhoneNumber()).ifPresent(entity::setPhoneNumber);
-                customerRepository.save(entity);
-            });
+        if (partiallyUpdateCustomerRequest.getPhoneNumber() == null) {
+            return getCustomersById(customerId);
         }
-        return customer
-                .map(CustomerResponse::valueOf)
-                .orElse(null);
+        return write(new CustomerWrite.PhoneNumberUpdate(customerId, partiallyUpdateCustomerRequest.getPhoneNumber()));
     }
 
+    @KnownCustomerId
+    @Transactional
     public void deleteCustomer(String customerId) {
         log.info("Deleting a customer... ");
-        customerRepository.findById(customerId).ifPresent(customerRepository::delete);
+        customerStore.findById(customerId).ifPresent(customer -> {
+            customerStore.delete(customer);
+            customerChangeLog.recordDeletes(List.of(customerId));
+        });
+    }
+
+    /**
+     * Deletes customers created before the given date in chunks of at most {@code customer.delete.chunk-size} rows.
+     * Each chunk is removed by a single DELETE ... WHERE id IN statement and committed, together with its
+     * tombstones, on its own to keep lock times short. An interrupted run can be resumed by repeating the call with
+     * the same date, as already deleted rows no longer match.
+     */
+    public DeleteCustomersResponse deleteCustomersCreatedBefore(LocalDate createdBefore, boolean dryRun) {
+        if (dryRun) {
+            log.info("Counting customers created before {}... ", createdBefore);
+            return new DeleteCustomersResponse(customerStore.countByCreatedAtBefore(createdBefore), true);
+        }
+        log.info("Deleting customers created before {}... ", createdBefore);
+        int chunkSize = customerDeleteProperties.getChunkSize();
+        long deletedCount = 0;
+        int deletedInChunk;
+        do {
+            deletedInChunk = transactionTemplate.execute(status -> {
+                List<String> customerIds = customerStore.findIdsCreatedBefore(createdBefore, chunkSize);
+                customerStore.deleteAllByIdInBatch(customerIds);
+                customerChangeLog.recordDeletes(customerIds);
+                return customerIds.size();
+            });
+            deletedCount += deletedInChunk;
+        } while (deletedInChunk == chunkSize);
+        log.info("Deleted {} customers created before {}", deletedCount, createdBefore);
+        return new DeleteCustomersResponse(deletedCount, false);
+    }
+
+    /*
+     * With group commit the write waits for the batch it joined, outside of any transaction, so a waiting caller
+     * does not hold a connection.
+     */
+    private CustomerResponse write(CustomerWrite write) {
+        CustomerGroupCommit groupCommit = customerGroupCommit.getIfAvailable();
+        if (groupCommit == null) {
+            return transactionTemplate.execute(status -> customerWrites.applyAll(List.of(write)).get(0));
+        }
+        try {
+            return groupCommit.submit(write).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void forEachPage(String fullName, String phoneNumber, LocalDate createdAt, int pageSize,
+            Consumer<List<CustomerResponse>> consumer) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        String afterId = null;
+        List<CustomerEntity> page;
+        do {
+            RequestDeadline.checkCurrent();
+            String lastId = afterId;
+            page = readOnlyTransaction.execute(status -> customerStore.findPageAfter(lastId, fullName, phoneNumber,
+                    createdAt, pageSize));
+            if (!page.isEmpty()) {
+                consumer.accept(page.stream().map(CustomerResponse::valueOf).toList());
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private static CustomerChangeResponse toChangeResponse(CustomerChangeEntity change, CustomerEntity customer) {
+        // An upsert whose customer is gone is followed by a tombstone that is not part of this page yet
+        if (customer == null) {
+            return new CustomerChangeResponse(change.getSequence(), change.getCustomerId(), ChangeType.DELETE, null);
+        }
+        return new CustomerChangeResponse(change.getSequence(), change.getCustomerId(), change.getChangeType(),
+                CustomerResponse.valueOf(customer));
     }
 }
@@ -0,0 +1,55 @@
+package com.polovyi.ivan.service;
+
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.request.UpdateCustomerRequest;
+import com.polovyi.ivan.entity.CustomerEntity;
+
+/**
+ * A customer mutation, separated from its execution so several of them can be applied in one transaction.
+ */
+public sealed interface CustomerWrite {
+
+    /**
+     * Id of the customer the write changes, {@code null} for a new customer.
+     */
+    String customerId();
+
+    /**
+     * Returns the customer as it is after the write, changing {@code current} in place. {@code current} is
+     * {@code null} for a new customer.
+     */
+    CustomerEntity apply(CustomerEntity current);
+
+    record Create(CreateCustomerRequest request) implements CustomerWrite {
+
+        @Override
+        public String customerId() {
+            return null;
+        }
+
+        @Override
+        public CustomerEntity apply(CustomerEntity current) {
+            return CustomerEntity.valueOf(request);
+        }
+    }
+
+    record Update(String customerId, UpdateCustomerRequest request) implements CustomerWrite {
+
+        @Override
+        public CustomerEntity apply(CustomerEntity current) {
+            current.setFullName(request.getFullName());
+            current.setPhoneNumber(request.getPhoneNumber());
+            current.setAddress(request.getAddress());
+            return current;
+        }
+    }
+
+    record PhoneNumberUpdate(String customerId, String phoneNumber) implements CustomerWrite {
+
+        @Override
+        public CustomerEntity apply(CustomerEntity current) {
+            current.setPhoneNumber(phoneNumber);
+            return current;
+        }
+    }
+}
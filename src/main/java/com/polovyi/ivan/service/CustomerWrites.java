@@ -0,0 +1,71 @@
+package com.polovyi.ivan.service;
+
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.repository.CustomerStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies customer writes in the current transaction: the changed customers are read with one query, writes to the
+ * same customer are applied one after the other to the same entity, and every touched customer is saved and
+ * recorded in the change log once.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerWrites {
+
+    private final CustomerStore customerStore;
+
+    private final CustomerChangeLog customerChangeLog;
+
+    /**
+     * Returns the outcome of each write in order: the customer as that write left it, or {@code null} when the
+     * customer to change does not exist.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<CustomerResponse> applyAll(List<? extends CustomerWrite> writes) {
+        Map<String, CustomerEntity> customers = new HashMap<>();
+        customerStore.findAllById(writes.stream().map(CustomerWrite::customerId).filter(Objects::nonNull).toList())
+                .forEach(customer -> customers.put(customer.getId(), customer));
+        Map<String, CustomerEntity> changed = new LinkedHashMap<>();
+        List<CustomerEntity> created = new ArrayList<>();
+        CustomerResponse[] responses = new CustomerResponse[writes.size()];
+        CustomerEntity[] createdByWrite = new CustomerEntity[writes.size()];
+        for (int i = 0; i < writes.size(); i++) {
+            CustomerWrite write = writes.get(i);
+            if (write.customerId() == null) {
+                createdByWrite[i] = write.apply(null);
+                created.add(createdByWrite[i]);
+            } else if (customers.containsKey(write.customerId())) {
+                CustomerEntity customer = write.apply(customers.get(write.customerId()));
+                changed.put(customer.getId(), customer);
+                responses[i] = CustomerResponse.valueOf(customer);
+            }
+        }
+        List<CustomerEntity> toSave = new ArrayList<>(created);
+        toSave.addAll(changed.values());
+        if (toSave.isEmpty()) {
+            return Arrays.asList(responses);
+        }
+        customerStore.saveAll(toSave);
+        // New customers only have their id once saved
+        for (int i = 0; i < createdByWrite.length; i++) {
+            if (createdByWrite[i] != null) {
+                responses[i] = CustomerResponse.valueOf(createdByWrite[i]);
+            }
+        }
+        customerChangeLog.recordUpserts(toSave.stream().map(CustomerEntity::getId).toList());
+        return Arrays.asList(responses);
+    }
+}
@@ -0,0 +1,12 @@
+package com.polovyi.ivan.service;
+
+import com.polovyi.ivan.entity.ChangeType;
+
+import java.util.List;
+
+/**
+ * Published by the {@link CustomerChangeLog} within the writing transaction; listeners that need the write to be
+ * visible must listen after commit. The sequence is the one of the last recorded change.
+ */
+public record CustomersChanged(long sequence, ChangeType changeType, List<String> customerIds) {
+}
@@ -0,0 +1,136 @@
+package com.polovyi.ivan.sharding;
+
+import com.polovyi.ivan.configuration.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The databases customers are spread over and the mapping of a customer id to one of them. Ids are placed with a
+ * jump consistent hash, so growing from n to n + 1 shards moves only about 1 / (n + 1) of the customers.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer.store", name = "type", havingValue = "sharded")
+public class CustomerShards implements DisposableBean {
+
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS customer (
+                id VARCHAR(36) PRIMARY KEY,
+                full_name VARCHAR(200),
+                phone_number VARCHAR(20),
+                address VARCHAR(200),
+                created_at DATE
+            )""";
+
+    private static final String CREATED_AT_INDEX =
+            "CREATE INDEX IF NOT EXISTS customer_created_at ON customer (created_at)";
+
+    private final ShardingProperties properties;
+
+    private final List<Shard> shards;
+
+    private final ExecutorService executor;
+
+    public CustomerShards(ShardingProperties properties) {
+        if (properties.getShardCount() < 1) {
+            throw new IllegalArgumentException("customer.sharding.shard-count must be at least 1");
+        }
+        this.properties = properties;
+        List<Shard> shards = new ArrayList<>(properties.getShardCount());
+        for (int index = 0; index < properties.getShardCount(); index++) {
+            shards.add(open(index));
+        }
+        this.shards = List.copyOf(shards);
+        this.executor = Executors.newFixedThreadPool(shards.size(), new CustomizableThreadFactory("customer-shard-"));
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public Shard shardOf(String customerId) {
+        return shards.get(indexOf(customerId, shards.size()));
+    }
+
+    /**
+     * Groups the ids by the shard that stores them.
+     */
+    public Map<Shard, List<String>> group(Collection<String> customerIds) {
+        Map<Shard, List<String>> groups = new HashMap<>();
+        for (String customerId : customerIds) {
+            groups.computeIfAbsent(shardOf(customerId), shard -> new ArrayList<>()).add(customerId);
+        }
+        return groups;
+    }
+
+    /**
+     * Runs the query on the given shards in parallel and returns the per shard results in shard order.
+     */
+    public <T> List<T> scatter(Collection<Shard> targets, Function<Shard, T> query) {
+        List<CompletableFuture<T>> results = targets.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList();
+        return results.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+
+    /**
+     * Opens a shard outside of the configured range, for the rebalancer to drain it. The caller closes it.
+     */
+    Shard open(int index) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(String.format(properties.getUrlTemplate(), index))
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        dataSource.setPoolName("customer-shard-" + index);
+        NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.getJdbcOperations().execute(SCHEMA);
+        jdbcTemplate.getJdbcOperations().execute(CREATED_AT_INDEX);
+        return new Shard(index, dataSource, jdbcTemplate);
+    }
+
+    static int indexOf(String customerId, int shardCount) {
+        long key = fnv1a(customerId);
+        long bucket = -1;
+        long next = 0;
+        while (next < shardCount) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    private static long fnv1a(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        shards.forEach(Shard::close);
+    }
+}
@@ -0,0 +1,11 @@
+package com.polovyi.ivan.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public record Shard(int index, HikariDataSource dataSource, NamedParameterJdbcTemplate jdbcTemplate) {
+
+    void close() {
+        dataSource.close();
+    }
+}
@@ -0,0 +1,86 @@
+package com.polovyi.ivan.sharding;
+
+import com.polovyi.ivan.configuration.ShardingProperties;
+import com.polovyi.ivan.entity.CustomerEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves customers to the shard their id hashes to after the shard count changed. Set
+ * {@code customer.sharding.rebalance-from-shard-count} to the previous count to run it on startup, once all singletons
+ * are created and before the web server is started, so no request reads a shard that is still being drained. Each
+ * customer is copied to its new shard before it is removed from the old one, so an interrupted run can be repeated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "customer.store", name = "type", havingValue = "sharded")
+public class ShardRebalancer implements SmartInitializingSingleton {
+
+    private final CustomerShards shards;
+
+    private final ShardingProperties properties;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Integer previousShardCount = properties.getRebalanceFromShardCount();
+        if (previousShardCount != null && previousShardCount != properties.getShardCount()) {
+            rebalance(previousShardCount);
+        }
+    }
+
+    /**
+     * Rebalances the data written with {@code previousShardCount} shards and returns the number of moved customers.
+     */
+    public long rebalance(int previousShardCount) {
+        log.info("Rebalancing customers from {} to {} shards...", previousShardCount, properties.getShardCount());
+        long moved = 0;
+        for (Shard shard : shards.all()) {
+            moved += drain(shard);
+        }
+        for (int index = shards.all().size(); index < previousShardCount; index++) {
+            Shard removedShard = shards.open(index);
+            try {
+                moved += drain(removedShard);
+            } finally {
+                removedShard.close();
+            }
+        }
+        log.info("Moved {} customers", moved);
+        return moved;
+    }
+
+    private long drain(Shard source) {
+        long moved = 0;
+        String lastId = "";
+        List<CustomerEntity> batch;
+        do {
+            // Keyset pagination, as moved rows disappear from the source while it is read
+            batch = source.jdbcTemplate().query("SELECT " + ShardedCustomerStore.COLUMNS
+                            + " FROM customer WHERE id > :lastId ORDER BY id LIMIT :limit",
+                    new MapSqlParameterSource("lastId", lastId).addValue("limit", properties.getRebalanceBatchSize()),
+                    ShardedCustomerStore.CUSTOMER_MAPPER);
+            for (CustomerEntity customer : batch) {
+                Shard target = shards.shardOf(customer.getId());
+                if (target.index() != source.index()) {
+                    target.jdbcTemplate().update(ShardedCustomerStore.MERGE,
+                            ShardedCustomerStore.parametersOf(customer));
+                    source.jdbcTemplate().update("DELETE FROM customer WHERE id = :id", Map.of("id", customer.getId()));
+                    moved++;
+                }
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == properties.getRebalanceBatchSize());
+        log.info("Moved {} customers off shard {}", moved, source.index());
+        return moved;
+    }
+}
@@ -0,0 +1,124 @@
+package com.polovyi.ivan.sharding;
+
+import com.polovyi.ivan.entity.CustomerEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Undoes the shard writes of transactions that roll back. Before a customer is first written in a transaction its
+ * current version is read from its shard; should the transaction not commit, customers it created are deleted and
+ * customers it updated or deleted are put back as they were, so the shards hold what the change log recorded.
+ * <p>
+ * The shards do not isolate transactions from each other: a write another transaction made to the same customer
+ * between the write and the rollback is overwritten when the previous version is put back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "customer.store", name = "type", havingValue = "sharded")
+public class ShardWriteReconciler {
+
+    private final CustomerShards shards;
+
+    /**
+     * Remembers the current versions of customers about to be written in the current transaction, if any. Writes
+     * outside a transaction have nothing to be undone with and are left alone.
+     */
+    public void writing(Collection<String> customerIds) {
+        Compensation compensation = currentCompensation();
+        if (compensation == null) {
+            return;
+        }
+        List<String> unseen = customerIds.stream()
+                .filter(customerId -> !compensation.previousVersions.containsKey(customerId))
+                .distinct()
+                .toList();
+        if (unseen.isEmpty()) {
+            return;
+        }
+        Map<Shard, List<String>> groups = shards.group(unseen);
+        List<List<CustomerEntity>> found = shards.scatter(groups.keySet(), shard -> shard.jdbcTemplate().query(
+                "SELECT " + ShardedCustomerStore.COLUMNS + " FROM customer WHERE id IN (:ids)",
+                Map.of("ids", groups.get(shard)), ShardedCustomerStore.CUSTOMER_MAPPER));
+        unseen.forEach(customerId -> compensation.previousVersions.put(customerId, null));
+        found.forEach(customers -> customers.forEach(customer -> compensation.previousVersions.put(customer.getId(),
+                customer)));
+    }
+
+    /**
+     * Remembers that customers about to be written in the current transaction, if any, are new, which spares
+     * reading their shards for a previous version.
+     */
+    public void creating(Collection<String> customerIds) {
+        Compensation compensation = currentCompensation();
+        if (compensation != null) {
+            customerIds.forEach(customerId -> compensation.previousVersions.putIfAbsent(customerId, null));
+        }
+    }
+
+    void undo(Map<String, CustomerEntity> previousVersions) {
+        try {
+            Map<Shard, List<String>> groups = shards.group(previousVersions.keySet());
+            shards.scatter(groups.keySet(), shard -> {
+                List<String> created = new ArrayList<>();
+                List<SqlParameterSource> restored = new ArrayList<>();
+                for (String customerId : groups.get(shard)) {
+                    CustomerEntity previousVersion = previousVersions.get(customerId);
+                    if (previousVersion == null) {
+                        created.add(customerId);
+                    } else {
+                        restored.add(ShardedCustomerStore.parametersOf(previousVersion));
+                    }
+                }
+                if (!created.isEmpty()) {
+                    shard.jdbcTemplate().update("DELETE FROM customer WHERE id IN (:ids)", Map.of("ids", created));
+                }
+                return shard.jdbcTemplate().batchUpdate(ShardedCustomerStore.MERGE,
+                        restored.toArray(SqlParameterSource[]::new));
+            });
+            log.info("[ShardWriteReconciler] Undid shard writes of {} customers of a rolled back transaction",
+                    previousVersions.size());
+        } catch (RuntimeException e) {
+            log.error("[ShardWriteReconciler] Could not undo shard writes of customers {} of a rolled back "
+                    + "transaction", previousVersions.keySet(), e);
+        }
+    }
+
+    private Compensation currentCompensation() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Compensation compensation = (Compensation) TransactionSynchronizationManager.getResource(this);
+        if (compensation == null) {
+            compensation = new Compensation();
+            TransactionSynchronizationManager.bindResource(this, compensation);
+            TransactionSynchronizationManager.registerSynchronization(compensation);
+        }
+        return compensation;
+    }
+
+    private final class Compensation implements TransactionSynchronization {
+
+        // The version of every customer written before its first write, null for customers that did not exist
+        private final Map<String, CustomerEntity> previousVersions = new HashMap<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ShardWriteReconciler.this);
+            if (status != STATUS_COMMITTED && !previousVersions.isEmpty()) {
+                undo(previousVersions);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.polovyi.ivan.sharding;
+
+import com.polovyi.ivan.configuration.CustomerKeyProperties;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.repository.CustomerStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Stores every customer on the shard its id hashes to. Point operations touch a single shard; list queries run on
+ * all shards in parallel, each shard sorting by id and applying the limit, and the sorted results are merged.
+ * Every statement commits on its shard on its own, independently of the transaction of the calling service; writes
+ * made in a transaction that then rolls back are undone by {@link ShardWriteReconciler}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "customer.store", name = "type", havingValue = "sharded")
+public class ShardedCustomerStore implements CustomerStore {
+
+    static final String COLUMNS = "id, full_name, phone_number, address, created_at";
+
+    static final RowMapper<CustomerEntity> CUSTOMER_MAPPER = (resultSet, row) -> CustomerEntity.builder()
+            .id(resultSet.getString("id"))
+            .fullName(resultSet.getString("full_name"))
+            .phoneNumber(resultSet.getString("phone_number"))
+            .address(resultSet.getString("address"))
+            .createdAt(resultSet.getObject("created_at", LocalDate.class))
+            .build();
+
+    static final String MERGE = "MERGE INTO customer (" + COLUMNS + ") KEY (id) "
+            + "VALUES (:id, :fullName, :phoneNumber, :address, :createdAt)";
+
+    private static final Comparator<CustomerEntity> BY_ID = Comparator.comparing(CustomerEntity::getId);
+
+    private final CustomerShards shards;
+
+    private final CustomerKeyProperties keys;
+
+    private final ShardWriteReconciler reconciler;
+
+    @Override
+    public List<CustomerEntity> findAll() {
+        return findCustomersWithFilters(null, null, null);
+    }
+
+    @Override
+    public List<CustomerEntity> findCustomersWithFilters(String fullName, String phoneNumber, LocalDate createdAt) {
+        Filter filter = Filter.of(null, fullName, phoneNumber, createdAt);
+        String sql = "SELECT " + COLUMNS + " FROM customer" + filter.where() + " ORDER BY id";
+        return merge(shards.scatter(shards.all(),
+                shard -> shard.jdbcTemplate().query(sql, filter.parameters(), CUSTOMER_MAPPER)), BY_ID,
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<CustomerEntity> findPageAfter(String afterId, String fullName, String phoneNumber,
+            LocalDate createdAt, int limit) {
+        Filter filter = Filter.of(afterId, fullName, phoneNumber, createdAt);
+        filter.parameters().addValue("limit", limit);
+        String sql = "SELECT " + COLUMNS + " FROM customer" + filter.where() + " ORDER BY id LIMIT :limit";
+        return merge(shards.scatter(shards.all(),
+                shard -> shard.jdbcTemplate().query(sql, filter.parameters(), CUSTOMER_MAPPER)), BY_ID, limit);
+    }
+
+    /*
+     * Reads the shards one after the other, so the ids come in no particular order.
+     */
+    @Override
+    public Stream<String> streamIds() {
+        return shards.all().stream()
+                .flatMap(shard -> shard.jdbcTemplate().queryForStream("SELECT id FROM customer", Map.of(),
+                        (resultSet, row) -> resultSet.getString("id")));
+    }
+
+    @Override
+    public Optional<CustomerEntity> findById(String customerId) {
+        return shards.shardOf(customerId).jdbcTemplate()
+                .query("SELECT " + COLUMNS + " FROM customer WHERE id = :id", Map.of("id", customerId),
+                        CUSTOMER_MAPPER)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<CustomerEntity> findAllById(Collection<String> customerIds) {
+        Map<Shard, List<String>> groups = shards.group(customerIds);
+        List<List<CustomerEntity>> results = shards.scatter(groups.keySet(),
+                shard -> shard.jdbcTemplate().query("SELECT " + COLUMNS + " FROM customer WHERE id IN (:ids)",
+                        Map.of("ids", groups.get(shard)), CUSTOMER_MAPPER));
+        return results.stream().flatMap(List::stream).toList();
+    }
+
+    @Override
+    public CustomerEntity save(CustomerEntity customer) {
+        if (customer.getId() == null) {
+            customer.setId(keys.getType().newId());
+            reconciler.creating(List.of(customer.getId()));
+        } else {
+            reconciler.writing(List.of(customer.getId()));
+        }
+        shards.shardOf(customer.getId()).jdbcTemplate().update(MERGE, parametersOf(customer));
+        return customer;
+    }
+
+    @Override
+    public List<CustomerEntity> saveAll(List<CustomerEntity> customers) {
+        Map<String, CustomerEntity> byId = new HashMap<>();
+        List<String> createdIds = new ArrayList<>();
+        for (CustomerEntity customer : customers) {
+            if (customer.getId() == null) {
+                customer.setId(keys.getType().newId());
+                createdIds.add(customer.getId());
+            }
+            byId.put(customer.getId(), customer);
+        }
+        reconciler.creating(createdIds);
+        reconciler.writing(byId.keySet());
+        Map<Shard, List<String>> groups = shards.group(byId.keySet());
+        shards.scatter(groups.keySet(), shard -> shard.jdbcTemplate().batchUpdate(MERGE, groups.get(shard).stream()
+                .map(id -> parametersOf(byId.get(id)))
+                .toArray(SqlParameterSource[]::new)));
+        return customers;
+    }
+
+    @Override
+    public void delete(CustomerEntity customer) {
+        reconciler.writing(List.of(customer.getId()));
+        shards.shardOf(customer.getId()).jdbcTemplate()
+                .update("DELETE FROM customer WHERE id = :id", Map.of("id", customer.getId()));
+    }
+
+    @Override
+    public long countByCreatedAtBefore(LocalDate createdBefore) {
+        return shards.scatter(shards.all(), shard -> shard.jdbcTemplate().queryForObject(
+                        "SELECT COUNT(*) FROM customer WHERE created_at < :createdBefore",
+                        Map.of("createdBefore", createdBefore), Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public List<String> findIdsCreatedBefore(LocalDate createdBefore, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("createdBefore", createdBefore)
+                .addValue("limit", limit);
+        return merge(shards.scatter(shards.all(), shard -> shard.jdbcTemplate().queryForList(
+                "SELECT id FROM customer WHERE created_at < :createdBefore ORDER BY id LIMIT :limit", parameters,
+                String.class)), Comparator.naturalOrder(), limit);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Collection<String> customerIds) {
+        reconciler.writing(customerIds);
+        Map<Shard, List<String>> groups = shards.group(customerIds);
+        shards.scatter(groups.keySet(), shard -> shard.jdbcTemplate()
+                .update("DELETE FROM customer WHERE id IN (:ids)", Map.of("ids", groups.get(shard))));
+    }
+
+    static MapSqlParameterSource parametersOf(CustomerEntity customer) {
+        return new MapSqlParameterSource("id", customer.getId())
+                .addValue("fullName", customer.getFullName())
+                .addValue("phoneNumber", customer.getPhoneNumber())
+                .addValue("address", customer.getAddress())
+                .addValue("createdAt", customer.getCreatedAt());
+    }
+
+    /**
+     * Merges lists that are each sorted by the comparator into one sorted list of at most {@code limit} items.
+     */
+    static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator, int limit) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((left, right) ->
+                comparator.compare(left.current(), right.current()));
+        int total = 0;
+        for (List<T> sortedList : sortedLists) {
+            total += sortedList.size();
+            if (!sortedList.isEmpty()) {
+                heads.add(new Cursor<>(sortedList));
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor<T> head = heads.poll();
+            merged.add(head.current());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Cursor<T> {
+
+        private final List<T> items;
+
+        private int position;
+
+        Cursor(List<T> items) {
+            this.items = items;
+        }
+
+        T current() {
+            return items.get(position);
+        }
+
+        boolean advance() {
+            return ++position < items.size();
+        }
+    }
+
+    private record Filter(String where, MapSqlParameterSource parameters) {
+
+        // Only the given filters become predicates, so each shard can use its indexes
+        static Filter of(String afterId, String fullName, String phoneNumber, LocalDate createdAt) {
+            List<String> predicates = new ArrayList<>(4);
+            MapSqlParameterSource parameters = new MapSqlParameterSource();
+            if (afterId != null) {
+                predicates.add("id > :afterId");
+                parameters.addValue("afterId", afterId);
+            }
+            if (fullName != null) {
+                predicates.add("full_name = :fullName");
+                parameters.addValue("fullName", fullName);
+            }
+            if (phoneNumber != null) {
+                predicates.add("phone_number = :phoneNumber");
+                parameters.addValue("phoneNumber", phoneNumber);
+            }
+            if (createdAt != null) {
+                predicates.add("created_at = :createdAt");
+                parameters.addValue("createdAt", createdAt);
+            }
+            return new Filter(predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates), parameters);
+        }
+    }
+}
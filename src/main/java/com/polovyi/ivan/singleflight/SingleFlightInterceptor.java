@@ -0,0 +1,120 @@
+package com.polovyi.ivan.singleflight;
+
+import com.polovyi.ivan.deadline.RequestDeadline;
+import com.polovyi.ivan.exeption.DeadlineExceededException;
+import com.polovyi.ivan.exeption.DomainException;
+import com.polovyi.ivan.replica.ReadConsistency;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collapses concurrent calls of a {@link SingleFlight} method with equal arguments into one: the first caller runs
+ * the method, callers arriving while it runs wait for its outcome. A flight is registered with a single CAS on its
+ * bin of a {@link ConcurrentHashMap}, so unrelated flights do not contend, and is removed before it completes, so
+ * nothing is cached past completion and a call arriving afterwards starts a new flight. Placed in front of a result
+ * cache it collapses concurrent misses, placed behind one it only sees them.
+ * <p>
+ * Callers only share a flight when they require the same change sequence, so a caller never gets a result read
+ * before its own write. A waiting caller gives up at its own deadline, and runs the method again when the flight
+ * failed because the deadline of its leader passed or its client went away.
+ * <p>
+ * No caller gets the instance the method returned: every caller, the leader included, gets its own copy made by the
+ * result copier, so a caller modifying its result cannot change what the others see. Callers that joined a flight
+ * failing with a {@link DomainException} get a copy of it, which their error handling can complete on its own.
+ */
+public class SingleFlightInterceptor implements MethodInterceptor {
+
+    private static final Object LEADER_CANCELLED = new Object();
+
+    private final ConcurrentHashMap<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    private final UnaryOperator<Object> resultCopier;
+
+    private final LongAdder ledCalls = new LongAdder();
+
+    private final LongAdder joinedCalls = new LongAdder();
+
+    public SingleFlightInterceptor(UnaryOperator<Object> resultCopier) {
+        this.resultCopier = resultCopier;
+    }
+
+    /**
+     * Calls that ran the method themselves.
+     */
+    public long getLedCalls() {
+        return ledCalls.sum();
+    }
+
+    /**
+     * Calls that waited for the flight of another caller.
+     */
+    public long getJoinedCalls() {
+        return joinedCalls.sum();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        FlightKey key = new FlightKey(invocation.getMethod(), Arrays.asList(invocation.getArguments()),
+                ReadConsistency.requiredSequence());
+        while (true) {
+            CompletableFuture<Object> flight = new CompletableFuture<>();
+            CompletableFuture<Object> running = flights.putIfAbsent(key, flight);
+            if (running == null) {
+                return lead(key, flight, invocation);
+            }
+            joinedCalls.increment();
+            Object result = await(running);
+            if (result != LEADER_CANCELLED) {
+                return resultCopier.apply(result);
+            }
+        }
+    }
+
+    private Object lead(FlightKey key, CompletableFuture<Object> flight, MethodInvocation invocation)
+            throws Throwable {
+        ledCalls.increment();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        flights.remove(key, flight);
+        flight.complete(result);
+        return resultCopier.apply(result);
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws Throwable {
+        RequestDeadline deadline = RequestDeadline.current();
+        try {
+            return deadline == null
+                    ? flight.get()
+                    : flight.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw RequestDeadline.exceeded(null);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DeadlineExceededException || cause instanceof QueryTimeoutException) {
+                return LEADER_CANCELLED;
+            }
+            throw cause instanceof DomainException domainException ? domainException.copy() : cause;
+        }
+    }
+
+    private record FlightKey(Method method, List<Object> arguments, long requiredSequence) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.polovyi.ivan.snapshot;
+
+import com.polovyi.ivan.dto.response.CustomerResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All customers as of a change sequence, together with their JSON encoding, plain and gzipped. Never modified once
+ * built; the customer responses are shared by every request served from it.
+ */
+public record CustomerListSnapshot(List<CustomerResponse> customers, byte[] json, byte[] gzippedJson,
+        long sequence, long builtAtNanos) {
+
+    public long ageMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - builtAtNanos);
+    }
+}
@@ -0,0 +1,89 @@
+package com.polovyi.ivan.snapshot;
+
+import com.polovyi.ivan.replica.ReadConsistency;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Answers {@code GET /v1/customers} with the bytes of the current snapshot, gzipped when the client accepts it,
+ * instead of querying and serializing the list for every request. Requests that prefer another encoding than JSON,
+ * or that must read a write the snapshot does not include yet, go on to the controller.
+ */
+@RequiredArgsConstructor
+public class CustomerListSnapshotFilter extends OncePerRequestFilter {
+
+    public static final String PATH = "/v1/customers";
+
+    private final CustomerListSnapshots snapshots;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !PATH.equals(request.getRequestURI().substring(request.getContextPath().length()))
+                || !prefersJson(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Optional<CustomerListSnapshot> current = snapshots.current(ReadConsistency.requiredSequence());
+        if (current.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        CustomerListSnapshot snapshot = current.get();
+        boolean gzip = acceptsGzip(request);
+        byte[] body = gzip ? snapshot.gzippedJson() : snapshot.json();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader(HttpHeaders.AGE, String.valueOf(snapshot.ageMillis() / 1000));
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Mirrors content negotiation, where JSON is the first converter and therefore also the answer to */*
+    private static boolean prefersJson(HttpServletRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(Collections.list(request.getHeaders(HttpHeaders.ACCEPT)));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        if (accepted.isEmpty()) {
+            return true;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        MediaType preferred = accepted.get(0);
+        return preferred.getQualityValue() > 0 && preferred.isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.split(";");
+                if (parts[0].strip().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].strip().replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+}
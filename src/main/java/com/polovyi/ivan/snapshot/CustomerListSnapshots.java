@@ -0,0 +1,161 @@
+package com.polovyi.ivan.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.configuration.CustomerListSnapshotProperties;
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.replica.ReadConsistency;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.service.CustomerChangeLog;
+import com.polovyi.ivan.service.CustomersChanged;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the current {@link CustomerListSnapshot}. The first committed write after a rebuild schedules the next one
+ * after the debounce window; the rebuild reads and encodes the list on its own thread and swaps the new snapshot in
+ * atomically, so requests always see a complete snapshot and never wait for a rebuild. If a rebuild fails, the
+ * previous snapshot is kept and the next write schedules another attempt.
+ */
+@Slf4j
+public class CustomerListSnapshots implements DisposableBean {
+
+    private final AtomicReference<CustomerListSnapshot> current = new AtomicReference<>();
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    // Highest committed change sequence reported, which the rebuild must read at least
+    private final AtomicLong committedSequence = new AtomicLong();
+
+    private final CustomerStore customerStore;
+
+    private final CustomerChangeLog customerChangeLog;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ObjectMapper objectMapper;
+
+    private final long debounceNanos;
+
+    private final ScheduledExecutorService rebuilder;
+
+    public CustomerListSnapshots(CustomerStore customerStore, CustomerChangeLog customerChangeLog,
+            TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+            CustomerListSnapshotProperties properties, MeterRegistry meterRegistry) {
+        this.customerStore = customerStore;
+        this.customerChangeLog = customerChangeLog;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.debounceNanos = properties.getDebounce().toNanos();
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("customer-list-snapshot-"));
+        TimeGauge.builder("customer.list-snapshot.age", current, TimeUnit.MILLISECONDS,
+                        snapshot -> snapshot.get() == null ? Double.NaN : snapshot.get().ageMillis())
+                .description("Time since the served customer list was read")
+                .register(meterRegistry);
+        Gauge.builder("customer.list-snapshot.size", current,
+                        snapshot -> snapshot.get() == null ? Double.NaN : snapshot.get().json().length)
+                .description("Bytes of the uncompressed customer list JSON")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the snapshot if it includes the given change sequence, so that clients still read their own writes.
+     */
+    public Optional<CustomerListSnapshot> current(long requiredSequence) {
+        CustomerListSnapshot snapshot = current.get();
+        return snapshot != null && snapshot.sequence() >= requiredSequence ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInitialSnapshot() {
+        rebuildScheduled.set(true);
+        rebuilder.execute(this::rebuild);
+    }
+
+    @TransactionalEventListener
+    public void customersChanged(CustomersChanged event) {
+        committedSequence.accumulateAndGet(event.sequence(), Math::max);
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuild, debounceNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuild() {
+        // Cleared first, so a write committed while reading schedules the next rebuild
+        rebuildScheduled.set(false);
+        long started = System.nanoTime();
+        try {
+            CustomerListSnapshot snapshot = build();
+            current.set(snapshot);
+            log.debug("[CustomerListSnapshots] Rebuilt snapshot of {} customers at sequence {} in {} ms",
+                    snapshot.customers().size(), snapshot.sequence(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            log.warn("[CustomerListSnapshots] Rebuilding the customer list snapshot failed", e);
+        }
+    }
+
+    /*
+     * The committed sequence is read before the customers, so the snapshot contains at least the changes up to it.
+     * Requiring it, and the sequences of the writes reported so far, keeps the read off replicas that have not
+     * applied them.
+     */
+    private CustomerListSnapshot build() {
+        long builtAtNanos = System.nanoTime();
+        long sequence = customerChangeLog.committedSequence();
+        ReadConsistency consistency = new ReadConsistency(Math.max(sequence, committedSequence.get()), written -> {
+        });
+        List<CustomerResponse> customers;
+        try (ContextScope ignored = consistency.bind()) {
+            customers = readOnlyTransaction.execute(status -> customerStore.findAll().stream()
+                    .map(CustomerResponse::valueOf)
+                    .toList());
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(customers);
+            return new CustomerListSnapshot(customers, json, gzip(json), sequence, builtAtNanos);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
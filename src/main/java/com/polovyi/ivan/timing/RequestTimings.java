@@ -0,0 +1,95 @@
+package com.polovyi.ivan.timing;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.context.RequestState;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time a request spent in each {@link Timing}, summed over all threads that worked for it. Bound per request by the
+ * {@link ServerTimingFilter}; without a bound collector, recording is a single thread local lookup.
+ */
+public final class RequestTimings implements RequestState {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Timing.values().length);
+
+    private volatile long serializationStart;
+
+    // Guarded by this: the timings already sent, in the header or in a trailer
+    private final Set<Timing> reported = EnumSet.noneOf(Timing.class);
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static void record(Timing timing, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(timing, nanos);
+        }
+    }
+
+    /**
+     * Marks the start of writing the response body, which lasts until the request leaves the filter chain.
+     */
+    public static void serializationStarted() {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.serializationStart = System.nanoTime();
+        }
+    }
+
+    public void add(Timing timing, long nanos) {
+        this.nanos.addAndGet(timing.ordinal(), nanos);
+    }
+
+    long nanos(Timing timing) {
+        return nanos.get(timing.ordinal());
+    }
+
+    void serializationEnded() {
+        if (serializationStart != 0) {
+            add(Timing.SERIALIZE, System.nanoTime() - serializationStart);
+            serializationStart = 0;
+        }
+    }
+
+    /**
+     * A {@code Server-Timing} value with those of the given timings that were not reported yet, durations in
+     * milliseconds: {@code db;dur=1.204;desc="JDBC statements and commits", service;dur=3.871;desc="Customer service"}.
+     * Null once all of them were, so that a timing sent before the body is not sent again after it.
+     */
+    synchronized String report(Timing... timings) {
+        StringBuilder header = new StringBuilder();
+        for (Timing timing : timings) {
+            if (!reported.add(timing)) {
+                continue;
+            }
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(timing.getMetricName())
+                    .append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos(timing) / 1_000_000.0))
+                    .append(";desc=\"").append(timing.getDescription()).append('"');
+        }
+        return header.length() > 0 ? header.toString() : null;
+    }
+
+    @Override
+    public ContextScope bind() {
+        RequestTimings previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.polovyi.ivan.timing;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.execution.instrumentation.tracing.TracingInstrumentation;
+import graphql.kickstart.servlet.context.GraphQLServletContext;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Apollo tracing for the GraphQL requests that ask for it with the {@value #TRACING_HEADER} header: the response
+ * extensions get a {@code tracing} block with the parse and validation phases and the start offset and duration of
+ * every resolved field. Other requests get no tracing state and pass every hook straight through.
+ */
+public class RequestTracingInstrumentation extends TracingInstrumentation {
+
+    static final String TRACING_HEADER = "X-GraphQL-Tracing";
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return parameters.getExecutionInput().getContext() instanceof GraphQLServletContext context
+                && Boolean.parseBoolean(context.getHttpServletRequest().getHeader(TRACING_HEADER))
+                ? super.createState(parameters)
+                : null;
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+            InstrumentationExecutionParameters parameters) {
+        return parameters.getInstrumentationState() == null
+                ? CompletableFuture.completedFuture(executionResult)
+                : super.instrumentExecutionResult(executionResult, parameters);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters) {
+        return parameters.getInstrumentationState() == null
+                ? SimpleInstrumentationContext.noOp()
+                : super.beginFieldFetch(parameters);
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters) {
+        return parameters.getInstrumentationState() == null
+                ? SimpleInstrumentationContext.noOp()
+                : super.beginParse(parameters);
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(
+            InstrumentationValidationParameters parameters) {
+        return parameters.getInstrumentationState() == null
+                ? SimpleInstrumentationContext.noOp()
+                : super.beginValidation(parameters);
+    }
+}
@@ -0,0 +1,67 @@
+package com.polovyi.ivan.timing;
+
+import com.polovyi.ivan.bulk.ImportRequests;
+import com.polovyi.ivan.context.ContextScope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects the {@link RequestTimings} of a REST call and reports them in {@code Server-Timing} fields without holding
+ * back the body. The db and service timings go in the header, sent by {@link ServerTimingResponseBodyAdvice} right
+ * before the body is written; the serialize timing can only be known after it, so it follows as a trailer field to
+ * clients that accept trailers ({@code TE: trailers}). Responses still uncommitted when the call completes, those
+ * without a body, get every timing left in the header.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    // An import answers before reading its upload, its timings would measure neither
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return ImportRequests.isUpload(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings();
+        if (acceptsTrailers(request)) {
+            response.setHeader(HttpHeaders.TRAILER, SERVER_TIMING);
+            // Asked for once the body is written, after the serialize timing ended below
+            response.setTrailerFields(() -> {
+                String serverTiming = timings.report(Timing.values());
+                return serverTiming == null ? Collections.emptyMap() : Map.of(SERVER_TIMING, serverTiming);
+            });
+        }
+        try (ContextScope ignored = timings.bind()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            timings.serializationEnded();
+            if (!response.isCommitted()) {
+                String serverTiming = timings.report(Timing.values());
+                if (serverTiming != null) {
+                    response.addHeader(SERVER_TIMING, serverTiming);
+                }
+            }
+        }
+    }
+
+    // HTTP/1.0 has no chunked encoding to carry trailers in
+    private static boolean acceptsTrailers(HttpServletRequest request) {
+        return !"HTTP/1.0".equals(request.getProtocol())
+                && Collections.list(request.getHeaders(HttpHeaders.TE)).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .anyMatch(coding -> coding.trim().toLowerCase(Locale.ROOT).startsWith("trailers"));
+    }
+}
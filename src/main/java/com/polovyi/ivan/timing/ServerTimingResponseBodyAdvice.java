@@ -0,0 +1,39 @@
+package com.polovyi.ivan.timing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Starts the serialize timing right before a message converter writes the response body, and sends the timings
+ * measured so far in the {@code Server-Timing} header while the response is not committed yet.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "server-timing", name = "enabled", matchIfMissing = true)
+public class ServerTimingResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            RequestTimings.serializationStarted();
+            String serverTiming = timings.report(Timing.DB, Timing.SERVICE);
+            if (serverTiming != null) {
+                response.getHeaders().add(ServerTimingFilter.SERVER_TIMING, serverTiming);
+            }
+        }
+        return body;
+    }
+}
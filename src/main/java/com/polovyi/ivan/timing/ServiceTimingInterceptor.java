@@ -0,0 +1,24 @@
+package com.polovyi.ivan.timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Adds the duration of every call of an advised service method to the service timing of the current request.
+ */
+public class ServiceTimingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timings.add(Timing.SERVICE, System.nanoTime() - start);
+        }
+    }
+}
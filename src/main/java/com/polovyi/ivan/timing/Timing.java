@@ -0,0 +1,20 @@
+package com.polovyi.ivan.timing;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The parts of a REST call reported in its {@code Server-Timing} header.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Timing {
+
+    DB("db", "JDBC statements and commits"),
+    SERVICE("service", "Customer service"),
+    SERIALIZE("serialize", "Response body");
+
+    private final String metricName;
+
+    private final String description;
+}
@@ -0,0 +1,31 @@
+package com.polovyi.ivan.timing;
+
+import com.polovyi.ivan.jdbc.StatementExecution;
+import com.polovyi.ivan.jdbc.StatementListener;
+
+import java.sql.Statement;
+
+/**
+ * Adds statement executions, commits and rollbacks to the db timing of the current request. Reading result sets is
+ * not timed, the H2 driver has fetched the rows by the time execute returns.
+ */
+public class TimingStatementListener implements StatementListener {
+
+    @Override
+    public StatementExecution executing(Statement statement, String sql, int statementCount) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        return result -> timings.add(Timing.DB, System.nanoTime() - start);
+    }
+
+    @Override
+    public void transactionEnded(long elapsedNanos) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.add(Timing.DB, elapsedNanos);
+        }
+    }
+}
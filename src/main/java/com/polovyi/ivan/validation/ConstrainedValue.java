@@ -0,0 +1,23 @@
+package com.polovyi.ivan.validation;
+
+import java.util.List;
+
+/**
+ * The constraints declared on an argument or input field, followed by the constraints of its type. Only the first
+ * failing constraint is reported, so a missing value is not also reported as blank.
+ */
+record ConstrainedValue(List<Constraint> constraints, ValueValidator type) implements ValueValidator {
+
+    @Override
+    public void validate(Object value, String path, List<InputViolation> violations) {
+        for (Constraint constraint : constraints) {
+            if (!constraint.test().test(value)) {
+                violations.add(new InputViolation(path, constraint.message()));
+                return;
+            }
+        }
+        if (value != null && type != null) {
+            type.validate(value, path, violations);
+        }
+    }
+}
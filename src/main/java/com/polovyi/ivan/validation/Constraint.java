@@ -0,0 +1,9 @@
+package com.polovyi.ivan.validation;
+
+import java.util.function.Predicate;
+
+/**
+ * A single compiled constraint directive with its message already resolved for the value it applies to.
+ */
+record Constraint(Predicate<Object> test, String message) {
+}
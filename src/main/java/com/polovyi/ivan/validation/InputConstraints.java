@@ -0,0 +1,169 @@
+package com.polovyi.ivan.validation;
+
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the {@code @NotNull}, {@code @NotBlank}, {@code @Size} and {@code @Pattern} directives of the schema into
+ * validators once, when the schema is built. GraphQL looks validators up by field definition to check the coerced
+ * arguments of a field, REST by input type name to check the request DTO of the same name.
+ */
+@Component
+public class InputConstraints {
+
+    private final Map<GraphQLFieldDefinition, ValueValidator> fieldArguments = new IdentityHashMap<>();
+
+    private final Map<String, ValueValidator> inputTypes = new HashMap<>();
+
+    private final Set<String> compiling = new HashSet<>();
+
+    public InputConstraints(GraphQLSchema schema) {
+        for (GraphQLType type : schema.getAllTypesAsList()) {
+            if (type instanceof GraphQLFieldsContainer fieldsContainer) {
+                fieldsContainer.getFieldDefinitions().forEach(this::compileArguments);
+            }
+        }
+        compiling.clear();
+    }
+
+    /**
+     * Returns the validator of the arguments of the field, or {@code null} when none of them is constrained.
+     */
+    public ValueValidator forField(GraphQLFieldDefinition field) {
+        return fieldArguments.get(field);
+    }
+
+    /**
+     * Returns the validator of the named input type, or {@code null} when the type has no constraints.
+     */
+    public ValueValidator forInputType(String name) {
+        return inputTypes.get(name);
+    }
+
+    private void compileArguments(GraphQLFieldDefinition field) {
+        Map<String, ValueValidator> arguments = new LinkedHashMap<>();
+        for (GraphQLArgument argument : field.getArguments()) {
+            ValueValidator validator = compileValue(argument.getName(), argument.getDirectives(), argument.getType());
+            if (validator != null) {
+                arguments.put(argument.getName(), validator);
+            }
+        }
+        if (!arguments.isEmpty()) {
+            fieldArguments.put(field, new InputObjectValue(arguments));
+        }
+    }
+
+    private ValueValidator compileValue(String name, List<GraphQLDirective> directives, GraphQLType type) {
+        List<Constraint> constraints = new ArrayList<>();
+        for (GraphQLDirective directive : directives) {
+            Constraint constraint = compileConstraint(name, directive);
+            if (constraint != null) {
+                constraints.add(constraint);
+            }
+        }
+        ValueValidator typeValidator = compileType(type);
+        if (constraints.isEmpty() && typeValidator == null) {
+            return null;
+        }
+        return new ConstrainedValue(List.copyOf(constraints), typeValidator);
+    }
+
+    private ValueValidator compileType(GraphQLType type) {
+        GraphQLType nullableType = GraphQLTypeUtil.unwrapNonNull(type);
+        if (nullableType instanceof GraphQLList list) {
+            ValueValidator element = compileType(list.getWrappedType());
+            return element == null ? null : new ListValue(element);
+        }
+        if (!(nullableType instanceof GraphQLInputObjectType inputType)) {
+            return null;
+        }
+        String typeName = inputType.getName();
+        // Recursive input types are validated down to the first repetition
+        if (inputTypes.containsKey(typeName) || !compiling.add(typeName)) {
+            return inputTypes.get(typeName);
+        }
+        Map<String, ValueValidator> fields = new LinkedHashMap<>();
+        for (GraphQLInputObjectField field : inputType.getFieldDefinitions()) {
+            ValueValidator validator = compileValue(field.getName(), field.getDirectives(), field.getType());
+            if (validator != null) {
+                fields.put(field.getName(), validator);
+            }
+        }
+        ValueValidator validator = fields.isEmpty() ? null : new InputObjectValue(fields);
+        inputTypes.put(typeName, validator);
+        return validator;
+    }
+
+    private static Constraint compileConstraint(String name, GraphQLDirective directive) {
+        return switch (directive.getName()) {
+            case "NotNull" -> new Constraint(value -> value != null,
+                    message(directive, "Field " + name + " cannot be null"));
+            case "NotBlank" -> new Constraint(value -> value != null && !value.toString().isBlank(),
+                    message(directive, "Field " + name + " cannot be blank"));
+            case "Size" -> {
+                int min = intArgument(directive, "min", 0);
+                int max = intArgument(directive, "max", Integer.MAX_VALUE);
+                yield new Constraint(value -> value == null || inRange(sizeOf(value), min, max),
+                        message(directive, "Field " + name + " size must be between " + min + " and " + max));
+            }
+            case "Pattern" -> {
+                String regexp = String.valueOf(argument(directive, "regexp"));
+                Pattern pattern = Pattern.compile(regexp);
+                yield new Constraint(value -> value == null || pattern.matcher(value.toString()).matches(),
+                        message(directive, "Field " + name + " must match \"" + regexp + "\""));
+            }
+            default -> null;
+        };
+    }
+
+    private static int sizeOf(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        return value.toString().length();
+    }
+
+    private static boolean inRange(int size, int min, int max) {
+        return size >= min && size <= max;
+    }
+
+    private static String message(GraphQLDirective directive, String defaultMessage) {
+        Object message = argument(directive, "message");
+        return message == null ? defaultMessage : message.toString();
+    }
+
+    private static int intArgument(GraphQLDirective directive, String name, int defaultValue) {
+        return argument(directive, name) instanceof Number number ? number.intValue() : defaultValue;
+    }
+
+    private static Object argument(GraphQLDirective directive, String name) {
+        GraphQLArgument argument = directive.getArgument(name);
+        if (argument == null) {
+            return null;
+        }
+        return argument.getValue() != null ? argument.getValue() : argument.getDefaultValue();
+    }
+}
@@ -0,0 +1,27 @@
+package com.polovyi.ivan.validation;
+
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+
+/**
+ * Adds the {@link InputConstraintsValidator} to the binders of request bodies whose type has schema constraints.
+ * The validator comes on top of the global bean validation one instead of replacing it, so {@code @Valid} still
+ * applies the Bean Validation annotations of any other type.
+ */
+@ControllerAdvice
+public class InputConstraintsBinderAdvice {
+
+    private final InputConstraintsValidator validator;
+
+    public InputConstraintsBinderAdvice(InputConstraints inputConstraints) {
+        this.validator = new InputConstraintsValidator(inputConstraints);
+    }
+
+    @InitBinder
+    public void addInputConstraintsValidator(WebDataBinder binder) {
+        if (binder.getTarget() != null && validator.supports(binder.getTarget().getClass())) {
+            binder.addValidators(validator);
+        }
+    }
+}
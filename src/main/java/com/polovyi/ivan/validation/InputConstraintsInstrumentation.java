@@ -0,0 +1,46 @@
+package com.polovyi.ivan.validation;
+
+import com.polovyi.ivan.exeption.BadRequestException;
+import graphql.GraphQLError;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.SourceLocation;
+import graphql.schema.DataFetcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the coerced arguments of constrained fields before their data fetcher runs. A field with invalid
+ * arguments resolves to {@code null} with one error per violation, fields without constraints are not wrapped.
+ */
+@Component
+@RequiredArgsConstructor
+public class InputConstraintsInstrumentation extends SimpleInstrumentation {
+
+    private final InputConstraints inputConstraints;
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher,
+            InstrumentationFieldFetchParameters parameters) {
+        ValueValidator validator = inputConstraints.forField(parameters.getField());
+        if (validator == null) {
+            return dataFetcher;
+        }
+        return environment -> {
+            List<InputViolation> violations = validator.validate(environment.getArguments());
+            if (violations.isEmpty()) {
+                return dataFetcher.get(environment);
+            }
+            List<SourceLocation> locations = List.of(environment.getField().getSourceLocation());
+            List<GraphQLError> errors = new ArrayList<>(violations.size());
+            for (InputViolation violation : violations) {
+                errors.add(new BadRequestException(violation.message(), locations));
+            }
+            return DataFetcherResult.newResult().errors(errors).build();
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.polovyi.ivan.validation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Validates REST request bodies with the rules compiled from the GraphQL input type of the same simple name, so
+ * both API styles reject the same requests with the same messages.
+ */
+@RequiredArgsConstructor
+public class InputConstraintsValidator implements Validator {
+
+    private final InputConstraints inputConstraints;
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return inputConstraints.forInputType(type.getSimpleName()) != null;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        ValueValidator validator = inputConstraints.forInputType(target.getClass().getSimpleName());
+        for (InputViolation violation : validator.validate(target)) {
+            if (violation.path().isEmpty()) {
+                errors.reject("InputConstraint", violation.message());
+            } else {
+                errors.rejectValue(violation.path(), "InputConstraint", violation.message());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.polovyi.ivan.validation;
+
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates the fields of an input object. GraphQL hands input objects over as maps after coercion, REST as the
+ * request DTO, whose getters are looked up once per class.
+ */
+record InputObjectValue(Map<String, ValueValidator> fields) implements ValueValidator {
+
+    private static final ClassValue<Map<String, Method>> GETTERS = new ClassValue<>() {
+
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            Map<String, Method> getters = new HashMap<>();
+            for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(type)) {
+                if (property.getReadMethod() != null) {
+                    getters.put(property.getName(), property.getReadMethod());
+                }
+            }
+            return getters;
+        }
+    };
+
+    @Override
+    public void validate(Object value, String path, List<InputViolation> violations) {
+        fields.forEach((name, field) -> field.validate(fieldValue(value, name),
+                path.isEmpty() ? name : path + "." + name, violations));
+    }
+
+    private static Object fieldValue(Object value, String name) {
+        if (value instanceof Map<?, ?> map) {
+            return map.get(name);
+        }
+        Method getter = GETTERS.get(value.getClass()).get(name);
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return getter.invoke(value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read input field " + name + " of " + value.getClass(), e);
+        }
+    }
+}
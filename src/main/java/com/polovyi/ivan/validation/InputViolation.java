@@ -0,0 +1,8 @@
+package com.polovyi.ivan.validation;
+
+/**
+ * A failed input constraint. The path is the dot separated name of the offending value relative to the validated
+ * object, empty when the object itself is invalid.
+ */
+public record InputViolation(String path, String message) {
+}
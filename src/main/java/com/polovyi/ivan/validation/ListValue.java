@@ -0,0 +1,17 @@
+package com.polovyi.ivan.validation;
+
+import java.util.Collection;
+import java.util.List;
+
+record ListValue(ValueValidator element) implements ValueValidator {
+
+    @Override
+    public void validate(Object value, String path, List<InputViolation> violations) {
+        if (value instanceof Collection<?> values) {
+            int index = 0;
+            for (Object item : values) {
+                element.validate(item, path + "[" + index++ + "]", violations);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.polovyi.ivan.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates an input value against constraints that were compiled from the schema.
+ */
+@FunctionalInterface
+public interface ValueValidator {
+
+    void validate(Object value, String path, List<InputViolation> violations);
+
+    default List<InputViolation> validate(Object value) {
+        List<InputViolation> violations = new ArrayList<>(0);
+        validate(value, "", violations);
+        return violations;
+    }
+}
@@ -0,0 +1,10 @@
+-- Reverts customer-binary-keys.sql, for going back to customer.keys.type random. Time-ordered ids created in the
+-- meantime stay valid string ids.
+ALTER TABLE customer ALTER COLUMN id VARCHAR(255);
+UPDATE customer SET id = LOWER(SUBSTRING(id, 1, 8) || '-' || SUBSTRING(id, 9, 4) || '-' || SUBSTRING(id, 13, 4)
+    || '-' || SUBSTRING(id, 17, 4) || '-' || SUBSTRING(id, 21, 12));
+
+ALTER TABLE customer_change ALTER COLUMN customer_id VARCHAR(255);
+UPDATE customer_change SET customer_id = LOWER(SUBSTRING(customer_id, 1, 8) || '-' || SUBSTRING(customer_id, 9, 4)
+    || '-' || SUBSTRING(customer_id, 13, 4) || '-' || SUBSTRING(customer_id, 17, 4) || '-'
+    || SUBSTRING(customer_id, 21, 12));
@@ -0,0 +1,8 @@
+-- Moves customer ids from their 36 character string form to 16 bytes, as required by customer.keys.type
+-- time-ordered. Run it on the stopped application's database, then start it with the new key type; existing random
+-- ids keep working and render as before. Relies on H2 1.4 casting a hex string to BINARY.
+UPDATE customer SET id = REPLACE(id, '-', '');
+ALTER TABLE customer ALTER COLUMN id BINARY(16);
+
+UPDATE customer_change SET customer_id = REPLACE(customer_id, '-', '');
+ALTER TABLE customer_change ALTER COLUMN customer_id BINARY(16);
@@ -1,14 +1,22 @@
 package com.polovyi.ivan;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.graphql.spring.boot.test.GraphQLResponse;
 import com.graphql.spring.boot.test.GraphQLTestTemplate;
 import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.request.DeleteCustomersFilter;
 import com.polovyi.ivan.dto.request.PartiallyUpdateCustomerRequest;
 import com.polovyi.ivan.dto.request.UpdateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerChangeResponse;
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
 import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.dto.response.DeleteCustomersResponse;
+import com.polovyi.ivan.entity.ChangeType;
+import com.polovyi.ivan.exeption.NotFoundException;
 import com.polovyi.ivan.service.CustomerService;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeAll;
@@ -18,21 +26,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.StreamUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -43,12 +67,17 @@ import static org.mockito.Mockito.verify;
 public class CustomerGraphQLQueryControllerTest {
 
     private final static String GRAPHQL_QUERY_REQUEST_PATH = "/graphql/request/%s.query";
+    private final static String GRAPHQL_GET_PATH = "/customers-graphql?query={query}";
+    private final static String GRAPHQL_POST_PATH = "/customers-graphql";
     private final static String CUSTOMER_ID = UUID.randomUUID().toString();
     private static ObjectMapper mapper;
 
     @Autowired
     private GraphQLTestTemplate graphQLTestTemplate;
 
+    @Autowired
+    private TestRestTemplate restTemplate;
+
     @MockBean
     private CustomerService customerService;
 
@@ -60,8 +89,14 @@ public class CustomerGraphQLQueryControllerTest {
 
     private PartiallyUpdateCustomerRequest partiallyUpdateCustomerRequest;
 
+    private DeleteCustomersFilter deleteCustomersFilter;
+
     private GraphQLResponse response;
 
+    private ResponseEntity<String> getResponse;
+
+    private ResponseEntity<String> postResponse;
+
     private String fullName;
     private String phoneNumber;
     private String createdAt;
@@ -86,6 +121,93 @@ public class CustomerGraphQLQueryControllerTest {
         thenExpectResponseWithCustomerList();
     }
 
+    /*
+    GET All Customers
+     */
+
+    @Test
+    public void shouldReturnListOfCustomersWithCacheControlFromGetAllCustomersGraphQLAPIOverGet() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOgCustomers();
+        whenGetForGraphQLAPICalled("allCustomers");
+        thenExpectGetResponseHasStatus(HttpStatus.OK);
+        thenExpectCustomerServiceGetAllCustomersCalledOnce();
+        thenExpectGetResponseWithPublicCacheControl();
+    }
+
+    @Test
+    public void shouldNotExecuteMutationOverGet() throws Exception {
+        whenGetForGraphQLAPICalled("deleteCustomer");
+        thenExpectGetResponseHasStatus(HttpStatus.METHOD_NOT_ALLOWED);
+        thenExpectNoCallToCustomerServiceDeleteCustomer();
+    }
+
+    /*
+    POST All Customers with @stream
+     */
+
+    @Test
+    public void shouldStreamListOfCustomersAsMultipartGivenStreamDirective() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceStreamAllCustomersReturnsChunksOfCustomers(2);
+        whenPostForStreamedAllCustomersGraphQLAPICalled("allCustomersStreamed");
+        thenExpectPostResponseHasStatus(HttpStatus.OK);
+        thenExpectMultipartResponseWithInitialAndIncrementalPayloads();
+    }
+
+    @Test
+    public void shouldLabelStreamedItemsAndReportInterruptionAtNextIndexGivenFailingStream() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceStreamAllCustomersFailsAfterChunkOfCustomers(2);
+        whenPostForStreamedAllCustomersGraphQLAPICalled("allCustomersStreamedWithLabels");
+        thenExpectPostResponseHasStatus(HttpStatus.OK);
+        thenExpectMultipartResponseWithLabelledPayloadsAndInterruptionError();
+    }
+
+    @Test
+    public void shouldReportValidationErrorInsteadOfStreamingGivenUnknownStreamArgument() throws Exception {
+        whenPostForStreamedAllCustomersGraphQLAPICalled("allCustomersStreamedWithUnknownArgument");
+        thenExpectPostResponseHasStatus(HttpStatus.OK);
+        thenExpectJsonResponseWithValidationError();
+        thenExpectNoCallToCustomerServiceStreamAllCustomers();
+    }
+
+    /*
+    POST Batch of All Customers
+     */
+
+    @Test
+    public void shouldReturnResultsInOrderFromBatchedAllCustomersGraphQLAPIWithOneServiceCall() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOgCustomers();
+        whenPostForBatchOfAllCustomersGraphQLAPICalled(2);
+        thenExpectPostResponseHasStatus(HttpStatus.OK);
+        thenExpectCustomerServiceGetAllCustomersCalledOnce();
+        thenExpectBatchResponseWithCustomerLists(2);
+    }
+
+    /*
+    POST All Customers with X-GraphQL-Tracing
+     */
+
+    @Test
+    public void shouldReturnTracingExtensionGivenTracingHeader() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOgCustomers();
+        whenPostForAllCustomersGraphQLAPICalledWithTracingHeader("true");
+        thenExpectPostResponseHasStatus(HttpStatus.OK);
+        thenExpectTracingExtensionWithResolverOf("allCustomers");
+    }
+
+    @Test
+    public void shouldNotReturnTracingExtensionWithoutTracingHeader() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOgCustomers();
+        whenPostForAllCustomersGraphQLAPICalledWithTracingHeader("false");
+        thenExpectPostResponseHasStatus(HttpStatus.OK);
+        thenExpectNoTracingExtension();
+    }
+
     /*
     POST /v1/customers-with-filters
      */
@@ -114,6 +236,20 @@ public class CustomerGraphQLQueryControllerTest {
         thenExpectResponseWithBadRequestErrorCode();
     }
 
+    /*
+    POST Customer Changes
+     */
+
+    @Test
+    public void shouldReturnCustomerChangesSinceSequence() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetCustomerChangesReturnsChanges();
+        whenPostForCustomerChangesGraphQLAPICalled();
+        thenExpectResponseHasOkStatus();
+        thenExpectCustomerServiceGetCustomerChangesCalledOnce();
+        thenExpectResponseWithCustomerChanges();
+    }
+
         /*
         POST /v1/customers
          */
@@ -139,6 +275,18 @@ public class CustomerGraphQLQueryControllerTest {
         thenExpectResponseWithRequiredFieldErrorMessages();
     }
 
+    @Test
+    public void shouldNotCreateCustomerGivenRequestViolatingSchemaConstraints() throws Exception {
+        givenCreateCustomerRequestViolatingSchemaConstraints();
+        whenPostCreateCustomerGraphQLAPICalled();
+        thenExpectNoCallToCustomerServiceCreateCustomer();
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseWithThreeBadRequestErrorCodes();
+        thenExpectResponseWithErrorMessages("Field fullName cannot be blank",
+                "Field phoneNumber must match \"^[0-9+(). x-]+$\"",
+                "Field address size must be between 0 and 200");
+    }
+
         /*
         PUT /v1/customers
          */
@@ -164,6 +312,26 @@ public class CustomerGraphQLQueryControllerTest {
         thenExpectResponseWithRequiredFieldErrorMessages();
     }
 
+    @Test
+    public void shouldNotUpdateCustomerGivenNullRequestArgument() throws Exception {
+        updateCustomerRequest = null;
+        whenUpdateCustomersAPICalled();
+        thenExpectNoCallToCustomerServiceUpdateCustomer();
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseWithBadRequestErrorCode();
+        thenExpectResponseWithErrorMessages("Field updateCustomerRequest cannot be null");
+    }
+
+    @Test
+    public void shouldReturnNotFoundErrorGivenUnknownCustomer() throws Exception {
+        givenValidUpdateCustomerRequest();
+        givenCustomerServiceUpdateCustomerThrowsNotFoundException();
+        whenUpdateCustomersAPICalled();
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseWithErrorMessages("Resource not found");
+        thenExpectResponseWithNotFoundErrorCodeAtMutationField();
+    }
+
         /*
         PATCH /v1/customers
          */
@@ -179,6 +347,17 @@ public class CustomerGraphQLQueryControllerTest {
         thenExpectResponseHasOkStatus();
     }
 
+    @Test
+    public void shouldNotPartiallyUpdateCustomerGivenMalformedPhoneNumber() throws Exception {
+        givenValidPartiallyUpdateCustomerRequest();
+        partiallyUpdateCustomerRequest.setPhoneNumber("call me");
+        whenPartiallyUpdateCustomersAPICalled();
+        thenExpectNoCallToCustomerServicePartiallyUpdateCustomer();
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseWithBadRequestErrorCode();
+        thenExpectResponseWithErrorMessages("Field phoneNumber must match \"^[0-9+(). x-]+$\"");
+    }
+
         /*
         DELETE /v1/customers
          */
@@ -192,6 +371,16 @@ public class CustomerGraphQLQueryControllerTest {
         thenExpectDeleteCustomerResponseWithCustomerId();
     }
 
+    @Test
+    public void shouldDeleteCustomersCreatedBeforeDate() throws Exception {
+        givenDeleteCustomersFilter();
+        givenCustomerServiceDeleteCustomersCreatedBeforeReturnsDeletedCount();
+        whenDeleteCustomersAPICalledWithFilter();
+        thenExpectCustomerServiceDeleteCustomersCreatedBeforeCalledOnce();
+        thenExpectResponseHasOkStatus();
+        thenExpectDeleteCustomersResponseWithDeletedCount();
+    }
+
     /*
      * GIVEN Methods
      */
@@ -210,6 +399,24 @@ public class CustomerGraphQLQueryControllerTest {
         doReturn(List.of(customerResponse)).when(customerService).getAllCustomers();
     }
 
+    private void givenCustomerServiceStreamAllCustomersReturnsChunksOfCustomers(int chunks) {
+        doAnswer(invocation -> {
+            Consumer<List<CustomerResponse>> consumer = invocation.getArgument(1);
+            for (int i = 0; i < chunks; i++) {
+                consumer.accept(List.of(customerResponse));
+            }
+            return null;
+        }).when(customerService).streamAllCustomers(anyInt(), any());
+    }
+
+    private void givenCustomerServiceStreamAllCustomersFailsAfterChunkOfCustomers(int chunkSize) {
+        doAnswer(invocation -> {
+            Consumer<List<CustomerResponse>> consumer = invocation.getArgument(1);
+            consumer.accept(Collections.nCopies(chunkSize, customerResponse));
+            throw new IllegalStateException("Cursor closed");
+        }).when(customerService).streamAllCustomers(anyInt(), any());
+    }
+
     private void givenAllAPIMethodParameters() {
         fullName = "Ivan Polovyi";
         phoneNumber = "626.164.7481";
@@ -243,6 +450,13 @@ public class CustomerGraphQLQueryControllerTest {
                 .build();
     }
 
+    private void givenCustomerServiceGetCustomerChangesReturnsChanges() {
+        CustomerChangesResponse customerChangesResponse = new CustomerChangesResponse(List.of(
+                new CustomerChangeResponse(5, CUSTOMER_ID, ChangeType.UPSERT, customerResponse),
+                new CustomerChangeResponse(6, UUID.randomUUID().toString(), ChangeType.DELETE, null)), 6, false);
+        doReturn(customerChangesResponse).when(customerService).getCustomerChanges(4, 100);
+    }
+
     private void givenCustomerServiceCreateCustomerReturnsCustomerResponse() {
         doReturn(customerResponse).when(customerService).createCustomer(createCustomerRequest);
     }
@@ -251,6 +465,10 @@ public class CustomerGraphQLQueryControllerTest {
         doReturn(customerResponse).when(customerService).updateCustomer(CUSTOMER_ID, updateCustomerRequest);
     }
 
+    private void givenCustomerServiceUpdateCustomerThrowsNotFoundException() {
+        doThrow(new NotFoundException()).when(customerService).updateCustomer(CUSTOMER_ID, updateCustomerRequest);
+    }
+
     private void givenCustomerServicePartiallyUpdateCustomerReturnsCustomerResponse() {
         doReturn(customerResponse).when(customerService).partiallyUpdateCustomer(CUSTOMER_ID, partiallyUpdateCustomerRequest);
     }
@@ -259,6 +477,17 @@ public class CustomerGraphQLQueryControllerTest {
         doNothing().when(customerService).deleteCustomer(CUSTOMER_ID);
     }
 
+    private void givenDeleteCustomersFilter() {
+        deleteCustomersFilter = DeleteCustomersFilter.builder()
+                .createdBefore(LocalDate.of(2015, 9, 1))
+                .build();
+    }
+
+    private void givenCustomerServiceDeleteCustomersCreatedBeforeReturnsDeletedCount() {
+        doReturn(new DeleteCustomersResponse(2, false)).when(customerService)
+                .deleteCustomersCreatedBefore(LocalDate.of(2015, 9, 1), false);
+    }
+
     private void givenCustomerServiceGetAllCustomersWithFiltersReturnsListOfCustomers() {
         doReturn(List.of(customerResponse)).when(customerService)
                 .getCustomersWithFilters(any(), any(), any());
@@ -271,6 +500,13 @@ public class CustomerGraphQLQueryControllerTest {
         createCustomerRequest.setAddress(null);
     }
 
+    private void givenCreateCustomerRequestViolatingSchemaConstraints() {
+        givenValidCreateCustomerRequest();
+        createCustomerRequest.setFullName(" ");
+        createCustomerRequest.setPhoneNumber("call me");
+        createCustomerRequest.setAddress("a".repeat(201));
+    }
+
     private void givenUpdateCustomerRequestWithoutRequiredFields() {
         givenValidUpdateCustomerRequest();
         updateCustomerRequest.setFullName(null);
@@ -299,6 +535,17 @@ public class CustomerGraphQLQueryControllerTest {
                 jsonNodes);
     }
 
+    private void whenPostForCustomerChangesGraphQLAPICalled() throws Exception {
+        ObjectNode jsonNodes = mapper.readValue("""
+                  {
+                  "since": 4,
+                  "limit": 100
+                }
+                """, ObjectNode.class);
+        response = graphQLTestTemplate.perform(String.format(GRAPHQL_QUERY_REQUEST_PATH, "customerChanges"),
+                jsonNodes);
+    }
+
     private void whenPostCreateCustomerGraphQLAPICalled() throws Exception {
         String jsonString = objectToJsonString(createCustomerRequest);
         String queryVariables = String.format("""
@@ -348,6 +595,50 @@ public class CustomerGraphQLQueryControllerTest {
                 jsonNodes);
     }
 
+    private void whenGetForGraphQLAPICalled(String queryName) throws Exception {
+        getResponse = restTemplate.getForEntity(GRAPHQL_GET_PATH, String.class, readQuery(queryName));
+    }
+
+    private void whenPostForBatchOfAllCustomersGraphQLAPICalled(int batchSize) throws Exception {
+        ArrayNode operations = mapper.createArrayNode();
+        for (int i = 0; i < batchSize; i++) {
+            operations.addObject().put("query", readQuery("allCustomers"));
+        }
+        postResponse = restTemplate.postForEntity(GRAPHQL_POST_PATH, operations, String.class);
+    }
+
+    private void whenPostForAllCustomersGraphQLAPICalledWithTracingHeader(String tracing) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-GraphQL-Tracing", tracing);
+        ObjectNode request = mapper.createObjectNode().put("query", readQuery("allCustomers"));
+        postResponse = restTemplate.postForEntity(GRAPHQL_POST_PATH, new HttpEntity<>(request, headers), String.class);
+    }
+
+    private void whenPostForStreamedAllCustomersGraphQLAPICalled(String queryName) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("multipart/mixed")));
+        ObjectNode request = mapper.createObjectNode().put("query", readQuery(queryName));
+        postResponse = restTemplate.postForEntity(GRAPHQL_POST_PATH, new HttpEntity<>(request, headers), String.class);
+    }
+
+    private String readQuery(String queryName) throws Exception {
+        return StreamUtils.copyToString(
+                new ClassPathResource(String.format(GRAPHQL_QUERY_REQUEST_PATH, queryName)).getInputStream(),
+                StandardCharsets.UTF_8);
+    }
+    private void whenDeleteCustomersAPICalledWithFilter() throws Exception {
+        String queryVariables = String.format("""
+                    {
+                        "filter": {
+                            "createdBefore": "%s",
+                            "dryRun": %s
+                        }
+                    }
+                """, deleteCustomersFilter.getCreatedBefore(), deleteCustomersFilter.isDryRun());
+        ObjectNode jsonNodes = mapper.readValue(queryVariables, ObjectNode.class);
+        response = graphQLTestTemplate.perform(String.format(GRAPHQL_QUERY_REQUEST_PATH, "deleteCustomers"),
+                jsonNodes);
+    }
 
     /*
      * THEN Methods
@@ -358,6 +649,103 @@ public class CustomerGraphQLQueryControllerTest {
 
     }
 
+    private void thenExpectGetResponseHasStatus(HttpStatus status) {
+        assertEquals(status, getResponse.getStatusCode());
+    }
+
+    private void thenExpectPostResponseHasStatus(HttpStatus status) {
+        assertEquals(status, postResponse.getStatusCode());
+    }
+
+    private void thenExpectGetResponseWithPublicCacheControl() {
+        String cacheControl = getResponse.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL);
+        assertEquals("max-age=60, public", cacheControl);
+    }
+
+    private void thenExpectMultipartResponseWithInitialAndIncrementalPayloads() throws Exception {
+        List<JsonNode> payloads = multipartPayloads();
+        assertEquals(4, payloads.size());
+        JsonNode initial = payloads.get(0);
+        assertEquals(CUSTOMER_ID, initial.at("/data/allCustomers/0/id").asText());
+        assertTrue(initial.at("/data/allCustomers/0/phoneNumber").isMissingNode());
+        assertTrue(initial.get("hasNext").asBoolean());
+        JsonNode initialDeferred = payloads.get(1).at("/incremental/0");
+        assertEquals(customerResponse.getPhoneNumber(), initialDeferred.at("/data/phoneNumber").asText());
+        assertEquals("[\"allCustomers\",0]", initialDeferred.get("path").toString());
+        JsonNode streamed = payloads.get(2).get("incremental");
+        assertEquals(CUSTOMER_ID, streamed.at("/0/items/0/id").asText());
+        assertEquals("[\"allCustomers\",1]", streamed.at("/0/path").toString());
+        assertEquals(customerResponse.getAddress(), streamed.at("/1/data/address").asText());
+        assertEquals("[\"allCustomers\",1]", streamed.at("/1/path").toString());
+        assertEquals("{\"hasNext\":false}", payloads.get(3).toString());
+    }
+
+    private void thenExpectMultipartResponseWithLabelledPayloadsAndInterruptionError() throws Exception {
+        List<JsonNode> payloads = multipartPayloads();
+        assertEquals(4, payloads.size());
+        assertEquals("details", payloads.get(1).at("/incremental/0/label").asText());
+        JsonNode streamed = payloads.get(2).get("incremental");
+        assertEquals("rest", streamed.at("/0/label").asText());
+        assertEquals("[\"allCustomers\",1]", streamed.at("/0/path").toString());
+        assertEquals("details", streamed.at("/1/label").asText());
+        JsonNode interrupted = payloads.get(3);
+        assertFalse(interrupted.get("hasNext").asBoolean());
+        JsonNode result = interrupted.at("/incremental/0");
+        assertTrue(result.get("items").isNull());
+        assertEquals("[\"allCustomers\",2]", result.get("path").toString());
+        assertEquals("rest", result.get("label").asText());
+        assertEquals("[\"allCustomers\",2]", result.at("/errors/0/path").toString());
+        assertEquals("STREAM_INTERRUPTED", result.at("/errors/0/extensions/code").asText());
+    }
+
+    private List<JsonNode> multipartPayloads() throws Exception {
+        assertTrue(postResponse.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType(
+                "multipart/mixed")));
+        String body = postResponse.getBody();
+        assertTrue(body.endsWith("\r\n-----\r\n"));
+        List<JsonNode> payloads = new ArrayList<>();
+        for (String part : body.substring(0, body.length() - "\r\n-----\r\n".length()).split("\r\n---\r\n")) {
+            if (!part.isEmpty()) {
+                payloads.add(mapper.readTree(part.substring(part.indexOf("\r\n\r\n") + 4)));
+            }
+        }
+        return payloads;
+    }
+
+    private void thenExpectJsonResponseWithValidationError() throws Exception {
+        assertTrue(postResponse.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON));
+        JsonNode errors = mapper.readTree(postResponse.getBody()).path("errors");
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).path("message").asText().startsWith("Validation error"));
+    }
+
+    private void thenExpectBatchResponseWithCustomerLists(int batchSize) throws Exception {
+        JsonNode results = mapper.readTree(postResponse.getBody());
+        assertEquals(batchSize, results.size());
+        for (JsonNode result : results) {
+            assertEquals(customerResponse.getId(), result.at("/data/allCustomers/0/id").asText());
+        }
+    }
+
+    private void thenExpectTracingExtensionWithResolverOf(String fieldName) throws Exception {
+        JsonNode result = mapper.readTree(postResponse.getBody());
+        assertEquals(customerResponse.getId(), result.at("/data/" + fieldName + "/0/id").asText());
+        JsonNode tracing = result.at("/extensions/tracing");
+        assertEquals(1, tracing.path("version").asInt());
+        assertTrue(tracing.path("duration").asLong() > 0);
+        assertTrue(tracing.at("/parsing/duration").isNumber());
+        assertTrue(tracing.at("/validation/duration").isNumber());
+        List<String> resolvedPaths = new ArrayList<>();
+        tracing.at("/execution/resolvers").forEach(resolver -> resolvedPaths.add(resolver.path("path").toString()));
+        assertTrue(resolvedPaths.contains("[\"" + fieldName + "\"]"), resolvedPaths.toString());
+    }
+
+    private void thenExpectNoTracingExtension() throws Exception {
+        JsonNode result = mapper.readTree(postResponse.getBody());
+        assertEquals(customerResponse.getId(), result.at("/data/allCustomers/0/id").asText());
+        assertTrue(result.at("/extensions/tracing").isMissingNode());
+    }
+
     private void thenExpectResponseWithCustomerList() {
         List<CustomerResponse> getAllCustomers = response.getList("data.allCustomers",
                 CustomerResponse.class);
@@ -388,6 +776,10 @@ public class CustomerGraphQLQueryControllerTest {
         assertTrue(errors.contains("Field address cannot be null"));
     }
 
+    private void thenExpectResponseWithErrorMessages(String... messages) {
+        assertEquals(List.of(messages), response.getList("errors[*].message", String.class));
+    }
+
     private void thenExpectResponseWithThreeBadRequestErrorCodes() {
         List<Integer> getAllCustomers = response.getList("errors[*].extensions.errorCode",
                 Integer.class);
@@ -402,6 +794,14 @@ public class CustomerGraphQLQueryControllerTest {
         assertTrue(getAllCustomers.contains(HttpStatus.BAD_REQUEST.value()));
     }
 
+    private void thenExpectResponseWithNotFoundErrorCodeAtMutationField() throws Exception {
+        assertEquals(List.of(HttpStatus.NOT_FOUND.value()), response.getList("errors[*].extensions.errorCode",
+                Integer.class));
+        assertEquals("DataFetchingException", response.get("errors[0].extensions.classification"));
+        assertEquals(3, response.get("errors[0].locations[0].line", Integer.class));
+        assertTrue(response.readTree().at("/data/updateCustomer").isNull());
+    }
+
     private void thenExpectCreateCustomerResponseWithCustomer() {
         CustomerResponse customer = response.get("data.createCustomer",
                 CustomerResponse.class);
@@ -426,6 +826,22 @@ public class CustomerGraphQLQueryControllerTest {
         assertTrue(customerId.equals(CUSTOMER_ID));
     }
 
+    private void thenExpectDeleteCustomersResponseWithDeletedCount() {
+        DeleteCustomersResponse deleteCustomersResponse = response.get("data.deleteCustomers",
+                DeleteCustomersResponse.class);
+        assertEquals(new DeleteCustomersResponse(2, false), deleteCustomersResponse);
+    }
+
+    private void thenExpectResponseWithCustomerChanges() {
+        assertEquals(6L, response.get("data.customerChanges.nextSince", Long.class));
+        List<String> changeTypes = response.getList("data.customerChanges.changes[*].changeType", String.class);
+        assertEquals(List.of("UPSERT", "DELETE"), changeTypes);
+    }
+
+    private void thenExpectCustomerServiceGetCustomerChangesCalledOnce() {
+        verify(customerService).getCustomerChanges(4, 100);
+    }
+
     private void thenExpectCustomerServiceGetAllCustomersCalledOnce() {
         verify(customerService).getAllCustomers();
     }
@@ -458,10 +874,27 @@ public class CustomerGraphQLQueryControllerTest {
         verify(customerService).partiallyUpdateCustomer(anyString(), any(PartiallyUpdateCustomerRequest.class));
     }
 
+    private void thenExpectNoCallToCustomerServicePartiallyUpdateCustomer() {
+        verify(customerService, times(0)).partiallyUpdateCustomer(anyString(),
+                any(PartiallyUpdateCustomerRequest.class));
+    }
+
     private void thenExpectCustomerServiceDeleteCustomerCalledOnce() {
         verify(customerService).deleteCustomer(anyString());
     }
 
+    private void thenExpectNoCallToCustomerServiceDeleteCustomer() {
+        verify(customerService, times(0)).deleteCustomer(anyString());
+    }
+
+    private void thenExpectNoCallToCustomerServiceStreamAllCustomers() {
+        verify(customerService, times(0)).streamAllCustomers(anyInt(), any());
+    }
+
+    private void thenExpectCustomerServiceDeleteCustomersCreatedBeforeCalledOnce() {
+        verify(customerService).deleteCustomersCreatedBefore(any(LocalDate.class), anyBoolean());
+    }
+
     @SneakyThrows
     protected String objectToJsonString(Object object) {
         return mapper.writeValueAsString(object);
@@ -0,0 +1,172 @@
+package com.polovyi.ivan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.graphql.spring.boot.test.GraphQLResponse;
+import com.graphql.spring.boot.test.GraphQLTestTemplate;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.sql.SqlBudget;
+import com.polovyi.ivan.sql.SqlRecorder;
+import com.polovyi.ivan.sql.SqlRecordingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Runs every GraphQL operation against the real service and database and fails when an operation executes more
+ * statements, or reads more rows, than its budget allows.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(SqlRecordingConfig.class)
+public class CustomerGraphQLStatementBudgetTest {
+
+    private final static String GRAPHQL_QUERY_REQUEST_PATH = "/graphql/request/%s.query";
+    private final static String GRAPHQL_POST_PATH = "/customers-graphql";
+    private static final AtomicInteger PHONE_NUMBERS = new AtomicInteger();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private GraphQLTestTemplate graphQLTestTemplate;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private SqlRecorder sqlRecorder;
+
+    @Autowired
+    private CustomerStore customerStore;
+
+    private CustomerEntity customer;
+
+    private GraphQLResponse response;
+
+    @BeforeEach
+    public void givenCustomers() {
+        for (int i = 0; i < 5; i++) {
+            customer = customerStore.save(CustomerEntity.builder()
+                    .fullName("Budget Customer " + i)
+                    .phoneNumber("556." + PHONE_NUMBERS.incrementAndGet())
+                    .address("Budget Street " + i)
+                    .createdAt(LocalDate.of(1990, 1, 1).plusDays(i))
+                    .build());
+        }
+    }
+
+    @Test
+    public void shouldQueryAllCustomersWithOneSelect() throws Exception {
+        whenOperationPerformed("allCustomers", mapper.createObjectNode());
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1));
+    }
+
+    @Test
+    public void shouldQueryAllCustomersOfBatchedOperationsWithOneSelect() throws Exception {
+        ArrayNode operations = mapper.createArrayNode();
+        for (int i = 0; i < 5; i++) {
+            operations.addObject().put("query", readQuery("allCustomers"));
+        }
+        sqlRecorder.reset();
+        ResponseEntity<String> batchResponse = restTemplate.postForEntity(GRAPHQL_POST_PATH, operations,
+                String.class);
+        assertTrue(batchResponse.getStatusCode().is2xxSuccessful());
+        SqlBudget.statements().selects(1).assertWithin(sqlRecorder.statements());
+    }
+
+    @Test
+    public void shouldQueryCustomersByPhoneNumberWithOneSelectReadingOneRow() throws Exception {
+        whenOperationPerformed("allCustomersWithFilters", mapper.createObjectNode()
+                .put("phoneNumber", customer.getPhoneNumber()));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).rows(1));
+    }
+
+    @Test
+    public void shouldQueryCustomerChangesWithTwoSelects() throws Exception {
+        whenOperationPerformed("customerChanges", mapper.createObjectNode().put("limit", 50));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(2));
+    }
+
+    @Test
+    public void shouldCreateCustomerWithInsertsForCustomerAndChange() throws Exception {
+        ObjectNode variables = mapper.createObjectNode();
+        variables.putObject("createCustomerRequest")
+                .put("fullName", "Jane Budget")
+                .put("phoneNumber", "555-0100")
+                .put("address", "Budget Street");
+        whenOperationPerformed("createCustomer", variables);
+        thenExpectSuccessWithin(SqlBudget.statements().inserts(2));
+    }
+
+    @Test
+    public void shouldUpdateCustomerWithOneUpdateOfCustomer() throws Exception {
+        ObjectNode variables = mapper.createObjectNode().put("customerId", customer.getId());
+        variables.putObject("updateCustomerRequest")
+                .put("fullName", "Jane Budget")
+                .put("phoneNumber", "555-0101")
+                .put("address", "Budget Street");
+        whenOperationPerformed("updateCustomer", variables);
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).updates(1));
+    }
+
+    @Test
+    public void shouldPartiallyUpdateCustomerWithOneUpdateOfCustomer() throws Exception {
+        ObjectNode variables = mapper.createObjectNode().put("customerId", customer.getId());
+        variables.putObject("partiallyUpdateCustomerRequest").put("phoneNumber", "555-0102");
+        whenOperationPerformed("partiallyUpdateCustomer", variables);
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).updates(1));
+    }
+
+    @Test
+    public void shouldDeleteCustomerWithOneDelete() throws Exception {
+        whenOperationPerformed("deleteCustomer", mapper.createObjectNode().put("customerId", customer.getId()));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).deletes(1));
+    }
+
+    @Test
+    public void shouldDeleteCustomersCreatedBeforeWithOneBatchPerChunk() throws Exception {
+        ObjectNode variables = mapper.createObjectNode();
+        variables.putObject("filter").put("createdBefore", "2000-01-01").put("dryRun", false);
+        whenOperationPerformed("deleteCustomers", variables);
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).deletes(1));
+    }
+
+    private void whenOperationPerformed(String queryName, ObjectNode variables) throws Exception {
+        sqlRecorder.reset();
+        response = graphQLTestTemplate.perform(String.format(GRAPHQL_QUERY_REQUEST_PATH, queryName), variables);
+    }
+
+    private void thenExpectSuccessWithin(SqlBudget budget) throws Exception {
+        assertTrue(response.isOk());
+        assertFalse(response.readTree().has("errors"), response.getRawResponse().getBody());
+        budget.assertWithin(sqlRecorder.statements());
+    }
+
+    private String readQuery(String queryName) throws Exception {
+        return StreamUtils.copyToString(
+                new ClassPathResource(String.format(GRAPHQL_QUERY_REQUEST_PATH, queryName)).getInputStream(),
+                StandardCharsets.UTF_8);
+    }
+}
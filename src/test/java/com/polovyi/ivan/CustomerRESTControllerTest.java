@@ -2,11 +2,21 @@ package com.polovyi.ivan;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.polovyi.ivan.converter.CustomerProtobufCodec;
+import com.polovyi.ivan.converter.CustomerProtobufHttpMessageConverter;
 import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerChangeResponse;
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
 import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.dto.response.DeleteCustomersResponse;
+import com.polovyi.ivan.dto.response.RestErrorResponse;
 import com.polovyi.ivan.dto.request.PartiallyUpdateCustomerRequest;
 import com.polovyi.ivan.dto.request.UpdateCustomerRequest;
+import com.polovyi.ivan.entity.ChangeType;
+import com.polovyi.ivan.exeption.NotFoundException;
 import com.polovyi.ivan.service.CustomerService;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeAll;
@@ -27,17 +37,21 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import java.io.ByteArrayInputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -56,9 +70,17 @@ public class CustomerRESTControllerTest {
     private final static String CUSTOMERS_API_PATH = "/v1/customers";
     private final static String CUSTOMERS_API_PATH_WITH_VARIABLE = "/v1/customers/{id}";
     private final static String GET_ALL_CUSTOMERS_WITH_FILTERS_API_PATH = "/v1/customers-with-filters";
+    private final static String GET_CUSTOMER_CHANGES_API_PATH = "/v1/customers/changes";
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
 
     private static ObjectMapper mapper;
 
+    private static ObjectMapper smileMapper;
+
+    private static ObjectMapper cborMapper;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -81,6 +103,10 @@ public class CustomerRESTControllerTest {
     public static void setup() {
         mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
+        smileMapper = new ObjectMapper(new SmileFactory());
+        smileMapper.registerModule(new JavaTimeModule());
+        cborMapper = new ObjectMapper(new CBORFactory());
+        cborMapper.registerModule(new JavaTimeModule());
     }
 
 
@@ -98,6 +124,58 @@ public class CustomerRESTControllerTest {
         thenExpectResponseWithCustomerList();
     }
 
+    @Test
+    public void shouldReturnProtobufListOfCustomersFromGetAllCustomersRestAPIGivenProtobufAcceptHeader()
+            throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOfCustomers();
+        whenGetAllCustomersAPICalledAccepting(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseContentType(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+        thenExpectProtobufResponseWithCustomerList();
+    }
+
+    @Test
+    public void shouldReturnSmileListOfCustomersFromGetAllCustomersRestAPIGivenSmileAcceptHeader() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOfCustomers();
+        whenGetAllCustomersAPICalledAccepting(APPLICATION_SMILE);
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseContentType(APPLICATION_SMILE);
+        thenExpectBinaryResponseWithCustomerList(smileMapper);
+    }
+
+    @Test
+    public void shouldReturnCborListOfCustomersFromGetAllCustomersRestAPIGivenCborAcceptHeader() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOfCustomers();
+        whenGetAllCustomersAPICalledAccepting(APPLICATION_CBOR);
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseContentType(APPLICATION_CBOR);
+        thenExpectBinaryResponseWithCustomerList(cborMapper);
+    }
+
+    @Test
+    public void shouldReturnJsonListOfCustomersFromGetAllCustomersRestAPIGivenAnyAcceptHeader() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOfCustomers();
+        whenGetAllCustomersAPICalledAccepting(MediaType.ALL);
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseContentType(MediaType.APPLICATION_JSON);
+        thenExpectResponseWithCustomerList();
+    }
+
+    @Test
+    public void shouldReturnServerTimingHeaderFromGetAllCustomersRestAPI() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersReturnsListOfCustomers();
+        whenGetAllCustomersAPICalled();
+        thenExpectResponseHasOkStatus();
+        thenExpectServerTimingHeaderWith("db", "service");
+        thenExpectServerTimingHeaderWithout("serialize");
+        thenExpectResponseWithCustomerList();
+    }
+
     /*
     GET /v1/customers-with-filters
      */
@@ -113,6 +191,42 @@ public class CustomerRESTControllerTest {
         thenExpectResponseWithCustomerList();
     }
 
+    @Test
+    public void shouldReturnProtobufListOfCustomersFromGetAllCustomersWithFiltersRestAPIGivenProtobufAcceptHeader()
+            throws Exception {
+        givenAllQueryParams();
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersWithFiltersReturnsListOfCustomers();
+        whenGetAllCustomersWithFiltersAPICalledAccepting(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseContentType(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+        thenExpectProtobufResponseWithCustomerList();
+    }
+
+    @Test
+    public void shouldReturnSmileListOfCustomersFromGetAllCustomersWithFiltersRestAPIGivenSmileAcceptHeader()
+            throws Exception {
+        givenAllQueryParams();
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersWithFiltersReturnsListOfCustomers();
+        whenGetAllCustomersWithFiltersAPICalledAccepting(APPLICATION_SMILE);
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseContentType(APPLICATION_SMILE);
+        thenExpectBinaryResponseWithCustomerList(smileMapper);
+    }
+
+    @Test
+    public void shouldReturnCborListOfCustomersFromGetAllCustomersWithFiltersRestAPIGivenCborAcceptHeader()
+            throws Exception {
+        givenAllQueryParams();
+        givenCustomerResponse();
+        givenCustomerServiceGetAllCustomersWithFiltersReturnsListOfCustomers();
+        whenGetAllCustomersWithFiltersAPICalledAccepting(APPLICATION_CBOR);
+        thenExpectResponseHasOkStatus();
+        thenExpectResponseContentType(APPLICATION_CBOR);
+        thenExpectBinaryResponseWithCustomerList(cborMapper);
+    }
+
     @Test
     public void shouldNotReturnListOfCustomersFromGetAllCustomersWithFiltersRestAPIGivenInvalidDateFormat()
             throws Exception {
@@ -124,6 +238,20 @@ public class CustomerRESTControllerTest {
         thenExpectResponseHasBadRequestStatus();
     }
 
+    /*
+    GET /v1/customers/changes
+     */
+
+    @Test
+    public void shouldReturnCustomerChangesSinceSequenceRestAPI() throws Exception {
+        givenCustomerResponse();
+        givenCustomerServiceGetCustomerChangesReturnsChanges();
+        whenGetCustomerChangesAPICalled();
+        thenExpectResponseHasOkStatus();
+        thenExpectCustomerServiceGetCustomerChangesCalledOnce();
+        thenExpectResponseWithCustomerChanges();
+    }
+
     /*
     POST /v1/customers
      */
@@ -147,6 +275,16 @@ public class CustomerRESTControllerTest {
         thenExpectResponseHasBadRequestStatus();
     }
 
+    @Test
+    public void shouldNotCreateCustomerGivenRequestViolatingSchemaConstraintsCallingRestAPI() throws Exception {
+        givenRequestViolatingSchemaConstraints();
+        whenCreateCustomersAPICalled();
+        thenExpectNoCallToCustomerServiceCreateCustomer();
+        thenExpectResponseHasBadRequestStatus();
+        thenExpectResponseWithErrorMessages("Field fullName cannot be blank",
+                "Field phoneNumber must match \"^[0-9+(). x-]+$\"");
+    }
+
     /*
     PUT /v1/customers
      */
@@ -171,6 +309,17 @@ public class CustomerRESTControllerTest {
         thenExpectResponseHasBadRequestStatus();
     }
 
+    @Test
+    public void shouldReturnNotFoundWithoutBodyGivenUnknownCustomerCallingRestAPI() throws Exception {
+        givenValidUpdateCustomerRequest();
+        givenCustomerServiceUpdateCustomerThrowsNotFoundException();
+        for (int call = 0; call < 2; call++) {
+            whenUpdateCustomersAPICalled();
+            thenExpectResponseHasNotFoundStatus();
+            assertEquals(0, response.getContentLength());
+        }
+    }
+
     /*
     PATCH /v1/customers
      */
@@ -185,6 +334,17 @@ public class CustomerRESTControllerTest {
         thenExpectResponseHasNoContentStatus();
     }
 
+    @Test
+    public void shouldNotPartiallyUpdateCustomerGivenRequestViolatingSchemaConstraintsCallingRestAPI()
+            throws Exception {
+        givenValidPartiallyUpdateCustomerRequest();
+        partiallyUpdateCustomerRequest.setPhoneNumber("call me");
+        whenPartiallyUpdateCustomersAPICalled();
+        thenExpectNoCallToCustomerServicePartiallyUpdateCustomer();
+        thenExpectResponseHasBadRequestStatus();
+        thenExpectResponseWithErrorMessages("Field phoneNumber must match \"^[0-9+(). x-]+$\"");
+    }
+
     /*
     DELETE /v1/customers
      */
@@ -195,6 +355,23 @@ public class CustomerRESTControllerTest {
         givenCustomerServiceDeleteCustomerReturnsNothing();
         thenExpectCustomerServiceDeleteCustomerCalledOnce();
         thenExpectResponseHasNoContentStatus();
+        thenExpectServerTimingHeaderWith("db", "service", "serialize");
+    }
+
+    @Test
+    public void shouldDeleteCustomersCreatedBeforeDateCallingRestAPI() throws Exception {
+        givenCustomerServiceDeleteCustomersCreatedBeforeReturnsDeletedCount();
+        whenDeleteCustomersCreatedBeforeAPICalled("2015-09-01");
+        thenExpectResponseHasOkStatus();
+        thenExpectCustomerServiceDeleteCustomersCreatedBeforeCalledOnce();
+        thenExpectResponseWithDeletedCount();
+    }
+
+    @Test
+    public void shouldNotDeleteCustomersGivenInvalidDateFormatCallingRestAPI() throws Exception {
+        whenDeleteCustomersCreatedBeforeAPICalled("09-01-2015");
+        thenExpectResponseHasBadRequestStatus();
+        thenExpectNoCallToCustomerServiceDeleteCustomersCreatedBefore();
     }
 
     /*
@@ -257,6 +434,13 @@ public class CustomerRESTControllerTest {
         doReturn(List.of(customerResponse)).when(customerService).getAllCustomers();
     }
 
+    private void givenCustomerServiceGetCustomerChangesReturnsChanges() {
+        CustomerChangesResponse customerChangesResponse = new CustomerChangesResponse(List.of(
+                new CustomerChangeResponse(5, "1", ChangeType.UPSERT, customerResponse),
+                new CustomerChangeResponse(6, "2", ChangeType.DELETE, null)), 6, false);
+        doReturn(customerChangesResponse).when(customerService).getCustomerChanges(4, 100);
+    }
+
     private void givenCustomerServiceCreateCustomerReturnsCustomerResponse() {
         doReturn(customerResponse).when(customerService).createCustomer(createCustomerRequest);
     }
@@ -265,6 +449,10 @@ public class CustomerRESTControllerTest {
         doReturn(customerResponse).when(customerService).updateCustomer("1", updateCustomerRequest);
     }
 
+    private void givenCustomerServiceUpdateCustomerThrowsNotFoundException() {
+        doThrow(new NotFoundException()).when(customerService).updateCustomer("1", updateCustomerRequest);
+    }
+
     private void givenCustomerServicePartiallyUpdateCustomerReturnsCustomerResponse() {
         doReturn(customerResponse).when(customerService).partiallyUpdateCustomer("1", partiallyUpdateCustomerRequest);
     }
@@ -273,6 +461,11 @@ public class CustomerRESTControllerTest {
         doNothing().when(customerService).deleteCustomer("1");
     }
 
+    private void givenCustomerServiceDeleteCustomersCreatedBeforeReturnsDeletedCount() {
+        doReturn(new DeleteCustomersResponse(2, false)).when(customerService)
+                .deleteCustomersCreatedBefore(LocalDate.of(2015, 9, 1), false);
+    }
+
     private void givenCustomerServiceGetAllCustomersWithFiltersReturnsListOfCustomers() {
         doReturn(List.of(customerResponse)).when(customerService)
                 .getCustomersWithFilters(any(), any(), any());
@@ -285,6 +478,12 @@ public class CustomerRESTControllerTest {
         createCustomerRequest.setAddress(null);
     }
 
+    private void givenRequestViolatingSchemaConstraints() {
+        givenValidCreateCustomerRequest();
+        createCustomerRequest.setFullName(" ");
+        createCustomerRequest.setPhoneNumber("call me");
+    }
+
 
     /*
      * WHEN Methods
@@ -297,6 +496,13 @@ public class CustomerRESTControllerTest {
                 .getResponse();
     }
 
+    private void whenGetAllCustomersAPICalledAccepting(MediaType mediaType) throws Exception {
+        response = mockMvc.perform(get(CUSTOMERS_API_PATH)
+                        .accept(mediaType))
+                .andReturn()
+                .getResponse();
+    }
+
     private void whenGetAllCustomersWithFiltersAPICalled() throws Exception {
         response = mockMvc.perform(get(GET_ALL_CUSTOMERS_WITH_FILTERS_API_PATH)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -305,6 +511,21 @@ public class CustomerRESTControllerTest {
                 .getResponse();
     }
 
+    private void whenGetAllCustomersWithFiltersAPICalledAccepting(MediaType mediaType) throws Exception {
+        response = mockMvc.perform(get(GET_ALL_CUSTOMERS_WITH_FILTERS_API_PATH)
+                        .accept(mediaType)
+                        .queryParams(queryParams))
+                .andReturn()
+                .getResponse();
+    }
+
+    private void whenGetCustomerChangesAPICalled() throws Exception {
+        response = mockMvc.perform(get(GET_CUSTOMER_CHANGES_API_PATH)
+                        .queryParam("since", "4"))
+                .andReturn()
+                .getResponse();
+    }
+
     private void whenCreateCustomersAPICalled() throws Exception {
         response = mockMvc.perform(post(CUSTOMERS_API_PATH)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -335,6 +556,13 @@ public class CustomerRESTControllerTest {
                 .getResponse();
     }
 
+    private void whenDeleteCustomersCreatedBeforeAPICalled(String createdBefore) throws Exception {
+        response = mockMvc.perform(delete(CUSTOMERS_API_PATH)
+                        .queryParam("createdBefore", createdBefore))
+                .andReturn()
+                .getResponse();
+    }
+
     /*
      * THEN Methods
      */
@@ -351,10 +579,43 @@ public class CustomerRESTControllerTest {
         assertEquals(HttpStatus.CREATED.value(), response.getStatus());
     }
 
+    private void thenExpectResponseHasNotFoundStatus() {
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+    }
+
     private void thenExpectResponseHasNoContentStatus() {
         assertEquals(HttpStatus.NO_CONTENT.value(), response.getStatus());
     }
 
+    private void thenExpectResponseContentType(MediaType mediaType) {
+        assertTrue(mediaType.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+    }
+
+    private void thenExpectServerTimingHeaderWith(String... metrics) {
+        String serverTiming = response.getHeader("Server-Timing");
+        for (String metric : metrics) {
+            assertTrue(serverTiming != null && serverTiming.matches("(.*, )?" + metric + ";dur=\\d+\\.\\d{3}.*"),
+                    serverTiming);
+        }
+    }
+
+    private void thenExpectServerTimingHeaderWithout(String metric) {
+        String serverTiming = response.getHeader("Server-Timing");
+        assertTrue(serverTiming != null && !serverTiming.matches("(.*, )?" + metric + ";.*"), serverTiming);
+    }
+
+    private void thenExpectProtobufResponseWithCustomerList() throws Exception {
+        List<CustomerResponse> getAllCustomers = CustomerProtobufCodec.readList(
+                new ByteArrayInputStream(response.getContentAsByteArray()));
+        assertEquals(List.of(customerResponse), getAllCustomers);
+    }
+
+    private void thenExpectBinaryResponseWithCustomerList(ObjectMapper binaryMapper) throws Exception {
+        List<CustomerResponse> getAllCustomers = binaryMapper.readValue(response.getContentAsByteArray(),
+                binaryMapper.getTypeFactory().constructCollectionType(List.class, CustomerResponse.class));
+        assertEquals(List.of(customerResponse), getAllCustomers);
+    }
+
     private void thenExpectResponseWithCustomerList() throws UnsupportedEncodingException {
         List<CustomerResponse> getAllCustomers = stringJsonToList(response.getContentAsString(),
                 CustomerResponse.class);
@@ -362,6 +623,32 @@ public class CustomerRESTControllerTest {
         assertTrue(getAllCustomers.contains(customerResponse));
     }
 
+    private void thenExpectResponseWithErrorMessages(String... messages) throws UnsupportedEncodingException {
+        List<String> errorMessages = stringJsonToList(response.getContentAsString(), RestErrorResponse.class)
+                .stream()
+                .map(RestErrorResponse::getErrorMessage)
+                .collect(Collectors.toList());
+        assertEquals(List.of(messages), errorMessages);
+    }
+
+    private void thenExpectResponseWithDeletedCount() throws UnsupportedEncodingException {
+        DeleteCustomersResponse deleteCustomersResponse = jsonStringToObject(response.getContentAsString(),
+                DeleteCustomersResponse.class);
+        assertEquals(new DeleteCustomersResponse(2, false), deleteCustomersResponse);
+    }
+
+    private void thenExpectResponseWithCustomerChanges() throws UnsupportedEncodingException {
+        CustomerChangesResponse customerChanges = jsonStringToObject(response.getContentAsString(),
+                CustomerChangesResponse.class);
+        assertEquals(6, customerChanges.getNextSince());
+        assertEquals(2, customerChanges.getChanges().size());
+        assertEquals(ChangeType.DELETE, customerChanges.getChanges().get(1).getChangeType());
+    }
+
+    private void thenExpectCustomerServiceGetCustomerChangesCalledOnce() {
+        verify(customerService).getCustomerChanges(4, 100);
+    }
+
     private void thenExpectCustomerServiceGetAllCustomersCalledOnce() {
         verify(customerService).getAllCustomers();
     }
@@ -394,10 +681,23 @@ public class CustomerRESTControllerTest {
         verify(customerService).partiallyUpdateCustomer(anyString(), any(PartiallyUpdateCustomerRequest.class));
     }
 
+    private void thenExpectNoCallToCustomerServicePartiallyUpdateCustomer() {
+        verify(customerService, times(0)).partiallyUpdateCustomer(anyString(),
+                any(PartiallyUpdateCustomerRequest.class));
+    }
+
     private void thenExpectCustomerServiceDeleteCustomerCalledOnce() {
         verify(customerService).deleteCustomer(anyString());
     }
 
+    private void thenExpectCustomerServiceDeleteCustomersCreatedBeforeCalledOnce() {
+        verify(customerService).deleteCustomersCreatedBefore(any(LocalDate.class), anyBoolean());
+    }
+
+    private void thenExpectNoCallToCustomerServiceDeleteCustomersCreatedBefore() {
+        verify(customerService, times(0)).deleteCustomersCreatedBefore(any(), anyBoolean());
+    }
+
     @SneakyThrows
     protected <T> List<T> stringJsonToList(String json, Class<T> clazz) {
         return mapper.readValue(json, new TypeReference<>() {
@@ -408,6 +708,11 @@ public class CustomerRESTControllerTest {
         });
     }
 
+    @SneakyThrows
+    protected <T> T jsonStringToObject(String json, Class<T> clazz) {
+        return mapper.readValue(json, clazz);
+    }
+
     @SneakyThrows
     protected String objectToJsonString(Object object) {
         return mapper.writeValueAsString(object);
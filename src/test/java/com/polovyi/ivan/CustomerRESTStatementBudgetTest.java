@@ -0,0 +1,184 @@
+package com.polovyi.ivan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.bulk.CustomerImportJob;
+import com.polovyi.ivan.bulk.ImportRequests;
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.request.PartiallyUpdateCustomerRequest;
+import com.polovyi.ivan.dto.request.UpdateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerImportResponse;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.sql.SqlBudget;
+import com.polovyi.ivan.sql.SqlRecorder;
+import com.polovyi.ivan.sql.SqlRecordingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/*
+ * Runs every REST endpoint against the real service and database and fails when a request executes more
+ * statements, or reads more rows, than its budget allows.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(SqlRecordingConfig.class)
+public class CustomerRESTStatementBudgetTest {
+
+    private static final AtomicInteger PHONE_NUMBERS = new AtomicInteger();
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlRecorder sqlRecorder;
+
+    @Autowired
+    private CustomerStore customerStore;
+
+    private CustomerEntity customer;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void givenCustomers() {
+        for (int i = 0; i < 5; i++) {
+            customer = customerStore.save(CustomerEntity.builder()
+                    .fullName("Budget Customer " + i)
+                    .phoneNumber("555." + PHONE_NUMBERS.incrementAndGet())
+                    .address("Budget Street " + i)
+                    .createdAt(LocalDate.of(1990, 1, 1).plusDays(i))
+                    .build());
+        }
+    }
+
+    @Test
+    public void shouldGetAllCustomersWithOneSelect() throws Exception {
+        whenRequested(get("/v1/customers"));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1));
+    }
+
+    @Test
+    public void shouldGetCustomersByPhoneNumberWithOneSelectReadingOneRow() throws Exception {
+        whenRequested(get("/v1/customers-with-filters").queryParam("phoneNumber", customer.getPhoneNumber()));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).rows(1));
+    }
+
+    @Test
+    public void shouldGetCustomerChangesWithTwoSelects() throws Exception {
+        whenRequested(get("/v1/customers/changes").queryParam("limit", "50"));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(2));
+    }
+
+    @Test
+    public void shouldCreateCustomerWithInsertsForCustomerAndChange() throws Exception {
+        whenRequested(post("/v1/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new CreateCustomerRequest("Jane Budget", "555-0100",
+                        "Budget Street"))));
+        thenExpectSuccessWithin(SqlBudget.statements().inserts(2));
+    }
+
+    @Test
+    public void shouldUpdateCustomerWithOneUpdateOfCustomer() throws Exception {
+        whenRequested(put("/v1/customers/{id}", customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new UpdateCustomerRequest("Jane Budget", "555-0101",
+                        "Budget Street"))));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).updates(1));
+    }
+
+    @Test
+    public void shouldPartiallyUpdateCustomerWithOneUpdateOfCustomer() throws Exception {
+        whenRequested(patch("/v1/customers/{id}", customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new PartiallyUpdateCustomerRequest("555-0102"))));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).updates(1));
+    }
+
+    @Test
+    public void shouldDeleteCustomerWithOneDelete() throws Exception {
+        whenRequested(delete("/v1/customers/{id}", customer.getId()));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).deletes(1));
+    }
+
+    @Test
+    public void shouldDeleteCustomersCreatedBeforeWithOneBatchPerChunk() throws Exception {
+        whenRequested(delete("/v1/customers").queryParam("createdBefore", "2000-01-01"));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1).inserts(1).deletes(1));
+    }
+
+    @Test
+    public void shouldCountCustomersCreatedBeforeWithOneSelect() throws Exception {
+        whenRequested(delete("/v1/customers").queryParam("createdBefore", "2000-01-01")
+                .queryParam("dryRun", "true"));
+        thenExpectSuccessWithin(SqlBudget.statements().selects(1));
+    }
+
+    @Test
+    public void shouldImportBatchWithOneInsertPerTable() throws Exception {
+        String csv = "fullName,phoneNumber,address\n" + IntStream.range(0, 10)
+                .mapToObj(i -> "Import Budget " + i + ",555." + PHONE_NUMBERS.incrementAndGet() + ",Budget Street")
+                .collect(Collectors.joining("\n"));
+        whenImported(csv);
+        thenExpectSuccessWithin(SqlBudget.statements().inserts(2));
+    }
+
+    private void whenRequested(RequestBuilder request) throws Exception {
+        sqlRecorder.reset();
+        response = mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    // The writers of the import run after the upload is answered, so the statements are checked once it completes
+    private void whenImported(String csv) throws Exception {
+        whenRequested(post(ImportRequests.PATH).contentType("text/csv").content(csv));
+        String location = response.getHeader(HttpHeaders.LOCATION);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        CustomerImportResponse importResponse;
+        do {
+            assertTrue(System.nanoTime() < deadline, "Import did not finish");
+            Thread.sleep(10);
+            importResponse = mapper.readValue(mockMvc.perform(get(location)).andReturn().getResponse()
+                    .getContentAsString(), CustomerImportResponse.class);
+        } while (importResponse.getStatus() == CustomerImportJob.Status.RUNNING);
+        assertEquals(CustomerImportJob.Status.COMPLETED, importResponse.getStatus());
+        assertEquals(10, importResponse.getRowsImported());
+    }
+
+    private void thenExpectSuccessWithin(SqlBudget budget) {
+        assertTrue(response.getStatus() < 300, "Unexpected status " + response.getStatus());
+        budget.assertWithin(sqlRecorder.statements());
+    }
+}
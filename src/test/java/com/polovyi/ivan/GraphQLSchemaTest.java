@@ -0,0 +1,64 @@
+package com.polovyi.ivan;
+
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/*
+ * Validates the schema the application serves, as built from the schema files and completed by the application
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class GraphQLSchemaTest {
+
+    @Autowired
+    private GraphQLSchema schema;
+
+    @Test
+    public void shouldServeQueryAndMutationTypesFromSchemaFiles() {
+        thenExpectQueryAndMutationTypes();
+        thenExpectScalarTypes();
+    }
+
+    @Test
+    public void shouldServeIncrementalDeliveryDirectives() {
+        thenExpectDirective("stream", "initialCount", "label");
+        thenExpectDirective("defer", "if", "label");
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    private void thenExpectQueryAndMutationTypes() {
+        assertNotNull(schema.getQueryType().getFieldDefinition("allCustomers"));
+        assertNotNull(schema.getQueryType().getFieldDefinition("allCustomersWithFilters"));
+        assertNotNull(schema.getMutationType().getFieldDefinition("createCustomer"));
+    }
+
+    private void thenExpectScalarTypes() {
+        assertNotNull(schema.getType("Date"));
+        assertNotNull(schema.getType("Long"));
+    }
+
+    private void thenExpectDirective(String name, String... argumentNames) {
+        GraphQLDirective directive = schema.getDirective(name);
+        assertNotNull(directive, "@" + name + " is not declared in the served schema");
+        for (String argumentName : argumentNames) {
+            assertNotNull(directive.getArgument(argumentName));
+        }
+        assertEquals(argumentNames.length, directive.getArguments().size());
+    }
+}
@@ -0,0 +1,168 @@
+package com.polovyi.ivan.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.configuration.AdmissionControlProperties;
+import com.polovyi.ivan.graphql.PersistedQueryStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AdmissionControlFilterTest {
+
+    private static final String GRAPHQL_MAPPING = "/customers-graphql";
+
+    private static final String FILTERED_QUERY = "{ allCustomersWithFilters(fullName: \"Ann\") { id } }";
+
+    private final PersistedQueryStore persistedQueryStore = new PersistedQueryStore(10);
+
+    private final AdmissionController admissionController = new AdmissionController(properties(),
+            new SimpleMeterRegistry());
+
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(admissionController,
+            new RequestClassifier(GRAPHQL_MAPPING, 1024, new ObjectMapper(), persistedQueryStore),
+            Duration.ofSeconds(2));
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final MockFilterChain filterChain = new MockFilterChain();
+
+    @Test
+    public void shouldShedRequestWithRetryAfterWhenBulkheadIsFull() throws Exception {
+        givenFullBulkhead(ApiStyle.REST, OperationClass.READ);
+        whenFiltered(restRequest("GET", "/v1/customers/1"));
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(filterChain.getRequest());
+        assertEquals(1, admissionController.bulkhead(ApiStyle.REST, OperationClass.READ).getRejected());
+    }
+
+    @Test
+    public void shouldAdmitRequestAndReleasePermitOnceItCompletes() throws Exception {
+        givenFullBulkhead(ApiStyle.REST, OperationClass.EXPORT);
+        whenFiltered(restRequest("GET", "/v1/customers/1"));
+        assertEquals(200, response.getStatus());
+        assertNotNull(filterChain.getRequest());
+        assertEquals(0, admissionController.bulkhead(ApiStyle.REST, OperationClass.READ).getInflight());
+    }
+
+    @Test
+    public void shouldClassifyRestRequestsByMethodAndPath() throws Exception {
+        thenExpectClassifiedAs(restRequest("GET", "/v1/customers/1"), ApiStyle.REST, OperationClass.READ);
+        thenExpectClassifiedAs(restRequest("GET", "/v1/customers"), ApiStyle.REST, OperationClass.EXPORT);
+        thenExpectClassifiedAs(restRequest("DELETE", "/v1/customers/1"), ApiStyle.REST, OperationClass.WRITE);
+    }
+
+    @Test
+    public void shouldClassifyGraphQLBodiesByTheirHeaviestOperation() throws Exception {
+        thenExpectClassifiedAs(graphQLPost("{\"query\": \"" + escaped(FILTERED_QUERY) + "\"}"), ApiStyle.GRAPHQL,
+                OperationClass.READ);
+        thenExpectClassifiedAs(graphQLPost("[{\"query\": \"" + escaped(FILTERED_QUERY) + "\"}, "
+                + "{\"query\": \"{ allCustomers { id } }\"}]"), ApiStyle.GRAPHQL, OperationClass.EXPORT);
+        thenExpectClassifiedAs(graphQLPost("{\"query\": \"mutation { deleteCustomer(customerId: \\\"1\\\") }\"}"),
+                ApiStyle.GRAPHQL, OperationClass.WRITE);
+    }
+
+    @Test
+    public void shouldClassifyHashOnlyPersistedQueriesByTheStoredDocument() throws Exception {
+        String sha256Hash = PersistedQueryStore.sha256Hex(FILTERED_QUERY);
+        persistedQueryStore.register(sha256Hash, FILTERED_QUERY);
+        thenExpectClassifiedAs(persistedQueryGet(sha256Hash), ApiStyle.GRAPHQL, OperationClass.READ);
+    }
+
+    @Test
+    public void shouldClassifyUnclassifiableGraphQLRequestsAsExports() throws Exception {
+        thenExpectClassifiedAs(persistedQueryGet(PersistedQueryStore.sha256Hex("{ unknown }")), ApiStyle.GRAPHQL,
+                OperationClass.EXPORT);
+        thenExpectClassifiedAs(graphQLPost("{\"query\": "), ApiStyle.GRAPHQL, OperationClass.EXPORT);
+        thenExpectClassifiedAs(graphQLPost("{\"query\": \"{ allCustomersWithFilters( \"}"), ApiStyle.GRAPHQL,
+                OperationClass.EXPORT);
+    }
+
+    @Test
+    public void shouldReplayClassifiedBodyToTheChain() throws Exception {
+        String body = "{\"query\": \"" + escaped(FILTERED_QUERY) + "\"}";
+        whenFiltered(graphQLPost(body));
+        assertEquals(body, new String(filterChain.getRequest().getInputStream().readAllBytes(),
+                StandardCharsets.UTF_8));
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenFullBulkhead(ApiStyle apiStyle, OperationClass operationClass) {
+        Bulkhead bulkhead = admissionController.bulkhead(apiStyle, operationClass);
+        while (bulkhead.getInflight() < bulkhead.getLimit()) {
+            bulkhead.tryAcquire();
+        }
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private void whenFiltered(MockHttpServletRequest request) throws Exception {
+        filter.doFilter(request, response, filterChain);
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    // A full bulkhead of the expected class sheds the request, the others are left with room
+    private void thenExpectClassifiedAs(MockHttpServletRequest request, ApiStyle apiStyle,
+            OperationClass operationClass) throws Exception {
+        Bulkhead bulkhead = admissionController.bulkhead(apiStyle, operationClass);
+        long rejected = bulkhead.getRejected();
+        givenFullBulkhead(apiStyle, operationClass);
+        MockHttpServletResponse classifiedResponse = new MockHttpServletResponse();
+        filter.doFilter(request, classifiedResponse, new MockFilterChain());
+        assertEquals(503, classifiedResponse.getStatus());
+        assertEquals(rejected + 1, bulkhead.getRejected());
+    }
+
+    private static AdmissionControlProperties properties() {
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        properties.setLimits(new EnumMap<>(Map.of(
+                OperationClass.READ, new AdmissionControlProperties.Limit(2, 2, 2),
+                OperationClass.WRITE, new AdmissionControlProperties.Limit(2, 2, 2),
+                OperationClass.EXPORT, new AdmissionControlProperties.Limit(1, 1, 1))));
+        return properties;
+    }
+
+    private static MockHttpServletRequest restRequest(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private static MockHttpServletRequest graphQLPost(String body) {
+        MockHttpServletRequest request = restRequest("POST", GRAPHQL_MAPPING);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest persistedQueryGet(String sha256Hash) {
+        MockHttpServletRequest request = restRequest("GET", GRAPHQL_MAPPING);
+        request.setParameter("extensions", "{\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \""
+                + sha256Hash + "\"}}");
+        return request;
+    }
+
+    private static String escaped(String query) {
+        return query.replace("\"", "\\\"");
+    }
+}
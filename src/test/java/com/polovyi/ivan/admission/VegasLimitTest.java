@@ -0,0 +1,85 @@
+package com.polovyi.ivan.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VegasLimitTest {
+
+    private static final long NO_LOAD_RTT = Duration.ofMillis(1).toNanos();
+
+    private VegasLimit limit;
+
+    @Test
+    public void shouldGrowWhileLatencyShowsNoQueue() {
+        givenLimit(20, 2, 200);
+        whenSampledAtLimit(NO_LOAD_RTT, 1);
+        assertEquals(26, limit.getLimit());
+    }
+
+    @Test
+    public void shouldNotGrowBeyondMaximum() {
+        givenLimit(20, 2, 200);
+        whenSampledAtLimit(NO_LOAD_RTT, 100);
+        assertEquals(200, limit.getLimit());
+    }
+
+    @Test
+    public void shouldShrinkOnceLatencyShowsRequestsWaiting() {
+        givenLimit(20, 2, 200);
+        whenSampledAtLimit(NO_LOAD_RTT, 1);
+        whenSampledAtLimit(10 * NO_LOAD_RTT, 1);
+        assertEquals(25, limit.getLimit());
+        whenSampledAtLimit(10 * NO_LOAD_RTT, 100);
+        assertTrue(limit.getLimit() < 20, "limit is " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 2, "limit is " + limit.getLimit());
+    }
+
+    @Test
+    public void shouldIgnoreSamplesTakenFarBelowLimit() {
+        givenLimit(20, 2, 200);
+        limit.onSample(NO_LOAD_RTT, 1);
+        limit.onSample(10 * NO_LOAD_RTT, 1);
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    public void shouldBackOffOnDropsDownToMinimum() {
+        givenLimit(20, 2, 200);
+        limit.onDropped();
+        assertEquals(18, limit.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limit.onDropped();
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void shouldClampInitialLimitToBounds() {
+        givenLimit(500, 2, 200);
+        assertEquals(200, limit.getLimit());
+        givenLimit(0, 2, 200);
+        assertEquals(2, limit.getLimit());
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenLimit(int initial, int min, int max) {
+        limit = new VegasLimit(initial, min, max);
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private void whenSampledAtLimit(long rttNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            limit.onSample(rttNanos, limit.getLimit());
+        }
+    }
+}
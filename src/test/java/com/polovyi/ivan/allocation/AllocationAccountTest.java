@@ -0,0 +1,111 @@
+package com.polovyi.ivan.allocation;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.context.RequestContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class AllocationAccountTest {
+
+    private static final int MEGABYTE = 1 << 20;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private AllocationRecorder recorder;
+
+    // Keeps the allocated arrays reachable, so they cannot be optimized away
+    private volatile byte[] sink;
+
+    @BeforeEach
+    public void givenRecorder() {
+        assumeTrue(AllocationAccount.isSupported());
+        recorder = new AllocationRecorder(meterRegistry, 2);
+    }
+
+    @AfterEach
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldChargeTasksOnOtherThreadsAndReportOnceTheyFinished() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AllocationAccount account = recorder.open("graphql", "query allCustomers");
+        CompletableFuture<Void> task;
+        try (ContextScope ignored = account.bind()) {
+            task = CompletableFuture.runAsync(RequestContext.propagate(() -> {
+                awaitQuietly(release);
+                sink = new byte[MEGABYTE];
+            }), executor);
+        }
+        account.close();
+        assertEquals(List.of(), recorder.top(10));
+        release.countDown();
+        task.join();
+        OperationAllocation allocation = recorder.top(10).get(0);
+        assertEquals("query allCustomers", allocation.operation());
+        assertEquals(1, allocation.requests());
+        assertTrue(allocation.totalBytes() >= MEGABYTE, allocation.totalBytes() + " bytes");
+        assertEquals(1, meterRegistry.get("request.allocated.bytes").tag("operation", "query allCustomers")
+                .summary().count());
+    }
+
+    @Test
+    public void shouldReportAccountOnceTaskIsDiscardedWithoutRunning() {
+        AllocationAccount account = recorder.open("graphql", "query allCustomers");
+        Runnable task;
+        try (ContextScope ignored = account.bind()) {
+            task = RequestContext.propagate(() -> sink = new byte[MEGABYTE]);
+        }
+        account.close();
+        assertEquals(List.of(), recorder.top(10));
+        RequestContext.discard(task);
+        RequestContext.discard(task);
+        assertEquals(1, recorder.top(10).get(0).requests());
+        assertEquals(1, meterRegistry.get("request.allocated.bytes").tag("operation", "query allCustomers")
+                .summary().count());
+    }
+
+    @Test
+    public void shouldPauseTheOuterAccountWhileAnotherIsBound() {
+        AllocationAccount outer = recorder.open("rest", "GET /v1/customers");
+        AllocationAccount inner = recorder.open("graphql", "query allCustomers");
+        try (ContextScope ignoredOuter = outer.bind()) {
+            try (ContextScope ignoredInner = inner.bind()) {
+                sink = new byte[MEGABYTE];
+            }
+        }
+        assertTrue(inner.getBytes() >= MEGABYTE, inner.getBytes() + " bytes");
+        assertTrue(outer.getBytes() < MEGABYTE / 2, outer.getBytes() + " bytes");
+    }
+
+    @Test
+    public void shouldRecordOperationsBeyondTheLimitAsOther() {
+        List.of("GET /v1/customers", "GET /v1/customers/{customerId}", "GET /v1/customers/changes")
+                .forEach(operation -> recorder.open("rest", operation).close());
+        assertEquals(List.of("GET /v1/customers", "GET /v1/customers/{customerId}", AllocationRecorder.OTHER),
+                recorder.top(10).stream().map(OperationAllocation::operation).sorted().toList());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
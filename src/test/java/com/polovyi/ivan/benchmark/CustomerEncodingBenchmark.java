@@ -0,0 +1,122 @@
+package com.polovyi.ivan.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.polovyi.ivan.converter.CustomerProtobufCodec;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ * Compares payload size and encode/decode time of a 10k customer list across the formats served by
+ * GET /v1/customers. Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.polovyi.ivan.benchmark.CustomerEncodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerEncodingBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    private String format;
+
+    private List<CustomerResponse> customers;
+
+    private ObjectMapper mapper;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        customers = customers();
+        mapper = mapper(format);
+        encoded = encode();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (mapper == null) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            CustomerProtobufCodec.writeList(customers, outputStream);
+            return outputStream.toByteArray();
+        }
+        return mapper.writeValueAsBytes(customers);
+    }
+
+    @Benchmark
+    public List<CustomerResponse> decode() throws IOException {
+        if (mapper == null) {
+            return CustomerProtobufCodec.readList(new ByteArrayInputStream(encoded));
+        }
+        return mapper.readValue(encoded, new TypeReference<>() {
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String format : List.of("json", "smile", "cbor", "protobuf")) {
+            CustomerEncodingBenchmark benchmark = new CustomerEncodingBenchmark();
+            benchmark.format = format;
+            benchmark.setup();
+            System.out.printf("%-8s %,d bytes for %,d customers%n", format, benchmark.encoded.length, ROWS);
+        }
+        new Runner(new OptionsBuilder().include(CustomerEncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static ObjectMapper mapper(String format) {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> null;
+        };
+        if (factory == null) {
+            return null;
+        }
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<CustomerResponse> customers() {
+        return IntStream.range(0, ROWS)
+                .mapToObj(i -> CustomerResponse.builder()
+                        .id(UUID.randomUUID().toString())
+                        .fullName("Customer " + i)
+                        .phoneNumber("626.164." + String.format("%04d", i))
+                        .address("Apt. " + i + " 399 Lachelle Crossing, New Eldenhaven, LA 63962-9260")
+                        .createdAt(LocalDate.of(2015, 9, 1).plusDays(i % 3650))
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,140 @@
+package com.polovyi.ivan.benchmark;
+
+import com.polovyi.ivan.keys.CustomerIds;
+import com.polovyi.ivan.keys.CustomerKeyType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Compares random UUID strings in a VARCHAR primary key with time-ordered UUIDs in a BINARY(16) one: batched
+ * inserts into, and lookups by id from, a table that already holds 200k customers. main also prints the disk space
+ * of both tables. Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.polovyi.ivan.benchmark.CustomerKeyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerKeyBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    private CustomerKeyType keyType;
+
+    private Path directory;
+
+    private Connection connection;
+
+    private PreparedStatement insert;
+
+    private PreparedStatement select;
+
+    private List<String> ids;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("customer-keys");
+        connection = DriverManager.getConnection("jdbc:h2:" + directory.resolve("customers"), "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE customer (id " + (keyType.isBinary() ? "BINARY(16)" : "VARCHAR(255)")
+                    + " PRIMARY KEY, full_name VARCHAR(200), phone_number VARCHAR(20), address VARCHAR(200), "
+                    + "created_at DATE)");
+        }
+        insert = connection.prepareStatement("INSERT INTO customer VALUES (?, ?, ?, ?, ?)");
+        select = connection.prepareStatement("SELECT * FROM customer WHERE id = ?");
+        ids = new ArrayList<>(ROWS);
+        connection.setAutoCommit(false);
+        for (int i = 0; i < ROWS; i += BATCH_SIZE) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        connection.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String id = keyType.newId();
+            ids.add(id);
+            bindId(insert, id);
+            insert.setString(2, "Customer " + ids.size());
+            insert.setString(3, "626.164." + ids.size());
+            insert.setString(4, "Apt. 843 399 Lachelle Crossing, New Eldenhaven, LA 63962-9260");
+            insert.setDate(5, Date.valueOf(LocalDate.of(2015, 9, 1)));
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+
+    @Benchmark
+    public boolean lookupById() throws SQLException {
+        bindId(select, ids.get(ThreadLocalRandom.current().nextInt(ROWS)));
+        try (ResultSet resultSet = select.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    private void bindId(PreparedStatement statement, String id) throws SQLException {
+        if (keyType.isBinary()) {
+            statement.setBytes(1, CustomerIds.toBytes(id));
+        } else {
+            statement.setString(1, id);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (CustomerKeyType keyType : CustomerKeyType.values()) {
+            CustomerKeyBenchmark benchmark = new CustomerKeyBenchmark();
+            benchmark.keyType = keyType;
+            benchmark.setup();
+            try (Statement statement = benchmark.connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("CALL DISK_SPACE_USED('CUSTOMER')")) {
+                resultSet.next();
+                System.out.printf("%-12s %,d bytes for %,d customers%n", keyType, resultSet.getLong(1), ROWS);
+            }
+            benchmark.tearDown();
+        }
+        new Runner(new OptionsBuilder().include(CustomerKeyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.polovyi.ivan.benchmark;
+
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.graphql.CacheControlInstrumentation;
+import com.polovyi.ivan.graphql.GeneratedDataFetchers;
+import com.polovyi.ivan.jfr.JfrInstrumentation;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.kickstart.tools.GraphQLQueryResolver;
+import graphql.kickstart.tools.SchemaParser;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.GraphQLSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ * Compares executing allCustomers over 10k customers with the reflective data fetchers of graphql-java-tools and
+ * with generated ones, through the application's field instrumentations. Run with: mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.polovyi.ivan.benchmark.GraphQLDataFetcherBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQLDataFetcherBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final String QUERY = "{ allCustomers { id fullName phoneNumber address createdAt } }";
+
+    @Param({"reflective", "generated"})
+    private String fetchers;
+
+    private GraphQL graphQL;
+
+    @Setup
+    public void setup() {
+        GraphQLSchema schema = SchemaParser.newParser()
+                .file("graphql/query.graphqls")
+                .resolvers(new Query(customers()))
+                .scalars(ExtendedScalars.Date, ExtendedScalars.GraphQLLong)
+                .build()
+                .makeExecutableSchema();
+        if (fetchers.equals("generated")) {
+            schema = GeneratedDataFetchers.install(schema, List.of(CustomerResponse.class));
+        }
+        graphQL = GraphQL.newGraphQL(schema)
+                .instrumentation(new ChainedInstrumentation(List.of(new CacheControlInstrumentation(),
+                        new JfrInstrumentation())))
+                .build();
+    }
+
+    @Benchmark
+    public ExecutionResult allCustomers() {
+        return graphQL.execute(QUERY);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(GraphQLDataFetcherBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static List<CustomerResponse> customers() {
+        return IntStream.range(0, ROWS)
+                .mapToObj(i -> CustomerResponse.builder()
+                        .id(UUID.randomUUID().toString())
+                        .fullName("Customer " + i)
+                        .phoneNumber("626.164." + String.format("%04d", i))
+                        .address("Apt. " + i + " 399 Lachelle Crossing, New Eldenhaven, LA 63962-9260")
+                        .createdAt(LocalDate.of(2015, 9, 1).plusDays(i % 3650))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    public static class Query implements GraphQLQueryResolver {
+
+        private final List<CustomerResponse> customers;
+
+        Query(List<CustomerResponse> customers) {
+            this.customers = customers;
+        }
+
+        public List<CustomerResponse> allCustomers() {
+            return customers;
+        }
+
+        public List<CustomerResponse> allCustomersWithFilters(String fullName, String phoneNumber,
+                LocalDate createdAt) {
+            return customers;
+        }
+
+        public CustomerChangesResponse customerChanges(Long since, Integer limit) {
+            return null;
+        }
+    }
+}
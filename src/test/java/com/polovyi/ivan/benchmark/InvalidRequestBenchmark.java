@@ -0,0 +1,114 @@
+package com.polovyi.ivan.benchmark;
+
+import com.polovyi.ivan.SpringGraphqlTestVsRestTestApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Compares the throughput of requests rejected by validation with that of a valid request of the same API style,
+ * against a running application with admission control disabled. The error path should not be the slower one.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.polovyi.ivan.benchmark.InvalidRequestBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class InvalidRequestBenchmark {
+
+    private static final String GRAPHQL_FILTERS_QUERY = "query ($createdAt : Date) { allCustomersWithFilters("
+            + "createdAt : $createdAt) { id fullName } }";
+
+    private static final String GRAPHQL_CREATE_QUERY = "mutation ($request : CreateCustomerRequest) { "
+            + "createCustomer(createCustomerRequest : $request) { id } }";
+
+    @Param({"rest-valid", "rest-invalid-date", "rest-invalid-body", "graphql-valid", "graphql-invalid-date",
+            "graphql-invalid-body"})
+    private String request;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private HttpRequest httpRequest;
+
+    private int expectedStatus;
+
+    @Setup
+    public void setup() {
+        context = SpringApplication.run(SpringGraphqlTestVsRestTestApplication.class, "--server.port=0",
+                "--admission-control.enabled=false", "--logging.level.com.polovyi.ivan=WARN");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + context.getEnvironment().getProperty("server.servlet.context-path", "");
+        String graphQLUrl = baseUrl + context.getEnvironment().getProperty("graphql.servlet.mapping");
+        client = HttpClient.newHttpClient();
+        expectedStatus = request.equals("rest-invalid-date") || request.equals("rest-invalid-body") ? 400 : 200;
+        httpRequest = switch (request) {
+            case "rest-valid" -> get(baseUrl + "/v1/customers-with-filters?createdAt=2015-09-01");
+            case "rest-invalid-date" -> get(baseUrl + "/v1/customers-with-filters?createdAt=2015-13-01");
+            case "rest-invalid-body" -> post(baseUrl + "/v1/customers", "{}");
+            case "graphql-valid" -> post(graphQLUrl, graphQL(GRAPHQL_FILTERS_QUERY, "{\"createdAt\":\"2015-09-01\"}"));
+            case "graphql-invalid-date" -> post(graphQLUrl,
+                    graphQL(GRAPHQL_FILTERS_QUERY, "{\"createdAt\":\"2015-13-01\"}"));
+            case "graphql-invalid-body" -> post(graphQLUrl, graphQL(GRAPHQL_CREATE_QUERY, "{\"request\":{}}"));
+            default -> throw new IllegalArgumentException("Unknown request " + request);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        SpringApplication.exit(context);
+    }
+
+    @Benchmark
+    public int send() throws Exception {
+        int status = client.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != expectedStatus) {
+            throw new IllegalStateException("Unexpected status " + status + " for " + request);
+        }
+        return status;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(InvalidRequestBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String graphQL(String query, String variables) {
+        return "{\"query\":\"" + query.replace("\"", "\\\"") + "\",\"variables\":" + variables + "}";
+    }
+}
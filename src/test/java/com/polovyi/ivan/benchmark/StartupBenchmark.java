@@ -0,0 +1,69 @@
+package com.polovyi.ivan.benchmark;
+
+import com.polovyi.ivan.SpringGraphqlTestVsRestTestApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/*
+ * Measures the time from JVM start to the first successful REST and GraphQL responses and appends it to
+ * target/startup-benchmark.csv. Run it in a fresh JVM, with the same flags as production (AppCDS archive included),
+ * e.g. from the IDE or with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.polovyi.ivan.benchmark.StartupBenchmark
+ */
+public class StartupBenchmark {
+
+    private static final Path RESULTS = Path.of("target", "startup-benchmark.csv");
+
+    private static final String GRAPHQL_QUERY = "{\"query\":\"{ allCustomers { id } }\"}";
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(SpringGraphqlTestVsRestTestApplication.class,
+                "--server.port=0");
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + context.getEnvironment().getProperty("server.servlet.context-path", "");
+            HttpClient client = HttpClient.newHttpClient();
+            long readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            long restMillis = timeToFirstSuccess(client, HttpRequest.newBuilder(URI.create(baseUrl + "/v1/customers"))
+                    .GET()
+                    .build());
+            long graphQLMillis = timeToFirstSuccess(client, HttpRequest.newBuilder(
+                            URI.create(baseUrl + context.getEnvironment().getProperty("graphql.servlet.mapping")))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(GRAPHQL_QUERY))
+                    .build());
+            System.out.printf("ready: %d ms, first REST response: %d ms, first GraphQL response: %d ms%n",
+                    readyMillis, restMillis, graphQLMillis);
+            record(readyMillis, restMillis, graphQLMillis);
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static long timeToFirstSuccess(HttpClient client, HttpRequest request) throws Exception {
+        while (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            Thread.sleep(1);
+        }
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    private static void record(long readyMillis, long restMillis, long graphQLMillis) throws IOException {
+        Files.createDirectories(RESULTS.getParent());
+        if (Files.notExists(RESULTS)) {
+            Files.writeString(RESULTS, "timestamp,ready_ms,first_rest_ms,first_graphql_ms\n");
+        }
+        Files.writeString(RESULTS, String.format("%s,%d,%d,%d%n", Instant.now(), readyMillis, restMillis,
+                graphQLMillis), StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,11 @@
+package com.polovyi.ivan.bulk;
+
+import org.springframework.test.context.TestPropertySource;
+
+/*
+ * The columnar store holds writes back until their transaction commits, so the failed batch never reaches it
+ */
+@TestPropertySource(properties = {"customer.store.type=columnar",
+        "customer.columnar.directory=target/columnar-customer-import-test"})
+public class ColumnarCustomerImportTest extends CustomerImportTest {
+}
@@ -0,0 +1,124 @@
+package com.polovyi.ivan.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.dto.response.CustomerImportResponse;
+import com.polovyi.ivan.entity.CustomerEntity;
+import com.polovyi.ivan.repository.CustomerStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/*
+ * Imports through the REST API into the store of the application. A batch that fails after writing its rows is
+ * retried row by row, which must leave every other row imported exactly once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class CustomerImportTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private final String importName = "Importer " + UUID.randomUUID();
+
+    private final String failingName = importName + " 2";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private CustomerStore customerStore;
+
+    private CustomerImportResponse importResponse;
+
+    @Test
+    public void shouldImportEveryRowButTheFailingOneExactlyOnce() throws Exception {
+        givenStoreFailingAfterWritingBatchWith(failingName);
+        whenImported(5);
+        thenExpectImportCompletedWith(4, 1);
+        assertEquals(4, importResponse.getErrors().get(0).line());
+        thenExpectCustomersStoredOnce(List.of(0, 1, 3, 4));
+        thenExpectNoCustomerNamed(failingName);
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    // The rows are written before the failure, as when a later statement of the transaction fails
+    private void givenStoreFailingAfterWritingBatchWith(String fullName) {
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            List<CustomerEntity> customers = invocation.getArgument(0);
+            if (customers.stream().anyMatch(customer -> fullName.equals(customer.getFullName()))) {
+                throw new DataIntegrityViolationException("Cannot import " + fullName);
+            }
+            return null;
+        }).when(customerStore).insertAll(anyList());
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private void whenImported(int rows) throws Exception {
+        String csv = "fullName,phoneNumber,address\n" + IntStream.range(0, rows)
+                .mapToObj(i -> importName + " " + i + ",555.01" + i + ",Import Street " + i)
+                .collect(Collectors.joining("\n"));
+        String location = mockMvc.perform(post(ImportRequests.PATH).contentType("text/csv").content(csv))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.LOCATION);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        do {
+            assertTrue(System.nanoTime() < deadline, "Import did not finish");
+            Thread.sleep(10);
+            importResponse = mapper.readValue(mockMvc.perform(get(location)).andReturn().getResponse()
+                    .getContentAsString(), CustomerImportResponse.class);
+        } while (importResponse.getStatus() == CustomerImportJob.Status.RUNNING);
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    private void thenExpectImportCompletedWith(long imported, long rejected) {
+        assertEquals(CustomerImportJob.Status.COMPLETED, importResponse.getStatus());
+        assertEquals(imported, importResponse.getRowsImported());
+        assertEquals(rejected, importResponse.getRowsRejected());
+    }
+
+    private void thenExpectCustomersStoredOnce(List<Integer> rows) {
+        rows.forEach(i -> assertEquals(1, customerStore.findPageAfter(null, importName + " " + i, null, null, 10)
+                .size(), "Customers of row " + i));
+    }
+
+    private void thenExpectNoCustomerNamed(String fullName) {
+        assertEquals(List.of(), customerStore.findPageAfter(null, fullName, null, null, 10));
+    }
+}
@@ -0,0 +1,81 @@
+package com.polovyi.ivan.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ImportRowReaderTest {
+
+    private List<ImportRow> rows;
+
+    @Test
+    public void shouldReadQuotedCsvFieldsInHeaderOrder() throws IOException {
+        whenCsvRead("address,fullName,phoneNumber\r\n"
+                + "\"1 Main St, Springfield\",\"Ann \"\"Nan\"\" Lee\",626.164.1\r\n"
+                + "\r\n"
+                + "\"2 Elm St\nApt 4\",Bob Ray,626.164.2\n");
+        assertEquals(2, rows.size());
+        thenExpectRow(0, 2, "Ann \"Nan\" Lee", "626.164.1", "1 Main St, Springfield");
+        thenExpectRow(1, 4, "Bob Ray", "626.164.2", "2 Elm St\nApt 4");
+    }
+
+    @Test
+    public void shouldRejectCsvRowsWithAnotherNumberOfFields() throws IOException {
+        whenCsvRead("fullName,phoneNumber,address\nAnn Lee,626.164.1\nBob Ray,626.164.2,2 Elm St");
+        assertEquals("Expected 3 fields but found 2", rows.get(0).error());
+        thenExpectRow(1, 3, "Bob Ray", "626.164.2", "2 Elm St");
+    }
+
+    @Test
+    public void shouldStreamTheFileOfAMultipartUpload() throws IOException {
+        String body = "--xyz\r\n"
+                + "Content-Disposition: form-data; name=\"note\"\r\n\r\n"
+                + "not a file\r\n"
+                + "--xyz\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"customers.ndjson\"\r\n\r\n"
+                + "{\"fullName\":\"Ann Lee\",\"phoneNumber\":\"626.164.1\",\"address\":\"1 Main St\"}\n"
+                + "{\"fullName\":\n"
+                + "\r\n--xyz--\r\n";
+        MultipartFileStream.Part file = new MultipartFileStream(stream(body), "xyz").firstFile();
+        whenRead(ImportFormat.of(file.contentType(), file.filename()).orElseThrow()
+                .reader(file.content(), file.contentType(), new ObjectMapper()));
+        assertEquals(2, rows.size());
+        thenExpectRow(0, 1, "Ann Lee", "626.164.1", "1 Main St");
+        assertNotNull(rows.get(1).error());
+    }
+
+    private void whenCsvRead(String csv) throws IOException {
+        whenRead(ImportFormat.CSV.reader(stream(csv), MediaType.parseMediaType("text/csv"), new ObjectMapper()));
+    }
+
+    private void whenRead(ImportRowReader reader) throws IOException {
+        rows = new ArrayList<>();
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+    }
+
+    private void thenExpectRow(int index, long line, String fullName, String phoneNumber, String address) {
+        ImportRow row = rows.get(index);
+        assertNull(row.error());
+        assertEquals(line, row.line());
+        assertEquals(new CreateCustomerRequest(fullName, phoneNumber, address), row.request());
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,11 @@
+package com.polovyi.ivan.bulk;
+
+import org.springframework.test.context.TestPropertySource;
+
+/*
+ * The shards commit each statement on its own, so the writes of the failed batch are only undone by the shard
+ * write reconciler
+ */
+@TestPropertySource(properties = "customer.store.type=sharded")
+public class ShardedCustomerImportTest extends CustomerImportTest {
+}
@@ -0,0 +1,169 @@
+package com.polovyi.ivan.columnar;
+
+import com.polovyi.ivan.configuration.ColumnarStoreProperties;
+import com.polovyi.ivan.configuration.CustomerKeyProperties;
+import com.polovyi.ivan.entity.CustomerEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarCustomerStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ColumnarCustomerStore store;
+
+    private List<CustomerEntity> customers;
+
+    @AfterEach
+    public void closeStore() throws IOException {
+        store.destroy();
+    }
+
+    @Test
+    public void shouldFindCustomersByEveryFilter() {
+        givenStore(1000);
+        givenSavedCustomers(50);
+        thenExpectFilterResult(null, "626.164.7", null, 7);
+        thenExpectFilterResult(null, null, LocalDate.of(2015, 9, 1).plusDays(30), 3);
+        thenExpectFilterResult("Customer 12", null, null, 12);
+        thenExpectFilterResult("Customer 12", "626.164.13", null);
+        assertEquals(customers, store.findAll());
+    }
+
+    @Test
+    public void shouldReuseRowsAndIndexesAfterDeleteAndUpdate() {
+        givenStore(1000);
+        givenSavedCustomers(50);
+        store.delete(customers.get(3));
+        CustomerEntity updated = customers.get(4);
+        updated.setPhoneNumber("626.164.3");
+        store.save(updated);
+        thenExpectFilterResult(null, "626.164.3", null, 4);
+        thenExpectFilterResult(null, "626.164.4", null);
+        assertTrue(store.findById(customers.get(3).getId()).isEmpty());
+        assertEquals(49, store.countByCreatedAtBefore(LocalDate.of(2100, 1, 1)));
+    }
+
+    @Test
+    public void shouldPageThroughCustomersOrderedById() {
+        givenStore(1000);
+        givenSavedCustomers(50);
+        thenExpectPagesOrderedById(7);
+    }
+
+    @Test
+    public void shouldFindLowestIdsCreatedBefore() {
+        givenStore(1000);
+        givenSavedCustomers(50);
+        LocalDate createdBefore = LocalDate.of(2016, 1, 1);
+        List<String> expected = customers.stream()
+                .filter(customer -> customer.getCreatedAt().isBefore(createdBefore))
+                .map(CustomerEntity::getId)
+                .sorted()
+                .limit(5)
+                .toList();
+        assertEquals(expected, store.findIdsCreatedBefore(createdBefore, 5));
+    }
+
+    @Test
+    public void shouldApplyWritesOfTransactionOnlyOnceItCommits() {
+        givenStore(1000);
+        givenSavedCustomers(2);
+        CustomerEntity created = newCustomer(2);
+        transaction().executeWithoutResult(status -> {
+            store.save(created);
+            store.delete(customers.get(0));
+            assertEquals(created, store.findById(created.getId()).orElse(null));
+            assertTrue(store.findById(customers.get(0).getId()).isEmpty());
+            assertEquals(customers, store.findAll());
+        });
+        assertEquals(List.of(customers.get(1), created), store.findAll());
+    }
+
+    @Test
+    public void shouldDropWritesOfRolledBackTransaction() {
+        givenStore(1000);
+        givenSavedCustomers(2);
+        assertThrows(IllegalStateException.class, () -> transaction().executeWithoutResult(status -> {
+            store.save(newCustomer(2));
+            store.delete(customers.get(0));
+            throw new IllegalStateException("Recording the change failed");
+        }));
+        assertEquals(customers, store.findAll());
+    }
+
+    @Test
+    public void shouldRecoverCustomersFromSnapshotAndLog() throws IOException {
+        givenStore(20);
+        givenSavedCustomers(50);
+        store.delete(customers.get(0));
+        store.destroy();
+        givenStore(20);
+        assertEquals(customers.subList(1, customers.size()), store.findAll());
+        thenExpectFilterResult(null, "626.164.9", null, 9);
+    }
+
+    private void givenStore(int snapshotEvery) {
+        ColumnarStoreProperties properties = new ColumnarStoreProperties();
+        properties.setDirectory(directory.toString());
+        properties.setSnapshotEvery(snapshotEvery);
+        store = new ColumnarCustomerStore(properties, new CustomerKeyProperties());
+    }
+
+    private void givenSavedCustomers(int count) {
+        customers = IntStream.range(0, count)
+                .mapToObj(i -> store.save(newCustomer(i)))
+                .collect(Collectors.toList());
+    }
+
+    private CustomerEntity newCustomer(int i) {
+        return CustomerEntity.builder()
+                .fullName("Customer " + i)
+                .phoneNumber("626.164." + i)
+                .address("Address " + i)
+                .createdAt(LocalDate.of(2015, 9, 1).plusDays(i * 10L))
+                .build();
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(new DataSourceTransactionManager(
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID())));
+    }
+
+    private void thenExpectFilterResult(String fullName, String phoneNumber, LocalDate createdAt,
+            int... expectedIndexes) {
+        List<CustomerEntity> expected = IntStream.of(expectedIndexes).mapToObj(customers::get).toList();
+        assertEquals(expected, store.findCustomersWithFilters(fullName, phoneNumber, createdAt));
+    }
+
+    private void thenExpectPagesOrderedById(int pageSize) {
+        List<CustomerEntity> pages = new ArrayList<>();
+        List<CustomerEntity> page = store.findPageAfter(null, null, null, null, pageSize);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= pageSize);
+            pages.addAll(page);
+            page = store.findPageAfter(page.get(page.size() - 1).getId(), null, null, null, pageSize);
+        }
+        assertEquals(customers.stream().sorted(Comparator.comparing(CustomerEntity::getId)).toList(), pages);
+        assertEquals(List.of(customers.get(7)), store.findPageAfter(null, null, "626.164.7", null, pageSize));
+    }
+}
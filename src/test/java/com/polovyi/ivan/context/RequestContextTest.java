@@ -0,0 +1,50 @@
+package com.polovyi.ivan.context;
+
+import com.polovyi.ivan.jfr.RequestOperation;
+import com.polovyi.ivan.replica.ReadConsistency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RequestContextTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRunTaskWithRequestStateOfSubmittingThreadAndUnbindItAfterwards() {
+        Runnable task;
+        try (ContextScope ignoredOperation = new RequestOperation("query allCustomers").bind();
+                ContextScope ignoredConsistency = new ReadConsistency(42, sequence -> {
+                }).bind()) {
+            task = RequestContext.propagate(() -> {
+                assertEquals("query allCustomers", RequestOperation.currentName());
+                assertEquals(42, ReadConsistency.requiredSequence());
+            });
+        }
+        CompletableFuture.runAsync(task, executor).join();
+        List<Object> leftOnExecutorThread = CompletableFuture.supplyAsync(() -> List.<Object>of(
+                String.valueOf(RequestOperation.currentName()), ReadConsistency.requiredSequence()), executor).join();
+        assertEquals(List.of("null", 0L), leftOnExecutorThread);
+    }
+
+    @Test
+    public void shouldLeaveTaskAsItIsOutsideOfRequest() {
+        Runnable task = () -> {
+        };
+        assertSame(task, RequestContext.propagate(task));
+        assertNull(RequestOperation.current());
+    }
+}
@@ -0,0 +1,79 @@
+package com.polovyi.ivan.deadline;
+
+import com.polovyi.ivan.configuration.RequestDeadlineProperties;
+import com.polovyi.ivan.exeption.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RequestDeadlineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger cancelledStatements = new AtomicInteger();
+
+    private RequestDeadlines deadlines;
+
+    private RequestDeadline deadline;
+
+    @BeforeEach
+    public void givenDeadlines() {
+        RequestDeadlineProperties properties = new RequestDeadlineProperties();
+        properties.setCheckInterval(Duration.ofMillis(5));
+        properties.setMaxTimeout(Duration.ofSeconds(1));
+        deadlines = new RequestDeadlines(properties, meterRegistry);
+    }
+
+    @AfterEach
+    public void stopDeadlines() {
+        deadlines.destroy();
+    }
+
+    @Test
+    public void shouldCancelRunningStatementsOnceExpired() throws InterruptedException {
+        deadline = deadlines.start("20");
+        deadline.register(statement());
+        assertDoesNotThrow(deadline::check);
+        Thread.sleep(200);
+        assertEquals(1, cancelledStatements.get());
+        assertThrows(DeadlineExceededException.class, deadline::check);
+        assertEquals(1, meterRegistry.get("request.deadline.cancelled.statements").tag("reason", "expired")
+                .counter().count());
+    }
+
+    @Test
+    public void shouldApplyTheShorterOfRequestedAndOperationTimeout() {
+        deadline = deadlines.start("60000");
+        assertEquals(1, deadline.queryTimeoutSeconds());
+        deadline.restrict(0);
+        assertThrows(DeadlineExceededException.class, deadline::check);
+    }
+
+    @Test
+    public void shouldFailStatementsOfADisconnectedClient() {
+        deadline = deadlines.start(null);
+        deadline.cancel(RequestDeadline.Reason.CLIENT_DISCONNECTED);
+        assertThrows(DeadlineExceededException.class, () -> deadline.register(statement()));
+        assertEquals(0, cancelledStatements.get());
+    }
+
+    private Statement statement() {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "cancel" -> cancelledStatements.incrementAndGet();
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,104 @@
+package com.polovyi.ivan.exeption.handler;
+
+import com.polovyi.ivan.exeption.BadRequestException;
+import com.polovyi.ivan.exeption.DeadlineExceededException;
+import com.polovyi.ivan.exeption.NotFoundException;
+import graphql.ExceptionWhileDataFetching;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.ResultPath;
+import graphql.language.SourceLocation;
+import graphql.schema.CoercingParseValueException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class GraphQLExceptionHandlerTest {
+
+    private static final SourceLocation LOCATION = new SourceLocation(3, 5);
+
+    private final GraphQLExceptionHandler handler = new GraphQLExceptionHandler();
+
+    private List<GraphQLError> errors;
+
+    @Test
+    public void shouldReturnDomainExceptionAtLocationOfFetchingError() {
+        NotFoundException notFound = new NotFoundException();
+        whenProcessed(new ExceptionWhileDataFetching(ResultPath.parse("/updateCustomer"), notFound, LOCATION));
+        GraphQLError error = thenExpectSingleError();
+        assertSame(notFound, error);
+        assertEquals(List.of(LOCATION), error.getLocations());
+        thenExpectExtensions(error, Map.of("errorCode", 404));
+    }
+
+    @Test
+    public void shouldNameInvalidVariableFromErrorPath() {
+        whenProcessed(CoercingParseValueException.newCoercingParseValueException()
+                .message("Invalid value : 'yesterday'")
+                .path(List.of("createdAt"))
+                .sourceLocation(LOCATION)
+                .build());
+        thenExpectBadRequest("Field createdAt has an invalid format.");
+    }
+
+    @Test
+    public void shouldNameInvalidVariableFromMessageGivenNoErrorPath() {
+        whenProcessed(CoercingParseValueException.newCoercingParseValueException()
+                .message("Variable 'createdAt' has an invalid value")
+                .sourceLocation(LOCATION)
+                .build());
+        thenExpectBadRequest("Field createdAt has an invalid format.");
+    }
+
+    @Test
+    public void shouldReportDeadlineExceededGivenQueryTimeout() {
+        whenProcessed(new ExceptionWhileDataFetching(ResultPath.parse("/allCustomers"),
+                new QueryTimeoutException("Statement cancelled"), LOCATION));
+        GraphQLError error = thenExpectSingleError();
+        assertInstanceOf(DeadlineExceededException.class, error);
+        assertEquals("Request deadline exceeded", error.getMessage());
+        thenExpectExtensions(error, Map.of("errorCode", 504));
+    }
+
+    @Test
+    public void shouldKeepOtherErrors() {
+        GraphQLError other = GraphqlErrorBuilder.newError().message("Validation error").build();
+        whenProcessed(other);
+        assertSame(other, thenExpectSingleError());
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private void whenProcessed(GraphQLError error) {
+        errors = handler.processErrors(List.of(error));
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    private GraphQLError thenExpectSingleError() {
+        assertEquals(1, errors.size());
+        return errors.get(0);
+    }
+
+    private void thenExpectBadRequest(String message) {
+        GraphQLError error = thenExpectSingleError();
+        assertInstanceOf(BadRequestException.class, error);
+        assertEquals(message, error.getMessage());
+        assertEquals(List.of(LOCATION), error.getLocations());
+        thenExpectExtensions(error, Map.of("errorCode", 400));
+    }
+
+    private void thenExpectExtensions(GraphQLError error, Map<String, Object> extensions) {
+        assertEquals(extensions, error.getExtensions());
+    }
+}
@@ -0,0 +1,110 @@
+package com.polovyi.ivan.graphql;
+
+import com.polovyi.ivan.dto.response.CustomerChangesResponse;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.TrivialDataFetcher;
+import graphql.kickstart.tools.GraphQLQueryResolver;
+import graphql.kickstart.tools.SchemaParser;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.DataFetcher;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLSchema;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeneratedDataFetchersTest {
+
+    private GraphQLSchema schema;
+
+    private ExecutionResult result;
+
+    @Test
+    public void shouldResolveScalarFieldsWithGeneratedTrivialFetchers() {
+        givenSchemaWithGeneratedFetchers();
+        whenQueried("{ allCustomers { id fullName phoneNumber address createdAt } }");
+        thenExpectData(Map.of("allCustomers", Arrays.asList(
+                Map.of("id", "1", "fullName", "Ivan Polovyi", "phoneNumber", "626.164.7481", "address", "Address",
+                        "createdAt", "2015-09-01"),
+                null)));
+        thenExpectGeneratedFetcher("CustomerResponse", "fullName", "getFullName");
+    }
+
+    @Test
+    public void shouldResolvePrimitiveAndBooleanGettersWithGeneratedFetchers() {
+        givenSchemaWithGeneratedFetchers();
+        whenQueried("{ customerChanges { nextSince hasMore changes { sequence } } }");
+        thenExpectData(Map.of("customerChanges", Map.of("nextSince", 42L, "hasMore", true, "changes", List.of())));
+        thenExpectGeneratedFetcher("CustomerChangesResponse", "nextSince", "getNextSince");
+        thenExpectGeneratedFetcher("CustomerChangesResponse", "hasMore", "isHasMore");
+        assertFalse(dataFetcher("CustomerChangesResponse", "changes")
+                instanceof GeneratedDataFetchers.GetterDataFetcher);
+    }
+
+    private void givenSchemaWithGeneratedFetchers() {
+        schema = GeneratedDataFetchers.install(SchemaParser.newParser()
+                .file("graphql/query.graphqls")
+                .resolvers(new Query())
+                .scalars(ExtendedScalars.Date, ExtendedScalars.GraphQLLong)
+                .build()
+                .makeExecutableSchema(), List.of(CustomerResponse.class, CustomerChangesResponse.class));
+    }
+
+    private void whenQueried(String query) {
+        result = GraphQL.newGraphQL(schema).build().execute(query);
+    }
+
+    private void thenExpectData(Map<String, Object> data) {
+        assertTrue(result.getErrors().isEmpty(), result.getErrors()::toString);
+        assertEquals(data, result.getData());
+    }
+
+    private void thenExpectGeneratedFetcher(String typeName, String fieldName, String getterName) {
+        DataFetcher<?> dataFetcher = dataFetcher(typeName, fieldName);
+        assertInstanceOf(TrivialDataFetcher.class, dataFetcher);
+        GeneratedDataFetchers.GetterDataFetcher getterDataFetcher = assertInstanceOf(
+                GeneratedDataFetchers.GetterDataFetcher.class, dataFetcher);
+        assertEquals(getterName, getterDataFetcher.getGetter().getName());
+    }
+
+    private DataFetcher<?> dataFetcher(String typeName, String fieldName) {
+        return schema.getCodeRegistry().getDataFetcher(FieldCoordinates.coordinates(typeName, fieldName),
+                schema.getObjectType(typeName).getFieldDefinition(fieldName));
+    }
+
+    public static class Query implements GraphQLQueryResolver {
+
+        public List<CustomerResponse> allCustomers() {
+            return Arrays.asList(CustomerResponse.builder()
+                    .id("1")
+                    .fullName("Ivan Polovyi")
+                    .phoneNumber("626.164.7481")
+                    .address("Address")
+                    .createdAt(LocalDate.of(2015, 9, 1))
+                    .build(), null);
+        }
+
+        public List<CustomerResponse> allCustomersWithFilters(String fullName, String phoneNumber,
+                LocalDate createdAt) {
+            return List.of();
+        }
+
+        public CustomerChangesResponse customerChanges(Long since, Integer limit) {
+            return CustomerChangesResponse.builder()
+                    .changes(List.of())
+                    .nextSince(42)
+                    .hasMore(true)
+                    .build();
+        }
+    }
+}
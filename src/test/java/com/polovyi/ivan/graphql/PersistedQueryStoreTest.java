@@ -0,0 +1,86 @@
+package com.polovyi.ivan.graphql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistedQueryStoreTest {
+
+    private static final String FIRST_QUERY = "{ allCustomers { id } }";
+    private static final String SECOND_QUERY = "{ allCustomers { fullName } }";
+    private static final String THIRD_QUERY = "{ allCustomers { phoneNumber } }";
+
+    private PersistedQueryStore store;
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedQueryOnceFull() {
+        givenStoreWithMaxEntries(2);
+        givenRegisteredQueries(FIRST_QUERY, SECOND_QUERY);
+        whenQueryFound(FIRST_QUERY);
+        whenQueriesRegistered(THIRD_QUERY);
+        thenExpectPersisted(FIRST_QUERY, THIRD_QUERY);
+        thenExpectNotPersisted(SECOND_QUERY);
+    }
+
+    @Test
+    public void shouldKeepPersistingNewQueriesOnceFull() {
+        givenStoreWithMaxEntries(1);
+        givenRegisteredQueries(FIRST_QUERY, SECOND_QUERY);
+        whenQueriesRegistered(THIRD_QUERY);
+        thenExpectPersisted(THIRD_QUERY);
+        thenExpectNotPersisted(FIRST_QUERY, SECOND_QUERY);
+    }
+
+    @Test
+    public void shouldNotPersistQueryNotMatchingItsHash() {
+        givenStoreWithMaxEntries(2);
+        assertFalse(store.register(PersistedQueryStore.sha256Hex(FIRST_QUERY), SECOND_QUERY));
+        thenExpectNotPersisted(FIRST_QUERY);
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenStoreWithMaxEntries(int maxEntries) {
+        store = new PersistedQueryStore(maxEntries);
+    }
+
+    private void givenRegisteredQueries(String... queries) {
+        whenQueriesRegistered(queries);
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private void whenQueriesRegistered(String... queries) {
+        for (String query : queries) {
+            assertTrue(store.register(PersistedQueryStore.sha256Hex(query).toUpperCase(), query));
+        }
+    }
+
+    private void whenQueryFound(String query) {
+        assertEquals(Optional.of(query), store.find(PersistedQueryStore.sha256Hex(query)));
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    private void thenExpectPersisted(String... queries) {
+        for (String query : queries) {
+            assertEquals(Optional.of(query), store.find(PersistedQueryStore.sha256Hex(query)));
+        }
+    }
+
+    private void thenExpectNotPersisted(String... queries) {
+        for (String query : queries) {
+            assertEquals(Optional.empty(), store.find(PersistedQueryStore.sha256Hex(query)));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.polovyi.ivan.idfilter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    private BloomFilter filter;
+
+    private List<String> addedIds;
+
+    @Test
+    public void shouldContainEveryAddedId() {
+        givenFilter(10_000, 0.01);
+        givenAddedIds(10_000);
+        addedIds.forEach(id -> assertTrue(filter.mightContain(id)));
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    public void shouldRuleOutUnknownIdsAtTheConfiguredRate() {
+        givenFilter(10_000, 0.01);
+        givenAddedIds(10_000);
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives");
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    public void shouldSizeBitsForCapacityAndRate() {
+        givenFilter(1_000_000, 0.01);
+        // 9.59 bits per id
+        assertEquals(1_198_136, filter.sizeInBytes());
+        assertEquals(0.0, filter.expectedFalsePositiveRate());
+    }
+
+    private void givenFilter(long capacity, double falsePositiveRate) {
+        filter = BloomFilter.create(capacity, falsePositiveRate);
+    }
+
+    private void givenAddedIds(int count) {
+        addedIds = IntStream.range(0, count)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .collect(Collectors.toList());
+        addedIds.forEach(filter::put);
+    }
+}
@@ -0,0 +1,96 @@
+package com.polovyi.ivan.idfilter;
+
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.service.CustomerService;
+import com.polovyi.ivan.singleflight.SingleFlightInterceptor;
+import com.polovyi.ivan.sql.SqlRecorder;
+import com.polovyi.ivan.sql.SqlRecordingConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.aop.Advice;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Runs the id filter as wired into the application, in front of single flight and the transaction of the service
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"customer.id-filter.enabled=true", "customer.id-filter.min-capacity=1000"})
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(SqlRecordingConfig.class)
+public class CustomerIdFilterAdvisorTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private SqlRecorder sqlRecorder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void shouldAdviseServiceBeforeSingleFlightAndTransactions() {
+        List<Class<?>> advice = Arrays.stream(((Advised) customerService).getAdvisors())
+                .map(Advisor::getAdvice)
+                .<Class<?>>map(Advice::getClass)
+                .toList();
+        int idFilter = advice.indexOf(CustomerIdFilterInterceptor.class);
+        assertTrue(idFilter >= 0, "Id filter does not advise the service: " + advice);
+        assertTrue(idFilter < advice.indexOf(SingleFlightInterceptor.class), advice.toString());
+        assertTrue(idFilter < advice.indexOf(TransactionInterceptor.class), advice.toString());
+    }
+
+    @Test
+    public void shouldAnswerUnknownIdsWithoutStatements() throws Exception {
+        givenFilterBuilt();
+        sqlRecorder.reset();
+        assertNull(customerService.getCustomersById(UUID.randomUUID().toString()));
+        assertEquals(List.of(), sqlRecorder.statements());
+    }
+
+    @Test
+    public void shouldFindCustomersCreatedAfterFilterWasBuilt() throws Exception {
+        givenFilterBuilt();
+        CustomerResponse customer = customerService.createCustomer(CreateCustomerRequest.builder()
+                .fullName("Filtered Customer")
+                .phoneNumber("555.0049")
+                .address("Filter Street 1")
+                .build());
+        assertNotNull(customerService.getCustomersById(customer.getId()));
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenFilterBuilt() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Double.isNaN(meterRegistry.get("customer.id-filter.ids").gauge().value())) {
+            assertTrue(System.nanoTime() < deadline, "Filter was not built");
+            Thread.sleep(10);
+        }
+    }
+}
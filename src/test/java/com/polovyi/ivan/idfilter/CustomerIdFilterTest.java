@@ -0,0 +1,101 @@
+package com.polovyi.ivan.idfilter;
+
+import com.polovyi.ivan.configuration.CustomerIdFilterProperties;
+import com.polovyi.ivan.entity.ChangeType;
+import com.polovyi.ivan.repository.CustomerStore;
+import com.polovyi.ivan.service.CustomersChanged;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CustomerIdFilterTest {
+
+    private final CustomerStore customerStore = mock(CustomerStore.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<String> storedIds = IntStream.range(0, 100)
+            .mapToObj(i -> UUID.randomUUID().toString())
+            .toList();
+
+    private CustomerIdFilter filter;
+
+    @AfterEach
+    public void shutDown() {
+        filter.destroy();
+    }
+
+    @Test
+    public void shouldRuleOutOnlyIdsNoCustomerHas() throws Exception {
+        givenFilter();
+        when(customerStore.streamIds()).thenAnswer(invocation -> storedIds.stream());
+        whenBuilt();
+        storedIds.forEach(id -> assertTrue(filter.mightExist(id)));
+        assertFalse(filter.mightExist(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    public void shouldKeepIdsCommittedDuringRebuild() throws Exception {
+        givenFilter();
+        List<String> committedDuringScan = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        // The ids commit half way through the scan, which has passed where it would have read them
+        when(customerStore.streamIds()).thenAnswer(invocation -> Stream.of(0, 50).flatMap(from -> {
+            if (from > 0) {
+                filter.customersChanged(new CustomersChanged(1, ChangeType.UPSERT, committedDuringScan));
+            }
+            return storedIds.subList(from, from + 50).stream();
+        }));
+        whenBuilt();
+        committedDuringScan.forEach(id -> assertTrue(filter.mightExist(id)));
+        storedIds.forEach(id -> assertTrue(filter.mightExist(id)));
+    }
+
+    @Test
+    public void shouldCountOnlyNewIdsAsInsertions() throws Exception {
+        givenFilter();
+        when(customerStore.streamIds()).thenAnswer(invocation -> storedIds.stream());
+        whenBuilt();
+        filter.customersChanged(new CustomersChanged(1, ChangeType.UPSERT, storedIds));
+        assertEquals(100, meterRegistry.get("customer.id-filter.ids").gauge().value());
+        filter.customersChanged(new CustomersChanged(2, ChangeType.UPSERT, List.of(UUID.randomUUID().toString())));
+        assertEquals(101, meterRegistry.get("customer.id-filter.ids").gauge().value());
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenFilter() {
+        CustomerIdFilterProperties properties = new CustomerIdFilterProperties();
+        properties.setMinCapacity(1_000);
+        filter = new CustomerIdFilter(customerStore, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                properties, meterRegistry);
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private void whenBuilt() throws InterruptedException {
+        filter.buildInitialFilter();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (Double.isNaN(meterRegistry.get("customer.id-filter.ids").gauge().value())) {
+            assertTrue(System.nanoTime() < deadline, "Filter was not built");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.polovyi.ivan.jfr;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.polovyi.ivan.jdbc.StatementInterceptingDataSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JfrEventsTest {
+
+    private static final String OPERATION = "GET /v1/customers";
+
+    @TempDir
+    Path directory;
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(StatementInterceptingDataSource.wrap(
+            new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"),
+            List.of(new JfrStatementListener())));
+
+    private Path recordingFile;
+
+    @Test
+    public void shouldRecordServiceCallsAndStatementsForTheOperation() throws Exception {
+        whenRecorded(this::givenServiceReadingTwoRows);
+        List<RecordedEvent> serviceCalls = eventsNamed(ServiceCallEvent.NAME);
+        assertEquals(1, serviceCalls.size());
+        assertEquals(OPERATION, serviceCalls.get(0).getString("operation"));
+        assertEquals("Reads.findAll", serviceCalls.get(0).getString("method"));
+        assertEquals(2, serviceCalls.get(0).getLong("rows"));
+        RecordedEvent select = eventsNamed(JdbcStatementEvent.NAME).stream()
+                .filter(event -> event.getString("sql").startsWith("SELECT"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(OPERATION, select.getString("operation"));
+        assertEquals(2, select.getLong("rows"));
+    }
+
+    @Test
+    public void shouldSummarizeRecordingPerOperationFromTheCommandLine() throws Exception {
+        whenRecorded(this::givenServiceReadingTwoRows);
+        String summary = whenAnalyzed(recordingFile);
+        assertTrue(summary.startsWith("operation"), summary);
+        String operationLine = summary.lines()
+                .filter(line -> line.startsWith(OPERATION))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No summary of " + OPERATION + ":\n" + summary));
+        // Two statements, the insert and the select, with the two rows each of them wrote or read
+        List<String> columns = List.of(operationLine.substring(OPERATION.length()).trim().split("\\s+"));
+        assertEquals("2.0", columns.get(5));
+        assertEquals("4.0", columns.get(7));
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenServiceReadingTwoRows() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS customer (id VARCHAR(36))");
+        ProxyFactory proxyFactory = new ProxyFactory(new Reads(jdbcTemplate));
+        proxyFactory.addAdvice(new ServiceCallInterceptor());
+        Reads reads = (Reads) proxyFactory.getProxy();
+        try (ContextScope ignored = new RequestOperation(OPERATION).bind()) {
+            jdbcTemplate.update("INSERT INTO customer VALUES ('1'), ('2')");
+            reads.findAll();
+        }
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private void whenRecorded(Runnable work) throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(ServiceCallEvent.NAME);
+            recording.enable(JdbcStatementEvent.NAME);
+            recording.start();
+            work.run();
+            recording.stop();
+            recordingFile = directory.resolve("customer.jfr");
+            recording.dump(recordingFile);
+        }
+    }
+
+    private static String whenAnalyzed(Path file) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream standardOutput = System.out;
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            RecordingAnalyzer.main(new String[] {file.toString()});
+        } finally {
+            System.setOut(standardOutput);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    private List<RecordedEvent> eventsNamed(String name) throws Exception {
+        return RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+    }
+
+    public static class Reads {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        public Reads(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        public List<String> findAll() {
+            return jdbcTemplate.queryForList("SELECT id FROM customer", String.class);
+        }
+    }
+}
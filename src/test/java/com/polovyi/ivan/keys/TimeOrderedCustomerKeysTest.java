@@ -0,0 +1,138 @@
+package com.polovyi.ivan.keys;
+
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.request.PartiallyUpdateCustomerRequest;
+import com.polovyi.ivan.dto.request.UpdateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerChangeResponse;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import com.polovyi.ivan.entity.ChangeType;
+import com.polovyi.ivan.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Runs the JPA store with time-ordered keys, whose ids are written, compared and read back as 16 bytes
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customer.keys.type=time-ordered")
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class TimeOrderedCustomerKeysTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void shouldStoreTimeOrderedIdsAsSixteenBytes() {
+        CustomerResponse customer = whenCustomersCreated(1).get(0);
+        assertEquals(7, UUID.fromString(customer.getId()).version());
+        byte[] storedId = jdbcTemplate.queryForObject("SELECT id FROM customer WHERE full_name = ?", byte[].class,
+                customer.getFullName());
+        assertArrayEquals(CustomerIds.toBytes(customer.getId()), storedId);
+    }
+
+    @Test
+    public void shouldGetUpdateAndDeleteCustomerByTimeOrderedId() {
+        CustomerResponse customer = whenCustomersCreated(1).get(0);
+        assertEquals(customer, customerService.getCustomersById(customer.getId()));
+        CustomerResponse updated = customerService.updateCustomer(customer.getId(),
+                new UpdateCustomerRequest("Updated " + customer.getFullName(), "626.164.1", "New address"));
+        assertEquals(customer.getId(), updated.getId());
+        assertEquals("New address", customerService.getCustomersById(customer.getId()).getAddress());
+        customerService.partiallyUpdateCustomer(customer.getId(), new PartiallyUpdateCustomerRequest("626.164.2"));
+        assertEquals("626.164.2", customerService.getCustomersById(customer.getId()).getPhoneNumber());
+        customerService.deleteCustomer(customer.getId());
+        assertNull(customerService.getCustomersById(customer.getId()));
+    }
+
+    @Test
+    public void shouldFindNoCustomerGivenIdThatIsNotCanonicalUuid() {
+        whenCustomersCreated(1);
+        assertNull(customerService.getCustomersById("1-1-1-1-1"));
+        assertNull(customerService.getCustomersById("not a customer id"));
+    }
+
+    @Test
+    public void shouldReturnChangesWithTimeOrderedCustomerIds() {
+        long since = customerService.getCustomerChanges(0, 1_000).getNextSince();
+        CustomerResponse kept = whenCustomersCreated(1).get(0);
+        CustomerResponse deleted = whenCustomersCreated(1).get(0);
+        customerService.deleteCustomer(deleted.getId());
+        List<CustomerChangeResponse> changes = customerService.getCustomerChanges(since, 100).getChanges();
+        assertEquals(2, changes.size());
+        assertEquals(kept.getId(), changes.get(0).getCustomerId());
+        assertEquals(ChangeType.UPSERT, changes.get(0).getChangeType());
+        assertEquals(kept, changes.get(0).getCustomer());
+        assertEquals(deleted.getId(), changes.get(1).getCustomerId());
+        assertEquals(ChangeType.DELETE, changes.get(1).getChangeType());
+    }
+
+    @Test
+    public void shouldStreamPagesInCreationOrderResumingAfterBinaryIds() {
+        List<String> createdIds = whenCustomersCreated(5).stream().map(CustomerResponse::getId).toList();
+        List<List<CustomerResponse>> pages = new ArrayList<>();
+        customerService.streamAllCustomers(2, pages::add);
+        List<String> streamedIds = pages.stream().flatMap(List::stream).map(CustomerResponse::getId).toList();
+        assertTrue(pages.stream().allMatch(page -> page.size() <= 2));
+        // Earlier tests leave customers behind, all created before these
+        assertEquals(createdIds, streamedIds.subList(streamedIds.size() - createdIds.size(), streamedIds.size()));
+        assertEquals(streamedIds.stream().sorted().toList(), streamedIds);
+    }
+
+    @Test
+    public void shouldKeepRandomIdsReadableAfterMigratingToBinaryKeys() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:customer-binary-keys-migration", "sa", "password", true);
+        try {
+            JdbcTemplate migrated = new JdbcTemplate(dataSource);
+            migrated.execute("CREATE TABLE customer (id VARCHAR(255) PRIMARY KEY, full_name VARCHAR(255))");
+            migrated.execute("CREATE TABLE customer_change (sequence BIGINT PRIMARY KEY, customer_id VARCHAR(255))");
+            String randomId = UUID.randomUUID().toString();
+            migrated.update("INSERT INTO customer VALUES (?, 'Ivan Polovyi')", randomId);
+            migrated.update("INSERT INTO customer_change VALUES (1, ?)", randomId);
+            new ResourceDatabasePopulator(new ClassPathResource("db/customer-binary-keys.sql")).execute(dataSource);
+            Map<String, Object> customer = migrated.queryForMap("SELECT id, full_name FROM customer");
+            assertEquals(randomId, CustomerIds.fromBytes((byte[]) customer.get("id")));
+            assertEquals(randomId, CustomerIds.fromBytes(migrated.queryForObject(
+                    "SELECT customer_id FROM customer_change WHERE sequence = 1", byte[].class)));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private List<CustomerResponse> whenCustomersCreated(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> customerService.createCustomer(new CreateCustomerRequest(
+                        "Customer " + UUID.randomUUID(), "626.164.7481", "399 Lachelle Crossing")))
+                .toList();
+    }
+}
@@ -0,0 +1,56 @@
+package com.polovyi.ivan.keys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeOrderedUuidTest {
+
+    private List<UUID> ids;
+
+    @Test
+    public void shouldGenerateIncreasingVersion7Ids() {
+        whenIdsGenerated(10_000);
+        thenExpectVersion7WithRfcVariant();
+        thenExpectCanonicalStringsInGenerationOrder();
+    }
+
+    @Test
+    public void shouldRoundTripIdsThroughTheirBytes() {
+        whenIdsGenerated(100);
+        ids.forEach(id -> assertEquals(id.toString(), CustomerIds.fromBytes(CustomerIds.toBytes(id.toString()))));
+    }
+
+    @Test
+    public void shouldMapIdsThatAreNoCanonicalUuidToAnEmptyKey() {
+        assertArrayEquals(new byte[0], CustomerIds.toBytes("1"));
+        assertArrayEquals(new byte[0], CustomerIds.toBytes("1-1-1-1-1"));
+        assertArrayEquals(new byte[0], CustomerIds.toBytes("not-a-customer-id-but-36-characters!"));
+    }
+
+    private void whenIdsGenerated(int count) {
+        ids = IntStream.range(0, count)
+                .mapToObj(i -> TimeOrderedUuid.next())
+                .collect(Collectors.toList());
+    }
+
+    private void thenExpectVersion7WithRfcVariant() {
+        ids.forEach(id -> {
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+        });
+    }
+
+    private void thenExpectCanonicalStringsInGenerationOrder() {
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).toString().compareTo(ids.get(i).toString()) < 0);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.polovyi.ivan.replica;
+
+import com.polovyi.ivan.context.ContextScope;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private final Replica replica = new Replica("replica-0", new HikariDataSource());
+
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(new HikariDataSource(),
+            List.of(replica), Duration.ofSeconds(2), new SimpleMeterRegistry());
+
+    @AfterEach
+    public void resetTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void shouldRouteReadOnlyTransactionToCaughtUpReplica() {
+        givenReplicaCaughtUpTo(10);
+        givenReadOnlyTransaction();
+        thenExpectLookupKey(replica.getName());
+    }
+
+    @Test
+    public void shouldRouteReadWriteTransactionToPrimary() {
+        givenReplicaCaughtUpTo(10);
+        thenExpectLookupKey(ReadWriteRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    public void shouldRouteReadToPrimaryGivenReplicaBehindClientWrite() {
+        givenReplicaCaughtUpTo(10);
+        givenReadOnlyTransaction();
+        try (ContextScope ignored = new ReadConsistency(11, sequence -> {}).bind()) {
+            thenExpectLookupKey(ReadWriteRoutingDataSource.PRIMARY);
+        }
+    }
+
+    @Test
+    public void shouldRouteReadToPrimaryGivenUnhealthyReplica() {
+        givenReplicaCaughtUpTo(10);
+        replica.healthy(false);
+        givenReadOnlyTransaction();
+        thenExpectLookupKey(ReadWriteRoutingDataSource.PRIMARY);
+    }
+
+    private void givenReplicaCaughtUpTo(long sequence) {
+        replica.healthy(true);
+        replica.applied(sequence);
+        replica.caughtUp(System.nanoTime());
+    }
+
+    private void givenReadOnlyTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private void thenExpectLookupKey(String expected) {
+        assertEquals(expected, dataSource.determineCurrentLookupKey());
+    }
+}
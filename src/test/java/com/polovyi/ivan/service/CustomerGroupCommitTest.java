@@ -0,0 +1,119 @@
+package com.polovyi.ivan.service;
+
+import com.polovyi.ivan.configuration.GroupCommitProperties;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CustomerGroupCommitTest {
+
+    private static final String FAILING_CUSTOMER_ID = "failing";
+
+    private final CustomerWrites customerWrites = mock(CustomerWrites.class);
+
+    private final List<List<String>> committedBatches = new CopyOnWriteArrayList<>();
+
+    private CustomerGroupCommit groupCommit;
+
+    @AfterEach
+    public void shutDown() throws InterruptedException {
+        groupCommit.destroy();
+    }
+
+    @Test
+    public void shouldCommitConcurrentWritesInOneTransaction() {
+        givenGroupCommit(3, Duration.ofSeconds(5));
+        givenCustomerWritesFailingFor(FAILING_CUSTOMER_ID);
+        List<CompletableFuture<CustomerResponse>> writes = whenWritesSubmitted("1", "2", "3");
+        thenExpectCompletedWith(writes, "1", "2", "3");
+        assertEquals(List.of(List.of("1", "2", "3")), committedBatches);
+    }
+
+    @Test
+    public void shouldFailOnlyTheFailingWriteOfABatch() {
+        givenGroupCommit(3, Duration.ofSeconds(5));
+        givenCustomerWritesFailingFor(FAILING_CUSTOMER_ID);
+        List<CompletableFuture<CustomerResponse>> writes = whenWritesSubmitted("1", FAILING_CUSTOMER_ID, "3");
+        thenExpectCompletedWith(List.of(writes.get(0), writes.get(2)), "1", "3");
+        CompletionException failure = assertThrows(CompletionException.class, () -> writes.get(1).join());
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        assertEquals(List.of(List.of("1"), List.of("3")), committedBatches);
+    }
+
+    @Test
+    public void shouldCommitQueuedWritesOnShutdownAndRejectLaterOnes() throws InterruptedException {
+        givenGroupCommit(64, Duration.ofSeconds(5));
+        givenCustomerWritesFailingFor(FAILING_CUSTOMER_ID);
+        List<CompletableFuture<CustomerResponse>> queued = whenWritesSubmitted("1", "2");
+        groupCommit.destroy();
+        thenExpectCompletedWith(queued, "1", "2");
+        CompletableFuture<CustomerResponse> late = whenWritesSubmitted("3").get(0);
+        CompletionException failure = assertThrows(CompletionException.class, late::join);
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenGroupCommit(int maxBatchSize, Duration maxDelay) {
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setMaxDelay(maxDelay);
+        groupCommit = new CustomerGroupCommit(customerWrites,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties,
+                new SimpleMeterRegistry());
+    }
+
+    // A batch holding the failing write fails as a whole, like its transaction
+    private void givenCustomerWritesFailingFor(String failingCustomerId) {
+        when(customerWrites.applyAll(anyList())).thenAnswer(invocation -> {
+            List<CustomerWrite> writes = invocation.getArgument(0);
+            List<String> customerIds = writes.stream().map(CustomerWrite::customerId).toList();
+            if (customerIds.contains(failingCustomerId)) {
+                throw new IllegalArgumentException("Cannot write " + failingCustomerId);
+            }
+            committedBatches.add(customerIds);
+            return customerIds.stream().map(id -> CustomerResponse.builder().id(id).build()).toList();
+        });
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private List<CompletableFuture<CustomerResponse>> whenWritesSubmitted(String... customerIds) {
+        List<CompletableFuture<CustomerResponse>> writes = new ArrayList<>();
+        for (String customerId : customerIds) {
+            writes.add(groupCommit.submit(new CustomerWrite.PhoneNumberUpdate(customerId, "626.164.1")));
+        }
+        return writes;
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    private void thenExpectCompletedWith(List<CompletableFuture<CustomerResponse>> writes, String... customerIds) {
+        IntStream.range(0, writes.size())
+                .forEach(i -> assertEquals(customerIds[i], writes.get(i).join().getId()));
+    }
+}
@@ -0,0 +1,212 @@
+package com.polovyi.ivan.sharding;
+
+import com.polovyi.ivan.configuration.CustomerKeyProperties;
+import com.polovyi.ivan.configuration.ShardingProperties;
+import com.polovyi.ivan.entity.CustomerEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardedCustomerStoreTest {
+
+    private final String urlTemplate = "jdbc:h2:mem:" + UUID.randomUUID() + "-shard-%d;DB_CLOSE_DELAY=-1";
+
+    private final List<CustomerShards> openedShards = new ArrayList<>();
+
+    private ShardedCustomerStore store;
+
+    private List<CustomerEntity> customers;
+
+    @AfterEach
+    public void closeShards() {
+        openedShards.forEach(CustomerShards::destroy);
+    }
+
+    @Test
+    public void shouldMergeCustomersFromAllShardsOrderedById() {
+        givenStoreWithShards(4);
+        givenSavedCustomers(50);
+        thenExpectCustomersOnMoreThanOneShard();
+        thenExpectFindAllReturnsAllCustomersOrderedById();
+    }
+
+    @Test
+    public void shouldApplyLimitAcrossShards() {
+        givenStoreWithShards(4);
+        givenSavedCustomers(50);
+        thenExpectLowestIdsCreatedBefore(LocalDate.of(2016, 1, 1), 10);
+    }
+
+    @Test
+    public void shouldPageThroughCustomersAcrossShardsOrderedById() {
+        givenStoreWithShards(4);
+        givenSavedCustomers(50);
+        thenExpectPagesOrderedById(7);
+    }
+
+    @Test
+    public void shouldFindEveryCustomerAfterRebalancingToMoreShards() {
+        givenStoreWithShards(2);
+        givenSavedCustomers(50);
+        givenStoreWithShards(3);
+        whenRebalancedFrom(2);
+        thenExpectEveryCustomerFoundById();
+    }
+
+    @Test
+    public void shouldUndoShardWritesOfRolledBackTransaction() {
+        givenStoreWithShards(4);
+        givenSavedCustomers(2);
+        CustomerEntity created = newCustomer(2);
+        whenTransactionRolledBackAfter(() -> {
+            store.save(created);
+            store.save(renamed(customers.get(0)));
+            store.delete(customers.get(1));
+        });
+        assertTrue(store.findById(created.getId()).isEmpty());
+        thenExpectEveryCustomerFoundById();
+    }
+
+    @Test
+    public void shouldLeaveNoCustomerGivenOuterTransactionFailsAfterShardWrite() {
+        givenStoreWithShards(4);
+        CustomerEntity created = newCustomer(0);
+        assertThrows(IllegalStateException.class, () -> outerTransaction().executeWithoutResult(status -> {
+            store.save(created);
+            throw new IllegalStateException("Recording the change failed");
+        }));
+        assertTrue(store.findById(created.getId()).isEmpty());
+        assertTrue(store.findAll().isEmpty());
+    }
+
+    @Test
+    public void shouldKeepShardWritesOfCommittedTransaction() {
+        givenStoreWithShards(4);
+        givenSavedCustomers(2);
+        CustomerEntity updated = renamed(customers.get(0));
+        outerTransaction().executeWithoutResult(status -> {
+            store.save(updated);
+            store.delete(customers.get(1));
+        });
+        assertEquals(List.of(updated), store.findAll());
+    }
+
+    private void givenStoreWithShards(int shardCount) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setShardCount(shardCount);
+        properties.setUrlTemplate(urlTemplate);
+        CustomerShards shards = new CustomerShards(properties);
+        openedShards.add(shards);
+        store = new ShardedCustomerStore(shards, new CustomerKeyProperties(), new ShardWriteReconciler(shards));
+    }
+
+    private void givenSavedCustomers(int count) {
+        customers = IntStream.range(0, count)
+                .mapToObj(i -> store.save(newCustomer(i)))
+                .collect(Collectors.toList());
+    }
+
+    private CustomerEntity newCustomer(int i) {
+        return CustomerEntity.builder()
+                .fullName("Customer " + i)
+                .phoneNumber("626.164." + i)
+                .address("Address " + i)
+                .createdAt(LocalDate.of(2015, 9, 1).plusDays(i * 10L))
+                .build();
+    }
+
+    private CustomerEntity renamed(CustomerEntity customer) {
+        return CustomerEntity.builder()
+                .id(customer.getId())
+                .fullName("Renamed " + customer.getFullName())
+                .phoneNumber(customer.getPhoneNumber())
+                .address(customer.getAddress())
+                .createdAt(customer.getCreatedAt())
+                .build();
+    }
+
+    // The shards are no resources of this transaction manager, like in the application
+    private TransactionTemplate outerTransaction() {
+        return new TransactionTemplate(new DataSourceTransactionManager(
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID())));
+    }
+
+    private void whenRebalancedFrom(int previousShardCount) {
+        CustomerShards shards = openedShards.get(openedShards.size() - 1);
+        ShardingProperties properties = new ShardingProperties();
+        properties.setShardCount(shards.all().size());
+        properties.setUrlTemplate(urlTemplate);
+        new ShardRebalancer(shards, properties).rebalance(previousShardCount);
+    }
+
+    private void whenTransactionRolledBackAfter(Runnable writes) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writes.run();
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void thenExpectCustomersOnMoreThanOneShard() {
+        long usedShards = customers.stream()
+                .map(customer -> CustomerShards.indexOf(customer.getId(), 4))
+                .distinct()
+                .count();
+        assertTrue(usedShards > 1);
+    }
+
+    private void thenExpectFindAllReturnsAllCustomersOrderedById() {
+        List<CustomerEntity> expected = customers.stream()
+                .sorted(Comparator.comparing(CustomerEntity::getId))
+                .collect(Collectors.toList());
+        assertEquals(expected, store.findAll());
+    }
+
+    private void thenExpectLowestIdsCreatedBefore(LocalDate createdBefore, int limit) {
+        List<String> expected = customers.stream()
+                .filter(customer -> customer.getCreatedAt().isBefore(createdBefore))
+                .map(CustomerEntity::getId)
+                .sorted()
+                .limit(limit)
+                .collect(Collectors.toList());
+        assertEquals(expected, store.findIdsCreatedBefore(createdBefore, limit));
+    }
+
+    private void thenExpectEveryCustomerFoundById() {
+        customers.forEach(customer -> assertEquals(customer, store.findById(customer.getId()).orElse(null)));
+        assertEquals(customers.size(), store.findAll().size());
+    }
+
+    private void thenExpectPagesOrderedById(int pageSize) {
+        List<CustomerEntity> pages = new ArrayList<>();
+        List<CustomerEntity> page = store.findPageAfter(null, null, null, null, pageSize);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= pageSize);
+            pages.addAll(page);
+            page = store.findPageAfter(page.get(page.size() - 1).getId(), null, null, null, pageSize);
+        }
+        assertEquals(customers.stream().sorted(Comparator.comparing(CustomerEntity::getId)).toList(), pages);
+        assertEquals(List.of(customers.get(7)), store.findPageAfter(null, null, "626.164.7", null, pageSize));
+    }
+}
@@ -0,0 +1,159 @@
+package com.polovyi.ivan.singleflight;
+
+import com.polovyi.ivan.exeption.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightInterceptorTest {
+
+    // Copies the mutable results, lists of string builders, and shares the immutable ones
+    private final SingleFlightInterceptor interceptor = new SingleFlightInterceptor(result -> result instanceof List<?>
+            ? ((List<?>) result).stream().map(item -> new StringBuilder((StringBuilder) item)).toList()
+            : result);
+
+    private final SlowReads target = new SlowReads();
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    private SlowReads reads;
+
+    @AfterEach
+    public void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void shouldShareOneExecutionBetweenConcurrentIdenticalCalls() throws Exception {
+        givenProxiedReads();
+        List<CompletableFuture<String>> calls = whenCalledConcurrently(8, "Ann");
+        thenExpectAllWaitingFor(calls);
+        target.release.countDown();
+        calls.forEach(call -> assertEquals("Ann:1", call.join()));
+        assertEquals(1, target.executions.get());
+        assertEquals(7, interceptor.getJoinedCalls());
+    }
+
+    @Test
+    public void shouldNotKeepResultsPastCompletion() {
+        givenProxiedReads();
+        target.release.countDown();
+        assertEquals("Ann:1", reads.find("Ann"));
+        assertEquals("Ann:2", reads.find("Ann"));
+        assertEquals("Bob:3", reads.find("Bob"));
+    }
+
+    @Test
+    public void shouldGiveEveryCallerItsOwnCopyOfTheResult() throws Exception {
+        givenProxiedReads();
+        List<CompletableFuture<List<StringBuilder>>> calls = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> reads.findAll("Ann"), callers))
+                .collect(Collectors.toList());
+        thenExpectAllWaitingFor(calls);
+        target.release.countDown();
+        List<List<StringBuilder>> results = calls.stream().map(CompletableFuture::join).toList();
+        assertEquals(1, target.executions.get());
+        Set<Object> distinctResults = Collections.newSetFromMap(new IdentityHashMap<>());
+        results.forEach(result -> {
+            assertEquals("Ann:1", result.get(0).toString());
+            assertNotSame(target.lastResult, result);
+            distinctResults.add(result.get(0));
+        });
+        assertEquals(8, distinctResults.size());
+        results.get(0).get(0).append(":modified");
+        assertEquals("Ann:1", results.get(1).get(0).toString());
+    }
+
+    @Test
+    public void shouldThrowACopyOfDomainExceptionToEveryJoinedCaller() throws Exception {
+        givenProxiedReads();
+        List<CompletableFuture<String>> calls = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> reads.findMissing("Ann"), callers))
+                .collect(Collectors.toList());
+        thenExpectAllWaitingFor(calls);
+        target.release.countDown();
+        Set<Throwable> failures = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (CompletableFuture<String> call : calls) {
+            CompletionException failure = assertThrows(CompletionException.class, call::join);
+            NotFoundException notFound = assertInstanceOf(NotFoundException.class, failure.getCause());
+            assertEquals("Resource not found", notFound.getMessage());
+            failures.add(notFound);
+        }
+        assertEquals(8, failures.size());
+        assertEquals(1, target.executions.get());
+    }
+
+    private void givenProxiedReads() {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(SingleFlight.class), interceptor));
+        reads = (SlowReads) proxyFactory.getProxy();
+    }
+
+    private List<CompletableFuture<String>> whenCalledConcurrently(int count, String name) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> reads.find(name), callers))
+                .collect(Collectors.toList());
+    }
+
+    private void thenExpectAllWaitingFor(List<? extends CompletableFuture<?>> calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (interceptor.getLedCalls() + interceptor.getJoinedCalls() < calls.size()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    public static class SlowReads {
+
+        private final AtomicInteger executions = new AtomicInteger();
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile List<StringBuilder> lastResult;
+
+        @SingleFlight
+        public String find(String name) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return name + ":" + executions.incrementAndGet();
+        }
+
+        @SingleFlight
+        public List<StringBuilder> findAll(String name) {
+            lastResult = List.of(new StringBuilder(find(name)));
+            return lastResult;
+        }
+
+        @SingleFlight
+        public String findMissing(String name) {
+            find(name);
+            throw new NotFoundException();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.polovyi.ivan.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class CustomerListSnapshotFilterTest {
+
+    private final byte[] json = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] gzippedJson = {31, -117, 8, 0};
+
+    private final CustomerListSnapshots snapshots = mock(CustomerListSnapshots.class);
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/customers");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final MockFilterChain filterChain = new MockFilterChain();
+
+    @Test
+    public void shouldServeGzippedSnapshotToJsonClients() throws Exception {
+        givenSnapshot();
+        request.addHeader(HttpHeaders.ACCEPT, "application/json");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        whenFiltered();
+        thenExpectServedFromSnapshot(gzippedJson);
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void shouldServePlainSnapshotWithoutAcceptHeaders() throws Exception {
+        givenSnapshot();
+        whenFiltered();
+        thenExpectServedFromSnapshot(json);
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void shouldLeaveOtherEncodingsToTheController() throws Exception {
+        givenSnapshot();
+        request.addHeader(HttpHeaders.ACCEPT, "application/x-protobuf, application/json;q=0.5");
+        whenFiltered();
+        thenExpectPassedOn();
+    }
+
+    @Test
+    public void shouldLeaveRequestsToTheControllerWhileSnapshotIsBehind() throws Exception {
+        doReturn(Optional.empty()).when(snapshots).current(anyLong());
+        whenFiltered();
+        thenExpectPassedOn();
+    }
+
+    private void givenSnapshot() {
+        doReturn(Optional.of(new CustomerListSnapshot(List.of(), json, gzippedJson, 1, System.nanoTime())))
+                .when(snapshots).current(anyLong());
+    }
+
+    private void whenFiltered() throws Exception {
+        new CustomerListSnapshotFilter(snapshots).doFilter(request, response, filterChain);
+    }
+
+    private void thenExpectServedFromSnapshot(byte[] body) {
+        assertNull(filterChain.getRequest());
+        assertEquals("application/json", response.getContentType());
+        assertArrayEquals(body, response.getContentAsByteArray());
+        assertEquals(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING), response.getHeaders(HttpHeaders.VARY));
+        assertEquals("0", response.getHeader(HttpHeaders.AGE));
+    }
+
+    private void thenExpectPassedOn() {
+        assertNotNull(filterChain.getRequest());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+}
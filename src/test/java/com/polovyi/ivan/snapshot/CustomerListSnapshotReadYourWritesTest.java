@@ -0,0 +1,124 @@
+package com.polovyi.ivan.snapshot;
+
+import com.polovyi.ivan.dto.request.CreateCustomerRequest;
+import com.polovyi.ivan.dto.response.CustomerResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Serves the customer list from a snapshot without read replicas, with a debounce that keeps it from being rebuilt
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"customer.list-snapshot.enabled=true", "customer.list-snapshot.debounce=1h"})
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class CustomerListSnapshotReadYourWritesTest {
+
+    private static final String CUSTOMERS_API_PATH = "/v1/customers";
+
+    private static final String FULL_NAME = "Read Own Write";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CustomerListSnapshots customerListSnapshots;
+
+    @Test
+    public void shouldReadOwnWriteWhileSnapshotIsBehindGivenReadYourWritesCookie() throws InterruptedException {
+        givenSnapshotBuilt();
+        ResponseEntity<Void> created = whenCustomerCreated();
+        String cookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertNotNull(cookie, "Write did not hand out the read-your-writes cookie");
+
+        ResponseEntity<CustomerResponse[]> ownRead = whenCustomersListed(cookie.split(";")[0]);
+        thenExpectNotServedFromSnapshot(ownRead);
+        thenExpectListed(ownRead);
+
+        ResponseEntity<CustomerResponse[]> otherRead = whenCustomersListed(null);
+        thenExpectServedFromSnapshot(otherRead);
+        thenExpectNotListed(otherRead);
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenSnapshotBuilt() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (customerListSnapshots.current(0).isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "Snapshot was not built");
+            Thread.sleep(10);
+        }
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    private ResponseEntity<Void> whenCustomerCreated() {
+        ResponseEntity<Void> created = restTemplate.postForEntity(CUSTOMERS_API_PATH,
+                new CreateCustomerRequest(FULL_NAME, "626.164.1", "Snapshot street"), Void.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        return created;
+    }
+
+    private ResponseEntity<CustomerResponse[]> whenCustomersListed(String cookie) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cookie != null) {
+            headers.add(HttpHeaders.COOKIE, cookie);
+        }
+        ResponseEntity<CustomerResponse[]> listed = restTemplate.exchange(CUSTOMERS_API_PATH, HttpMethod.GET,
+                new HttpEntity<>(headers), CustomerResponse[].class);
+        assertEquals(HttpStatus.OK, listed.getStatusCode());
+        return listed;
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    // Only snapshot responses carry an Age header
+    private void thenExpectServedFromSnapshot(ResponseEntity<CustomerResponse[]> listed) {
+        assertNotNull(listed.getHeaders().getFirst(HttpHeaders.AGE));
+    }
+
+    private void thenExpectNotServedFromSnapshot(ResponseEntity<CustomerResponse[]> listed) {
+        assertNull(listed.getHeaders().getFirst(HttpHeaders.AGE));
+    }
+
+    private void thenExpectListed(ResponseEntity<CustomerResponse[]> listed) {
+        assertTrue(fullNames(listed).contains(FULL_NAME));
+    }
+
+    private void thenExpectNotListed(ResponseEntity<CustomerResponse[]> listed) {
+        assertFalse(fullNames(listed).contains(FULL_NAME));
+    }
+
+    private static List<String> fullNames(ResponseEntity<CustomerResponse[]> listed) {
+        return Arrays.stream(listed.getBody()).map(CustomerResponse::getFullName).toList();
+    }
+}
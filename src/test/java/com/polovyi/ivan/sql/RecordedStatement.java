@@ -0,0 +1,68 @@
+package com.polovyi.ivan.sql;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A statement sent to the database, with the number of rows read from its result. A JDBC batch is recorded once,
+ * with the number of parameter sets it carried.
+ */
+public final class RecordedStatement {
+
+    public enum Type {
+        SELECT, INSERT, UPDATE, DELETE, OTHER
+    }
+
+    private final String sql;
+
+    private final Type type;
+
+    private final int batchSize;
+
+    private final AtomicLong rows = new AtomicLong();
+
+    RecordedStatement(String sql, int batchSize) {
+        this.sql = sql;
+        this.type = typeOf(sql);
+        this.batchSize = batchSize;
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public long rows() {
+        return rows.get();
+    }
+
+    void rowRead() {
+        rows.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + type + "] " + sql + (batchSize > 1 ? " (batch of " + batchSize + ")" : "")
+                + (type == Type.SELECT ? " (" + rows + " rows)" : "");
+    }
+
+    private static Type typeOf(String sql) {
+        String statement = sql == null ? "" : sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (statement.startsWith("select") || statement.startsWith("with")) {
+            return Type.SELECT;
+        }
+        if (statement.startsWith("insert")) {
+            return Type.INSERT;
+        }
+        if (statement.startsWith("update") || statement.startsWith("merge")) {
+            return Type.UPDATE;
+        }
+        if (statement.startsWith("delete")) {
+            return Type.DELETE;
+        }
+        return Type.OTHER;
+    }
+}
@@ -0,0 +1,39 @@
+package com.polovyi.ivan.sql;
+
+import com.polovyi.ivan.jdbc.StatementExecution;
+import com.polovyi.ivan.jdbc.StatementListener;
+
+import java.sql.Statement;
+
+/**
+ * Reports every executed statement and every row read to a {@link SqlRecorder}.
+ */
+final class RecordingStatementListener implements StatementListener {
+
+    private final SqlRecorder recorder;
+
+    RecordingStatementListener(SqlRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public StatementExecution executing(Statement statement, String sql, int statementCount) {
+        RecordedStatement recorded = recorder.record(sql, statementCount);
+        return new StatementExecution() {
+
+            @Override
+            public void executed(Object result) {
+            }
+
+            @Override
+            public boolean readsRows() {
+                return true;
+            }
+
+            @Override
+            public void rowRead() {
+                recorded.rowRead();
+            }
+        };
+    }
+}
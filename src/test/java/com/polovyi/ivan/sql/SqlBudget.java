@@ -0,0 +1,77 @@
+package com.polovyi.ivan.sql;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The most statements of each type, and rows read, a request may cost. Types without a budget allow none, so a
+ * request that starts writing or issues one query per item fails the test with the statements it executed.
+ */
+public final class SqlBudget {
+
+    private final Map<RecordedStatement.Type, Integer> maxStatements = new EnumMap<>(RecordedStatement.Type.class);
+
+    private long maxRows = Long.MAX_VALUE;
+
+    private SqlBudget() {
+    }
+
+    public static SqlBudget statements() {
+        return new SqlBudget();
+    }
+
+    public SqlBudget selects(int max) {
+        return max(RecordedStatement.Type.SELECT, max);
+    }
+
+    public SqlBudget inserts(int max) {
+        return max(RecordedStatement.Type.INSERT, max);
+    }
+
+    public SqlBudget updates(int max) {
+        return max(RecordedStatement.Type.UPDATE, max);
+    }
+
+    public SqlBudget deletes(int max) {
+        return max(RecordedStatement.Type.DELETE, max);
+    }
+
+    public SqlBudget rows(long max) {
+        maxRows = max;
+        return this;
+    }
+
+    public void assertWithin(List<RecordedStatement> statements) {
+        Map<RecordedStatement.Type, Long> counts = statements.stream()
+                .collect(Collectors.groupingBy(RecordedStatement::type, () -> new EnumMap<>(
+                        RecordedStatement.Type.class), Collectors.counting()));
+        StringBuilder breaches = new StringBuilder();
+        counts.forEach((type, count) -> {
+            int max = maxStatements.getOrDefault(type, 0);
+            if (count > max) {
+                breaches.append(String.format("%d %s statements, budget %d%n", count, type, max));
+            }
+        });
+        long rows = statements.stream()
+                .filter(statement -> statement.type() == RecordedStatement.Type.SELECT)
+                .mapToLong(RecordedStatement::rows)
+                .sum();
+        if (rows > maxRows) {
+            breaches.append(String.format("%d rows read, budget %d%n", rows, maxRows));
+        }
+        if (!breaches.isEmpty()) {
+            fail("SQL budget exceeded:\n" + breaches + "Executed statements:\n" + statements.stream()
+                    .map(statement -> "  " + statement)
+                    .collect(Collectors.joining("\n")));
+        }
+    }
+
+    private SqlBudget max(RecordedStatement.Type type, int max) {
+        maxStatements.put(type, max);
+        return this;
+    }
+}
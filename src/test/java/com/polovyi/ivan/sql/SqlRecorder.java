@@ -0,0 +1,27 @@
+package com.polovyi.ivan.sql;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects the statements executed through the recording data source since the last {@link #reset()}, from any
+ * thread, so statements of GraphQL data loaders and of the embedded server are included.
+ */
+public class SqlRecorder {
+
+    private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<RecordedStatement> statements() {
+        return List.copyOf(statements);
+    }
+
+    RecordedStatement record(String sql, int batchSize) {
+        RecordedStatement statement = new RecordedStatement(sql, batchSize);
+        statements.add(statement);
+        return statement;
+    }
+}
@@ -0,0 +1,22 @@
+package com.polovyi.ivan.sql;
+
+import com.polovyi.ivan.jdbc.StatementListener;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Records the statements of the application data source, to be imported by tests asserting a {@link SqlBudget}.
+ */
+@TestConfiguration
+public class SqlRecordingConfig {
+
+    @Bean
+    public static SqlRecorder sqlRecorder() {
+        return new SqlRecorder();
+    }
+
+    @Bean
+    public static StatementListener recordingStatementListener(SqlRecorder sqlRecorder) {
+        return new RecordingStatementListener(sqlRecorder);
+    }
+}
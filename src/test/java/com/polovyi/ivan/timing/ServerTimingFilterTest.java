@@ -0,0 +1,121 @@
+package com.polovyi.ivan.timing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServerTimingFilterTest {
+
+    private static final String BODY = "[]";
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/customers");
+
+    private final TrailerRecordingResponse response = new TrailerRecordingResponse();
+
+    private boolean committedBeforeFilterReturned;
+
+    @Test
+    public void shouldSendServerTimingHeaderBeforeBodyAndSerializeTimingAsTrailer() throws Exception {
+        givenRequestAcceptingTrailers();
+        whenFilteredWithChainWritingBody();
+        thenExpectBodyWrittenThroughWithoutBuffering();
+        thenExpectServerTimingHeaders("db;dur=2.000;desc=\"JDBC statements and commits\", service;dur=0.000;"
+                + "desc=\"Customer service\"");
+        assertEquals("Server-Timing", response.getHeader(HttpHeaders.TRAILER));
+        thenExpectServerTimingTrailerWith("serialize");
+    }
+
+    @Test
+    public void shouldNotSetTrailersGivenRequestNotAcceptingThem() throws Exception {
+        whenFilteredWithChainWritingBody();
+        thenExpectBodyWrittenThroughWithoutBuffering();
+        assertNull(response.getHeader(HttpHeaders.TRAILER));
+        assertNull(response.trailerFields);
+    }
+
+    @Test
+    public void shouldSendEveryTimingInHeaderGivenResponseWithoutBody() throws Exception {
+        givenRequestAcceptingTrailers();
+        whenFiltered((filteredRequest, filteredResponse) -> RequestTimings.record(Timing.DB,
+                TimeUnit.MILLISECONDS.toNanos(2)));
+        List<String> serverTiming = response.getHeaders("Server-Timing");
+        assertEquals(1, serverTiming.size());
+        assertTrue(serverTiming.get(0).matches("db;dur=2\\.000;.*, service;.*, serialize;dur=0\\.000;.*"),
+                serverTiming.get(0));
+        assertEquals(Map.of(), response.trailerFields.get());
+    }
+
+    /*
+     * GIVEN Methods
+     */
+
+    private void givenRequestAcceptingTrailers() {
+        request.setProtocol("HTTP/1.1");
+        request.addHeader(HttpHeaders.TE, "deflate, trailers");
+    }
+
+    /*
+     * WHEN Methods
+     */
+
+    // Writes the body the way a message converter does, after the advice and flushing it
+    private void whenFilteredWithChainWritingBody() throws Exception {
+        whenFiltered((filteredRequest, filteredResponse) -> {
+            RequestTimings.record(Timing.DB, TimeUnit.MILLISECONDS.toNanos(2));
+            ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+            new ServerTimingResponseBodyAdvice().beforeBodyWrite(BODY, null, MediaType.APPLICATION_JSON, null,
+                    new ServletServerHttpRequest(request), serverResponse);
+            serverResponse.getBody().write(BODY.getBytes(StandardCharsets.UTF_8));
+            serverResponse.flush();
+            committedBeforeFilterReturned = response.isCommitted();
+        });
+    }
+
+    private void whenFiltered(FilterChain filterChain) throws Exception {
+        new ServerTimingFilter().doFilter(request, response, filterChain);
+    }
+
+    /*
+     * THEN Methods
+     */
+
+    private void thenExpectBodyWrittenThroughWithoutBuffering() throws Exception {
+        assertTrue(committedBeforeFilterReturned);
+        assertEquals(BODY, response.getContentAsString());
+    }
+
+    private void thenExpectServerTimingHeaders(String... values) {
+        assertEquals(List.of(values), response.getHeaders("Server-Timing"));
+    }
+
+    private void thenExpectServerTimingTrailerWith(String metric) {
+        String serverTiming = response.trailerFields.get().get("Server-Timing");
+        assertTrue(serverTiming != null && serverTiming.matches(metric + ";dur=\\d+\\.\\d{3};desc=\".*\""),
+                serverTiming);
+    }
+
+    private static final class TrailerRecordingResponse extends MockHttpServletResponse {
+
+        private Supplier<Map<String, String>> trailerFields;
+
+        @Override
+        public void setTrailerFields(Supplier<Map<String, String>> supplier) {
+            this.trailerFields = supplier;
+        }
+    }
+}